@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.ArrayFS;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.metadata.TypeDescription;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+
+/**
+ * Generates synthetic documents of a given size, the same ones for the same seed.
+ *
+ * <p>The text is made of random words from a small vocabulary.  Each word gets a Token annotation,
+ * with a part of speech string and a length; sequences of 5 - 30 tokens are covered by a Sentence,
+ * whose tokens are also referenced from an FSArray; and about one token in 10 starts a NamedEntity
+ * of 1 - 3 tokens, so some annotations overlap.</p>
+ */
+public class DocumentGenerator {
+
+  public static final String TOKEN = "org.apache.uima.benchmarks.Token";
+  public static final String SENTENCE = "org.apache.uima.benchmarks.Sentence";
+  public static final String NAMED_ENTITY = "org.apache.uima.benchmarks.NamedEntity";
+
+  private static final String[] WORDS = {"the", "a", "CAS", "holds", "annotations", "over", "text", "and",
+      "feature", "structures", "which", "are", "indexed", "by", "type", "begin", "end", "UIMA", "of", "in"};
+
+  private static final String[] POS = {"DT", "NN", "NNS", "VBZ", "IN", "CC", "JJ", "NNP"};
+
+  private static final String[] ENTITY_KINDS = {"PERSON", "ORGANIZATION", "LOCATION"};
+
+  /**
+   * @return the type system of the generated documents
+   */
+  public static TypeSystemDescription createTypeSystemDescription() {
+    TypeSystemDescription tsd = UIMAFramework.getResourceSpecifierFactory().createTypeSystemDescription();
+    TypeDescription token = tsd.addType(TOKEN, "a word", CAS.TYPE_NAME_ANNOTATION);
+    token.addFeature("pos", "part of speech", CAS.TYPE_NAME_STRING);
+    token.addFeature("length", "number of characters", CAS.TYPE_NAME_INTEGER);
+    TypeDescription sentence = tsd.addType(SENTENCE, "a sequence of tokens", CAS.TYPE_NAME_ANNOTATION);
+    sentence.addFeature("tokens", "the tokens of the sentence", CAS.TYPE_NAME_FS_ARRAY, TOKEN, false);
+    TypeDescription entity = tsd.addType(NAMED_ENTITY, "one to three tokens", CAS.TYPE_NAME_ANNOTATION);
+    entity.addFeature("kind", "the kind of entity", CAS.TYPE_NAME_STRING);
+    entity.addFeature("confidence", "how sure", CAS.TYPE_NAME_DOUBLE);
+    return tsd;
+  }
+
+  /**
+   * @return a new empty CAS with the type system of the generated documents
+   * @throws ResourceInitializationException passthru
+   */
+  public static CAS createCas() throws ResourceInitializationException {
+    return CasCreationUtils.createCas(createTypeSystemDescription(), null, null);
+  }
+
+  private final int nbrTokens;
+  private final long seed;
+
+  /**
+   * @param nbrTokens the number of tokens in each generated document
+   * @param seed for the random choices
+   */
+  public DocumentGenerator(int nbrTokens, long seed) {
+    this.nbrTokens = nbrTokens;
+    this.seed = seed;
+  }
+
+  /**
+   * @return the number of tokens in each generated document
+   */
+  public int getNbrTokens() {
+    return nbrTokens;
+  }
+
+  /**
+   * Sets the document text and adds the annotations to the indexes of the CAS, which should be empty
+   * @param cas the CAS, with the type system from {@link #createTypeSystemDescription()}
+   */
+  public void generate(CAS cas) {
+    Random random = new Random(seed);
+    StringBuilder sb = new StringBuilder(nbrTokens * 8);
+    int[] begins = new int[nbrTokens];
+    for (int i = 0; i < nbrTokens; i++) {
+      if (i > 0) {
+        sb.append(' ');
+      }
+      begins[i] = sb.length();
+      sb.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+    cas.setDocumentText(sb.toString());
+
+    TypeSystem ts = cas.getTypeSystem();
+    Type tokenType = ts.getType(TOKEN);
+    Feature posFeat = tokenType.getFeatureByBaseName("pos");
+    Feature lengthFeat = tokenType.getFeatureByBaseName("length");
+    Type sentenceType = ts.getType(SENTENCE);
+    Feature tokensFeat = sentenceType.getFeatureByBaseName("tokens");
+    Type entityType = ts.getType(NAMED_ENTITY);
+    Feature kindFeat = entityType.getFeatureByBaseName("kind");
+    Feature confidenceFeat = entityType.getFeatureByBaseName("confidence");
+
+    List<AnnotationFS> sentenceTokens = new ArrayList<>();
+    int sentenceLength = 5 + random.nextInt(26);
+    for (int i = 0; i < nbrTokens; i++) {
+      int end = (i + 1 < nbrTokens) ? begins[i + 1] - 1 : sb.length();
+      AnnotationFS token = cas.createAnnotation(tokenType, begins[i], end);
+      token.setStringValue(posFeat, POS[random.nextInt(POS.length)]);
+      token.setIntValue(lengthFeat, end - begins[i]);
+      cas.addFsToIndexes(token);
+      sentenceTokens.add(token);
+
+      if (random.nextInt(10) == 0) {
+        int last = Math.min(nbrTokens - 1, i + random.nextInt(3));
+        int entityEnd = (last + 1 < nbrTokens) ? begins[last + 1] - 1 : sb.length();
+        AnnotationFS entity = cas.createAnnotation(entityType, begins[i], entityEnd);
+        entity.setStringValue(kindFeat, ENTITY_KINDS[random.nextInt(ENTITY_KINDS.length)]);
+        entity.setDoubleValue(confidenceFeat, random.nextDouble());
+        cas.addFsToIndexes(entity);
+      }
+
+      if (sentenceTokens.size() == sentenceLength || i == nbrTokens - 1) {
+        AnnotationFS sentence = cas.createAnnotation(sentenceType, sentenceTokens.get(0).getBegin(), end);
+        ArrayFS<AnnotationFS> tokens = cas.createArrayFS(sentenceTokens.size());
+        tokens.copyFromArray(sentenceTokens.toArray(new AnnotationFS[0]), 0, 0, sentenceTokens.size());
+        sentence.setFeatureValue(tokensFeat, tokens);
+        cas.addFsToIndexes(sentence);
+        sentenceTokens.clear();
+        sentenceLength = 5 + random.nextInt(26);
+      }
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.cas.impl.CASImpl;
+import org.apache.uima.cas.impl.TypeImpl;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Creating Feature Structures, without adding them to the indexes.
+ * Each invocation creates {@code size} Feature Structures in a freshly reset CAS.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+public class FsCreationBenchmark {
+
+  @Param({"1000", "100000"})
+  public int size;
+
+  private CASImpl cas;
+  private JCas jcas;
+  private TypeImpl tokenType;
+  private TypeImpl annotationType;
+
+  @Setup(Level.Trial)
+  public void createCas() throws Exception {
+    cas = (CASImpl) DocumentGenerator.createCas();
+    jcas = cas.getJCas();
+    tokenType = cas.getTypeSystemImpl().getType(DocumentGenerator.TOKEN);
+    annotationType = cas.getTypeSystemImpl().annotType;
+  }
+
+  @Setup(Level.Invocation)
+  public void reset() {
+    cas.reset();
+  }
+
+  @Benchmark
+  public void createFS(Blackhole bh) {
+    for (int i = 0; i < size; i++) {
+      bh.consume(cas.createFS(tokenType));
+    }
+  }
+
+  @Benchmark
+  public void createAnnotation(Blackhole bh) {
+    for (int i = 0; i < size; i++) {
+      bh.consume(cas.createAnnotation(annotationType, i, i + 1));
+    }
+  }
+
+  @Benchmark
+  public void jcasConstructor(Blackhole bh) {
+    for (int i = 0; i < size; i++) {
+      bh.consume(new Annotation(jcas, i, i + 1));
+    }
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Adding annotations to, and removing them from, the sorted annotation index (FsIndex_set_sorted).
+ * Each invocation adds or removes all the tokens of a generated document, 
+ * in document order or in random order.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class IndexBenchmark {
+
+  @State(Scope.Thread)
+  public static abstract class Tokens {
+
+    @Param({"1000", "100000"})
+    public int tokens;
+
+    @Param({"sorted", "shuffled"})
+    public String order;
+
+    CAS cas;
+    AnnotationFS[] tokenFSs;
+
+    @Setup(Level.Trial)
+    public void generate() throws Exception {
+      cas = DocumentGenerator.createCas();
+      new DocumentGenerator(tokens, 1).generate(cas);
+      List<AnnotationFS> l = new ArrayList<>(cas.<Annotation>select(DocumentGenerator.TOKEN).asList());
+      if ("shuffled".equals(order)) {
+        Collections.shuffle(l, new Random(1));
+      }
+      tokenFSs = l.toArray(new AnnotationFS[l.size()]);
+    }
+  }
+
+  public static class Unindexed extends Tokens {
+    @Setup(Level.Invocation)
+    public void removeAll() {
+      for (AnnotationFS fs : tokenFSs) {
+        cas.removeFsFromIndexes(fs);
+      }
+    }
+  }
+
+  public static class Indexed extends Tokens {
+    @Setup(Level.Invocation)
+    public void addAll() {
+      for (AnnotationFS fs : tokenFSs) {
+        cas.addFsToIndexes(fs);
+      }
+    }
+  }
+
+  @Benchmark
+  public void add(Unindexed s) {
+    for (AnnotationFS fs : s.tokenFSs) {
+      s.cas.addFsToIndexes(fs);
+    }
+  }
+
+  @Benchmark
+  public void remove(Indexed s) {
+    for (AnnotationFS fs : s.tokenFSs) {
+      s.cas.removeFsFromIndexes(fs);
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Type;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * select queries relative to an annotation (SelectFSs_impl).
+ * Each invocation runs the query once for each of up to 1000 anchor annotations spread over the document.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+public class SelectBenchmark {
+
+  private static final int MAX_ANCHORS = 1000;
+
+  @Param({"1000", "100000"})
+  public int tokens;
+
+  private CAS cas;
+  private Type tokenType;
+  private Type sentenceType;
+  private Type entityType;
+  private Annotation[] sentences;
+  private Annotation[] tokenAnchors;
+
+  @Setup(Level.Trial)
+  public void generate() throws Exception {
+    cas = DocumentGenerator.createCas();
+    new DocumentGenerator(tokens, 1).generate(cas);
+    tokenType = cas.getTypeSystem().getType(DocumentGenerator.TOKEN);
+    sentenceType = cas.getTypeSystem().getType(DocumentGenerator.SENTENCE);
+    entityType = cas.getTypeSystem().getType(DocumentGenerator.NAMED_ENTITY);
+    sentences = sample(cas.<Annotation>select(sentenceType).asList());
+    tokenAnchors = sample(cas.<Annotation>select(tokenType).asList());
+  }
+
+  private static Annotation[] sample(List<Annotation> all) {
+    int n = Math.min(MAX_ANCHORS, all.size());
+    Annotation[] r = new Annotation[n];
+    for (int i = 0; i < n; i++) {
+      r[i] = all.get((int) ((long) i * all.size() / n));
+    }
+    return r;
+  }
+
+  @Benchmark
+  public void coveredBy(Blackhole bh) {
+    for (Annotation sentence : sentences) {
+      cas.<Annotation>select(tokenType).coveredBy(sentence).forEach(bh::consume);
+    }
+  }
+
+  @Benchmark
+  public void covering(Blackhole bh) {
+    for (Annotation token : tokenAnchors) {
+      cas.<Annotation>select(sentenceType).covering(token).forEach(bh::consume);
+    }
+  }
+
+  @Benchmark
+  public void coveringAnyType(Blackhole bh) {
+    for (Annotation token : tokenAnchors) {
+      cas.<Annotation>select(CAS.TYPE_NAME_ANNOTATION).covering(token).forEach(bh::consume);
+    }
+  }
+
+  @Benchmark
+  public void following(Blackhole bh) {
+    for (Annotation token : tokenAnchors) {
+      cas.<Annotation>select(entityType).following(token).limit(10).forEach(bh::consume);
+    }
+  }
+
+  @Benchmark
+  public void preceding(Blackhole bh) {
+    for (Annotation token : tokenAnchors) {
+      cas.<Annotation>select(entityType).preceding(token).limit(10).forEach(bh::consume);
+    }
+  }
+}
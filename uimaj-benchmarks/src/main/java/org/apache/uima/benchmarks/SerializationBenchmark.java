@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.SerialFormat;
+import org.apache.uima.util.CasIOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Saving and loading a generated document with {@link CasIOUtils}, in each {@link SerialFormat} it can save.
+ * Loading uses the CAS's own type system, so the formats without an embedded type system can be loaded.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+  @Param({"1000", "100000"})
+  public int tokens;
+
+  @Param({"XMI", "XMI_1_1", "XCAS", "XCAS_1_1", "SERIALIZED", "SERIALIZED_TSI", "BINARY", "BINARY_TSI",
+          "COMPRESSED", "COMPRESSED_TSI", "COMPRESSED_FILTERED", "COMPRESSED_FILTERED_TS",
+          "COMPRESSED_FILTERED_TSI", "JSON"})
+  public String format;
+
+  private SerialFormat serialFormat;
+  private CAS src;
+  private CAS dest;
+  private byte[] serialized;
+  private ByteArrayOutputStream baos;
+
+  @Setup(Level.Trial)
+  public void generate() throws Exception {
+    serialFormat = SerialFormat.valueOf(format);
+    src = DocumentGenerator.createCas();
+    new DocumentGenerator(tokens, 1).generate(src);
+    dest = DocumentGenerator.createCas();
+    baos = new ByteArrayOutputStream();
+    CasIOUtils.save(src, baos, serialFormat);
+    serialized = baos.toByteArray();
+  }
+
+  @Setup(Level.Invocation)
+  public void reset() {
+    baos.reset();
+    dest.reset();
+  }
+
+  @Benchmark
+  public ByteArrayOutputStream save() throws IOException {
+    CasIOUtils.save(src, baos, serialFormat);
+    return baos;
+  }
+
+  @Benchmark
+  public CAS load() throws IOException {
+    CasIOUtils.load(new ByteArrayInputStream(serialized), dest, src.getTypeSystem());
+    return dest;
+  }
+
+  @Benchmark
+  public CAS roundTrip() throws IOException {
+    CasIOUtils.save(src, baos, serialFormat);
+    CasIOUtils.load(new ByteArrayInputStream(baos.toByteArray()), dest, src.getTypeSystem());
+    return dest;
+  }
+}
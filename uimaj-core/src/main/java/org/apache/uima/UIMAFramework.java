@@ -102,6 +102,79 @@ public abstract class UIMAFramework {
    */
   public static final String SKIP_USER_JCAS_LOADING = "SKIP_USER_JCAS_LOADING";
 
+  /**
+   * Key to be used in the Properties object returned by
+   * {@link #getDefaultPerformanceTuningProperties()}. The value of this key indicates whether
+   * CAS pools (including those defined through the CasManager, for example by the instances of a
+   * MultiprocessingAnalysisEngine) should use a lock-free free list, intended for
+   * large numbers of threads sharing one pool.  The default is false; set to "true" to enable.
+   * With this setting, threads are not notified via the pool's monitor when a CAS is released;
+   * use {@link org.apache.uima.util.CasPool#getCas(long)} to wait for a CAS.
+   */
+  public static final String CAS_POOL_LOCK_FREE = "cas_pool_lock_free";
+
+  /**
+   * Key to be used in the Properties object returned by
+   * {@link #getDefaultPerformanceTuningProperties()}. The value of this key indicates whether a
+   * lock-free CAS pool (see {@link #CAS_POOL_LOCK_FREE}) should preferentially give a thread back
+   * the CAS it last released, if that CAS is still free, so its data is likely still in that
+   * thread's processor cache.  The default is false; set to "true" to enable.
+   */
+  public static final String CAS_POOL_THREAD_AFFINITY = "cas_pool_thread_affinity";
+
+  /**
+   * Key to be used in the Properties object returned by
+   * {@link #getDefaultPerformanceTuningProperties()}. The value of this key is the number of
+   * threads the Collection Processing Manager uses to read ahead from a
+   * {@link org.apache.uima.collection.PartitionableCollectionReader}. The default is 0, which
+   * reads from the Collection Reader on the CPM's producer thread only, as for other readers.
+   */
+  public static final String CPM_READER_THREADS = "cpm_reader_threads";
+
+  /**
+   * Key to be used in the Properties object returned by
+   * {@link #getDefaultPerformanceTuningProperties()}. The value of this key is the max number of
+   * elements read ahead (see {@link #CPM_READER_THREADS}) that are waiting for a CAS.  The default
+   * is 4 per reader thread.
+   */
+  public static final String CPM_READER_PREFETCH_SIZE = "cpm_reader_prefetch_size";
+
+  /**
+   * Key to be used in the Properties object returned by
+   * {@link #getDefaultPerformanceTuningProperties()}. The value of this key is the number of
+   * consecutive failures after which a read ahead thread (see {@link #CPM_READER_THREADS}) gives up
+   * on its partition of the collection.  The default is 100.
+   */
+  public static final String CPM_READER_MAX_CONSECUTIVE_FAILURES = "cpm_reader_max_consecutive_failures";
+
+  /**
+   * Key to be used in the Properties object returned by
+   * {@link #getDefaultPerformanceTuningProperties()}. The value of this key is the interval, in
+   * milliseconds, at which the Collection Processing Manager adjusts the number of processing
+   * pipelines to the length of its work queue and to the CPU load, between 1 and the configured
+   * processingUnitThreadCount.  The default is 0, which keeps the number of pipelines unless it is
+   * changed by
+   * {@link org.apache.uima.collection.CollectionProcessingEngine#setProcessingUnitCount(int)}.
+   */
+  public static final String CPM_PIPELINE_SCALING_INTERVAL = "cpm_pipeline_scaling_interval";
+
+  /**
+   * Key to be used in the Properties object returned by
+   * {@link #getDefaultPerformanceTuningProperties()}. The value of this key is the max number of
+   * CASes the Collection Processing Manager collects into one batch for its CAS Consumers (see
+   * {@link org.apache.uima.collection.BatchCasConsumer}), limited to the size of the CAS pool.
+   * The default is 1, which passes each CAS to the CAS Consumers as soon as its analysis is done.
+   */
+  public static final String CPM_CONSUMER_BATCH_SIZE = "cpm_consumer_batch_size";
+
+  /**
+   * Key to be used in the Properties object returned by
+   * {@link #getDefaultPerformanceTuningProperties()}. The value of this key is the max time, in
+   * milliseconds, that the first CAS of a batch for the CAS Consumers (see
+   * {@link #CPM_CONSUMER_BATCH_SIZE}) waits for the batch to fill up.  The default is 100.
+   */
+  public static final String CPM_CONSUMER_BATCH_TIMEOUT = "cpm_consumer_batch_timeout";
+
   /**
    * To be implemented by subclasses; this should return a Properties object representing the
    * default performance tuning settings for the framework. It must return a new Properties object
@@ -21,6 +21,11 @@ package org.apache.uima.analysis_engine;
 
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 import org.apache.uima.analysis_engine.metadata.AnalysisEngineMetaData;
 import org.apache.uima.cas.CAS;
@@ -181,6 +186,39 @@ public interface AnalysisEngine extends ConfigurableResource, CasObjectProcessor
    */
   public static final String PARAM_THROTTLE_EXCESSIVE_ANNOTATOR_LOGGING = 
       "PARAM_THROTTLE_EXCESSIVE_ANNOTATOR_LOGGING";
+
+  /**
+   * Key for the initialization parameter whose value is the maximum number of delegates of an
+   * aggregate AnalysisEngine that are initialized at the same time, each on its own thread.
+   * This shortens the startup of aggregates whose delegates load large models.  The value
+   * is an Integer (or a String holding one); the default, 1, initializes the delegates one after another.
+   * The delegates must not depend on each other being initialized first, for instance
+   * through shared resources with order dependent initialization.
+   * <p>
+   * The order of the delegates in the aggregate, and the reported error if several delegates 
+   * fail, are the same as for sequential initialization: errors are reported for the first failing
+   * delegate in the order of the aggregate descriptor.
+   * <p>
+   * This value is used as a key in the <code>aAdditionalParams</code> Map that is passed to the
+   * {@link #initialize(ResourceSpecifier,Map)} method; it is passed along to nested aggregates.
+   */
+  public static final String PARAM_NUM_PARALLEL_DELEGATE_INITIALIZATIONS = 
+      "NUM_PARALLEL_DELEGATE_INITIALIZATIONS";
+
+  /**
+   * Key for the initialization parameter whose value is the maximum number of delegates of a
+   * {@link org.apache.uima.flow.ParallelStep} that an aggregate AnalysisEngine runs at the same time, 
+   * each on its own thread.  The value is an Integer (or a String holding one); the default, 1, runs 
+   * the delegates of a ParallelStep one after the other.
+   * <p>
+   * The delegates are only run concurrently if their capabilities show that they write disjoint 
+   * types, or that they work in different views.  Each delegate then processes its own copy of
+   * the CAS, and the changes are merged into the CAS in the order of the ParallelStep.
+   * <p>
+   * This value is used as a key in the <code>aAdditionalParams</code> Map that is passed to the
+   * {@link #initialize(ResourceSpecifier,Map)} method; it is passed along to nested aggregates.
+   */
+  public static final String PARAM_NUM_PARALLEL_STEP_THREADS = "NUM_PARALLEL_STEP_THREADS";
   
   public static final String MDC_ANNOTATOR_IMPL_NAME = "uima_annotator";
   public static final String MDC_ANNOTATOR_CONTEXT_NAME = "uima_annotator_context_name";
@@ -508,6 +546,102 @@ public interface AnalysisEngine extends ConfigurableResource, CasObjectProcessor
    */
   JCasIterator processAndOutputNewCASes(JCas aJCAS) throws AnalysisEngineProcessException;
 
+  /**
+   * Processes a CAS on a thread of the given Executor, without blocking the caller. 
+   * <p>
+   * The returned future completes with the result of {@link #process(CAS)}, or exceptionally with
+   * the exception it throws (typically an {@link AnalysisEngineProcessException}). As for 
+   * <code>process</code>, the caller must not access <code>aCAS</code> until the future has completed.
+   * <p>
+   * An Analysis Engine instance processes one CAS at a time; to process several CASes at the same time,
+   * create the Analysis Engine with a number of simultaneous requests greater than 1 (see 
+   * {@link org.apache.uima.UIMAFramework#produceAnalysisEngine(ResourceSpecifier, int, int)}).  
+   * Such an Analysis Engine queues the requests made while all of its instances are busy, 
+   * and only submits them to the Executor when an instance becomes free, so no thread
+   * is blocked waiting for an instance; the returned future completes later instead.
+   * 
+   * @param aCAS
+   *          the CAS to be processed
+   * @param aExecutor
+   *          runs the processing; for annotators which block on I/O, this can be an Executor
+   *          starting a (virtual) thread per task
+   * 
+   * @return a future for the ProcessTrace of the processing
+   */
+  default CompletableFuture<ProcessTrace> processAsync(CAS aCAS, Executor aExecutor) {
+    final CompletableFuture<ProcessTrace> result = new CompletableFuture<>();
+    try {
+      aExecutor.execute(() -> {
+        try {
+          result.complete(process(aCAS));
+        } catch (Throwable t) {
+          result.completeExceptionally(t);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      result.completeExceptionally(e);
+    }
+    return result;
+  }
+
+  /**
+   * Processes a CAS on a thread of the {@link ForkJoinPool#commonPool() common pool}, without blocking
+   * the caller.  See {@link #processAsync(CAS, Executor)}.
+   * 
+   * @param aCAS
+   *          the CAS to be processed
+   * 
+   * @return a future for the ProcessTrace of the processing
+   */
+  default CompletableFuture<ProcessTrace> processAsync(CAS aCAS) {
+    return processAsync(aCAS, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Processes a CAS on a thread of the given Executor, possibly producing multiple CASes as a result,
+   * without blocking the caller.  Each output CAS is passed to <code>aOutputCasConsumer</code>, on the
+   * thread doing the processing, as soon as it is produced; the next one is only produced after the 
+   * consumer returns, which must release it (as for the CASes returned by a {@link CasIterator}).
+   * <p>
+   * The returned future completes when all the output CASes have been consumed, or exceptionally
+   * if the processing or the consumer fail; in this case the remaining processing is 
+   * {@link CasIterator#release() released}.  See also {@link #processAsync(CAS, Executor)}.
+   * 
+   * @param aCAS
+   *          the CAS to be processed
+   * @param aOutputCasConsumer
+   *          called with each output CAS
+   * @param aExecutor
+   *          runs the processing and the consumer
+   * 
+   * @return a future completing when the processing is done
+   */
+  default CompletableFuture<Void> processAndOutputNewCASesAsync(CAS aCAS, 
+          Consumer<CAS> aOutputCasConsumer, Executor aExecutor) {
+    final CompletableFuture<Void> result = new CompletableFuture<>();
+    try {
+      aExecutor.execute(() -> {
+        CasIterator casIter = null;
+        try {
+          casIter = processAndOutputNewCASes(aCAS);
+          while (casIter.hasNext()) {
+            aOutputCasConsumer.accept(casIter.next());
+          }
+          casIter = null;
+          result.complete(null);
+        } catch (Throwable t) {
+          if (casIter != null) {
+            casIter.release();
+          }
+          result.completeExceptionally(t);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      result.completeExceptionally(e);
+    }
+    return result;
+  }
+
   /**
    * Notifies this AnalysisEngine that processing of a batch has completed. It is up to the caller
    * to determine the size of a batch. Components (particularly CAS Consumers) inside this Analysis
@@ -19,6 +19,7 @@
 
 package org.apache.uima.analysis_engine.asb.impl;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -30,6 +31,11 @@ import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.uima.ResourceFactory;
 import org.apache.uima.UIMAFramework;
@@ -124,6 +130,12 @@ public class ASB_impl extends Resource_ImplBase implements ASB {
    */
   private UimaContextAdmin mAggregateUimaContext;
 
+  /**
+   * Runs the delegates of ParallelSteps concurrently; null unless the 
+   * {@link AnalysisEngine#PARAM_NUM_PARALLEL_STEP_THREADS} parameter is greater than 1.
+   */
+  private ParallelStepExecutor mParallelStepExecutor;
+
   /**
    * Initializes this ASB.
    * 
@@ -182,6 +194,10 @@ public class ASB_impl extends Resource_ImplBase implements ASB {
         mFlowControllerContainer.isInitialized()) {
       mFlowControllerContainer.destroy();
     }
+
+    if (mParallelStepExecutor != null) {
+      mParallelStepExecutor.destroy();
+    }
   }
 
   /**
@@ -208,6 +224,12 @@ public class ASB_impl extends Resource_ImplBase implements ASB {
     mComponentAnalysisEngineMap.clear();
     mComponentAnalysisEngineMetaDataMap.clear();
     mAllComponentMetaDataMap.clear();
+    
+    // if initializing delegates in parallel, the delegates to initialize, in order
+    final int nbrParallelInits = getIntInitParam(AnalysisEngine.PARAM_NUM_PARALLEL_DELEGATE_INITIALIZATIONS);
+    final List<String> parallelKeys = (nbrParallelInits > 1) ? new ArrayList<>() : null;
+    final List<ResourceSpecifier> parallelSpecs = (nbrParallelInits > 1) ? new ArrayList<>() : null;
+    final List<Map<String, Object>> parallelParams = (nbrParallelInits > 1) ? new ArrayList<>() : null;
 
     // loop through all entries in the (key, specifier) map
     Iterator<Map.Entry<String,ResourceSpecifier>> i = aSpecifiers.entrySet().iterator();
@@ -241,20 +263,20 @@ public class ASB_impl extends Resource_ImplBase implements ASB {
       if (mInitParams == null)
         mInitParams = new HashMap<>();
       UimaContextAdmin childContext = aParentContext.createChild(key, sofamap);
+      
+      if (parallelKeys != null) {
+        // the child contexts are created here, in order; the delegates are produced below
+        Map<String, Object> params = new HashMap<>(mInitParams);
+        params.put(Resource.PARAM_UIMA_CONTEXT, childContext);
+        parallelKeys.add(key);
+        parallelSpecs.add(spec);
+        parallelParams.add(params);
+        continue;
+      }
+      
       mInitParams.put(Resource.PARAM_UIMA_CONTEXT, childContext);
 
-      AnalysisEngine ae;
-
-      // if running in "validation mode", don't try to connect to any services
-      if (mInitParams.containsKey(AnalysisEngineImplBase.PARAM_VERIFICATION_MODE)
-              && !(spec instanceof ResourceCreationSpecifier)) {
-        // but we need placeholder entries in maps to satisfy later checking
-        ae = new DummyAnalysisEngine();
-      } else {
-        // construct an AnalysisEngine - initializing it with the parameters
-        // passed to this ASB's initialize method
-        ae = UIMAFramework.produceAnalysisEngine(spec, mInitParams);
-      }
+      AnalysisEngine ae = produceDelegate(spec, mInitParams);
 
       // add the Analysis Engine and its metadata to the appropriate lists
 
@@ -262,6 +284,10 @@ public class ASB_impl extends Resource_ImplBase implements ASB {
       mComponentAnalysisEngineMap.put(key, ae);
       mComponentAnalysisEngineMetaDataMap.put(key, ae.getAnalysisEngineMetaData());
     }
+    
+    if (parallelKeys != null) {
+      produceDelegatesInParallel(parallelKeys, parallelSpecs, parallelParams, nbrParallelInits);
+    }
 
     // make Maps unmodifiable
     mComponentAnalysisEngineMap = Collections.unmodifiableMap(mComponentAnalysisEngineMap);
@@ -273,6 +299,14 @@ public class ASB_impl extends Resource_ImplBase implements ASB {
     // initialize the FlowController
     initFlowController(aFlowControllerDeclaration, aParentContext, aAggregateMetadata);
 
+    final int nbrParallelStepThreads = getIntInitParam(AnalysisEngine.PARAM_NUM_PARALLEL_STEP_THREADS);
+    if (mParallelStepExecutor != null) {
+      mParallelStepExecutor.destroy();
+    }
+    mParallelStepExecutor = (nbrParallelStepThreads > 1) 
+        ? new ParallelStepExecutor(nbrParallelStepThreads, aParentContext) 
+        : null;
+
     // initialize the AllComponentMetaData map to include AEs plus the FlowController
     mAllComponentMetaDataMap = new LinkedHashMap<>(mComponentAnalysisEngineMetaDataMap);
     mAllComponentMetaDataMap.put(aFlowControllerDeclaration.getKey(), mFlowControllerContainer
@@ -280,6 +314,111 @@ public class ASB_impl extends Resource_ImplBase implements ASB {
     mAllComponentMetaDataMap = Collections.unmodifiableMap(mAllComponentMetaDataMap);
   }
 
+  /**
+   * @param spec the specifier of a delegate
+   * @param params the initialization parameters of the delegate
+   * @return the delegate, initialized
+   * @throws ResourceInitializationException passthru
+   */
+  private AnalysisEngine produceDelegate(ResourceSpecifier spec, Map<String, Object> params) 
+          throws ResourceInitializationException {
+    // if running in "validation mode", don't try to connect to any services
+    if (params.containsKey(AnalysisEngineImplBase.PARAM_VERIFICATION_MODE)
+            && !(spec instanceof ResourceCreationSpecifier)) {
+      // but we need placeholder entries in maps to satisfy later checking
+      return new DummyAnalysisEngine();
+    } 
+    // construct an AnalysisEngine - initializing it with the parameters
+    // passed to this ASB's initialize method
+    return UIMAFramework.produceAnalysisEngine(spec, params);
+  }
+  
+  /**
+   * @param key {@link AnalysisEngine#PARAM_NUM_PARALLEL_DELEGATE_INITIALIZATIONS} or
+   *   {@link AnalysisEngine#PARAM_NUM_PARALLEL_STEP_THREADS}
+   * @return the value of the parameter, or 1 if not specified
+   */
+  private int getIntInitParam(String key) {
+    Object v = (mInitParams == null) ? null : mInitParams.get(key);
+    if (v instanceof Number) {
+      return ((Number) v).intValue();
+    }
+    if (v instanceof String) {
+      try {
+        return Integer.parseInt(((String) v).trim());
+      } catch (NumberFormatException e) {
+        // ignored, use the default
+      }
+    }
+    return 1;
+  }
+  
+  /**
+   * Produces the delegates concurrently, on at most nbrThreads threads, and adds them to the maps in the given order.
+   * All the delegates are attempted; the successfully initialized ones are added to the maps (so they are destroyed
+   * when this ASB is), and then the error of the first failing one, in the given order, is thrown.
+   */
+  private void produceDelegatesInParallel(List<String> keys, List<ResourceSpecifier> specs, 
+          List<Map<String, Object>> params, int nbrThreads) throws ResourceInitializationException {
+    final int nbrDelegates = keys.size();
+    if (nbrDelegates == 0) {
+      return;
+    }
+    final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    final AtomicInteger threadNbr = new AtomicInteger();
+    final ExecutorService executor = Executors.newFixedThreadPool(Math.min(nbrThreads, nbrDelegates), r -> {
+      Thread t = new Thread(r, "UIMA delegate initialization " + threadNbr.incrementAndGet());
+      t.setDaemon(true);
+      t.setContextClassLoader(contextClassLoader);
+      return t;
+    });
+    
+    try {
+      final List<Future<AnalysisEngine>> futures = new ArrayList<>(nbrDelegates);
+      for (int i = 0; i < nbrDelegates; i++) {
+        final ResourceSpecifier spec = specs.get(i);
+        final Map<String, Object> p = params.get(i);
+        futures.add(executor.submit(() -> produceDelegate(spec, p)));
+      }
+      
+      Throwable firstError = null;
+      for (int i = 0; i < nbrDelegates; i++) {
+        final AnalysisEngine ae;
+        try {
+          ae = futures.get(i).get();
+        } catch (ExecutionException e) {
+          if (firstError == null) {
+            firstError = e.getCause();
+          }
+          continue;
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          for (Future<AnalysisEngine> f : futures) {
+            f.cancel(true);
+          }
+          throw new ResourceInitializationException(e);
+        }
+        mComponentAnalysisEngineMap.put(keys.get(i), ae);
+        mComponentAnalysisEngineMetaDataMap.put(keys.get(i), ae.getAnalysisEngineMetaData());
+      }
+      
+      if (firstError instanceof ResourceInitializationException) {
+        throw (ResourceInitializationException) firstError;
+      }
+      if (firstError instanceof RuntimeException) {
+        throw (RuntimeException) firstError;
+      }
+      if (firstError instanceof Error) {
+        throw (Error) firstError;
+      }
+      if (firstError != null) {
+        throw new ResourceInitializationException(firstError);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   /*
    * Initializes the FlowController for this aggregate.
    */
@@ -604,6 +743,15 @@ public class ASB_impl extends Resource_ImplBase implements ASB {
                         new Object[] { nextAeKey });
               }
             } 
+            //ParallelStep whose delegates can run concurrently, on copies of the CAS
+            else if (nextStep instanceof ParallelStep && mParallelStepExecutor != null
+                    && mParallelStepExecutor.canRunConcurrently(
+                            ((ParallelStep) nextStep).getAnalysisEngineKeys(), 
+                            mComponentAnalysisEngineMap, cas.getTypeSystem())) {
+              mParallelStepExecutor.process(cas, ((ParallelStep) nextStep).getAnalysisEngineKeys(),
+                      mComponentAnalysisEngineMap, flow);
+              cas.setCurrentComponentInfo(null);
+            }
             //ParallelStep (TODO: refactor out common parts with SimpleStep?)
             else if (nextStep instanceof ParallelStep) {
               //create modifiable list of destinations 
@@ -0,0 +1,363 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.analysis_engine.asb.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.UimaContextAdmin;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.analysis_engine.TypeOrFeature;
+import org.apache.uima.analysis_engine.metadata.AnalysisEngineMetaData;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Marker;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.cas.impl.AllowPreexistingFS;
+import org.apache.uima.cas.impl.CASImpl;
+import org.apache.uima.cas.impl.XmiCasDeserializer;
+import org.apache.uima.cas.impl.XmiCasSerializer;
+import org.apache.uima.cas.impl.XmiSerializationSharedData;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.metadata.Capability;
+import org.apache.uima.resource.metadata.OperationalProperties;
+import org.apache.uima.util.CasCreationUtils;
+import org.apache.uima.util.Logger;
+
+/**
+ * Runs the delegates of a {@link org.apache.uima.flow.ParallelStep} concurrently, for an {@link ASB_impl}
+ * having the {@link AnalysisEngine#PARAM_NUM_PARALLEL_STEP_THREADS} parameter set.
+ * <p>
+ * A CAS is not thread-safe for updates, so the delegates never share one: each delegate processes
+ * its own branch CAS, filled from an XMI serialization of the input CAS. When all the delegates are done,
+ * the changes each one made (a Delta CAS, see {@link Marker}) are merged into the input CAS, one after the
+ * other in the order of the step, using the same merge support as for the replies of remote delegates.
+ * <p>
+ * This is only done if the capabilities of every pair of delegates of the step show that their results
+ * can't conflict: they declare disjoint output types (no output type is the same as, or a subtype of,
+ * an output type of the other delegate), or they work in different views (their mapped input and output
+ * Sofas are disjoint).  Delegates which declare no outputs, and CAS Multipliers, are run one after the other,
+ * as before.
+ * <p>
+ * Only used by the thread processing with the ASB; the delegates are run on a pool of daemon threads
+ * created on first use.
+ */
+class ParallelStepExecutor {
+
+  private static final Logger logger = UIMAFramework.getLogger(ParallelStepExecutor.class);
+
+  private final int nbrThreads;
+
+  private final UimaContextAdmin aggregateContext;
+
+  private final ClassLoader contextClassLoader;
+
+  private ExecutorService executor;
+
+  /** reset base CASes, for reuse as branch CASes */
+  private final Deque<CAS> branchCasPool = new ArrayDeque<>();
+
+  /** the type system the branch CASes and the cached decisions are for */
+  private TypeSystem typeSystem;
+
+  /** for each list of delegate keys seen in a ParallelStep, whether they can run concurrently */
+  private final Map<List<String>, Boolean> canRunConcurrentlyCache = new HashMap<>();
+
+  /**
+   * @param nbrThreads the maximum number of delegates run at the same time
+   * @param aggregateContext the UimaContext of the aggregate, used to create the branch CASes
+   */
+  ParallelStepExecutor(int nbrThreads, UimaContextAdmin aggregateContext) {
+    this.nbrThreads = nbrThreads;
+    this.aggregateContext = aggregateContext;
+    this.contextClassLoader = Thread.currentThread().getContextClassLoader();
+  }
+
+  /**
+   * @param keys the keys of the delegates of the ParallelStep
+   * @param delegates the delegates of the aggregate, by key
+   * @param ts the type system of the CAS being processed
+   * @return true if the delegates can be run with {@link #process}
+   */
+  boolean canRunConcurrently(Collection<String> aKeys, Map<String, AnalysisEngine> delegates, TypeSystem ts) {
+    if (aKeys.size() < 2) {
+      return false;
+    }
+    if (ts != typeSystem) {
+      typeSystem = ts;
+      canRunConcurrentlyCache.clear();
+      branchCasPool.clear();
+    }
+    final List<String> keys = new ArrayList<>(aKeys);
+    Boolean r = canRunConcurrentlyCache.get(keys);
+    if (r == null) {
+      r = computeCanRunConcurrently(keys, delegates, ts);
+      canRunConcurrentlyCache.put(keys, r);
+      if (!r) {
+        logger.info("The delegates {} of a ParallelStep are run one after the other, as their capabilities "
+            + "don't show that they write disjoint types or work in different views", keys);
+      }
+    }
+    return r;
+  }
+
+  private static boolean computeCanRunConcurrently(List<String> keys, Map<String, AnalysisEngine> delegates,
+          TypeSystem ts) {
+    final int n = keys.size();
+    final List<Set<Type>> outputTypes = new ArrayList<>(n);
+    final List<Set<String>> sofas = new ArrayList<>(n);
+    for (String key : keys) {
+      AnalysisEngine ae = delegates.get(key);
+      if (ae == null) {
+        return false; // reported when run sequentially
+      }
+      AnalysisEngineMetaData md = ae.getAnalysisEngineMetaData();
+      OperationalProperties op = md.getOperationalProperties();
+      if (op == null || op.getOutputsNewCASes()) {
+        return false;
+      }
+      Set<Type> types = getOutputTypes(md, ts);
+      if (types == null) {
+        return false;  // may write anything, in any view
+      }
+      outputTypes.add(types);
+      sofas.add(getSofas(ae, md));
+    }
+    for (int i = 0; i < n; i++) {
+      for (int j = i + 1; j < n; j++) {
+        if (!areDisjoint(outputTypes.get(i), outputTypes.get(j), ts) && !areDisjoint(sofas.get(i), sofas.get(j))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the types of the declared output types and features, or null if none or unknown
+   */
+  private static Set<Type> getOutputTypes(AnalysisEngineMetaData md, TypeSystem ts) {
+    Set<Type> types = new HashSet<>();
+    for (Capability capability : md.getCapabilities()) {
+      for (TypeOrFeature tof : capability.getOutputs()) {
+        String name = tof.getName();
+        if (!tof.isType()) {
+          int i = name.indexOf(TypeSystem.FEATURE_SEPARATOR);
+          name = (i < 0) ? name : name.substring(0, i);
+        }
+        Type type = ts.getType(name);
+        if (type == null) {
+          return null;
+        }
+        types.add(type);
+      }
+    }
+    return types.isEmpty() ? null : types;
+  }
+
+  /**
+   * @return the absolute names of the Sofas of the delegate's views, after the sofa mappings; 
+   *         the (mapped) initial view if the delegate declares no Sofas
+   */
+  private static Set<String> getSofas(AnalysisEngine ae, AnalysisEngineMetaData md) {
+    UimaContextAdmin context = ae.getUimaContextAdmin();
+    Set<String> sofas = new HashSet<>();
+    for (Capability capability : md.getCapabilities()) {
+      for (String sofa : capability.getInputSofas()) {
+        sofas.add(context.getComponentInfo().mapToSofaID(sofa));
+      }
+      for (String sofa : capability.getOutputSofas()) {
+        sofas.add(context.getComponentInfo().mapToSofaID(sofa));
+      }
+    }
+    if (sofas.isEmpty()) {
+      sofas.add(context.getComponentInfo().mapToSofaID(CAS.NAME_DEFAULT_SOFA));
+    }
+    return sofas;
+  }
+
+  private static boolean areDisjoint(Set<Type> a, Set<Type> b, TypeSystem ts) {
+    for (Type ta : a) {
+      for (Type tb : b) {
+        if (ts.subsumes(ta, tb) || ts.subsumes(tb, ta)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static boolean areDisjoint(Set<String> a, Set<String> b) {
+    for (String s : a) {
+      if (b.contains(s)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Runs the delegates concurrently on branch CASes, and merges their results into the CAS
+   * in the order of the keys.  Failures are handled as when running them sequentially: the
+   * flow is asked whether to continue; if not, the failure is thrown after the results of
+   * the delegates before it have been merged.
+   * 
+   * @param cas the CAS being processed by the aggregate
+   * @param keys the keys of the delegates, for which {@link #canRunConcurrently} returned true
+   * @param delegates the delegates of the aggregate, by key
+   * @param flow the flow of the CAS
+   * @throws Exception the failure of a delegate, if the flow doesn't continue on it, or a failure
+   *         serializing or merging the CASes
+   */
+  void process(CAS cas, Collection<String> aKeys, Map<String, AnalysisEngine> delegates, FlowContainer flow)
+          throws Exception {
+    final List<String> keys = new ArrayList<>(aKeys);
+    final int n = keys.size();
+    final XmiSerializationSharedData sharedData = new XmiSerializationSharedData();
+    final ByteArrayOutputStream os = new ByteArrayOutputStream();
+    XmiCasSerializer.serialize(cas, null, os, false, sharedData);
+    final byte[] xmi = os.toByteArray();
+    final int mergePoint = sharedData.getMaxXmiId();
+    final String viewName = ((CASImpl) cas).isBaseCas() ? null : cas.getViewName();
+
+    final List<CAS> branchCases = new ArrayList<>(n);
+    final List<Future<byte[]>> futures = new ArrayList<>(n);
+    try {
+      for (String key : keys) {
+        final AnalysisEngine ae = delegates.get(key);
+        final CAS branchCas = getBranchCas(cas);
+        branchCases.add(branchCas);
+        futures.add(getExecutor().submit(() -> processBranch(ae, branchCas, viewName, xmi)));
+      }
+
+      // wait for all, before the branch CASes can be reused
+      final Object[] results = new Object[n];
+      for (int i = 0; i < n; i++) {
+        try {
+          results[i] = futures.get(i).get();
+        } catch (ExecutionException e) {
+          results[i] = e.getCause();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          for (Future<byte[]> f : futures) {
+            f.cancel(true);
+          }
+          throw new AnalysisEngineProcessException(e);
+        }
+      }
+
+      for (int i = 0; i < n; i++) {
+        if (results[i] instanceof byte[]) {
+          XmiCasDeserializer.deserialize(new ByteArrayInputStream((byte[]) results[i]), cas, false, sharedData,
+                  mergePoint, AllowPreexistingFS.allow);
+        } else if (results[i] instanceof Exception) {
+          Exception e = (Exception) results[i];
+          if (!flow.continueOnFailure(keys.get(i), e)) {
+            throw e;
+          }
+          logger.debug("Continuing after the failure of the delegate {} of a ParallelStep", keys.get(i), e);
+        } else if (results[i] instanceof Error) {
+          throw (Error) results[i];
+        } else {
+          throw new AnalysisEngineProcessException((Throwable) results[i]);
+        }
+      }
+    } finally {
+      if (futures.size() == n) {
+        for (CAS branchCas : branchCases) {
+          releaseBranchCas(branchCas);
+        }
+      } // else not all were started; those started may still be running, let them be garbage collected
+    }
+  }
+
+  /*
+   * Runs on a pool thread.
+   * @return the Delta CAS of the changes made by the delegate, as XMI
+   */
+  private static byte[] processBranch(AnalysisEngine ae, CAS branchCas, String viewName, byte[] xmi)
+          throws Exception {
+    final XmiSerializationSharedData branchSharedData = new XmiSerializationSharedData();
+    XmiCasDeserializer.deserialize(new ByteArrayInputStream(xmi), branchCas, false, branchSharedData);
+    final Marker marker = branchCas.createMarker();
+    final CAS view = (viewName == null) ? branchCas : branchCas.getView(viewName);
+    ae.process(view);
+    final ByteArrayOutputStream os = new ByteArrayOutputStream();
+    XmiCasSerializer.serialize(branchCas, null, os, false, branchSharedData, marker);
+    return os.toByteArray();
+  }
+
+  private CAS getBranchCas(CAS cas) throws ResourceInitializationException {
+    CAS branchCas = branchCasPool.pollFirst();
+    if (branchCas == null) {
+      branchCas = CasCreationUtils.createCas(
+          aggregateContext.getResourceManager().getCasManager().getCasDefinition(), null, cas.getTypeSystem());
+      branchCas = ((CASImpl) branchCas).getBaseCAS();
+    }
+    return branchCas;
+  }
+
+  private void releaseBranchCas(CAS branchCas) {
+    branchCas.reset();
+    if (branchCas.getTypeSystem() == typeSystem) {
+      branchCasPool.addFirst(branchCas);
+    }
+  }
+
+  private ExecutorService getExecutor() {
+    if (executor == null) {
+      final AtomicInteger threadNbr = new AtomicInteger();
+      executor = Executors.newFixedThreadPool(nbrThreads, r -> {
+        Thread t = new Thread(r, "UIMA parallel step " + threadNbr.incrementAndGet());
+        t.setDaemon(true);
+        t.setContextClassLoader(contextClassLoader);
+        return t;
+      });
+    }
+    return executor;
+  }
+
+  /**
+   * Stops the threads; called when the ASB is destroyed
+   */
+  void destroy() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+    branchCasPool.clear();
+  }
+}
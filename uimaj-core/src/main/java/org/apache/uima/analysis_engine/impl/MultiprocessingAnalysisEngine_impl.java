@@ -21,6 +21,10 @@ package org.apache.uima.analysis_engine.impl;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.analysis_engine.AnalysisEngine;
@@ -124,7 +128,13 @@ public class MultiprocessingAnalysisEngine_impl extends AnalysisEngineImplBase i
 
 
   private AnalysisEngine getAeFromPool() throws AnalysisEngineProcessException {
-    AnalysisEngine ae = mPool.getAnalysisEngine(mTimeout);
+    AnalysisEngine ae;
+    try {
+      ae = mPool.getAnalysisEngineInterruptibly(mTimeout);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AnalysisEngineProcessException(e);
+    }
     if (ae == null) { // timeout elapsed
       throw new AnalysisEngineProcessException(AnalysisEngineProcessException.TIMEOUT_ELAPSED,
          new Object[] {getTimeout()});
@@ -302,6 +312,74 @@ public class MultiprocessingAnalysisEngine_impl extends AnalysisEngineImplBase i
 
 
   
+  /**
+   * Does not block the caller, nor a thread of the executor, when all the instances are busy: 
+   * the request is queued until one is released.
+   * 
+   * @see org.apache.uima.analysis_engine.AnalysisEngine#processAsync(org.apache.uima.cas.CAS, java.util.concurrent.Executor)
+   */
+  @Override
+  public CompletableFuture<ProcessTrace> processAsync(CAS aCAS, Executor aExecutor) {
+    final CompletableFuture<ProcessTrace> result = new CompletableFuture<>();
+    mPool.getAnalysisEngineAsync().thenAccept(ae -> {
+      try {
+        aExecutor.execute(() -> {
+          try {
+            result.complete(ae.process(aCAS));
+          } catch (Throwable t) {
+            result.completeExceptionally(t);
+          } finally {
+            mPool.releaseAnalysisEngine(ae);
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        mPool.releaseAnalysisEngine(ae);
+        result.completeExceptionally(e);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Does not block the caller, nor a thread of the executor, when all the instances are busy: 
+   * the request is queued until one is released.
+   * 
+   * @see org.apache.uima.analysis_engine.AnalysisEngine#processAndOutputNewCASesAsync(org.apache.uima.cas.CAS, java.util.function.Consumer, java.util.concurrent.Executor)
+   */
+  @Override
+  public CompletableFuture<Void> processAndOutputNewCASesAsync(CAS aCAS, Consumer<CAS> aOutputCasConsumer,
+          Executor aExecutor) {
+    final CompletableFuture<Void> result = new CompletableFuture<>();
+    mPool.getAnalysisEngineAsync().thenAccept(ae -> {
+      try {
+        aExecutor.execute(() -> {
+          final long startTime = System.currentTimeMillis();
+          CasIterator casIter = null;
+          try {
+            casIter = ae.processAndOutputNewCASes(aCAS);
+            while (casIter.hasNext()) {
+              aOutputCasConsumer.accept(casIter.next());
+            }
+            casIter = null;
+            getMBean().reportAnalysisTime(System.currentTimeMillis() - startTime);
+            result.complete(null);
+          } catch (Throwable t) {
+            if (casIter != null) {
+              casIter.release();
+            }
+            result.completeExceptionally(t);
+          } finally {
+            mPool.releaseAnalysisEngine(ae);
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        mPool.releaseAnalysisEngine(ae);
+        result.completeExceptionally(e);
+      }
+    });
+    return result;
+  }
+
   /*
    * (non-Javadoc)
    * 
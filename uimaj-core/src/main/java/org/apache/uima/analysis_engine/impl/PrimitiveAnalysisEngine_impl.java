@@ -25,6 +25,7 @@ import java.util.Map;
 import org.apache.uima.Constants;
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.UIMA_IllegalStateException;
+import org.apache.uima.UIMA_UnsupportedOperationException;
 import org.apache.uima.UimaContext;
 import org.apache.uima.UimaContextAdmin;
 import org.apache.uima.UimaContextHolder;
@@ -36,6 +37,7 @@ import org.apache.uima.analysis_engine.CasIterator;
 import org.apache.uima.analysis_engine.ResultNotSupportedException;
 import org.apache.uima.analysis_engine.ResultSpecification;
 import org.apache.uima.analysis_engine.impl.compatibility.AnalysisComponentAdapterFactory;
+import org.apache.uima.analysis_engine.impl.compatibility.CasConsumerAdapter;
 import org.apache.uima.cas.AbstractCas;
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.TypeSystem;
@@ -306,6 +308,57 @@ public class PrimitiveAnalysisEngine_impl extends AnalysisEngineImplBase impleme
     }
   }
 
+  /**
+   * @return true if this AE wraps a {@link org.apache.uima.collection.BatchCasConsumer}, which
+   *         can be given several CASes in one call of {@link #processCasBatch(CAS[])}
+   */
+  public boolean isBatchCasConsumer() {
+    return mAnalysisComponent instanceof CasConsumerAdapter
+            && ((CasConsumerAdapter) mAnalysisComponent).isBatchCasConsumer();
+  }
+
+  /**
+   * Processes several CASes in one call of the wrapped
+   * {@link org.apache.uima.collection.BatchCasConsumer}. Each CAS is passed as the view this AE
+   * would get from {@link #process(CAS)}.
+   * 
+   * @param aCASes
+   *          the CASes to process
+   * @throws AnalysisEngineProcessException
+   *           if the CAS Consumer failed, or this AE doesn't wrap a BatchCasConsumer
+   */
+  public void processCasBatch(CAS[] aCASes) throws AnalysisEngineProcessException {
+    if (!isBatchCasConsumer()) {
+      throw new UIMA_UnsupportedOperationException(
+              UIMA_UnsupportedOperationException.UNSUPPORTED_METHOD, new Object[] {
+                  getClass(), "processCasBatch" });
+    }
+    enterProcess();
+    UimaContext prevContext = setContextHolder();  // for use by POJOs
+    CAS[] views = new CAS[aCASes.length];
+    try {
+      for (int i = 0; i < aCASes.length; i++) {
+        views[i] = Util.getStartingView(aCASes[i], mSofaAware, getUimaContextAdmin()
+                .getComponentInfo());
+        ((CASImpl) views[i]).switchClassLoaderLockCasCL(getResourceManager()
+                .getExtensionClassLoader());
+      }
+      ((CasConsumerAdapter) mAnalysisComponent).processBatch(views);
+      for (int i = 0; i < aCASes.length; i++) {
+        getMBean().incrementCASesProcessed();
+      }
+    } finally {
+      for (CAS view : views) {
+        if (view != null) {
+          view.setCurrentComponentInfo(null);
+          ((CASImpl) view).restoreClassLoaderUnlockCas();
+        }
+      }
+      UimaContextHolder.setContext(prevContext);
+      exitProcess();
+    }
+  }
+
   public void batchProcessComplete() throws AnalysisEngineProcessException {
     enterBatchProcessComplete();
     UimaContext prevContext = setContextHolder();  // for use by POJOs
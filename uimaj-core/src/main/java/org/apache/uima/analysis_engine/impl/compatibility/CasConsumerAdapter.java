@@ -33,6 +33,7 @@ import org.apache.uima.analysis_engine.metadata.AnalysisEngineMetaData;
 import org.apache.uima.cas.AbstractCas;
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.collection.BatchCasConsumer;
 import org.apache.uima.collection.CasConsumer;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.resource.Resource;
@@ -102,6 +103,38 @@ public class CasConsumerAdapter implements AnalysisComponent {
     }
   }
 
+  /**
+   * @return true if the adapted CasConsumer is a {@link BatchCasConsumer}
+   */
+  public boolean isBatchCasConsumer() {
+    return mCasConsumer instanceof BatchCasConsumer;
+  }
+
+  /**
+   * Passes several CASes to the adapted {@link BatchCasConsumer} in one call.
+   * 
+   * @param aCASes
+   *          the CASes to process
+   * @throws AnalysisEngineProcessException
+   *           if the CasConsumer failed, or is not a BatchCasConsumer
+   */
+  public void processBatch(CAS[] aCASes) throws AnalysisEngineProcessException {
+    if (!isBatchCasConsumer()) {
+      throw new UIMA_UnsupportedOperationException(
+              UIMA_UnsupportedOperationException.UNSUPPORTED_METHOD, new Object[] {
+                  mCasConsumer.getClass(), "processCasBatch" });
+    }
+    for (CAS cas : aCASes) {
+      checkTypeSystemChange(cas);
+    }
+
+    try {
+      ((BatchCasConsumer) mCasConsumer).processCasBatch(aCASes);
+    } catch (ResourceProcessException e) {
+      throw new AnalysisEngineProcessException(e);
+    }
+  }
+
   /*
    * (non-Javadoc)
    * 
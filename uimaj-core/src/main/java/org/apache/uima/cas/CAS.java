@@ -20,8 +20,10 @@
 package org.apache.uima.cas;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.ListIterator;
 
 import org.apache.uima.cas.admin.CASAdminException;
@@ -817,6 +819,33 @@ public interface CAS extends AbstractCas {
    */
   <T extends AnnotationFS> AnnotationFS createAnnotation(Type type, int begin, int end);
 
+  /**
+   * Create a batch of new annotations, one for each begin / end pair.  As with 
+   * {@link #createAnnotation(Type, int, int)}, they are not added to the indexes; use
+   * {@link FSIndexRepository#addAll(Collection)} to add them all at once.
+   * 
+   * @param type
+   *          The type of the annotations.
+   * @param begins
+   *          The starts of the annotations.
+   * @param ends
+   *          The ends of the annotations, the same number as begins.
+   * @param <T> the Java class corresponding to the type
+   * @return The new annotations, in the order of the begins / ends.
+   */
+  default <T extends AnnotationFS> List<T> createAnnotations(Type type, int[] begins, int[] ends) {
+    if (begins.length != ends.length) {
+      throw new IllegalArgumentException("begins and ends have different lengths: " + begins.length + ", " + ends.length);
+    }
+    List<T> r = new ArrayList<>(begins.length);
+    for (int i = 0; i < begins.length; i++) {
+      @SuppressWarnings("unchecked")
+      T a = (T) createAnnotation(type, begins[i], ends[i]);
+      r.add(a);
+    }
+    return r;
+  }
+
   /**
    * Get the Document Annotation. The Document Annotation has a string-valued feature called "language" where
    * the document language is specified.
@@ -933,6 +962,31 @@ public interface CAS extends AbstractCas {
    */
   void reset() throws CASAdminException;
 
+  /**
+   * Freeze the CAS (all views), making it read-only until it is next reset.
+   * <p>
+   * A frozen CAS may be read by many threads at the same time, without locking: its indexes are 
+   * compacted and shared as is by all iterators and selects, which skip the copy-on-write and 
+   * concurrent modification machinery used to protect iterators from index updates.
+   * <p>
+   * Any attempt to create Feature Structures, set feature values, or add to or remove from 
+   * the indexes of a frozen CAS throws a CASRuntimeException.  
+   * Freeze the CAS on the thread that filled it, before handing it to the reading threads.
+   * Freezing a frozen CAS does nothing.
+   * <p>
+   * The default implementation throws UnsupportedOperationException.
+   */
+  default void freeze() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * @return true if the CAS is frozen, see {@link #freeze()}
+   */
+  default boolean isFrozen() {
+    return false;
+  }
+
   /**
    * Get the view name. The view name is the same as the name of the view's Sofa, retrieved by
    * getSofa().getSofaID(), except for the initial View before its Sofa has been created.
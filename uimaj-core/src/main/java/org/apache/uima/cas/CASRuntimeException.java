@@ -328,6 +328,9 @@ public class CASRuntimeException extends UIMARuntimeException {
   
   /** Deserializing Compressed Form 6, a type code: {0} has no corresponding type. currentFsId: {1} nbrFSs: {2} nextFsAddr: {3} */
   public static final String DESER_FORM_6_BAD_TYPE_CODE = "DESER_FORM_6_BAD_TYPE_CODE";
+  
+  /** The CAS is frozen and cannot be updated until it is reset. */
+  public static final String CAS_FROZEN = "CAS_FROZEN";
   /**
    * The constructors are organized
    * 
@@ -93,12 +93,12 @@ public interface FSIndex<T extends FeatureStructure> extends Collection<T> {
    */
   public static final int DEFAULT_BAG_INDEX = 3;
   
-//  /**
-//   * Special indexes used by the framework to implement flattened indexes
-//   * NOT CURRENTLY IN USE
-//   * Not user-definable
-//   */
-//  public static final int FLAT_INDEX = 4;
+  /**
+   * Indexing strategy: hash index. A hash index is a bag index, which in addition maps the value of
+   * its one key feature to the elements having that value, so these can be found without iterating
+   * over the index; see {@link SelectFSs#withFeatureValue(Feature, Object)}.
+   */
+  public static final int HASH_INDEX = 4;
   
   /**
    * Return the number of feature structures in this index.
@@ -106,6 +106,25 @@ public interface FSIndexRepository {
    */
   <T extends FeatureStructure> void addFS(T fs);
 
+  /**
+   * Add a collection of feature structures to all appropriate indexes in the repository, as if
+   * {@link #addFS(FeatureStructure) addFS()} was called for each one.
+   * <p>
+   * The default implementation adds them one at a time; the CAS's own index repository is
+   * faster for large collections: each sorted or set index sorts its share of the collection
+   * once, and merges it in with a single pass.
+   * 
+   * @param fss
+   *          The FSs to be added.
+   * @exception NullPointerException
+   *              If <code>fss</code> or one of its elements is <code>null</code>.
+   */
+  default void addAll(Collection<? extends FeatureStructure> fss) {
+    for (FeatureStructure fs : fss) {
+      addFS(fs);
+    }
+  }
+
   /**
    * Remove a feature structure from all indexes in the repository.
    * 
@@ -71,6 +71,23 @@ public interface SelectFSs<T extends FeatureStructure> extends Iterable<T>, Stre
    * @return the updated SelectFSs object
    */
   SelectFSs<T> nonOverlapping(boolean nonOverlapping); // requires Annotation Index
+
+  /**
+   * Filters the selection to the Feature Structures whose value of the feature is equal to the value.
+   * <p>
+   * If a hash index (see {@link FSIndex#HASH_INDEX}) keyed on the feature is defined for the selected type, 
+   * and the selection is not bounded or positioned, the Feature Structures are found by a lookup in
+   * that index, instead of by iterating over all of them.
+   * <p>
+   * Floating point values are compared as by {@link Float#equals(Object)} and {@link Double#equals(Object)},
+   * Feature Structure values by identity.
+   * @param feat a feature of the selected type
+   * @param value the value to match, in the Java representation of the range of the feature: 
+   *   Boolean, Byte, Short, Integer, Long, Float, Double, String or a FeatureStructure; or null for 
+   *   Strings and Feature Structures.  Smaller integer kinds are accepted for larger ones.
+   * @return the updated SelectFSs object
+   */
+  SelectFSs<T> withFeatureValue(Feature feat, Object value);
   
   /**
    * Meaningful only for coveredBy, includes annotations where the end exceeds the bounding annotation's end.
@@ -107,6 +107,11 @@ public enum SerialFormat {
    */
   XMI_1_1("xmi"),
   
+  /**
+   * JSON-serialized CAS; needs the uimaj-json jar on the classpath
+   */
+  JSON("json"),
+  
   ;
   
   private String defaultFileExtension;
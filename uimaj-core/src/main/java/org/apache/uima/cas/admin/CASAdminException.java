@@ -102,6 +102,11 @@ public class CASAdminException extends UIMARuntimeException {
    */
   public static final String TOO_MANY_TYPES = "TOO_MANY_TYPES";
   
+  /**
+   * The hash index "{0}" must have exactly one key, which must be a feature with a primitive range.
+   */
+  public static final String HASH_INDEX_NEEDS_ONE_FEATURE_KEY = "HASH_INDEX_NEEDS_ONE_FEATURE_KEY";
+  
   private String resourceBundleName = DEFAULT_RESOURCE_BUNDLE_NAME;
     
   public CASAdminException(String aResourceBundleName, Throwable aCause, String aMessageKey, Object ... aArguments) {
@@ -38,13 +38,14 @@ public interface FSIndexRepositoryMgr extends FSIndexRepository {
 
   /**
    * Create a new index. Note: if you creata a BAG_INDEX, the comparator will be ignored.
+   * A HASH_INDEX must have exactly one key, a feature key, whose values are the lookup keys.
    * 
    * @param comp
    *          The comparator for the new index.
    * @param label
    *          The name of the new index.
    * @param indexingStrategy
-   *          The kind of index (sorted, set, bag).
+   *          The kind of index (sorted, set, bag, hash).
    * @return <code>false</code> iff an index with the same<code>label</code> already exists.
    * @throws CASAdminException
    *           If the repository is locked (after calling {@link #commit() commit()}).
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.cas.impl;
+
+import java.util.List;
+
+import org.apache.uima.internal.util.Misc;
+import org.apache.uima.jcas.cas.TOP;
+import org.apache.uima.jcas.tcas.Annotation;
+
+/**
+ * An augmented interval index over the annotations of one type (excluding subtypes),
+ * used to answer "covering" queries in O(log n + k) instead of scanning the sorted index.
+ *
+ * The annotations are kept in annotation index order (begin ascending, end descending).
+ * This sorted array is viewed as an implicit balanced binary tree: the root of the range
+ * [lo, hi) is the element at (lo + hi) &gt;&gt;&gt; 1.  For each such root, maxEnds holds the
+ * largest end value in its range.  This lets a query skip whole ranges
+ * whose annotations all end before the query end.
+ *
+ * Instances are immutable snapshots.  They are built lazily by FsIndex_set_sorted on first use,
+ * and discarded by it when the underlying index is updated.
+ *
+ * Can be disabled by setting the JVM property uima.disable_annotation_interval_index
+ */
+final class AnnotationIntervalIndex {
+
+  static final String DISABLE_ANNOTATION_INTERVAL_INDEX = "uima.disable_annotation_interval_index";
+  static final boolean IS_DISABLE_ANNOTATION_INTERVAL_INDEX =
+      Misc.getNoValueSystemProperty(DISABLE_ANNOTATION_INTERVAL_INDEX);
+
+  /** the annotations, in index order */
+  private final Annotation[] annots;
+  private final int[] begins;
+  private final int[] ends;
+  /** indexed by the position of the root of a range, the max end value of that range */
+  private final int[] maxEnds;
+
+  /**
+   * @param sorted the annotations of one type, in index order.  Not retained.
+   */
+  AnnotationIntervalIndex(TOP[] sorted) {
+    final int size = sorted.length;
+    annots = new Annotation[size];
+    begins = new int[size];
+    ends = new int[size];
+    maxEnds = new int[size];
+    for (int i = 0; i < size; i++) {
+      Annotation a = (Annotation) sorted[i];
+      annots[i] = a;
+      begins[i] = a.getBegin();
+      ends[i] = a.getEnd();
+    }
+    computeMaxEnds(0, size);
+  }
+
+  int size() {
+    return annots.length;
+  }
+
+  /**
+   * @return the max end of the range [lo, hi), or Integer.MIN_VALUE if the range is empty
+   */
+  private int computeMaxEnds(int lo, int hi) {
+    if (lo >= hi) {
+      return Integer.MIN_VALUE;
+    }
+    final int mid = (lo + hi) >>> 1;
+    final int m = Math.max(ends[mid],
+                           Math.max(computeMaxEnds(lo, mid), computeMaxEnds(mid + 1, hi)));
+    maxEnds[mid] = m;
+    return m;
+  }
+
+  /**
+   * Adds to the result, in index order, all annotations whose begin is &lt;= begin and
+   * whose end is &gt;= end.
+   * @param begin the begin of the covered span
+   * @param end the end of the covered span
+   * @param result where the annotations are added
+   */
+  void collectCovering(int begin, int end, List<? super Annotation> result) {
+    // upper bound (exclusive) of annotations whose begin is <= begin
+    int lo = 0, hi = begins.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (begins[mid] <= begin) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    collectCovering(0, begins.length, lo, end, result);
+  }
+
+  /**
+   * In-order traversal of the implicit tree for [lo, hi), limited to positions &lt; limit,
+   * pruning subtrees whose max end is &lt; end
+   */
+  private void collectCovering(int lo, int hi, int limit, int end, List<? super Annotation> result) {
+    if (lo >= hi || lo >= limit) {
+      return;
+    }
+    final int mid = (lo + hi) >>> 1;
+    if (maxEnds[mid] < end) {
+      return;  // nothing in this range ends late enough
+    }
+    collectCovering(lo, mid, limit, end, result);
+    if (mid < limit) {
+      if (ends[mid] >= end) {
+        result.add(annots[mid]);
+      }
+      collectCovering(mid + 1, hi, limit, end, result);
+    }
+  }
+}
@@ -586,7 +586,7 @@ public class BinaryCasSerDes {
             BinaryCasSerDes6 bcsd = (f6 != null) 
                 ? new BinaryCasSerDes6(f6, ts_for_decoding)
                 : new BinaryCasSerDes6(baseCas, ts_for_decoding);
-            bcsd.deserializeAfterVersion(dis, delta, AllowPreexistingFS.allow);
+            bcsd.deserializeAfterVersion(dis, delta, AllowPreexistingFS.allow, SerDesCodecs.getCodec(h.getCodecId()));
             return h.typeSystemIndexDefIncluded 
                 ? SerialFormat.COMPRESSED_FILTERED_TSI
                 : h.typeSystemIncluded 
@@ -704,16 +704,7 @@ public class BinaryCasSerDes {
       }
             
       // add new heap slots
-      for (int i = startPos; i < fsheapsz+startPos; i++) {
-        heap.heap[i] = r.readInt();
-//        if (TRACE_DESER) {
-//          if (i < 101 + startPos) {
-//            if (i % 5 == 0) System.out.format("%n i: %4d ", i);
-//            System.out.format("%,15d ", heap.heap[i]);
-//          }
-//        }
-      }
-//      if (TRACE_DESER) System.out.println("");
+      r.readInts(heap.heap, startPos, fsheapsz);
       
       // string heap
       int stringheapsz = r.readInt();
@@ -721,9 +712,7 @@ public class BinaryCasSerDes {
       final StringHeapDeserializationHelper shdh = new StringHeapDeserializationHelper();
       
       shdh.charHeap = new char[stringheapsz];
-      for (int i = 0; i < stringheapsz; i++) {
-        shdh.charHeap[i] = (char) r.readShort();
-      }
+      r.readChars(shdh.charHeap, 0, stringheapsz);
       shdh.charHeapPos = stringheapsz;
 
       // word alignment
@@ -770,10 +759,7 @@ public class BinaryCasSerDes {
          */
         fsmodssz2 = 2 * r.readInt();
         modWords = new int[fsmodssz2];
-        
-        for (int i = 0; i < fsmodssz2; i++) {
-          modWords[i] = r.readInt();
-        }
+        r.readInts(modWords, 0, fsmodssz2);
         if (TRACE_DESER) {
           System.out.format("BinDes modified heap slot count: %,d%n", fsmodssz2 / 2);
         }
@@ -787,14 +773,14 @@ public class BinaryCasSerDes {
       int fsindexsz = r.readInt();
       int[] fsindexes = new int[fsindexsz];
       if (TRACE_DESER) System.out.format("BinDes indexedFSs count: %,d%n", fsindexsz);
-      for (int i = 0; i < fsindexsz; i++) {
-        fsindexes[i] = r.readInt();
-        if (TRACE_DESER) {
+      r.readInts(fsindexes, 0, fsindexsz);
+      if (TRACE_DESER) {
+        for (int i = 0; i < fsindexsz; i++) {
           if (i % 5 == 0) System.out.format("%n i: %5d ", i);
           System.out.format("%15d ", fsindexes[i]);
         }
+        System.out.println("");
       }
-      if (TRACE_DESER) System.out.println("");
 
       // byte heap
       int heapsz = r.readInt();
@@ -818,9 +804,7 @@ public class BinaryCasSerDes {
       
       if (!delta) {
         shortHeap.heap = new short[Math.max(16, heapsz)]; // must be > 0
-        for (int i = 0; i < heapsz; i++) {
-          shortHeap.heap[i] = r.readShort();
-        }
+        r.readShorts(shortHeap.heap, 0, heapsz);
         shortHeap.heapPos = heapsz;
       } else {
         final int pos = shortHeap.reserve(heapsz);
@@ -840,9 +824,7 @@ public class BinaryCasSerDes {
       
       if (!delta) {
         longHeap.heap = new long[Math.max(16, heapsz)]; // must be > 0
-        for (int i = 0; i < heapsz; i++) {
-          longHeap.heap[i] = r.readLong();
-        }
+        r.readLongs(longHeap.heap, 0, heapsz);
         longHeap.heapPos = heapsz;
       } else {
         longHeap.reserve(heapsz);
@@ -21,9 +21,7 @@ package org.apache.uima.cas.impl;
 
 import static org.apache.uima.cas.impl.SlotKinds.SlotKind.Slot_Int;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
@@ -34,15 +32,13 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.zip.Deflater;
-import java.util.zip.DeflaterOutputStream;
-import java.util.zip.Inflater;
-import java.util.zip.InflaterInputStream;
 
 import org.apache.uima.UimaSerializable;
 import org.apache.uima.cas.AbstractCas;
@@ -72,6 +68,7 @@ import org.apache.uima.jcas.cas.Sofa;
 import org.apache.uima.jcas.cas.StringArray;
 import org.apache.uima.jcas.cas.TOP;
 import org.apache.uima.util.CasIOUtils;
+import org.apache.uima.util.impl.ByteBufferDataInputStream;
 import org.apache.uima.util.impl.DataIO;
 import org.apache.uima.util.impl.OptimizeStrings;
 import org.apache.uima.util.impl.SerializationMeasures;
@@ -244,6 +241,27 @@ public class BinaryCasSerDes4 implements SlotKindsConstants {
    */
   public SerializationMeasures serialize(AbstractCas cas, Object out, Marker trackingMark,
       CompressLevel compressLevel, CompressStrat compressStrategy) throws IOException {
+    return serialize(cas, out, trackingMark, compressLevel, compressStrategy, null);
+  }
+
+  /**
+   * 
+   * @param cas CAS to serialize
+   * @param out output object
+   * @param trackingMark tracking mark (for delta serialization)
+   * @param codec the codec used to compress the slot kind streams, or null to use the default
+   *              (Deflate, with the compressLevel and compressStrategy, unless changed by the
+   *              JVM property {@link SerDesCodecs#SERDES_CODEC})
+   * @return null or serialization measurements (depending on setting of doMeasurements)
+   * @throws IOException if the marker is invalid
+   */
+  public SerializationMeasures serialize(AbstractCas cas, Object out, Marker trackingMark,
+      SerDesCodec codec) throws IOException {
+    return serialize(cas, out, trackingMark, CompressLevel.Default, CompressStrat.Default, codec);
+  }
+
+  private SerializationMeasures serialize(AbstractCas cas, Object out, Marker trackingMark,
+      CompressLevel compressLevel, CompressStrat compressStrategy, SerDesCodec codec) throws IOException {
     SerializationMeasures sm = (doMeasurements) ? new SerializationMeasures() : null;
     CASImpl casImpl = (CASImpl) ((cas instanceof JCas) ? ((JCas)cas).getCas(): cas);
     if (null != trackingMark && !trackingMark.isValid() ) {
@@ -252,7 +270,7 @@ public class BinaryCasSerDes4 implements SlotKindsConstants {
     
     Serializer serializer = new Serializer(
         casImpl, makeDataOutputStream(out), (MarkerImpl) trackingMark, sm,
-        compressLevel, compressStrategy, false);
+        compressLevel, compressStrategy, codec, false);
    
     serializer.serialize();
     return sm;
@@ -260,7 +278,7 @@ public class BinaryCasSerDes4 implements SlotKindsConstants {
   
   public void serializeWithTsi(CASImpl casImpl, Object out) throws IOException {
     Serializer serializer = new Serializer(
-        casImpl, makeDataOutputStream(out), null, null, CompressLevel.Default, CompressStrat.Default, true);
+        casImpl, makeDataOutputStream(out), null, null, CompressLevel.Default, CompressStrat.Default, null, true);
     serializer.serialize();
   }
   
@@ -279,7 +297,7 @@ public class BinaryCasSerDes4 implements SlotKindsConstants {
 
   public void deserialize(CASImpl cas, InputStream deserIn, boolean isDelta, CommonSerDes.Header h) throws IOException {
     DataInput in = (DataInput) deserIn;
-    Deserializer deserializer = new Deserializer(cas, in, isDelta);    
+    Deserializer deserializer = new Deserializer(cas, in, isDelta, SerDesCodecs.getCodec(h.getCodecId()));    
     deserializer.deserialize(h);
   }
   
@@ -316,8 +334,7 @@ public class BinaryCasSerDes4 implements SlotKindsConstants {
 //    final private Integer[] serializedTypeCode2Code = new Integer[ts.getTypeArraySize()]; // needs to be Integer to get comparator choice
 //    final private int[] estimatedZipSize = new int[NBR_SLOT_KIND_ZIP_STREAMS]; // one entry for each output stream kind
     final private OptimizeStrings os;
-    final private CompressLevel compressLevel;
-    final private CompressStrat compressStrategy;
+    final private SerDesCodec codec;
     
  //    private int iPrevHeap;        // 0 or heap addr of previous instance of current type
     /**
@@ -380,12 +397,14 @@ public class BinaryCasSerDes4 implements SlotKindsConstants {
      * @param sm -
      * @param compressLevel -
      * @param compressStrategy -
+     * @param codec null or the codec to use
      */
 
     private Serializer(CASImpl cas, DataOutputStream serializedOut, MarkerImpl mark,
                        SerializationMeasures sm,
                        CompressLevel compressLevel,
                        CompressStrat compressStrategy,
+                       SerDesCodec codec,
                        boolean isTsi) {
       this.baseCas = cas.getBaseCAS();
       this.bcsd = cas.getBinaryCasSerDes();
@@ -397,8 +416,7 @@ public class BinaryCasSerDes4 implements SlotKindsConstants {
       this.serializedOut = serializedOut;
       this.mark = mark;
       this.sm = sm;
-      this.compressLevel = compressLevel;
-      this.compressStrategy = compressStrategy;
+      this.codec = SerDesCodecs.getCodecForSerialization(codec, compressLevel.lvl, compressStrategy.strat);
       this.isTsi = isTsi;
       
       doMeasurement = (sm != null);
@@ -476,6 +494,7 @@ public class BinaryCasSerDes4 implements SlotKindsConstants {
           .v3()
           .seqVer(2)    // 0 - original, 1 - UIMA-4743, 2 - v3 
           .form4()
+          .codec(codec)
           .delta(isDelta)
           .typeSystemIndexDefIncluded(isTsi)
           .write(serializedOut);
@@ -920,8 +939,6 @@ public class BinaryCasSerDes4 implements SlotKindsConstants {
      */
     private void collectAndZip() throws IOException {
       ByteArrayOutputStream baosZipped = new ByteArrayOutputStream(4096);
-      Deflater deflater = new Deflater(compressLevel.lvl, true);
-      deflater.setStrategy(compressStrategy.strat);
       int nbrEntries = 0;
       
       List<Integer> idxAndLen = new ArrayList<>();
@@ -932,19 +949,15 @@ public class BinaryCasSerDes4 implements SlotKindsConstants {
           nbrEntries ++;
           dosZipSources[i].close();
           long startTime = System.currentTimeMillis();
-          int zipBufSize = Math.max(1024, baos.size() / 100);
-          deflater.reset();
-          DeflaterOutputStream cds = new DeflaterOutputStream(baosZipped, deflater, zipBufSize);       
-          baos.writeTo(cds);
-          cds.close();
+          int bytesCompr = codec.compress(baos, baosZipped);
           idxAndLen.add(i);
           if (doMeasurement) {
-            idxAndLen.add((int) (sm.statDetails[i].afterZip = deflater.getBytesWritten()));
-            idxAndLen.add((int) (sm.statDetails[i].beforeZip = deflater.getBytesRead()));
+            idxAndLen.add((int) (sm.statDetails[i].afterZip = bytesCompr));
+            idxAndLen.add((int) (sm.statDetails[i].beforeZip = baos.size()));
             sm.statDetails[i].zipTime = System.currentTimeMillis() - startTime;
           } else {
-            idxAndLen.add((int) deflater.getBytesWritten());
-            idxAndLen.add((int) deflater.getBytesRead());
+            idxAndLen.add(bytesCompr);
+            idxAndLen.add(baos.size());
           }
         } 
       }
@@ -1495,7 +1508,8 @@ public class BinaryCasSerDes4 implements SlotKindsConstants {
     final private DataInput deserIn;
 
     final private DataInputStream[] dataInputs = new DataInputStream[NBR_SLOT_KIND_ZIP_STREAMS];
-    private Inflater[] inflaters = new Inflater[NBR_SLOT_KIND_ZIP_STREAMS];
+    /** the codec recorded in the header, used to decompress the slot kind streams */
+    final private SerDesCodec codec;
 
     /** the FS being deserialized */
     private TOP currentFs;
@@ -1599,9 +1613,11 @@ public class BinaryCasSerDes4 implements SlotKindsConstants {
      * this was a compressed binary 
      * @param cas CAS
      * @param deserIn input data
+     * @param codec the codec used to compress the slot kind streams
      * @throws IOException passthru
      */
-    Deserializer(CASImpl cas, DataInput deserIn, boolean isDelta) throws IOException {
+    Deserializer(CASImpl cas, DataInput deserIn, boolean isDelta, SerDesCodec codec) throws IOException {
+      this.codec = codec;
       this.baseCas = cas.getBaseCAS();
       this.ivCas = baseCas.getInitialView();
       this.bcsd = cas.getBinaryCasSerDes();     
@@ -2127,6 +2143,12 @@ public class BinaryCasSerDes4 implements SlotKindsConstants {
         int slotIndex, 
         int bytesCompr,
         int bytesOrig) throws IOException {
+      if (deserIn instanceof ByteBufferDataInputStream) {
+        // e.g. memory mapped, decompress from the buffer without copying it first
+        ByteBuffer compressed = ((ByteBufferDataInputStream)deserIn).readSlice(bytesCompr);
+        dataInputs[slotIndex] = new DataInputStream(codec.decompress(compressed, bytesOrig));
+        return;
+      }
       byte[] b = new byte[bytesCompr + 1];
       deserIn.readFully(b, 0, bytesCompr);  // this leaves 1 extra 0 byte at the end
       // which may be required by Inflater with nowrap option - see Inflater javadoc
@@ -2149,12 +2171,7 @@ public class BinaryCasSerDes4 implements SlotKindsConstants {
 //          SlotKind.values()[slotIndex], System.currentTimeMillis() - startTime); 
 //      
 //      dataInputs[slotIndex] = new DataInputStream(new ByteArrayInputStream(uncompressed));
-      Inflater inflater = new Inflater(true);
-      inflaters[slotIndex] = inflater;  // save to be able to call end() when done. 
-      ByteArrayInputStream baiStream = new ByteArrayInputStream(b);      
-      int zipBufSize = Math.max(1024, bytesCompr);
-      InflaterInputStream iis = new InflaterInputStream(baiStream, inflater, zipBufSize);
-      dataInputs[slotIndex] = new DataInputStream(new BufferedInputStream(iis, zipBufSize));
+      dataInputs[slotIndex] = new DataInputStream(codec.decompress(b, bytesCompr, bytesOrig));
     }
     
     private void closeDataInputs() {
@@ -2166,12 +2183,6 @@ public class BinaryCasSerDes4 implements SlotKindsConstants {
           }
         }
       }
-      // release any space inflater holding on to
-      for (Inflater inflater : inflaters) {
-        if (null != inflater) {
-          inflater.end();
-        }
-      }
     }
     
     private DataInput getInputStream(SlotKind kind) {
@@ -24,7 +24,6 @@ import static org.apache.uima.cas.impl.SlotKinds.SlotKind.Slot_HeapRef;
 import static org.apache.uima.cas.impl.SlotKinds.SlotKind.Slot_Int;
 import static org.apache.uima.cas.impl.SlotKinds.SlotKind.Slot_LongRef;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -37,17 +36,18 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Consumer;
 import java.util.function.IntFunction;
 import java.util.stream.Stream;
 import java.util.zip.Deflater;
-import java.util.zip.DeflaterOutputStream;
-import java.util.zip.Inflater;
-import java.util.zip.InflaterInputStream;
 
 import org.apache.uima.UimaSerializable;
 import org.apache.uima.cas.AbstractCas;
@@ -80,6 +80,7 @@ import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.util.AutoCloseableNoException;
 import org.apache.uima.util.CasIOUtils;
 import org.apache.uima.util.CasLoadMode;
+import org.apache.uima.util.impl.ByteBufferDataInputStream;
 import org.apache.uima.util.impl.DataIO;
 import org.apache.uima.util.impl.OptimizeStrings;
 import org.apache.uima.util.impl.SerializationMeasures;
@@ -207,6 +208,37 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
   
   private static final boolean TRACE_STR_ARRAY = false;
   
+  /**
+   * Set this JVM property to compress and decompress the separate slot kind streams in parallel,
+   * using the common ForkJoinPool.  The serialized form is the same either way.
+   */
+  public static final String PARALLEL_ZIP = "uima.serdes6_parallel_zip";
+  
+  /** not final, so tests can switch it, see {@link #setParallelZip(boolean, int)} */
+  private static boolean isParallelZip = Misc.getNoValueSystemProperty(PARALLEL_ZIP);
+  
+  /**
+   * Below this number of uncompressed bytes, the slot kind streams are zipped / unzipped 
+   * sequentially even if PARALLEL_ZIP is set - not worth the task overhead.
+   */
+  private static int parallelZipMinBytes = 1 << 16;
+  
+  // for testing
+  static boolean isParallelZip() {
+    return isParallelZip;
+  }
+  
+  // for testing
+  static int getParallelZipMinBytes() {
+    return parallelZipMinBytes;
+  }
+  
+  // for testing
+  static void setParallelZip(boolean aIsParallelZip, int aParallelZipMinBytes) {
+    isParallelZip = aIsParallelZip;
+    parallelZipMinBytes = aParallelZipMinBytes;
+  }
+  
   /**
    * Compression alternatives
    */
@@ -282,6 +314,7 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
   final private TypeSystemImpl tgtTs;
   final private CompressLevel compressLevel;
   final private CompressStrat compressStrategy;  
+  final private SerDesCodec codec;  // for serializing; deserializing uses the codec in the header
   
   /*****************************************************
    *  Things for both serialization and Deserialization
@@ -444,7 +477,7 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
   private int version;
 
   final private DataInputStream[] dataInputs = new DataInputStream[NBR_SLOT_KIND_ZIP_STREAMS];
-  final private Inflater[] inflaters = new Inflater               [NBR_SLOT_KIND_ZIP_STREAMS];
+  private SerDesCodec deserCodec;  // the codec recorded in the header
 
   /** the "fixups" for relative heap refs
    *  actions set slot values 
@@ -525,7 +558,31 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
       boolean doMeasurements,
       CompressLevel compressLevel, 
       CompressStrat compressStrategy) throws ResourceInitializationException {
-    this(aCas, mark, tgtTs, false, false, rfs, doMeasurements, compressLevel, compressStrategy);
+    this(aCas, mark, tgtTs, false, false, rfs, doMeasurements, compressLevel, compressStrategy, null);
+  }
+  
+  /**
+   * Setup to serialize or deserialize using binary compression, with (optional) type mapping and only processing reachable Feature Structures,
+   * compressing with a specific codec
+   * @param aCas required - refs the CAS being serialized or deserialized into
+   * @param mark if not null is the serialization mark for delta serialization.  Unused for deserialization.
+   * @param tgtTs if not null is the target type system.  
+   *                - For serialization - this is a subset of the CASs TS
+   *                - for deserialization, is the type system of the serialized data being read.
+   * @param rfs Reused Feature Structure information - see the other constructors
+   * @param doMeasurements if true, measurements are done (on serialization)
+   * @param codec the codec used to compress when serializing, see {@link SerDesCodecs}.
+   *              Deserializing uses the codec recorded in the serialized data.
+   * @throws ResourceInitializationException if the target type system is incompatible with the source type system
+   */
+  public BinaryCasSerDes6(
+      AbstractCas aCas,
+      MarkerImpl mark,
+      TypeSystemImpl tgtTs, 
+      ReuseInfo rfs,
+      boolean doMeasurements,
+      SerDesCodec codec) throws ResourceInitializationException {
+    this(aCas, mark, tgtTs, false, false, rfs, doMeasurements, CompressLevel.Default, CompressStrat.Default, codec);
   }
    
   private BinaryCasSerDes6(
@@ -537,7 +594,8 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
       ReuseInfo rfs,
       boolean doMeasurements,
       CompressLevel compressLevel, 
-      CompressStrat compressStrategy) throws ResourceInitializationException {
+      CompressStrat compressStrategy,
+      SerDesCodec codec) throws ResourceInitializationException {
     cas = ((CASImpl) ((aCas instanceof JCas) ? ((JCas)aCas).getCas(): aCas)).getBaseCAS();
     bcsd = cas.getBinaryCasSerDes();
     
@@ -573,6 +631,7 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
 
     this.compressLevel = compressLevel;
     this.compressStrategy = compressStrategy;
+    this.codec = SerDesCodecs.getCodecForSerialization(codec, compressLevel.lvl, compressStrategy.strat);
     reuseInfoProvided = (rfs != null);
     if (reuseInfoProvided) {
       foundFSs = rfs.foundFSs;  // broken for serialization - not reused
@@ -604,6 +663,7 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
     this.tgtTs = tgtTs;  // passed in argument !
     this.compressLevel = f6.compressLevel;
     this.compressStrategy = f6.compressStrategy;
+    this.codec = f6.codec;
 
     this.mark = f6.mark;
     if (null != mark && !mark.isValid() ) {
@@ -636,7 +696,7 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
    * @throws ResourceInitializationException never thrown 
    */
   public BinaryCasSerDes6(AbstractCas cas) throws ResourceInitializationException {
-    this(cas, null, null, false, false, null, false, CompressLevel.Default, CompressStrat.Default);
+    this(cas, null, null, false, false, null, false, CompressLevel.Default, CompressStrat.Default, null);
   }
   
   /**
@@ -646,7 +706,7 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
    * @throws ResourceInitializationException if the target type system is incompatible with the source type system
    */
   public BinaryCasSerDes6(AbstractCas cas, TypeSystemImpl tgtTs) throws ResourceInitializationException {
-    this(cas, null, tgtTs, false, false, null, false, CompressLevel.Default, CompressStrat.Default);
+    this(cas, null, tgtTs, false, false, null, false, CompressLevel.Default, CompressStrat.Default, null);
   }
 
   /**
@@ -658,7 +718,7 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
    * @throws ResourceInitializationException if the target type system is incompatible with the source type system
    */
   public BinaryCasSerDes6(AbstractCas cas, MarkerImpl mark, TypeSystemImpl tgtTs, ReuseInfo rfs) throws ResourceInitializationException {
-    this(cas, mark, tgtTs, false, false, rfs, false, CompressLevel.Default, CompressStrat.Default);
+    this(cas, mark, tgtTs, false, false, rfs, false, CompressLevel.Default, CompressStrat.Default, null);
   }
   
   /**
@@ -671,7 +731,7 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
    * @throws ResourceInitializationException if the target type system is incompatible with the source type system
    */
   public BinaryCasSerDes6(AbstractCas cas, MarkerImpl mark, TypeSystemImpl tgtTs, ReuseInfo rfs, boolean doMeasurements) throws ResourceInitializationException {
-    this(cas, mark, tgtTs, false, false, rfs, doMeasurements, CompressLevel.Default, CompressStrat.Default);
+    this(cas, mark, tgtTs, false, false, rfs, doMeasurements, CompressLevel.Default, CompressStrat.Default, null);
   }
 
   /**
@@ -681,7 +741,7 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
    * @throws ResourceInitializationException never thrown
    */
   public BinaryCasSerDes6(AbstractCas cas, ReuseInfo rfs) throws ResourceInitializationException {
-    this(cas, null, null, false, false, rfs, false, CompressLevel.Default, CompressStrat.Default);
+    this(cas, null, null, false, false, rfs, false, CompressLevel.Default, CompressStrat.Default, null);
   }
 
   /**
@@ -693,7 +753,7 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
    * @throws ResourceInitializationException never thrown
    */
   public BinaryCasSerDes6(AbstractCas cas, ReuseInfo rfs, boolean storeTS, boolean storeTSI) throws ResourceInitializationException {
-    this(cas, null, null, storeTS, storeTSI, rfs, false, CompressLevel.Default, CompressStrat.Default);
+    this(cas, null, null, storeTS, storeTSI, rfs, false, CompressLevel.Default, CompressStrat.Default, null);
   }
 
   /*********************************************************************************************
@@ -728,6 +788,7 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
   
       CommonSerDes.createHeader()
       .form6()
+      .codec(codec)
       .delta(isSerializingDelta)
       .seqVer(2) // 2 == version 3 (or later)
       .v3()
@@ -833,8 +894,7 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
         } else {
           if (isTypeMapping) {
             // Serialize out in the order the features are in the target
-            for (FeatureImpl tgtFeat : tgtType.getFeatureImpls()) {
-              FeatureImpl srcFeat = typeMapper.getSrcFeature(tgtType, tgtFeat);
+            for (FeatureImpl srcFeat : typeMapper.getSrcFeatures(tgtType)) {
               assert(srcFeat != null); //for serialization, target is never a superset of features of src
               serializeByKind(fs, srcFeat);
             }
@@ -1121,9 +1181,11 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
    * @throws IOException passthru
    */
   private void collectAndZip() throws IOException {
+    if (isParallelZip && isWorthZippingInParallel()) {
+      collectAndZipParallel();
+      return;
+    }
     ByteArrayOutputStream baosZipped = new ByteArrayOutputStream(4096);
-    Deflater deflater = new Deflater(compressLevel.lvl, true);
-    deflater.setStrategy(compressStrategy.strat);
     int nbrEntries = 0;
     
     List<Integer> idxAndLen = new ArrayList<>();
@@ -1134,19 +1196,15 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
         nbrEntries ++;
         dosZipSources[i].close();
         long startTime = System.currentTimeMillis();
-        int zipBufSize = Math.max(1024, baos.size() / 100);
-        deflater.reset();
-        DeflaterOutputStream cds = new DeflaterOutputStream(baosZipped, deflater, zipBufSize);       
-        baos.writeTo(cds);
-        cds.close();
+        int bytesCompr = codec.compress(baos, baosZipped);
         idxAndLen.add(i);
         if (doMeasurements) {
-          idxAndLen.add((int)(sm.statDetails[i].afterZip = deflater.getBytesWritten()));            
-          idxAndLen.add((int)(sm.statDetails[i].beforeZip = deflater.getBytesRead()));
+          idxAndLen.add((int)(sm.statDetails[i].afterZip = bytesCompr));            
+          idxAndLen.add((int)(sm.statDetails[i].beforeZip = baos.size()));
           sm.statDetails[i].zipTime = System.currentTimeMillis() - startTime;
         } else {
-          idxAndLen.add((int)deflater.getBytesWritten());            
-          idxAndLen.add((int)deflater.getBytesRead());
+          idxAndLen.add(bytesCompr);            
+          idxAndLen.add(baos.size());
         }
       } 
     } // end of for loop
@@ -1168,6 +1226,100 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
     }
     baosZipped.writeTo(serializedOut);                      // write Compressed info
   }  
+  
+  private boolean isWorthZippingInParallel() {
+    int nbrEntries = 0;
+    long totalSize = 0;
+    for (ByteArrayOutputStream baos : baosZipSources) {
+      if (baos != null) {
+        nbrEntries ++;
+        totalSize += baos.size();
+      }
+    }
+    return nbrEntries > 1 && totalSize >= parallelZipMinBytes;
+  }
+  
+  /**
+   * Same as collectAndZip, but each stream is compressed in a separate task.
+   * Each stream is compressed independently in the sequential version too, so the result is identical.
+   * @throws IOException passthru
+   */
+  private void collectAndZipParallel() throws IOException {
+    final int nbrSources = baosZipSources.length;
+    final ByteArrayOutputStream[] zipped = new ByteArrayOutputStream[nbrSources];
+    final long[][] zipInfo = new long[nbrSources][]; // compressed size, uncompressed size, zip time
+    final ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[nbrSources];
+    int nbrEntries = 0;
+
+    for (int i = 0; i < nbrSources; i++) {
+      final ByteArrayOutputStream baos = baosZipSources[i];
+      if (baos != null) {
+        nbrEntries ++;
+        dosZipSources[i].close();
+        final int slotIndex = i;
+        tasks[i] = ForkJoinPool.commonPool().submit(() -> {
+          long startTime = System.currentTimeMillis();
+          ByteArrayOutputStream baosZipped = new ByteArrayOutputStream(Math.max(1024, baos.size() >> 2));
+          int bytesCompr = codec.compress(baos, baosZipped);
+          zipped[slotIndex] = baosZipped;
+          zipInfo[slotIndex] = new long[] {bytesCompr, baos.size(), System.currentTimeMillis() - startTime};
+          return null;  // a Callable, so it can throw IOException
+        });
+      }
+    }
+    
+    for (ForkJoinTask<?> task : tasks) {
+      if (task != null) {
+        waitFor(task);
+      }
+    }
+    
+    // same format as collectAndZip
+    serializedOut.writeInt(nbrEntries);                     // write number of entries
+    for (int i = 0; i < nbrSources; i++) {
+      if (zipped[i] != null) {
+        if (doMeasurements) {
+          sm.statDetails[i].afterZip = zipInfo[i][0];
+          sm.statDetails[i].beforeZip = zipInfo[i][1];
+          sm.statDetails[i].zipTime = zipInfo[i][2];
+        }
+        serializedOut.write(i);
+        serializedOut.writeInt((int)zipInfo[i][0]);
+        serializedOut.writeInt((int)zipInfo[i][1]);
+      }
+    }
+    for (ByteArrayOutputStream baosZipped : zipped) {
+      if (baosZipped != null) {
+        baosZipped.writeTo(serializedOut);                  // write Compressed info
+      }
+    }
+  }
+  
+  /**
+   * Wait for a zip or unzip task, rethrowing its exception
+   * @param task the task to wait for
+   * @throws IOException if the task threw one
+   */
+  private static void waitFor(ForkJoinTask<?> task) throws IOException {
+    try {
+      task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
  
   private void writeLong(long v, long prev) throws IOException {
     writeDiff(long_High_i, (int)(v >>> 32), (int)(prev >>> 32));
@@ -1738,8 +1890,34 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
   }
   
   
+  /**
+   * Deserializes data compressed with the default codec, whose header was already read.
+   * @param istream input stream, positioned after the header
+   * @param isDelta true if the data is a delta CAS
+   * @param allowPreexistingFS what to do if item already exists below the mark
+   * @throws IOException passthru
+   * @deprecated data compressed with another codec would be misread; use
+   *   {@link #deserializeAfterVersion(DataInputStream, boolean, AllowPreexistingFS, SerDesCodec)}
+   *   with the codec from the header
+   */
+  @Deprecated
   public void deserializeAfterVersion(DataInputStream istream, boolean isDelta, AllowPreexistingFS allowPreexistingFS) throws IOException {
+    deserializeAfterVersion(istream, isDelta, allowPreexistingFS, SerDesCodecs.DEFLATE);
+  }
+  
+  /**
+   * Deserializes data whose header was already read, see {@link CommonSerDes#readHeader(DataInputStream)}.
+   * @param istream input stream, positioned after the header
+   * @param isDelta true if the data is a delta CAS
+   * @param allowPreexistingFS what to do if item already exists below the mark
+   * @param codec the codec recorded in the header of the data being deserialized, 
+   *              see {@link SerDesCodecs#getCodec(int)} and {@link Header#getCodecId()}
+   * @throws IOException passthru
+   */
+  public void deserializeAfterVersion(DataInputStream istream, boolean isDelta, AllowPreexistingFS allowPreexistingFS, 
+                               SerDesCodec codec) throws IOException {
 
+    this.deserCodec = codec;
     this.allowPreexistingFS = allowPreexistingFS;
     if (allowPreexistingFS == AllowPreexistingFS.ignore) {
       throw new UnsupportedOperationException("AllowPreexistingFS.ignore not an allowed setting");
@@ -1890,9 +2068,11 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
         
         // is normal type with slots, not an array
         if (isTypeMapping && storeIt) {
-          for (FeatureImpl tgtFeat : tgtType.getFeatureImpls()) {
-            final FeatureImpl srcFeat = typeMapper.getSrcFeature(tgtType, tgtFeat);
-            readByKind(currentFs, tgtFeat, srcFeat, storeIt, tgtType);
+          // the src features in tgt feature order, precompiled by the type mapper
+          final FeatureImpl[] tgtFeats = tgtType.getFeatureImpls();
+          final FeatureImpl[] srcFeats = typeMapper.getSrcFeatures(tgtType);
+          for (int i = 0; i < tgtFeats.length; i++) {
+            readByKind(currentFs, tgtFeats[i], srcFeats[i], storeIt, tgtType);
           }
         } else {
           for (FeatureImpl tgtFeat : tgtType.getFeatureImpls()) {
@@ -2177,7 +2357,7 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
       break;
       
     case Slot_StrRef: 
-      final String vString = readString(storeIt);
+      final String vString = storeIt ? intern(srcFeat, readString(true)) : readString(false);
       if (null == vString) {
         break;  // null is the default value, no need to set it
       }
@@ -2484,6 +2664,15 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
   private long readVlong(DataInput dis) throws IOException {
     return DataIO.readVlong(dis);
   }
+
+  /**
+   * @param srcFeat the feature being set
+   * @param s the deserialized value
+   * @return the shared instance of the value if the feature's values are interned, else the value
+   */
+  private String intern(FeatureImpl srcFeat, String s) {
+    return (s == null || !srcFeat.isInternStrings()) ? s : srcTs.getStringInterner().intern(s);
+  }
     
   /**
    * 
@@ -2556,7 +2745,7 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
     private long vPrevModLong = 0;
     private int iHeap;
     /** a map from target offsets to source offsets */
-    private FeatureImpl[] tgtF2srcF;
+    private int[] tgtF2srcOffsets;
     
     // next for managing index removes / readds
     private FSsTobeAddedbackSingle addbackSingle;
@@ -2611,7 +2800,7 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
         
         TypeImpl srcType = fs._getTypeImpl();
         if (isTypeMapping) {
-          tgtF2srcF = typeMapper.getSrcFeatures(typeMapper.mapTypeSrc2Tgt(srcType));
+          tgtF2srcOffsets = typeMapper.getSrcFeatureOffsets(typeMapper.mapTypeSrc2Tgt(srcType));
         }
         
         final int numberOfModsInThisFs = readVnumber(fsIndexes_dis); 
@@ -2713,7 +2902,7 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
         
         // srcOffsetInFs is either array index or feature offset
         final int srcOffsetInFs = (!isArray && isTypeMapping) 
-                                    ? tgtF2srcF[tgtOffsetInFs].getOffset() 
+                                    ? tgtF2srcOffsets[tgtOffsetInFs] 
                                     : tgtOffsetInFs;
         
           // srcOffset must be >= 0 because if type mapping, and delta cas being deserialized,
@@ -2798,7 +2987,7 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
             if (isArray) {
               ((StringArray)fs).set(srcOffsetInFs, v);
             } else {
-              fs.setStringValue (srcFeat, v);
+              fs.setStringValue (srcFeat, intern(srcFeat, v));
             }
           }
           break; 
@@ -3247,11 +3436,15 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
     for (int i = 0; i < nbrEntries; i++) {
       idxAndLen.add(deserIn.readUnsignedByte());  // slot ordinal number
       idxAndLen.add(deserIn.readInt());           // compressed size, bytes
-      idxAndLen.add(deserIn.readInt());           // decompressed size, bytes (not currently used)
+      idxAndLen.add(deserIn.readInt());           // decompressed size, bytes: sizes the output buffers, and decides on unzipping in parallel
     }
     
-    for (int i = 0; i < idxAndLen.size();) {
-      setupReadStream(idxAndLen.get(i++), idxAndLen.get(i++), idxAndLen.get(i++));
+    if (isParallelZip && isWorthUnzippingInParallel(idxAndLen)) {
+      setupReadStreamsParallel(idxAndLen);
+    } else {
+      for (int i = 0; i < idxAndLen.size();) {
+        setupReadStream(idxAndLen.get(i++), idxAndLen.get(i++), idxAndLen.get(i++));
+      }
     }
 
     arrayLength_dis = dataInputs[arrayLength_i];
@@ -3279,37 +3472,49 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
       int slotIndex, 
       int bytesCompr,
       int bytesOrig) throws IOException {
+    if (deserIn instanceof ByteBufferDataInputStream) {
+      // e.g. memory mapped, decompress from the buffer without copying it first
+      ByteBuffer compressed = ((ByteBufferDataInputStream)deserIn).readSlice(bytesCompr);
+      dataInputs[slotIndex] = new DataInputStream(deserCodec.decompress(compressed, bytesOrig));
+      return;
+    }
     byte[] b = new byte[bytesCompr + 1];
     deserIn.readFully(b, 0, bytesCompr);  // this leaves 1 extra 0 byte at the end
     // which may be required by Inflater with nowrap option - see Inflater javadoc
-    
-    // testing inflate speed
-//      long startTime = System.currentTimeMillis();
-//      inflater.reset();
-//      inflater.setInput(b);
-//      byte[] uncompressed = new byte[bytesOrig];
-//      int uncompressedLength = 0;
-//      try {
-//        uncompressedLength = inflater.inflate(uncompressed);
-//      } catch (DataFormatException e) {
-//        throw new RuntimeException(e);
-//      }
-//      if (uncompressedLength != bytesOrig) {
-//        throw new RuntimeException();
-//      }
-//      System.out.format("Decompress %s took %,d ms%n", 
-//          SlotKind.values()[slotIndex], System.currentTimeMillis() - startTime); 
-//      
-//      dataInputs[slotIndex] = new DataInputStream(new ByteArrayInputStream(uncompressed));
-    Inflater inflater = new Inflater(true);
-    inflaters[slotIndex] = inflater;  // save to be able to call end() when done. 
-    ByteArrayInputStream baiStream = new ByteArrayInputStream(b);      
-    int zipBufSize = Math.max(1 << 10, bytesCompr); // 32768 == 1<< 15.  Tuned by trials on 2015 intel i7
-     // caches: L1 = 128KB    L2 = 1M     L3 = 6M
-     // increasing the max causes cache dumping on this machine, and things slow down
-    InflaterInputStream iis = new InflaterInputStream(baiStream, inflater, zipBufSize);
-    // increasing the following buffer stream buffer size also seems to slow things down
-    dataInputs[slotIndex] = new DataInputStream(new BufferedInputStream(iis, zipBufSize * 1 ));
+    dataInputs[slotIndex] = new DataInputStream(deserCodec.decompress(b, bytesCompr, bytesOrig));
+  }
+  
+  private static boolean isWorthUnzippingInParallel(IntVector idxAndLen) {
+    long totalSize = 0;
+    for (int i = 2; i < idxAndLen.size(); i += 3) {
+      totalSize += idxAndLen.get(i);
+    }
+    return idxAndLen.size() > 3 && totalSize >= parallelZipMinBytes;
+  }
+  
+  /**
+   * Reads all the compressed streams, and decompresses them in parallel, each fully into a byte array,
+   * using the uncompressed sizes recorded when serializing.
+   * @param idxAndLen triples of slot index, compressed size, uncompressed size
+   * @throws IOException passthru
+   */
+  private void setupReadStreamsParallel(IntVector idxAndLen) throws IOException {
+    final List<ForkJoinTask<?>> tasks = new ArrayList<>(idxAndLen.size() / 3);
+    for (int i = 0; i < idxAndLen.size();) {
+      final int slotIndex = idxAndLen.get(i++);
+      final int bytesCompr = idxAndLen.get(i++);
+      final int bytesOrig = idxAndLen.get(i++);
+      final byte[] b = new byte[bytesCompr + 1];
+      deserIn.readFully(b, 0, bytesCompr);  // leaves 1 extra 0 byte at the end, see setupReadStream
+      tasks.add(ForkJoinPool.commonPool().submit(() -> {
+        byte[] uncompressed = deserCodec.decompressFully(b, bytesCompr, bytesOrig);
+        dataInputs[slotIndex] = new DataInputStream(new ByteArrayInputStream(uncompressed));
+        return null;  // a Callable, so it can throw IOException
+      }));
+    }
+    for (ForkJoinTask<?> task : tasks) {
+      waitFor(task);
+    }
   }
   
   private void closeDataInputs() {
@@ -3321,12 +3526,6 @@ public class BinaryCasSerDes6 implements SlotKindsConstants {
         }
       }
     }
-    // release any space inflater holding on to
-    for (Inflater inflater : inflaters) {
-      if (null != inflater) {
-        inflater.end();
-      }
-    }
   }
 
   /*********************************************
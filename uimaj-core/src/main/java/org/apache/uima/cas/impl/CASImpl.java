@@ -435,6 +435,18 @@ public class CASImpl extends AbstractCas_ImplBase implements CAS, CASMgr, LowLev
     // not final because set with reinit deserialization
     private TypeSystemImpl tsi;
 
+    /**
+     * The int data of the Feature Structures of columnar types, indexed by type code;
+     * created lazily, and dropped when the type system changes
+     */
+    FsColumns[] fsColumns;
+
+    /**
+     * true from freeze() until the next reset.
+     * Not volatile: the CAS is frozen on the thread that filled it, before being handed to other threads
+     */
+    private boolean isFrozen = false;
+
     private ComponentInfo componentInfo;
     
     /**
@@ -699,11 +711,38 @@ public class CASImpl extends AbstractCas_ImplBase implements CAS, CASMgr, LowLev
                   : v;
     }
     
+    /**
+     * @param ti a columnar type
+     * @return the ordinal in the columns of that type for a new Feature Structure
+     */
+    int allocateColumnOrdinal(TypeImpl ti) {
+      final int typeCode = ti.getCode();
+      if (fsColumns == null || fsColumns.length <= typeCode) {
+        FsColumns[] a = new FsColumns[Math.max(typeCode + 1, ti.getTypeSystem().getTypeArraySize())];
+        if (fsColumns != null) {
+          System.arraycopy(fsColumns, 0, a, 0, fsColumns.length);
+        }
+        fsColumns = a;
+      }
+      FsColumns c = fsColumns[typeCode];
+      if (c == null) {
+        c = fsColumns[typeCode] = new FsColumns(ti.nbrOfUsedIntDataSlots);
+      }
+      return c.allocate();
+    }
+
     void clearCasReset() {
       // fss
       fsIdGenerator = 0;
       lastFsV2Size = 1;
       id2fs.clear();
+      if (fsColumns != null) {
+        for (FsColumns c : fsColumns) {
+          if (c != null) {
+            c.reset();
+          }
+        }
+      }
       
       // pear caches
       id2tramp = null;
@@ -786,6 +825,7 @@ public class CASImpl extends AbstractCas_ImplBase implements CAS, CASMgr, LowLev
 
       // type system + index spec
       tsi = null;
+      fsColumns = null;
       featureCodesInIndexKeys.clear();
 //      featureJiInIndexKeys.clear();
       
@@ -809,6 +849,9 @@ public class CASImpl extends AbstractCas_ImplBase implements CAS, CASMgr, LowLev
     }
     
     private void resetNoQuestions(boolean flushIndexRepos) {
+      if (isFrozen) {
+        unfreeze();
+      }
       casResets.incrementAndGet();
       if (trace) {
         System.out.println("CAS Reset in thread " + Thread.currentThread().getName() +
@@ -835,6 +878,32 @@ public class CASImpl extends AbstractCas_ImplBase implements CAS, CASMgr, LowLev
       switchControl.clear();  //  https://issues.apache.org/jira/browse/UIMA-6057
     }
     
+    private void freeze() {
+      forAllIndexRepositories(ir -> ir.freeze());
+      setCasState(CasState.READ_ONLY, null);
+      isFrozen = true;
+    }
+    
+    private void unfreeze() {
+      isFrozen = false;
+      clearCasState(CasState.READ_ONLY);
+      forAllIndexRepositories(ir -> ir.unfreeze());
+    }
+    
+    /**
+     * @param action applied to the index repositories of all the views and of the base CAS 
+     */
+    private void forAllIndexRepositories(Consumer<FSIndexRepositoryImpl> action) {
+      int numViews = viewCount;
+      for (int view = 1; view <= numViews; view++) {
+        CASImpl tcas = (view == 1) ? getInitialView() : getViewFromSofaNbr(view);
+        if (tcas != null) {
+          action.accept(tcas.indexRepository);
+        }
+      }
+      action.accept(baseCAS.indexRepository);
+    }
+    
     private void flushIndexRepositoriesAllViews() {
       int numViews = viewCount;
       for (int view = 1; view <= numViews; view++) {
@@ -1874,6 +1943,37 @@ public class CASImpl extends AbstractCas_ImplBase implements CAS, CASMgr, LowLev
     return getTypeSystemImpl();
   }
 
+  /**
+   * @see org.apache.uima.cas.CAS#freeze()
+   */
+  @Override
+  public void freeze() {
+    if (svd.isFrozen) {
+      return;
+    }
+    // create now what readers would otherwise create lazily
+    forAllViews(view -> view.getJCasImpl());
+    svd.freeze();
+  }
+  
+  /**
+   * @see org.apache.uima.cas.CAS#isFrozen()
+   */
+  @Override
+  public boolean isFrozen() {
+    return svd.isFrozen;
+  }
+  
+  /**
+   * Called before updates which would be unsafe for concurrent readers of a frozen CAS.
+   * Must be called before the update is made, so a frozen CAS is left unchanged.
+   */
+  public final void checkNotFrozen() {
+    if (svd.isFrozen) {
+      throw new CASRuntimeException(CASRuntimeException.CAS_FROZEN);
+    }
+  }
+  
   @Override
   public void reset() {
     if (isCasLocked()) {
@@ -2042,6 +2142,7 @@ public class CASImpl extends AbstractCas_ImplBase implements CAS, CASMgr, LowLev
   }
         
   final void setWithCheckAndJournal(TOP fs, FeatureImpl fi, Runnable setter) {
+    checkNotFrozen();
     if (fs._inSetSortedIndex()) {
       boolean wasRemoved = checkForInvalidFeatureSetting(fs, fi.getCode());
       setter.run();
@@ -2056,6 +2157,7 @@ public class CASImpl extends AbstractCas_ImplBase implements CAS, CASMgr, LowLev
   }
   
   final public void setWithCheckAndJournal(TOP fs, int featCode, Runnable setter) {
+    checkNotFrozen();
     if (fs._inSetSortedIndex()) {
       boolean wasRemoved = checkForInvalidFeatureSetting(fs, featCode);
       setter.run();
@@ -2086,6 +2188,7 @@ public class CASImpl extends AbstractCas_ImplBase implements CAS, CASMgr, LowLev
    * @param setter -
    */
   public final void setWithJournal(FeatureStructureImplC fs, FeatureImpl fi, Runnable setter) {
+    checkNotFrozen();
     setter.run();
     maybeLogUpdate(fs, fi);
   }
@@ -2178,6 +2281,7 @@ public class CASImpl extends AbstractCas_ImplBase implements CAS, CASMgr, LowLev
    * @param v -
    */
   public void setLongValue(FeatureStructureImplC fsIn, FeatureImpl feat, long v) {
+    checkNotFrozen();
     TOP fs = (TOP) fsIn;
     if (fs._inSetSortedIndex()) {
       boolean wasRemoved = checkForInvalidFeatureSetting(fs, feat.getCode());
@@ -4235,6 +4339,27 @@ public JCasImpl getJCasImpl() {
     return fs;
   }
   
+  @Override
+  public <T extends AnnotationFS> List<T> createAnnotations(Type type, int[] begins, int[] ends) {
+    if (begins.length != ends.length) {
+      throw new IllegalArgumentException("begins and ends have different lengths: " + begins.length + ", " + ends.length);
+    }
+    final int n = begins.length;
+    if (svd.isId2Fs) {
+      svd.id2fs.ensureCapacity(n);
+    }
+    final List<T> r = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      Annotation fs = createFS(type);
+      fs.setBegin(begins[i]);
+      fs.setEnd(ends[i]);
+      @SuppressWarnings("unchecked")
+      T a = (T) fs;
+      r.add(a);
+    }
+    return r;
+  }
+  
   public int ll_createAnnotation(int typeCode, int begin, int end) {
     TOP fs = createAnnotation(getTypeFromCode(typeCode), begin, end);
     set_id2fs(fs); // to prevent gc from reclaiming
@@ -4962,6 +5087,7 @@ public JCasImpl getJCasImpl() {
   }
   
   final public int getNextFsId(TOP fs) {
+    checkNotFrozen();
     return svd.getNextFsId(fs);
   }
   
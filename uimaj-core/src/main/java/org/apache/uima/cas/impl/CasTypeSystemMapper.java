@@ -50,7 +50,12 @@ import org.apache.uima.internal.util.Misc;
  *   Instance of this are created for a CAS when needed, and then
  *   kept in the (source) TypeSystemImpl, in a map indexed by
  *   the target type system (identity map)
+ *   Because equal committed type systems are consolidated into one instance,
+ *   this is in effect a process-wide cache keyed by (source, target) type system.
  *   
+ * Per target type, the source features are precompiled in target feature order
+ * (as FeatureImpls, and as source feature offsets), so the (de)serializers
+ * walk an array per Feature Structure instead of looking up each feature.
  */
 
 public class CasTypeSystemMapper {
@@ -88,6 +93,13 @@ public class CasTypeSystemMapper {
    *   Also, when comparing the slots in the target with a given source
    */
   final private FeatureImpl[][] fTgt2Src;
+  
+  /**
+   * The offsets of the features of fTgt2Src:
+   *   first key is the tgt type code, 2nd is the tgt feature offset, 
+   *   value is the src feature offset or -1 if the feature doesn't exist in the source
+   */
+  final private int[][] fTgt2SrcOffsets;
  
   final private boolean typeSystemsSame;
   
@@ -113,6 +125,7 @@ public class CasTypeSystemMapper {
       boolean b2 = addTypes(tTgt2Src, tsTgt, tsSrc);  // both directions
       boolean b3 = addFeatures(fSrc2Tgt, tsSrc, tsTgt);
       boolean b4 = addFeatures(fTgt2Src, tsTgt, tsSrc);
+      fTgt2SrcOffsets = toOffsets(fTgt2Src);
      
       if (!b1 || !b2 || !b3 || !b4) {
         tss = false;
@@ -120,6 +133,7 @@ public class CasTypeSystemMapper {
     } else {
       fSrc2Tgt = null;
       fTgt2Src = null;
+      fTgt2SrcOffsets = null;
     }
     this.typeSystemsSame = tss;    
   }
@@ -182,6 +196,17 @@ public class CasTypeSystemMapper {
     return fTgt2Src[tgtType.getCode()];
   }
   
+  /**
+   * Given a tgt type, return the offsets of the source features in the order
+   * they would appear in the target.
+   * @param tgtType -
+   * @return array of corresponding source feature offsets, -1 for features not in the source, 
+   *   in target type order; null if the type is not in the source
+   */
+  public int[] getSrcFeatureOffsets(TypeImpl tgtType) {
+    return fTgt2SrcOffsets[tgtType.getCode()];
+  }
+  
   public FeatureImpl getToFeature(FeatureImpl[][] mapByTypeCode, TypeImpl fromType, FeatureImpl fromFeat) {
     if (mapByTypeCode == null) { // is null if type systems ==
       return fromFeat;
@@ -197,6 +222,20 @@ public class CasTypeSystemMapper {
     return map[offset];
   }
   
+  private static int[][] toOffsets(FeatureImpl[][] map) {
+    final int[][] offsets = new int[map.length][];
+    for (int i = 0; i < map.length; i++) {
+      final FeatureImpl[] feats = map[i];
+      if (feats != null) {
+        final int[] o = offsets[i] = new int[feats.length];
+        for (int j = 0; j < feats.length; j++) {
+          o[j] = (feats[j] == null) ? -1 : feats[j].getOffset();
+        }
+      }
+    }
+    return offsets;
+  }
+  
   /**
    * return true if no types are filtered
    * @param map
@@ -21,13 +21,16 @@ package org.apache.uima.cas.impl;
 
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 
 import org.apache.uima.UIMARuntimeException;
+import org.apache.uima.util.impl.ByteBufferDataInputStream;
 
 /**
  * Common de/serialization 
@@ -67,6 +70,7 @@ public class CommonSerDes {
    *         
    *   Second word:
    *     - bit in 0x01 position: on means form6, off = form 4 
+   *     - byte in 0xFF 00 position: the id of the codec (see SerDesCodecs) used for the slot kind streams, 0 = Deflate
    *********************************************/
   
   public static class Header {
@@ -77,6 +81,7 @@ public class CommonSerDes {
     boolean typeSystemIncluded;  // for form 6, TS only
     boolean typeSystemIndexDefIncluded;
     byte seqVersionNbr = 2;  // safety, might be changed to write v2 style 
+    int codecId = SerDesCodecs.DEFLATE_ID;  // for form 4 and 6, the codec used for the slot kind streams
     boolean isV3;
     boolean swap;
     int v;      // for error messages
@@ -93,6 +98,7 @@ public class CommonSerDes {
     public Header typeSystemIndexDefIncluded(boolean f) {typeSystemIndexDefIncluded = f; return this; }
     public Header seqVer(int v2) { assert (v2 >= 0 && v2 < 256); seqVersionNbr = (byte)v2; return this; }
     public Header v3() {isV3 = true; return this; }
+    public Header codec(SerDesCodec codec) { codecId = codec.getId(); return this; }
     
     
     public void write(DataOutputStream dos) throws IOException {
@@ -122,7 +128,8 @@ public class CommonSerDes {
       dos.writeInt(v);
       
       if (isCompressed) {
-        dos.writeInt(form6 ? 1 : 0);
+        // codec id in the 2nd byte; 0 (Deflate) keeps this compatible with readers before codecs were pluggable
+        dos.writeInt((form6 ? 1 : 0) | (codecId << 8));
       }
       
     }
@@ -152,6 +159,9 @@ public class CommonSerDes {
     public boolean isV3() {
       return isV3;
     }
+    public int getCodecId() {
+      return codecId;
+    }
 
     
   }
@@ -207,8 +217,9 @@ public class CommonSerDes {
    
     if (h.isCompressed) {
       v = r.readInt();
-      h.form4 = v == 0;
-      h.form6 = v == 1;
+      h.form4 = (v & 0xFF) == 0;
+      h.form6 = (v & 0xFF) == 1;
+      h.codecId = (v >>> 8) & 0xFF;
     } 
     
     return h;
@@ -256,6 +267,68 @@ public class CommonSerDes {
       return swap ? Short.reverseBytes(v) : v;
     }
 
+    /*
+     * Bulk reads of arrays.  When reading from a ByteBuffer (e.g. a memory mapped file),
+     * these copy directly from the buffer, otherwise they read one value at a time.
+     */
+    
+    void readInts(int[] a, int off, int len) throws IOException {
+      ByteBuffer bb = bulkSource(len * 4);
+      if (bb != null) {
+        bb.asIntBuffer().get(a, off, len);
+        return;
+      }
+      for (int i = off; i < off + len; i++) {
+        a[i] = readInt();
+      }
+    }
+    
+    void readShorts(short[] a, int off, int len) throws IOException {
+      ByteBuffer bb = bulkSource(len * 2);
+      if (bb != null) {
+        bb.asShortBuffer().get(a, off, len);
+        return;
+      }
+      for (int i = off; i < off + len; i++) {
+        a[i] = readShort();
+      }
+    }
+    
+    void readChars(char[] a, int off, int len) throws IOException {
+      ByteBuffer bb = bulkSource(len * 2);
+      if (bb != null) {
+        bb.asCharBuffer().get(a, off, len);
+        return;
+      }
+      for (int i = off; i < off + len; i++) {
+        a[i] = (char) readShort();
+      }
+    }
+    
+    void readLongs(long[] a, int off, int len) throws IOException {
+      ByteBuffer bb = bulkSource(len * 8);
+      if (bb != null) {
+        bb.asLongBuffer().get(a, off, len);
+        return;
+      }
+      for (int i = off; i < off + len; i++) {
+        a[i] = readLong();
+      }
+    }
+
+    /**
+     * @param nbrBytes the number of bytes about to be read in bulk
+     * @return null if not reading from a ByteBuffer, otherwise 
+     *         a view of the next nbrBytes in the right byte order; the stream is advanced past these
+     * @throws EOFException if fewer than nbrBytes remain
+     */
+    private ByteBuffer bulkSource(int nbrBytes) throws EOFException {
+      if (!(dis instanceof ByteBufferDataInputStream)) {
+        return null;
+      }
+      return ((ByteBufferDataInputStream)dis).readSlice(nbrBytes)
+                .order(swap ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+    }
   }
   
 }
@@ -135,7 +135,7 @@ public class DebugFSLogicalStructure {
     }
   }
 
-  private static final String[] indexKinds = { "Sorted", "Set", "Bag" };
+  private static final String[] indexKinds = { "Sorted", "Set", "Bag", "DefaultBag", "Hash" };
 
   /**
    * Class holding information about an FSIndex
@@ -90,6 +90,11 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
    */
   public static final int DEFAULT_INDEX_SIZE = 16;
 
+  /**
+   * addAll of fewer FSs than this adds them one at a time
+   */
+  private static final int BULK_ADD_MIN_SIZE = 16;
+
   /**
    * flag used when removing FSs due to corruption avoidance
    */
@@ -242,6 +247,7 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
         aBagIndex = i;
         break;
       case FSIndex.DEFAULT_BAG_INDEX:
+      case FSIndex.HASH_INDEX:
         if (aBagIndex == -1) {  // real bag indexes have priority
           aBagIndex = i;
         }
@@ -325,6 +331,41 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
   IndexesForType getIndexesForUsedType(int i) {
     return indexArray[this.usedIndexes.get(i)];
   }
+  
+  /**
+   * @param ti a type
+   * @param fi a feature of the type
+   * @param <T> the Java class for the type
+   * @return the hash indexes keyed on the feature, one for the type and each of its subtypes, 
+   *         or null if some of these types have none
+   */
+  <T extends FeatureStructure> ArrayList<FsIndex_hash<T>> getHashIndexes(TypeImpl ti, FeatureImpl fi) {
+    ArrayList<FsIndex_hash<T>> r = new ArrayList<>();
+    return addHashIndexes(ti, fi, r) ? r : null;
+  }
+  
+  private <T extends FeatureStructure> boolean addHashIndexes(TypeImpl ti, FeatureImpl fi, ArrayList<FsIndex_hash<T>> r) {
+    FsIndex_hash<T> found = null;
+    for (FsIndex_iicp<TOP> iicp : getIndexesForType(ti.getCode()).indexesForType) {
+      FsIndex_singletype<TOP> st = iicp.fsIndex_singletype;
+      if (st.getIndexingStrategy() == FSIndex.HASH_INDEX && ((FsIndex_hash<TOP>) st).keyFeature == fi) {
+        @SuppressWarnings("unchecked")
+        final FsIndex_hash<T> hashIndex = (FsIndex_hash<T>) st;
+        found = hashIndex;
+        break;
+      }
+    }
+    if (found == null) {
+      return false;
+    }
+    r.add(found);
+    for (TypeImpl subType : ti.getDirectSubtypes()) {
+      if (!addHashIndexes(subType, fi, r)) {
+        return false;
+      }
+    }
+    return true;
+  }
 
   // moved from here into individual indexes over each type, for better locality of reference
 //  /** 
@@ -365,6 +406,11 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
   //   This is only to speed up the test to skip adding an index to the set of "used" ones if it already is used.
   final private BitSet isUsed;
   
+  // typecodes of indexes which were flushed, but whose backing storage is still larger than initially allocated.
+  //   These are flushed on subsequent flushes even if not used, to shrink the storage a step at a time,
+  //   so storage grown by one unusually large document is not retained forever by a pooled CAS.
+  final private IntVector oversizedIndexes;
+  
 //  /**
 //   * Used for maintaining collection of all used iicp's for indexes
 //   * package scope for setting in index impl flush
@@ -433,6 +479,7 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
     this.indexUpdateOperation = null;
     this.usedIndexes = null;
     this.isUsed = null;
+    this.oversizedIndexes = null;
 //    this.isUsedChanged = true;
 //    this.iicps4allFSs = null;
   }
@@ -459,6 +506,7 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
     this.indexArray = new IndexesForType[this.sii.tsi.getNumberOfTypes() + 1];
     this.usedIndexes = new IntVector();
     this.isUsed = new BitSet(numTypes);
+    this.oversizedIndexes = new IntVector();
 //    this.isUsedChanged = true;
 //    this.iicps4allFSs = new ArrayList<>();
     init();
@@ -489,6 +537,7 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
     this.indexArray = new IndexesForType[numTypes];
     this.usedIndexes = new IntVector();
     this.isUsed = new BitSet(numTypes);
+    this.oversizedIndexes = new IntVector();
 //    this.isUsedChanged = true;
 //    this.iicps4allFSs = new ArrayList<>();
     init();
@@ -543,6 +592,11 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
     if (this.locked) {
       throw new CASAdminException(CASAdminException.REPOSITORY_LOCKED);
     }
+    // the comparator only takes features with a primitive range as keys
+    if (indexType == FSIndex.HASH_INDEX && 
+        (comp.getNumberOfKeys() != 1 || comp.getKeyType(0) != FSIndexComparator.FEATURE_KEY)) {
+      throw new CASAdminException(CASAdminException.HASH_INDEX_NEEDS_ONE_FEATURE_KEY, label);
+    }
     return createIndexNoQuestionsAsked(comp, label, indexType);
   }
 
@@ -639,6 +693,40 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
   /**
    * Reset all indexes, in one view.
    */
+  /**
+   * Called when the CAS is frozen.  Sets up now what readers would otherwise set up lazily, and 
+   * has each index compact itself and share one read-only view of its content with all iterators.
+   */
+  void freeze() {
+    if (!this.locked) {
+      return;
+    }
+    for (IndexesForType i4t : indexArray) {
+      if (i4t != null) {
+        for (FsIndex_iicp<TOP> iicp : i4t.indexesForType) {
+          iicp.createIndexIteratorCache();
+          iicp.fsIndex_singletype.freeze();
+        }
+      }
+    }
+  }
+  
+  /**
+   * Called when a frozen CAS is reset, before the indexes are flushed
+   */
+  void unfreeze() {
+    if (!this.locked) {
+      return;
+    }
+    for (IndexesForType i4t : indexArray) {
+      if (i4t != null) {
+        for (FsIndex_iicp<TOP> iicp : i4t.indexesForType) {
+          iicp.fsIndex_singletype.unfreeze();
+        }
+      }
+    }
+  }
+  
   public void flush() {
     if (!this.locked) {
       return;
@@ -649,17 +737,21 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
 //    }
     // Do nothing really fast!
     if (this.usedIndexes.size() == 0) {
+      if (this.oversizedIndexes.size() != 0) {
+        flushOversizedUnusedIndexes();
+      }
       return;
     }
     
     annotationIndexes.clear();
+    flushOversizedUnusedIndexes();  // before isUsed is cleared
     isUsed.clear();
 //    isUsedChanged = true;
 //    iicps4allFSs.clear();
     for (int i = 0; i < usedIndexes.size(); i++) {
       int used = this.usedIndexes.get(i);
-      for (FsIndex_iicp<?> iicp : indexArray[used].indexesForType) {
-        iicp.fsIndex_singletype.flush();
+      if (flushIndexesForType(used)) {
+        oversizedIndexes.add(used);
       }
     }
 
@@ -678,6 +770,39 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
     this.usedIndexes.removeAllElements();
   }
   
+  /**
+   * Flushes the indexes of types which are oversized but were not used since the last flush,
+   * so that their storage continues to shrink.
+   * Types which are no longer oversized are dropped from the oversizedIndexes list;
+   * used types are dropped too, and added back by the caller if still oversized after being flushed.
+   */
+  private void flushOversizedUnusedIndexes() {
+    int nbrKept = 0;
+    for (int i = 0; i < oversizedIndexes.size(); i++) {
+      final int typeCode = oversizedIndexes.get(i);
+      if (!isUsed.get(typeCode) && flushIndexesForType(typeCode)) {
+        oversizedIndexes.set(nbrKept++, typeCode);
+      }
+    }
+    while (oversizedIndexes.size() > nbrKept) {
+      oversizedIndexes.remove(oversizedIndexes.size() - 1);  // removing from the end doesn't shift
+    }
+  }
+  
+  /**
+   * @param typeCode the type whose indexes (not including subtypes) are to be flushed
+   * @return true if any of these indexes still has more storage than initially allocated
+   */
+  private boolean flushIndexesForType(int typeCode) {
+    boolean isOversized = false;
+    for (FsIndex_iicp<?> iicp : indexArray[typeCode].indexesForType) {
+      final FsIndex_singletype<?> index = iicp.fsIndex_singletype;
+      index.flush();
+      isOversized |= index.isOversized();
+    }
+    return isOversized;
+  }
+  
 //  // for now, with flattened index optimization disabled, this should be a no-op
 //  private void clearIteratedSortedIndexes() {
 //    int sz = iteratedSortedIndexes.size();
@@ -776,6 +901,10 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
       ind = new FsIndex_bag<>(this.cas, type, initialSize, indexingStrategy, comparatorForIndexSpecs);
       break;
     
+    case FSIndex.HASH_INDEX:
+      ind = new FsIndex_hash<>(this.cas, type, initialSize, indexingStrategy, comparatorForIndexSpecs);
+      break;
+    
     default: 
       // SORTED_INDEX is the default. We don't throw any errors, if the code is unknown, we just create a sorted index.
       ind = new FsIndex_set_sorted<>(this.cas, type, FSIndex.SORTED_INDEX, comparatorForIndexSpecs); // true = is sorted
@@ -1043,6 +1172,7 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
    * @param type -
    */
   public void removeAllExcludingSubtypes(Type type) {
+    cas.checkNotFrozen();
     final int typeCode = ((TypeImpl) type).getCode();
 //    incrementIllegalIndexUpdateDetector(typeCode);
     // get a list of all indexes defined over this type
@@ -1278,38 +1408,8 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
   }
   
   private <T extends TOP> void addFS_common(T fs, boolean isAddback) {
-    if (fs._isPearTrampoline()) {
-      fs = fs._casView.getBaseFsFromTrampoline(fs);
-    }
-    TypeImpl ti = ((FeatureStructureImplC)fs)._getTypeImpl();
-    final int typeCode = ti.getCode();  
-
-    if (typeCode != TypeSystemConstants.sofaTypeCode && cas.isBaseCas()) {
-      throw new CASRuntimeException(CASRuntimeException.ILLEGAL_ADD_TO_INDEX_IN_BASE_CAS, fs, cas);
-    }
-    // https://issues.apache.org/jira/browse/UIMA-4099
-    // skip test for wrong view if addback, etc.
-    
-    if (CASImpl.traceCow) {
-      fs._casView.traceIndexMod(true, fs, isAddback);
-    }
- 
-    if (!isAddback && (!IS_DISABLE_ENHANCED_WRONG_INDEX_CHECK) && ti.isAnnotationBaseType()) {
-      Sofa sofa = (Sofa)((AnnotationBase)fs).getSofa();
-      if (sofa == null) {
-        throw new CASRuntimeException(
-            CASRuntimeException.SOFAREF_NOT_SET, fs.toString(3));            
-      }
-      
-      // Check that the annotationBase FS is being added to the proper Cas View
-      CASImpl indexView = fs._getView();
-      if (indexView.getIndexRepository() != this) {  
-        /*  Error - the Annotation "{0}" is over view "{1}" and cannot be added to indexes associated with
-         * the different view "{2}" */
-        throw new CASRuntimeException(CASRuntimeException.ANNOTATION_IN_WRONG_INDEX,  
-                fs.toString(), indexView.getViewName(), cas.getViewName()); 
-      }
-    }
+    fs = checkAdd(fs, isAddback);
+    final int typeCode = ((FeatureStructureImplC)fs)._getTypeImpl().getCode();  
    
     // indicate this type's indexes are being modified
     // in case an iterator is simultaneously active over this type
@@ -1356,18 +1456,104 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
     
     // https://issues.apache.org/jira/browse/UIMA-4111
     if (noIndexOrOnlySetindexes) {
-      // lazily create a default bag index for this type
-      final Type type = this.sii.tsi.ll_getTypeForCode(typeCode);
-      final String defIndexName = getAutoIndexNameForType(type);
-      final FSIndexComparator comparator = createComparator();  // empty comparator
-      comparator.setType(type);
-      createIndexNoQuestionsAsked(comparator, defIndexName, FSIndex.DEFAULT_BAG_INDEX);
-
-      // add the FS to the bag index
-      // which is the last one added
-      ((FsIndex_singletype<T>)(indexes.get(indexes.size() - 1)).fsIndex_singletype).insert(fs);
+      // add the FS to the lazily created default bag index
+      getDefaultBagIndex(typeCode, indexes).insert(fs);
     }
 
+    markTypeUsed(typeCode);
+  }
+  
+  /**
+   * @see org.apache.uima.cas.FSIndexRepository#addAll(Collection)
+   */
+  @Override
+  public void addAll(Collection<? extends FeatureStructure> fss) {
+    if (fss.size() < BULK_ADD_MIN_SIZE) {
+      for (FeatureStructure fs : fss) {
+        addFS_common((TOP)fs, false);
+      }
+      return;
+    }
+    
+    // group by type, keeping the order of first appearance of the types
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    final ArrayList<TOP>[] fssByType = new ArrayList[this.sii.tsi.getTypeArraySize()];
+    final IntVector typeCodes = new IntVector();
+    for (FeatureStructure fs : fss) {
+      TOP tfs = checkAdd((TOP)fs, false);
+      final int typeCode = tfs._getTypeImpl().getCode();
+      ArrayList<TOP> fssOfType = fssByType[typeCode];
+      if (fssOfType == null) {
+        fssOfType = fssByType[typeCode] = new ArrayList<>();
+        typeCodes.add(typeCode);
+      }
+      fssOfType.add(tfs);
+    }
+    
+    for (int i = 0; i < typeCodes.size(); i++) {
+      final int typeCode = typeCodes.get(i);
+      final ArrayList<TOP> fssOfType = fssByType[typeCode];
+      addAllOneType(typeCode, fssOfType.toArray(new TOP[fssOfType.size()]));
+    }
+  }
+  
+  /**
+   * The bulk version of addFS_common, for FSs all of one type, already checked
+   * @param typeCode the type of all the FSs
+   * @param fss the FSs to add
+   */
+  private void addAllOneType(int typeCode, TOP[] fss) {
+    final ArrayList<FsIndex_iicp<TOP>> indexes = getIndexesForType(typeCode).indexesForType;
+    
+    boolean noIndexOrOnlySetindexes = true;
+    boolean setOrSorted = false;  // set to true if at least one set or sorted index found
+    for (FsIndex_iicp<TOP> iicp : indexes) {
+      final int indexingStrategy = iicp.fsIndex_singletype.getIndexingStrategy(); 
+      iicp.fsIndex_singletype.insertAll(fss, fss.length);
+      if (noIndexOrOnlySetindexes) {
+        noIndexOrOnlySetindexes = indexingStrategy == FSIndex.SET_INDEX;
+      }
+      if (setOrSorted == false && indexingStrategy != FSIndex.BAG_INDEX) {
+        setOrSorted = true;
+      }
+    }
+    
+    final boolean isLogging = this.cas.getCurrentMark() != null;
+    if (isLogging || setOrSorted) {
+      for (TOP fs : fss) {
+        if (isLogging) {
+          logIndexOperation(fs, true);
+        }
+        if (setOrSorted) {
+          fs._setInSetSortedIndexed();
+        }
+      }
+    }
+    
+    if (noIndexOrOnlySetindexes) {
+      getDefaultBagIndex(typeCode, indexes).insertAll(fss, fss.length);
+    }
+    
+    markTypeUsed(typeCode);
+  }
+  
+  /**
+   * Lazily creates a default bag index for a type having no index, or only set indexes
+   * See https://issues.apache.org/jira/browse/UIMA-4111
+   * @param typeCode the type
+   * @param indexes the indexes for the type
+   * @return the default bag index, which is the last one added 
+   */
+  private FsIndex_singletype<TOP> getDefaultBagIndex(int typeCode, ArrayList<FsIndex_iicp<TOP>> indexes) {
+    final Type type = this.sii.tsi.ll_getTypeForCode(typeCode);
+    final String defIndexName = getAutoIndexNameForType(type);
+    final FSIndexComparator comparator = createComparator();  // empty comparator
+    comparator.setType(type);
+    createIndexNoQuestionsAsked(comparator, defIndexName, FSIndex.DEFAULT_BAG_INDEX);
+    return indexes.get(indexes.size() - 1).fsIndex_singletype;
+  }
+  
+  private void markTypeUsed(int typeCode) {
     if (!this.isUsed.get(typeCode)) {
       // mark this type as being in some indexes
       this.isUsed.set(typeCode);
@@ -1375,6 +1561,50 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
       this.usedIndexes.add(typeCode);
     }
   }
+  
+  /**
+   * Checks done before adding an FS to the indexes 
+   * @param fs the FS being added
+   * @param isAddback true if this is an add back of an FS temporarily removed
+   * @param <T> the Java class of the FS
+   * @return the FS to add, which is the base version if fs is a Pear trampoline
+   */
+  private <T extends TOP> T checkAdd(T fs, boolean isAddback) {
+    cas.checkNotFrozen();
+    if (fs._isPearTrampoline()) {
+      fs = fs._casView.getBaseFsFromTrampoline(fs);
+    }
+    TypeImpl ti = ((FeatureStructureImplC)fs)._getTypeImpl();
+    final int typeCode = ti.getCode();  
+
+    if (typeCode != TypeSystemConstants.sofaTypeCode && cas.isBaseCas()) {
+      throw new CASRuntimeException(CASRuntimeException.ILLEGAL_ADD_TO_INDEX_IN_BASE_CAS, fs, cas);
+    }
+    // https://issues.apache.org/jira/browse/UIMA-4099
+    // skip test for wrong view if addback, etc.
+    
+    if (CASImpl.traceCow) {
+      fs._casView.traceIndexMod(true, fs, isAddback);
+    }
+ 
+    if (!isAddback && (!IS_DISABLE_ENHANCED_WRONG_INDEX_CHECK) && ti.isAnnotationBaseType()) {
+      Sofa sofa = (Sofa)((AnnotationBase)fs).getSofa();
+      if (sofa == null) {
+        throw new CASRuntimeException(
+            CASRuntimeException.SOFAREF_NOT_SET, fs.toString(3));            
+      }
+      
+      // Check that the annotationBase FS is being added to the proper Cas View
+      CASImpl indexView = fs._getView();
+      if (indexView.getIndexRepository() != this) {  
+        /*  Error - the Annotation "{0}" is over view "{1}" and cannot be added to indexes associated with
+         * the different view "{2}" */
+        throw new CASRuntimeException(CASRuntimeException.ANNOTATION_IN_WRONG_INDEX,  
+                fs.toString(), indexView.getViewName(), cas.getViewName()); 
+      }
+    }
+    return fs;
+  }
 
   private static final String getAutoIndexNameForType(Type type) {
     return "_" + type.getName() + "_DefaultBagGeneratedIndex";
@@ -1388,6 +1618,7 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
    * @return true if it was removed
    */
   boolean removeFS_ret(TOP fs, boolean skipBagIndexes) {
+    cas.checkNotFrozen();
     if (skipBagIndexes && !fs._inSetSortedIndex()) {
       return false;
     }
@@ -1838,7 +2069,9 @@ public class FSIndexRepositoryImpl implements FSIndexRepositoryMgr, LowLevelInde
     FsIndex_annotation r1 = (FsIndex_annotation) getIndex(CAS.STD_ANNOTATION_INDEX, ti);
     r = r1;
     
-    annotationIndexes.put(ti, r); 
+    if (!cas.isFrozen()) {  // no updates while concurrent readers may be looking 
+      annotationIndexes.put(ti, r);
+    }
     return (FsIndex_annotation<T>) r;
   }
   
@@ -25,6 +25,7 @@ import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.Feature;
 import org.apache.uima.cas.Type;
 import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.cas.admin.CASAdminException;
 import org.apache.uima.cas.impl.SlotKinds.SlotKind;
 import org.apache.uima.internal.util.Misc;
 
@@ -48,6 +49,10 @@ public class FeatureImpl implements Feature {
                                         // used to setup index corruption bitset                
   public final boolean isInInt;        // specifies which array the data is in
   private final boolean isMultipleRefsAllowed;
+  /**
+   * true if String values of this feature are interned when deserialized, see {@link StringInterner}
+   */
+  private boolean isInternStrings;
   /**
    * true if the range is a long or double
    */
@@ -183,6 +188,27 @@ public class FeatureImpl implements Feature {
   public boolean isMultipleReferencesAllowed() {
     return this.isMultipleRefsAllowed;
   }
+
+  /**
+   * @return true if String values of this feature are interned when deserialized, 
+   *   using the {@link TypeSystemImpl#getStringInterner() type system's StringInterner}
+   */
+  public boolean isInternStrings() {
+    return isInternStrings;
+  }
+
+  /**
+   * Intern the String values of this feature when deserializing CASes.
+   * Must be called before the type system is committed.  Ignored unless the range is String or a subtype of it.
+   */
+  public void setInternStrings() {
+    if (highestDefiningType.getTypeSystem().isCommitted()) {
+      throw new CASAdminException(CASAdminException.TYPE_SYSTEM_LOCKED);
+    }
+    if (rangeType.isStringOrStringSubtype()) {
+      this.isInternStrings = true;
+    }
+  }
   
   /**
    * @return the 0-based offset for this feature
@@ -128,6 +128,8 @@ public class FeatureStructureImplC implements FeatureStructureImpl {
   
   private final int[] _intData;  
   private final Object[] _refData;
+  /** for columnar types, which have a null _intData, the index of this FS's values in the {@link FsColumns} of its type */
+  private final int _columnOrdinal;
   protected final int _id;  // a separate slot for access without loading _intData object
   private int _flags = 0;  // a set of flags
                             // bit 0 (least significant): fs is in one or more non-bag indexes
@@ -162,6 +164,7 @@ public class FeatureStructureImplC implements FeatureStructureImpl {
     _typeImpl = null;
     _intData = null;
     _refData = null;
+    _columnOrdinal = 0;
     _id = 0;    
   }
   
@@ -174,6 +177,7 @@ public class FeatureStructureImplC implements FeatureStructureImpl {
     _typeImpl = null;
     _intData = null;
     _refData = null;
+    _columnOrdinal = 0;
     _id = id;    
   }
   
@@ -195,10 +199,16 @@ public class FeatureStructureImplC implements FeatureStructureImpl {
     if (null != baseFs) {
       _intData = baseFs._intData;
       _refData = baseFs._refData;
+      _columnOrdinal = baseFs._columnOrdinal;
       _casView.pearBaseFs = null;
+    } else if (_isColumnar()) {
+      _intData = null;
+      _refData = _allocRefData();
+      _columnOrdinal = _casView.svd.allocateColumnOrdinal(_typeImpl);
     } else {
       _intData = _allocIntData();
       _refData = _allocRefData();
+      _columnOrdinal = 0;
     }
 
     
@@ -232,10 +242,16 @@ public class FeatureStructureImplC implements FeatureStructureImpl {
     if (null != baseFs) {
       _intData = baseFs._intData;
       _refData = baseFs._refData;
+      _columnOrdinal = baseFs._columnOrdinal;
       _casView.pearBaseFs = null;
+    } else if (_isColumnar()) {
+      _intData = null;
+      _refData = _allocRefData();
+      _columnOrdinal = _casView.svd.allocateColumnOrdinal(_typeImpl);
     } else {
       _intData = _allocIntData();
       _refData = _allocRefData();
+      _columnOrdinal = 0;
     }
     
     if (traceFSs && !(this instanceof CommonArrayFS)) {
@@ -251,6 +267,17 @@ public class FeatureStructureImplC implements FeatureStructureImpl {
 //    }
   }
   
+  private boolean _isColumnar() {
+    return _typeImpl.isColumnar() && _typeImpl.nbrOfUsedIntDataSlots != 0;
+  }
+
+  /**
+   * @return the columns holding the int data of this FS, when its type is columnar 
+   */
+  private FsColumns _columns() {
+    return _casView.svd.fsColumns[_typeImpl.getCode()];
+  }
+
   private int[] _allocIntData() {
     final int c = _typeImpl.nbrOfUsedIntDataSlots;
     if (c != 0) {
@@ -495,8 +522,14 @@ public class FeatureStructureImplC implements FeatureStructureImpl {
 
   public void _setLongValueNcNj(int adjOffset, long v) {
 //    final int offset = adjOffset + _getIntDataArrayOffset();  
-    _intData[adjOffset] = (int)v;  // narrowing cast discards all but lowest 32 bits; may change sign of value 
-    _intData[adjOffset + 1] = (int)(v >> 32);
+    if (_intData != null) {
+      _intData[adjOffset] = (int)v;  // narrowing cast discards all but lowest 32 bits; may change sign of value 
+      _intData[adjOffset + 1] = (int)(v >> 32);
+    } else {
+      final FsColumns c = _columns();
+      c.set(adjOffset, _columnOrdinal, (int)v);
+      c.set(adjOffset + 1, _columnOrdinal, (int)(v >> 32));
+    }
     if (traceFSs) {
       _casView.traceFSfeat(this, _getFeatFromAdjOffset(adjOffset, true), v);
     }
@@ -796,6 +829,10 @@ public class FeatureStructureImplC implements FeatureStructureImpl {
      * 0 out those bits before or-ing in the high order 32 bits.
      */
 //    final int offset = adjOffset + _getIntDataArrayOffset();
+    if (_intData == null) {
+      final FsColumns c = _columns();
+      return (c.get(adjOffset, _columnOrdinal) & 0x00000000ffffffffL) | (((long)c.get(adjOffset + 1, _columnOrdinal)) << 32);
+    }
     return ((_intData[adjOffset]) & 0x00000000ffffffffL) | (((long)_intData[adjOffset + 1]) << 32); 
   }
   
@@ -1610,11 +1647,21 @@ public class FeatureStructureImplC implements FeatureStructureImpl {
   }
   
   private int _getIntValueCommon(FeatureImpl feat) {
-    return _intData[feat.getAdjustedOffset() /*+ _getIntDataArrayOffset()*/];
+    return _getIntValueCommon(feat.getAdjustedOffset());
   }
 
   private int _getIntValueCommon(int adjOffset) {
-    return _intData[adjOffset /*+ _getIntDataArrayOffset()*/];
+    return (_intData != null) 
+             ? _intData[adjOffset /*+ _getIntDataArrayOffset()*/]
+             : _columns().get(adjOffset, _columnOrdinal);
+  }
+
+  private void _setIntData(int adjOffset, int v) {
+    if (_intData != null) {
+      _intData[adjOffset /*+ _getIntDataArrayOffset()*/] = v;
+    } else {
+      _columns().set(adjOffset, _columnOrdinal, v);
+    }
   }
 
   private Object _getRefValueCommon(FeatureImpl feat) {
@@ -1626,14 +1673,14 @@ public class FeatureStructureImplC implements FeatureStructureImpl {
   }
    
   private void _setIntValueCommon(FeatureImpl fi, int v) {
-    _intData[fi.getAdjustedOffset() /*+ _getIntDataArrayOffset()*/] = v;
+    _setIntData(fi.getAdjustedOffset(), v);
     if (traceFSs) {
       _casView.traceFSfeat(this, fi, v);
     }
   }
   
   private void _setIntValueCommon(int adjOffset, int v) {
-    _intData[adjOffset /*+ _getIntDataArrayOffset()*/] = v;
+    _setIntData(adjOffset, v);
     if (traceFSs) {
       _casView.traceFSfeat(this, _getFeatFromAdjOffset(adjOffset, true), v);
     }
@@ -1767,7 +1814,9 @@ public class FeatureStructureImplC implements FeatureStructureImpl {
 //          Math.min(src._typeImpl.nbrOfUsedIntDataSlots, _typeImpl.nbrOfUsedIntDataSlots));
       System.arraycopy(src._intData, 0, _intData, 0, 
           Math.min(src._intData.length, _intData.length));
-     }
+    } else {
+      _copyIntDataSlotsFrom(src, Math.min(src._typeImpl.nbrOfUsedIntDataSlots, _typeImpl.nbrOfUsedIntDataSlots));
+    }
     if (src._refData != null && _refData != null) {
 //      System.arraycopy(src._refData, src._getRefDataArrayOffset(), _refData, _getRefDataArrayOffset(), 
 //          Math.min(src._typeImpl.nbrOfUsedRefDataSlots, _typeImpl.nbrOfUsedRefDataSlots));
@@ -1781,10 +1830,12 @@ public class FeatureStructureImplC implements FeatureStructureImpl {
    * @param src the FS to copy features from
    */
   public void _copyIntAndRefArraysEqTypesFrom(FeatureStructureImplC src) {
-    if (_intData != null) {
+    if (_intData != null && src._intData != null) {
 //      System.arraycopy(src._intData, src._getIntDataArrayOffset(), _intData, _getIntDataArrayOffset(), _typeImpl.nbrOfUsedIntDataSlots);
       System.arraycopy(src._intData, 0, _intData, 0, _typeImpl.nbrOfUsedIntDataSlots);
-     }
+    } else {
+      _copyIntDataSlotsFrom(src, _typeImpl.nbrOfUsedIntDataSlots);
+    }
     if (_refData != null) {
 //      System.arraycopy(src._refData, src._getRefDataArrayOffset(), _refData, _getRefDataArrayOffset(), _typeImpl.nbrOfUsedRefDataSlots);
       System.arraycopy(src._refData, 0, _refData, 0, _typeImpl.nbrOfUsedRefDataSlots);
@@ -1795,9 +1846,25 @@ public class FeatureStructureImplC implements FeatureStructureImpl {
    * @param src the FS to copy features from
    */
   public void _copyIntArrayEqTypesFrom(FeatureStructureImplC src) {
-    if (_intData != null) {
+    if (_intData != null && src._intData != null) {
       System.arraycopy(src._intData, 0, _intData, 0, _intData.length);
-     }
+    } else {
+      _copyIntDataSlotsFrom(src, _typeImpl.nbrOfUsedIntDataSlots);
+    }
+  }
+  
+  /**
+   * slot by slot copy, for when either FS has its int data in columns
+   * @param src the FS to copy from
+   * @param nbrOfSlots the number of int data slots to copy
+   */
+  private void _copyIntDataSlotsFrom(FeatureStructureImplC src, int nbrOfSlots) {
+    if (_intData == null && !_isColumnar()) {
+      return;  // no int data
+    }
+    for (int i = 0; i < nbrOfSlots; i++) {
+      _setIntData(i, src._getIntValueCommon(i));
+    }
   }
   
   public String toShortString() {
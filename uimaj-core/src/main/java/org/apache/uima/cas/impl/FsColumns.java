@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.cas.impl;
+
+import java.util.Arrays;
+
+/**
+ * The int data of the Feature Structures of one columnar type (see {@link TypeImpl#isColumnar()}) in one CAS.
+ *
+ * There is one int array (column) per int data slot of the type, indexed by the ordinal of the
+ * Feature Structure among the instances of the type created since the last CAS reset.
+ * This replaces the per Feature Structure int array, saving its object header and length,
+ * and keeps the values of one feature next to each other in memory.
+ *
+ * Like the rest of the CAS, this is not thread-safe for creating Feature Structures or updating them.
+ */
+class FsColumns {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  /** [slot][ordinal] */
+  private final int[][] columns;
+
+  /** the capacity of each column */
+  private int capacity;
+
+  /** the number of ordinals allocated since the last reset */
+  private int size = 0;
+
+  /** the largest size reached in the last reset cycle, used to shrink the columns */
+  private int prevSize = 0;
+
+  /**
+   * @param nbrOfSlots the number of int data slots of the type
+   */
+  FsColumns(int nbrOfSlots) {
+    capacity = INITIAL_CAPACITY;
+    columns = new int[nbrOfSlots][];
+    for (int i = 0; i < nbrOfSlots; i++) {
+      columns[i] = new int[capacity];
+    }
+  }
+
+  /**
+   * @return the ordinal for a new Feature Structure, whose slots are all 0
+   */
+  int allocate() {
+    if (size == capacity) {
+      capacity = capacity << 1;
+      for (int i = 0; i < columns.length; i++) {
+        columns[i] = Arrays.copyOf(columns[i], capacity);
+      }
+    }
+    return size++;
+  }
+
+  int get(int slot, int ordinal) {
+    return columns[slot][ordinal];
+  }
+
+  void set(int slot, int ordinal, int v) {
+    columns[slot][ordinal] = v;
+  }
+
+  /**
+   * @return the number of Feature Structures having their data here
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Called when the CAS is reset.  The used part of the columns is zeroed, so new Feature Structures
+   * start with 0 values; the columns are shrunk if much bigger than what the last two documents needed.
+   */
+  void reset() {
+    final int used = size;
+    final int needed = Math.max(INITIAL_CAPACITY, Math.max(used, prevSize));
+    if (capacity > (needed << 2)) {
+      capacity = Integer.highestOneBit(needed) << 1;
+      for (int i = 0; i < columns.length; i++) {
+        columns[i] = new int[capacity];
+      }
+    } else {
+      for (int[] column : columns) {
+        Arrays.fill(column, 0, used, 0);
+      }
+    }
+    prevSize = used;
+    size = 0;
+  }
+}
@@ -22,6 +22,7 @@ package org.apache.uima.cas.impl;
 import java.util.Collection;
 import java.util.List;
 
+import org.apache.uima.cas.FSIndex;
 import org.apache.uima.cas.FeatureStructure;
 import org.apache.uima.cas.Type;
 import org.apache.uima.cas.admin.FSIndexComparator;
@@ -56,7 +57,10 @@ public class FsIndex_bag<T extends FeatureStructure> extends FsIndex_singletype<
 //  private WeakReference<CopyOnWriteObjHashSet<TOP>> cow = null;
   
   FsIndex_bag(CASImpl cas, Type type, int initialSize, int indexType, FSIndexComparator comparatorForIndexSpecs) {
-    super(cas, type, indexType, cleanUpComparator(comparatorForIndexSpecs, cas));
+    // hash indexes keep their key, it is the feature whose values are hashed
+    super(cas, type, indexType, (indexType == FSIndex.HASH_INDEX) 
+                                  ? comparatorForIndexSpecs 
+                                  : cleanUpComparator(comparatorForIndexSpecs, cas));
     this.index = new ObjHashSet<>(initialSize, TOP.class, TOP._singleton);
   }
 
@@ -82,13 +86,26 @@ public class FsIndex_bag<T extends FeatureStructure> extends FsIndex_singletype<
     super.flush();
     index.clear();
   }
+  
+  @Override
+  boolean isOversized() {
+    return index.isOversized();
+  }
 
   @Override
-  public final void insert(T fs) {
+  public void insert(T fs) {
     maybeCopy();
     index.add((TOP) fs);
   }
 
+  @Override
+  void insertAll(TOP[] fss, int length) {
+    maybeCopy();
+    for (int i = 0; i < length; i++) {
+      index.add(fss[i]);
+    }
+  }
+
 //  @SuppressWarnings("unchecked")  // unused 1/2016
 //  public final boolean insert(int fs) {
 //    return insert((T) casImpl.getFsFromId_checked(fs)); 
@@ -0,0 +1,300 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.cas.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.apache.uima.cas.CASRuntimeException;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.admin.FSIndexComparator;
+import org.apache.uima.cas.impl.SlotKinds.SlotKind;
+import org.apache.uima.internal.util.Long2ObjHashMap;
+import org.apache.uima.jcas.cas.TOP;
+
+/**
+ * Used for UIMA FS Hash Indexes
+ * 
+ * A bag index which in addition maps the value of its one key feature to the Feature Structures
+ * in the index having that value, see {@link #lookup(Object)}.  Like the keys of the other
+ * indexes, the key feature has a primitive range.
+ * 
+ * The values of all primitive ranges but String are held as long keys of an open addressing hash table:
+ *   - boolean, byte, short, int and float values as their int slot value (float via the int bits)
+ *   - long and double values as their long slot value (double via the long bits)
+ * String values are held in a HashMap.
+ * 
+ * The key methods also handle Feature Structure references, keyed by the id of the Feature Structure, 
+ * 0 for null, because select().withFeatureValue uses them to filter on features of any range.
+ * 
+ * The value for a key is the one Feature Structure having that key, or an ArrayList of them.
+ * 
+ * The index is updated when a key value of an indexed FS changes, because hash indexes
+ * are protected from index corruption like set and sorted indexes.
+ * 
+ * @param <T> the Java cover class type for this index, passed along to (wrapped) iterators producing Java cover classes
+ */
+public class FsIndex_hash<T extends FeatureStructure> extends FsIndex_bag<T> {
+
+  final FeatureImpl keyFeature;
+  
+  /** for all but String keys */
+  private final Long2ObjHashMap<Object> valuesByKey;
+  
+  /** for String keys */
+  private final HashMap<String, Object> valuesByString;
+
+  FsIndex_hash(CASImpl cas, Type type, int initialSize, int indexType, FSIndexComparator comparatorForIndexSpecs) {
+    super(cas, type, initialSize, indexType, comparatorForIndexSpecs);
+    this.keyFeature = (FeatureImpl) comparatorForIndexSpecs.getKeyFeature(0);
+    if (keyFeature.getSlotKind() == SlotKind.Slot_StrRef) {
+      valuesByKey = null;
+      valuesByString = new HashMap<>();
+    } else {
+      valuesByKey = new Long2ObjHashMap<>();
+      valuesByString = null;
+    }
+  }
+
+  @Override
+  public void flush() {
+    super.flush();
+    if (valuesByKey != null) {
+      valuesByKey.clear();
+    } else {
+      valuesByString.clear();
+    }
+  }
+
+  @Override
+  public void insert(T fs) {
+    if (!contains(fs)) {  // adding an FS already in the index is a no-op
+      super.insert(fs);
+      addToKey((TOP) fs);
+    }
+  }
+
+  @Override
+  void insertAll(TOP[] fss, int length) {
+    for (int i = 0; i < length; i++) {
+      @SuppressWarnings("unchecked")
+      final T fs = (T) fss[i];
+      insert(fs);
+    }
+  }
+
+  @Override
+  public boolean deleteFS(T fs) {
+    if (!super.deleteFS(fs)) {
+      return false;
+    }
+    final TOP tfs = (TOP) fs;
+    if (valuesByKey != null) {
+      final long key = key(tfs, keyFeature);
+      final Object v = valuesByKey.get(key);
+      if (v == tfs) {
+        valuesByKey.remove(key);
+      } else if (removeFromBucket(v, tfs)) {
+        valuesByKey.remove(key);
+      }
+    } else {
+      final String key = tfs._getStringValueNc(keyFeature);
+      final Object v = valuesByString.get(key);
+      if (v == tfs || removeFromBucket(v, tfs)) {
+        valuesByString.remove(key);
+      }
+    }
+    return true;
+  }
+  
+  private void addToKey(TOP fs) {
+    if (valuesByKey != null) {
+      final long key = key(fs, keyFeature);
+      final Object prev = valuesByKey.put(key, fs);
+      if (prev != null) {
+        valuesByKey.put(key, addToBucket(prev, fs));
+      }
+    } else {
+      final String key = fs._getStringValueNc(keyFeature);
+      final Object prev = valuesByString.put(key, fs);
+      if (prev != null) {
+        valuesByString.put(key, addToBucket(prev, fs));
+      }
+    }
+  }
+
+  private static Object addToBucket(Object prev, TOP fs) {
+    if (prev instanceof TOP) {
+      ArrayList<TOP> bucket = new ArrayList<>(4);
+      bucket.add((TOP) prev);
+      bucket.add(fs);
+      return bucket;
+    }
+    @SuppressWarnings("unchecked")
+    final ArrayList<TOP> bucket = (ArrayList<TOP>) prev;
+    bucket.add(fs);
+    return prev;
+  }
+  
+  /**
+   * @param v the value for the key, which is a bucket if not the fs
+   * @param fs the fs to remove
+   * @return true if the bucket is now empty
+   */
+  private static boolean removeFromBucket(Object v, TOP fs) {
+    @SuppressWarnings("unchecked")
+    final ArrayList<TOP> bucket = (ArrayList<TOP>) v;
+    final int last = bucket.size() - 1;
+    for (int i = 0; i <= last; i++) {
+      if (bucket.get(i) == fs) {
+        bucket.set(i, bucket.get(last));  // order within a bucket is not kept
+        bucket.remove(last);
+        break;
+      }
+    }
+    return bucket.isEmpty();
+  }
+
+  /**
+   * @param fs an FS having the feature
+   * @param fi a feature whose range is not String
+   * @return the value of the feature of the fs as a long key
+   */
+  private static long key(TOP fs, FeatureImpl fi) {
+    switch (fi.getSlotKind()) {
+    case Slot_Boolean:
+    case Slot_Byte:
+    case Slot_Short:
+    case Slot_Int:
+    case Slot_Float:
+      return fs._getIntValueNc(fi);
+    case Slot_LongRef:
+    case Slot_DoubleRef:
+      return fs._getLongValueNc(fi);
+    default: 
+      TOP ref = fs._getFeatureValueNc(fi);
+      return (ref == null) ? 0 : ref._id();
+    }
+  }
+
+  /**
+   * @param fi a feature
+   * @param value a value for the feature, in the Java representation of its range:
+   *        Boolean, a Number, String, or FeatureStructure; or null
+   * @return the value as the key of a hash index keyed on the feature: a String or a Long
+   * @throws CASRuntimeException if the value is not one for the range of the feature
+   */
+  static Object keyOf(FeatureImpl fi, Object value) {
+    switch (fi.getSlotKind()) {
+    case Slot_Boolean:
+      if (value instanceof Boolean) {
+        return ((Boolean) value) ? 1L : 0L;
+      }
+      break;
+    case Slot_Byte:
+    case Slot_Short:
+    case Slot_Int:
+      if (value instanceof Byte || value instanceof Short || value instanceof Integer) {
+        return (long) ((Number) value).intValue();
+      }
+      break;
+    case Slot_Float:
+      if (value instanceof Float) {
+        return (long) CASImpl.float2int((Float) value);
+      }
+      break;
+    case Slot_LongRef:
+      if (value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long) {
+        return ((Number) value).longValue();
+      }
+      break;
+    case Slot_DoubleRef:
+      if (value instanceof Float || value instanceof Double) {
+        return CASImpl.double2long(((Number) value).doubleValue());
+      }
+      break;
+    case Slot_StrRef:
+      if (value == null || value instanceof String) {
+        return value;
+      }
+      break;
+    default:
+      if (value == null) {
+        return 0L;
+      }
+      if (value instanceof TOP) {
+        return (long) ((TOP) value)._id();
+      }
+      break;
+    }
+    throw new CASRuntimeException(CASRuntimeException.INAPPROP_RANGE, fi.getName(), 
+        (value == null) ? "null" : value.getClass().getName(), fi.getRange().getName());
+  }
+  
+  /**
+   * @param fs an FS having the feature
+   * @param fi the feature
+   * @return the value of the feature of the fs as the key of a hash index keyed on the feature, see {@link #keyOf(FeatureImpl, Object)}
+   */
+  static Object keyOf(TOP fs, FeatureImpl fi) {
+    return (fi.getSlotKind() == SlotKind.Slot_StrRef) 
+             ? fs._getStringValueNc(fi)
+             : (Object) key(fs, fi);
+  }
+  
+  /**
+   * @param key the key, as returned by {@link #keyOf(FeatureImpl, Object)}
+   * @param result where the Feature Structures in this index having the key value are added, in no particular order
+   */
+  void lookup(Object key, ArrayList<T> result) {
+    final Object v = (valuesByKey != null) 
+                       ? valuesByKey.get((Long) key)
+                       : valuesByString.get((String) key);
+    if (v == null) {
+      return;
+    }
+    final boolean isPear = casImpl.inPearContext();
+    if (v instanceof TOP) {
+      @SuppressWarnings("unchecked")
+      final T fs = (T) (isPear ? CASImpl.pearConvert((TOP) v) : v);
+      result.add(fs);
+      return;
+    }
+    @SuppressWarnings("unchecked")
+    final ArrayList<TOP> bucket = (ArrayList<TOP>) v;
+    for (TOP fs : bucket) {
+      @SuppressWarnings("unchecked")
+      final T r = (T) (isPear ? CASImpl.pearConvert(fs) : fs);
+      result.add(r);
+    }
+  }
+  
+  /**
+   * @param value a value for the key feature, in the Java representation of its range:
+   *        Boolean, a Number, String, or FeatureStructure; or null
+   * @return the Feature Structures in this index having the key value, in no particular order
+   */
+  public ArrayList<T> lookup(Object value) {
+    ArrayList<T> result = new ArrayList<>();
+    lookup(keyOf(keyFeature, value), result);
+    return result;
+  }
+}
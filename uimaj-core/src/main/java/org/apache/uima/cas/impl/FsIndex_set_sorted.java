@@ -60,6 +60,10 @@ final public class FsIndex_set_sorted<T extends FeatureStructure> extends FsInde
     
   // only an optimization used for select.covering for AnnotationIndexes
   private int maxAnnotSpan = -1;
+  
+  // only an optimization used for select.covering for AnnotationIndexes
+  //   built lazily, discarded when the index is updated
+  private volatile AnnotationIntervalIndex intervalIndex = null;
      
   FsIndex_set_sorted(CASImpl cas, Type type, int indexType, FSIndexComparator comparatorForIndexSpecs) {
     super(cas, type, indexType, comparatorForIndexSpecs);
@@ -71,6 +75,17 @@ final public class FsIndex_set_sorted<T extends FeatureStructure> extends FsInde
   public void flush() {
     super.flush();
     this.indexedFSs.clear();
+    this.intervalIndex = null;
+  }
+  
+  @Override
+  boolean isOversized() {
+    return indexedFSs.isOversized();
+  }
+  
+  @Override
+  void compact() {
+    indexedFSs.trimToSize();
   }
 
   /**
@@ -97,12 +112,33 @@ final public class FsIndex_set_sorted<T extends FeatureStructure> extends FsInde
       if (span > maxAnnotSpan) {
         maxAnnotSpan = span;
       }
+      intervalIndex = null;
     }
     indexedFSs.add(fs, isSorted() 
                               ? comparatorNoTypeWithID 
                               : comparatorNoTypeWithoutID);
   }
 
+  /* (non-Javadoc)
+   * @see org.apache.uima.cas.impl.FsIndex_singletype#insertAll(org.apache.uima.jcas.cas.TOP[], int)
+   */
+  @Override
+  void insertAll(TOP[] fss, int length) {
+    maybeCopy();
+    if (isAnnotIdx) {
+      for (int i = 0; i < length; i++) {
+        int span = ((Annotation)fss[i]).getEnd() - ((Annotation)fss[i]).getBegin();
+        if (span > maxAnnotSpan) {
+          maxAnnotSpan = span;
+        }
+      }
+      intervalIndex = null;
+    }
+    indexedFSs.addAll(fss, length, isSorted() 
+                                     ? comparatorNoTypeWithID 
+                                     : comparatorNoTypeWithoutID);
+  }
+
   /**
    * find any arbitrary matching FS
    *   two comparators:  cp, and cpx (has extra id comparing)
@@ -213,6 +249,9 @@ final public class FsIndex_set_sorted<T extends FeatureStructure> extends FsInde
     }
 //    maybeProcessBulkAdds(); // moved to OrderedFsSet_array class
     maybeCopy();
+    if (isAnnotIdx) {
+      intervalIndex = null;
+    }
     return this.indexedFSs.remove(fs);
   }
   
@@ -268,6 +307,20 @@ final public class FsIndex_set_sorted<T extends FeatureStructure> extends FsInde
   public int ll_maxAnnotSpan() {
     return maxAnnotSpan;
   }
+  
+  /**
+   * Only for annotation indexes.
+   * The interval index is built on first use after an update, and may be
+   * built concurrently by several threads reading a read-only CAS; any of the results may be kept.
+   * @return an interval index reflecting the current contents of this index
+   */
+  AnnotationIntervalIndex getIntervalIndex() {
+    AnnotationIntervalIndex r = intervalIndex;
+    if (r == null) {
+      intervalIndex = r = new AnnotationIntervalIndex(indexedFSs.toArray());
+    }
+    return r;
+  }
 
   /* (non-Javadoc)
    * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
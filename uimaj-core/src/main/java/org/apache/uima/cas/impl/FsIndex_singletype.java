@@ -51,7 +51,7 @@ public abstract class FsIndex_singletype<T extends FeatureStructure>
     implements Comparator<FeatureStructure>, LowLevelIndex<T> {
 
   private final static String[] indexTypes = new String[] {
-      "Sorted", "Set", "Bag", "DefaultBag" };
+      "Sorted", "Set", "Bag", "DefaultBag", "Hash" };
 
   /**
    * shares equal FSIndexComparatorImpl comparatorForIndexSpecs objects updates
@@ -121,10 +121,16 @@ public abstract class FsIndex_singletype<T extends FeatureStructure>
    * null, so that future mods no longer need to do extra work.
    */
   protected WeakReference<CopyOnWriteIndexPart<T>> wr_cow = null;
+  
+  /**
+   * While the CAS is frozen, the one copy-on-write wrapper given to all iterators.
+   * It never needs to copy, because the index can't change until the CAS is reset.
+   */
+  private CopyOnWriteIndexPart<T> frozenCow = null;
 
   @Override
   public String toString() {
-    String kind = (indexType >= 0 && indexType < 4) ? indexTypes[indexType] : "Invalid";
+    String kind = (indexType >= 0 && indexType < indexTypes.length) ? indexTypes[indexType] : "Invalid";
     return this.getClass().getSimpleName() + "(" + kind + ")[" + type.getShortName() + "]";
   }
 
@@ -213,7 +219,7 @@ public abstract class FsIndex_singletype<T extends FeatureStructure>
       // NOT ANNOTATION INDEX      
       isAnnotIdx = false;
 
-      if (indexType == BAG_INDEX) {
+      if (indexType == BAG_INDEX || indexType == HASH_INDEX) {
         comparatorNoTypeWithID = comparatorNoTypeWithoutID = comparatorWithID = comparatorWithoutID = 
             (o1, o2) -> ((FsIndex_bag)this).compare(o1, o2);
       } else {
@@ -255,6 +261,21 @@ public abstract class FsIndex_singletype<T extends FeatureStructure>
   abstract void insert(T fs); // not in upper interfaces because it's internal
                               // use only
 
+  /**
+   * Adding a batch of FSs of this index's type to the index.  Internal use only.
+   * Indexes which can do better than one insert at a time override this.
+   * 
+   * @param fss the FSs to add
+   * @param length the number of FSs in fss to add, starting at 0
+   */
+  void insertAll(TOP[] fss, int length) {
+    for (int i = 0; i < length; i++) {
+      @SuppressWarnings("unchecked")
+      T fs = (T) fss[i];
+      insert(fs);
+    }
+  }
+
   // /**
   // * @param fs - the Feature Structure to be removed.
   // * Only this exact Feature Structure is removed (this is a stronger test
@@ -498,8 +519,12 @@ public abstract class FsIndex_singletype<T extends FeatureStructure>
     return this;
   }
 
+  /**
+   * @return true for the indexes which are corrupted by changing a key feature value of an FS in the index,
+   *         which are the set and sorted indexes, and the hash indexes
+   */
   boolean isSetOrSorted() {
-    return indexType == FSIndex.SET_INDEX || indexType == FSIndex.SORTED_INDEX;
+    return indexType == FSIndex.SET_INDEX || indexType == FSIndex.SORTED_INDEX || indexType == FSIndex.HASH_INDEX;
   }
 
   public boolean isSorted() {
@@ -526,6 +551,10 @@ public abstract class FsIndex_singletype<T extends FeatureStructure>
   }
 
   protected CopyOnWriteIndexPart<T> getNonNullCow() {
+    final CopyOnWriteIndexPart<T> f = frozenCow;
+    if (f != null) {
+      return f;  // no weak ref to update, safe for concurrent readers
+    }
     CopyOnWriteIndexPart<T> n = getCopyOnWriteIndexPart();
     if (n != null) {
       if (CASImpl.traceCow) {
@@ -550,8 +579,32 @@ public abstract class FsIndex_singletype<T extends FeatureStructure>
    *         index, or null
    */
   public CopyOnWriteIndexPart<T> getCopyOnWriteIndexPart() {
+    if (frozenCow != null) {
+      return frozenCow;
+    }
     return (wr_cow == null) ? null : wr_cow.get();
   }
+  
+  /**
+   * Called when the CAS is frozen
+   */
+  void freeze() {
+    maybeCopy();  // iterators made before this keep their view of the index
+    compact();
+    frozenCow = createCopyOnWriteIndexPart();
+  }
+  
+  /**
+   * Called when a frozen CAS is reset
+   */
+  void unfreeze() {
+    frozenCow = null;
+  }
+  
+  /**
+   * Reduce the storage to what the current contents need.  Called when the CAS is frozen.
+   */
+  void compact() {}
 
   protected abstract CopyOnWriteIndexPart<T> createCopyOnWriteIndexPart();
 
@@ -575,6 +628,14 @@ public abstract class FsIndex_singletype<T extends FeatureStructure>
     wr_cow = null;
     // casImpl.indexRepository.isUsedChanged = true;
   }
+  
+  /**
+   * @return true if the backing storage is larger than initially allocated, so that
+   *   further flushes, even when empty, would shrink it
+   */
+  boolean isOversized() {
+    return false;
+  }
 
   /* (non-Javadoc)
    * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.cas.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+import org.apache.uima.cas.FeatureStructure;
+
+/**
+ * A splittable Spliterator over ranges of positions in the storage of single type indexes,
+ * used for parallel select() streams.
+ * 
+ * There is one range (segment) per single type index; a segment maps a position to the FS there,
+ * or null if that position is empty (as in bag indexes).
+ * An optional filter drops FSs in the range which are not selected, for instance 
+ * those not covered by a coveredBy bound.
+ * 
+ * Splitting first splits off the first half of the segments, then halves the positions of the 
+ * last segment, so the parts keep the encounter order.
+ * 
+ * Like the iterators, this works on the copy-on-write view of the index parts, so
+ * updating the indexes while a stream is running doesn't affect it.
+ *
+ * @param <T> the type of the FSs returned
+ */
+class FsSpliterator<T extends FeatureStructure> implements Spliterator<T> {
+  
+  private final List<IntFunction<T>> segments;
+  
+  /** per segment, the first position not yet returned (inclusive) */
+  private final int[] begins;
+  /** per segment, one past the last position not yet returned (exclusive) */
+  private final int[] ends;
+  
+  /** the first segment not yet done */
+  private int first;
+  /** one past the last segment not yet done */
+  private int last;
+  
+  /** if true, the positions are returned from high to low; only used with one segment */
+  private final boolean isBackwards;
+  
+  /** null, or a test an FS in the range has to pass to be returned */
+  private final Predicate<? super T> filter;
+  
+  /** true if every position holds an FS and there is no filter: the size is exact */
+  private final boolean isExactSize;
+  
+  private final int characteristics;
+  
+  private final Comparator<? super T> comparator;
+  
+  /**
+   * @param segments per segment, a function from position to FS, returning null for empty positions
+   * @param begins per segment, the first position, inclusive
+   * @param ends per segment, the last position, exclusive
+   * @param isBackwards true to go from the last position to the first, only for one segment
+   * @param isDense true if every position holds an FS
+   * @param filter null or the test for the FSs to return
+   * @param characteristics without SIZED and SUBSIZED, which are computed
+   * @param comparator the comparator if characteristics include SORTED
+   */
+  FsSpliterator(List<IntFunction<T>> segments, int[] begins, int[] ends, boolean isBackwards, 
+      boolean isDense, Predicate<? super T> filter, int characteristics, Comparator<? super T> comparator) {
+    assert !isBackwards || segments.size() <= 1;
+    this.segments = segments;
+    this.begins = begins;
+    this.ends = ends;
+    this.first = 0;
+    this.last = segments.size();
+    this.isBackwards = isBackwards;
+    this.filter = filter;
+    this.isExactSize = isDense && filter == null;
+    this.characteristics = isExactSize 
+        ? (characteristics | Spliterator.SIZED | Spliterator.SUBSIZED)
+        : (characteristics & ~(Spliterator.SIZED | Spliterator.SUBSIZED));
+    this.comparator = comparator;
+  }
+  
+  /**
+   * @param a the array, with no nulls in the range
+   * @param begin the first position, inclusive
+   * @param end the last position, exclusive
+   * @param isBackwards true to go from the last position to the first
+   * @param characteristics without SIZED and SUBSIZED, which are computed
+   * @param comparator the comparator if characteristics include SORTED
+   * @param <T> the type of the FSs
+   * @return a spliterator over part of the array
+   */
+  static <T extends FeatureStructure> FsSpliterator<T> ofArray(T[] a, int begin, int end, 
+      boolean isBackwards, int characteristics, Comparator<? super T> comparator) {
+    return new FsSpliterator<>(Collections.singletonList(i -> a[i]), new int[] {begin}, new int[] {end}, isBackwards, 
+        true, null, characteristics, comparator);
+  }
+
+  /**
+   * Copy the segments from (inclusive) to (exclusive) of another one
+   */
+  private FsSpliterator(FsSpliterator<T> o, int from, int to) {
+    int n = to - from;
+    segments = new ArrayList<>(o.segments.subList(from, to));
+    begins = new int[n];
+    ends = new int[n];
+    System.arraycopy(o.begins, from, begins, 0, n);
+    System.arraycopy(o.ends, from, ends, 0, n);
+    first = 0;
+    last = n;
+    isBackwards = o.isBackwards;
+    filter = o.filter;
+    isExactSize = o.isExactSize;
+    characteristics = o.characteristics;
+    comparator = o.comparator;
+  }
+  
+  @Override
+  public boolean tryAdvance(Consumer<? super T> action) {
+    while (first < last) {
+      final int s = isBackwards ? last - 1 : first;
+      if (begins[s] < ends[s]) {
+        T fs = segments.get(s).apply(isBackwards ? --ends[s] : begins[s]++);
+        if (fs != null && (filter == null || filter.test(fs))) {
+          action.accept(fs);
+          return true;
+        }
+      } else if (isBackwards) {
+        last--;
+      } else {
+        first++;
+      }
+    }
+    return false;
+  }
+  
+  @Override
+  public void forEachRemaining(Consumer<? super T> action) {
+    for (; first < last; first++) {
+      final IntFunction<T> segment = segments.get(first);
+      final int begin = begins[first];
+      final int end = ends[first];
+      begins[first] = ends[first];  // done
+      if (isBackwards) {
+        for (int i = end - 1; i >= begin; i--) {
+          T fs = segment.apply(i);
+          if (fs != null && (filter == null || filter.test(fs))) {
+            action.accept(fs);
+          }
+        }
+      } else {
+        for (int i = begin; i < end; i++) {
+          T fs = segment.apply(i);
+          if (fs != null && (filter == null || filter.test(fs))) {
+            action.accept(fs);
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public Spliterator<T> trySplit() {
+    final int nbrSegments = last - first;
+    if (nbrSegments > 1) {
+      final int mid = (first + last) >>> 1;
+      FsSpliterator<T> prefix = new FsSpliterator<>(this, first, mid);
+      first = mid;
+      return prefix;
+    }
+    if (nbrSegments == 0) {
+      return null;
+    }
+    
+    final int lo = begins[first];
+    final int hi = ends[first];
+    final int mid = (lo + hi) >>> 1;
+    if (lo >= mid) {
+      return null;
+    }
+    FsSpliterator<T> prefix = new FsSpliterator<>(this, first, last);
+    if (isBackwards) {
+      // the high positions come first
+      prefix.begins[0] = mid;
+      ends[first] = mid;
+    } else {
+      prefix.ends[0] = mid;
+      begins[first] = mid;
+    }
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    long r = 0;
+    for (int s = first; s < last; s++) {
+      r += ends[s] - begins[s];
+    }
+    return r;
+  }
+
+  @Override
+  public long getExactSizeIfKnown() {
+    return isExactSize ? estimateSize() : -1;
+  }
+  
+  @Override
+  public int characteristics() {
+    return characteristics;
+  }
+
+  @Override
+  public Comparator<? super T> getComparator() {
+    if ((characteristics & Spliterator.SORTED) == Spliterator.SORTED) {
+      return comparator;
+    }
+    throw new IllegalStateException();
+  }
+}
@@ -148,6 +148,14 @@ public class Id2FS implements Iterable<TOP> {
 //    id2fsw.set(fs._id, fs);  
 //  }
        
+  /**
+   * Pre-size for a batch of FSs about to be created
+   * @param nbrToAdd the number of FSs to be created
+   */
+  void ensureCapacity(int nbrToAdd) {
+    id2fs.ensureCapacity(nbrToAdd);
+  }
+  
   int size() {
     return id2fs.getApproximateSize(); 
   }
@@ -22,11 +22,13 @@ package org.apache.uima.cas.impl;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.NoSuchElementException;
+import java.util.function.Predicate;
 
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.cas.FSIterator;
 import org.apache.uima.cas.FeatureStructure;
 import org.apache.uima.jcas.cas.TOP;
+import org.apache.uima.jcas.tcas.Annotation;
 
 /**
  * Low-level FS iterator. Returns FS references, instead of FS objects.
@@ -173,6 +175,13 @@ public interface LowLevelIterator<T extends FeatureStructure> extends FSIterator
    */
   default boolean isMoveToSupported() { return false; }
 
+  /**
+   * Internal use, for splitting coveredBy selections on the positions of the index storage
+   * @return the test an annotation between the first one returned and the first one beginning
+   *         beyond the bounds has to pass to be returned, or null if this iterator has none
+   */
+  default Predicate<Annotation> coveredByFilter() { return null; }
+
   /**
    * @param arrayList updated by adding elements representing the collection of items the iterator would return
    * from its current position to the end
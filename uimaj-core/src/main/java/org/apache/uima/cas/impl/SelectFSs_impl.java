@@ -22,11 +22,15 @@ import static org.apache.uima.cas.impl.Subiterator.BoundsUse.notBounded;
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
@@ -51,6 +55,8 @@ import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.CASRuntimeException;
 import org.apache.uima.cas.FSIndex;
 import org.apache.uima.cas.FSIterator;
+import org.apache.uima.cas.FSMatchConstraint;
+import org.apache.uima.cas.Feature;
 import org.apache.uima.cas.FeatureStructure;
 import org.apache.uima.cas.SelectFSs;
 import org.apache.uima.cas.Type;
@@ -58,6 +64,8 @@ import org.apache.uima.cas.impl.Subiterator.BoundsUse;
 import org.apache.uima.cas.text.AnnotationFS;
 import org.apache.uima.cas.text.AnnotationIndex;
 import org.apache.uima.cas.text.AnnotationPredicates;
+import org.apache.uima.internal.util.CopyOnWriteObjHashSet;
+import org.apache.uima.internal.util.CopyOnWriteOrderedFsSet_array;
 import org.apache.uima.internal.util.Misc;
 import org.apache.uima.jcas.cas.EmptyFSList;
 import org.apache.uima.jcas.cas.FSArray;
@@ -105,6 +113,10 @@ public class SelectFSs_impl <T extends FeatureStructure> implements SelectFSs<T>
   private final static boolean IS_UNAMBIGUOUS = false;
   private final static boolean IS_NOT_STRICT = false;
   
+  /** for splitting streams not over index storage, the batch size increment and maximum */
+  private final static int SPLIT_BATCH_UNIT = 1 << 10;
+  private final static int SPLIT_MAX_BATCH = 1 << 25;
+  
   private CASImpl view;
   private JCasImpl jcas;
   private LowLevelIndex<T> index; 
@@ -139,6 +151,10 @@ public class SelectFSs_impl <T extends FeatureStructure> implements SelectFSs<T>
   private AnnotationFS boundingFs = null;
   private boolean noResult = false;
   
+  /** for withFeatureValue: the feature, and the value as a hash index key, see FsIndex_hash */
+  private FeatureImpl valueFeature = null;
+  private Object valueKey = null;
+  
   
   /* **********************************************
    * Constructors
@@ -294,6 +310,13 @@ public class SelectFSs_impl <T extends FeatureStructure> implements SelectFSs<T>
     return this;
   } 
   
+  @Override
+  public SelectFSs_impl<T> withFeatureValue(Feature feat, Object value) {
+    this.valueFeature = (FeatureImpl) feat;
+    this.valueKey = FsIndex_hash.keyOf(valueFeature, value);
+    return this;
+  }
+  
   @Override
   public SelectFSs_impl<T> includeAnnotationsWithEndBeyondBounds() { // AI known as "not strict"
     isIncludeAnnotBeyondBounds = true;
@@ -570,6 +593,10 @@ public class SelectFSs_impl <T extends FeatureStructure> implements SelectFSs<T>
       ti = view.getTypeSystemImpl().getTopType();
     }
     
+    if (valueFeature != null && !isAltSource && !((TypeImpl) valueFeature.getDomain()).subsumes(ti)) {
+      throw new CASRuntimeException(CASRuntimeException.INAPPROP_FEAT, valueFeature.getName(), ti.getName());
+    }
+    
     if (boundsUse == BoundsUse.covering) {
       isIncludeAnnotBeyondBounds = true;  
     }
@@ -743,9 +770,78 @@ public class SelectFSs_impl <T extends FeatureStructure> implements SelectFSs<T>
    * @param idx the index selected, corresponds to a type + its subtypes, 
    *        or if null, either an alternate source or means all types
    * @param v the cas
-   * @return an iterator
+   * @return an iterator, filtered by the feature value if any
    */
   private LowLevelIterator<T> plainFsIterator(LowLevelIndex<T> idx, CASImpl v) {
+    if (valueFeature == null) {
+      return plainFsIteratorNoValue(idx, v);
+    }
+    
+    LowLevelIterator<T> it = maybeHashIndexIterator(idx, v);
+    if (it != null) {
+      return it;
+    }
+    
+    final TypeImpl domain = (TypeImpl) valueFeature.getDomain();
+    return new FilteredIterator<>(plainFsIteratorNoValue(idx, v), fs -> 
+        fs != null &&
+        (!isAltSource || domain.subsumes(((TOP) fs)._getTypeImpl())) &&
+        Objects.equals(valueKey, FsIndex_hash.keyOf((TOP) fs, valueFeature)));
+  }
+  
+  /**
+   * For withFeatureValue, finds the FSs by lookups in the hash indexes keyed on the feature,
+   * when there is one for the selected type and each of its subtypes, 
+   * and the selection is not bounded, positioned or otherwise filtered.
+   * 
+   * The FSs are sorted if the index is sorted and order is needed.
+   * 
+   * @param idx the index selected, or null for all the indexed FSs of the type
+   * @param v the cas
+   * @return a snapshot iterator over the FSs having the feature value, or null if the hash indexes can't be used
+   */
+  @SuppressWarnings("unchecked")  // the FSs found and the comparators are for TOP, used for T
+  private LowLevelIterator<T> maybeHashIndexIterator(LowLevelIndex<T> idx, CASImpl v) {
+    if (isAltSource || boundsUse != BoundsUse.notBounded || isNonOverlapping || isFollowing || isPreceding ||
+        (idx != null && !(idx instanceof FsIndex_iicp) && !(idx instanceof FsIndex_singletype)) ||
+        (idx != null && idx.getIndexingStrategy() == FSIndex.SET_INDEX)) {  // set indexes may not hold all the FSs 
+      return null;
+    }
+    
+    final ArrayList<FsIndex_hash<T>> hashIndexes = v.indexRepository.getHashIndexes(ti, valueFeature);
+    if (hashIndexes == null) {
+      return null;
+    }
+    if (noResult) {
+      return (LowLevelIterator<T>) LowLevelIterator.FS_ITERATOR_LOW_LEVEL_EMPTY;
+    }
+    
+    final ArrayList<T> found = new ArrayList<>();
+    for (FsIndex_hash<T> hashIndex : hashIndexes) {
+      hashIndex.lookup(valueKey, found);
+    }
+    final T[] a = found.toArray((T[]) Array.newInstance(FeatureStructure.class, found.size()));
+    
+    if (idx == null || idx.getIndexingStrategy() != FSIndex.SORTED_INDEX || isUnordered) {
+      return new FsIterator_subtypes_snapshot<>(a, idx, IS_UNORDERED, null);
+    }
+    
+    final FsIndex_singletype<T> leafIndex = (idx instanceof FsIndex_iicp) 
+        ? ((FsIndex_iicp<T>) idx).getFsIndex_singleType()
+        : (FsIndex_singletype<T>) idx;
+    Arrays.sort(a, (Comparator<? super T>) (isTypePriority ? leafIndex.comparatorWithID : leafIndex.comparatorNoTypeWithID));
+    return new FsIterator_subtypes_snapshot<>(a, idx, IS_ORDERED, 
+        isTypePriority ? leafIndex.comparatorWithoutID : leafIndex.comparatorNoTypeWithoutID);
+  }
+  
+  /**
+   * 
+   * @param idx the index selected, corresponds to a type + its subtypes, 
+   *        or if null, either an alternate source or means all types
+   * @param v the cas
+   * @return an iterator
+   */
+  private LowLevelIterator<T> plainFsIteratorNoValue(LowLevelIndex<T> idx, CASImpl v) {
     if (null == idx) { 
       // no bounds, not ordered
       // type could be null
@@ -811,15 +907,7 @@ public class SelectFSs_impl <T extends FeatureStructure> implements SelectFSs<T>
       }
 
       if (isFollowing) {
-        // Annotations are following the startFS if their begin is >= the end of the startFS
-        // except if they are zero-width FSes at the end of the startFS in which case they are
-        // considered to be covered and not following
-        int startingFSStart = ((Annotation) startingFs).getBegin();
-        int startingFSEnd = ((Annotation) startingFs).getEnd();
-        it = new FilteredIterator<>(it, fs -> {
-          return fs._id() != startingFs._id
-              && AnnotationPredicates.following((Annotation) fs, startingFSStart, startingFSEnd);
-        });
+        it = new FilteredIterator<>(it, followingConstraint());
       }
       
       return it;
@@ -859,6 +947,21 @@ public class SelectFSs_impl <T extends FeatureStructure> implements SelectFSs<T>
         isIncludeZeroWidthAtEnd); 
   }
   
+  /**
+   * Annotations are following the startFS if their begin is &gt;= the end of the startFS
+   * except if they are zero-width FSes at the end of the startFS in which case they are
+   * considered to be covered and not following
+   * @return the constraint for the unbounded following case
+   */
+  private FSMatchConstraint followingConstraint() {
+    int startingFSStart = ((Annotation) startingFs).getBegin();
+    int startingFSEnd = ((Annotation) startingFs).getEnd();
+    return fs -> {
+      return fs._id() != startingFs._id
+          && AnnotationPredicates.following((Annotation) fs, startingFSStart, startingFSEnd);
+    };
+  }
+  
   private LowLevelIterator<T> maybeWrapBackwards(LowLevelIterator<T> it) {
     if (isBackwards) {
       it = new FsIterator_backwards<>(it);  // positions the underlying iterator to last,
@@ -989,20 +1092,36 @@ public class SelectFSs_impl <T extends FeatureStructure> implements SelectFSs<T>
    *   IMMUTABLE / NONNULL / DISTINCT - always
    *   CONCURRENT - never
    *   ORDERED - unless orderNotNeeded index or not SORTED_INDEX or SET_INDEX
-   *   SORTED - only for SORTED_INDEX (and not orderNotNeeded?)
+   *   SORTED - only for SORTED_INDEX going forwards (and not orderNotNeeded)
    *   SIZED - if exact size is (easily) known, just from index.
-   *           false if bounded, unambiguous
-   *   SUBSIZED - if spliterator result from trysplit also is SIZED, set to true for now
+   *           false if bounded, unambiguous, positioned or limited
+   *   SUBSIZED - if spliterator result from trysplit also is SIZED
    * 
    * trySplit impl: 
-   *   always returns null (no parallelism support for now) 
+   *   When the FSs come from one set or sorted single type index, or (if the order is not needed)
+   *   from the concatenation of single type indexes, splits on the positions in the 
+   *   index storage (see FsSpliterator). A coveredBy or following selection over one sorted 
+   *   single type index is split on the positions from the first FS selected to the first one beyond
+   *   the bounds, and filtered. 
+   *   
+   *   Otherwise, splits off batches of the next FSs from the iterator, like the JDK's 
+   *   spliterators over iterators.
    * @return the spliterator 
    */
   @Override
   public Spliterator<T> spliterator() {
+    // the direction of the result; fsIterator() changes isBackwards for following and preceding 
+    final boolean isBackwardsResult = isBackwards;
+    final LowLevelIterator<T> fsIt = (LowLevelIterator<T>) fsIterator();
+    
+    Spliterator<T> r = maybeIndexSpliterator(fsIt, isBackwardsResult);
+    if (r != null) {
+      return r;
+    }
+    
     return new Spliterator<T>() {
 
-      private final FSIterator<T> it = fsIterator();
+      private final FSIterator<T> it = fsIt;
       
       private final FSIndex<T> localIndex = index;
       
@@ -1012,19 +1131,23 @@ public class SelectFSs_impl <T extends FeatureStructure> implements SelectFSs<T>
             : null;
                                                           
       private final int characteristics;
+      
+      /** the number of FSs not yet returned, if known */ 
+      private long remaining;
+      
+      /** the size of the last batch split off */
+      private int batchSize = 0;
+      
       { // set the characteristics and comparator
-        // always set
-        int c = Spliterator.IMMUTABLE | Spliterator.NONNULL | Spliterator.DISTINCT;
+        int c = spliteratorCharacteristics(isBackwardsResult);
         
-        if (boundsUse == BoundsUse.notBounded && !isNonOverlapping) {
+        if (boundsUse == BoundsUse.notBounded && !isNonOverlapping && localIndex != null &&
+            startingFs == null && shift == 0 && limit == -1 && 
+            !isFollowing && !isPreceding && !isAllViews && valueFeature == null) {
           c |= Spliterator.SIZED | Spliterator.SUBSIZED;
-        }
-        
-        // set per indexing strategy
-        switch ((null == localIndex) ? -1 : localIndex.getIndexingStrategy()) {
-        case FSIndex.SORTED_INDEX: c |= Spliterator.ORDERED | Spliterator.SORTED; break;
-        case FSIndex.SET_INDEX: c |= Spliterator.ORDERED; break;
-        default: // do nothing
+          remaining = localIndex.size();
+        } else {
+          remaining = Long.MAX_VALUE;
         }
         
         characteristics = c;        
@@ -1035,6 +1158,9 @@ public class SelectFSs_impl <T extends FeatureStructure> implements SelectFSs<T>
         if (it.isValid()) {
           action.accept(it.getNvc());
           incr(it);
+          if (remaining != Long.MAX_VALUE) {
+            remaining --;
+          }
           return true;
         }
         return false;
@@ -1042,14 +1168,28 @@ public class SelectFSs_impl <T extends FeatureStructure> implements SelectFSs<T>
 
       @Override
       public Spliterator<T> trySplit() {
-        // return null for now
-        // could implement something based on type of fsIterator.
-        return null;
+        if (!it.isValid()) {
+          return null;
+        }
+        int n = Math.min(batchSize + SPLIT_BATCH_UNIT, SPLIT_MAX_BATCH);
+        FeatureStructure[] a = new FeatureStructure[n];
+        int j = 0;
+        do {
+          a[j++] = it.getNvc();
+          incr(it);
+        } while (j < n && it.isValid());
+        batchSize = j;
+        if (remaining != Long.MAX_VALUE) {
+          remaining -= j;
+        }
+        @SuppressWarnings("unchecked")
+        final T[] batch = (T[]) a;
+        return FsSpliterator.ofArray(batch, 0, j, false, characteristics, comparator);
       }
 
       @Override
       public long estimateSize() {
-        return ((characteristics & Spliterator.SIZED) == Spliterator.SIZED && localIndex != null) ? localIndex.size() : Long.MAX_VALUE;
+        return remaining;
       }
 
       @Override
@@ -1059,17 +1199,148 @@ public class SelectFSs_impl <T extends FeatureStructure> implements SelectFSs<T>
 
       @Override
       public Comparator<? super T> getComparator() {
-        if (comparator != null) {
-          return comparator;
-        }
         if ((characteristics & Spliterator.SORTED) == Spliterator.SORTED) {
-          return null;
+          return comparator;
         }
         throw new IllegalStateException();
       }
     };
   }
   
+  private int spliteratorCharacteristics(boolean isBackwardsResult) {
+    // always set
+    int c = Spliterator.IMMUTABLE | Spliterator.NONNULL | Spliterator.DISTINCT;
+    
+    // set per indexing strategy
+    switch ((null == index) ? -1 : index.getIndexingStrategy()) {
+    case FSIndex.SORTED_INDEX: 
+      c |= Spliterator.ORDERED;
+      if (!isBackwardsResult && !isUnordered) {
+        c |= Spliterator.SORTED;
+      }
+      break;
+    case FSIndex.SET_INDEX: c |= Spliterator.ORDERED; break;
+    default: // do nothing
+    }
+    return c;
+  }
+  
+  /**
+   * A spliterator splitting on the positions of the index storage, see {@link #spliterator()}
+   * @param it the iterator for the selection, used to find the first FS selected
+   * @param isBackwardsResult true if the selection goes backwards 
+   * @return null if the selection can't be split on the positions of the index storage
+   */
+  @SuppressWarnings("unchecked")  // the single type indexes hold TOPs, returned as T
+  private Spliterator<T> maybeIndexSpliterator(LowLevelIterator<T> it, boolean isBackwardsResult) {
+    if (isAltSource || isAllViews || isNonOverlapping || isPreceding || noResult || valueFeature != null ||
+        (isFollowing && isBackwardsResult) ||
+        !(index instanceof FsIndex_iicp) || 
+        (boundsUse != BoundsUse.notBounded && boundsUse != BoundsUse.coveredBy) ||
+        view.inPearContext()) {  // the iterators return PEAR trampolines
+      return null;
+    }
+    
+    final FsIndex_iicp<T> iicp = (FsIndex_iicp<T>) index;
+    final FsIndex_singletype<TOP>[] leafIndexes = 
+        iicp.streamNonEmptyIndexes().toArray(FsIndex_singletype[]::new);
+    final int characteristics = spliteratorCharacteristics(isBackwardsResult);
+    final Comparator<? super T> comparator = (Comparator<? super T>) index;
+    
+    if (leafIndexes.length == 0) {
+      return Spliterators.emptySpliterator();
+    }
+    
+    if (leafIndexes.length == 1 && leafIndexes[0] instanceof FsIndex_set_sorted) {
+      if (!it.isValid()) {
+        return Spliterators.emptySpliterator();
+      }
+      final FsIndex_set_sorted<TOP> leafIndex = (FsIndex_set_sorted<TOP>) leafIndexes[0];
+      final CopyOnWriteOrderedFsSet_array<TOP> cow = 
+          (CopyOnWriteOrderedFsSet_array<TOP>) leafIndex.getNonNullCow();
+      final TOP[] a = cow.a;
+      final int pos = Arrays.binarySearch(a, cow.a_firstUsedslot, cow.a_nextFreeslot, 
+          (TOP) it.getNvc(), leafIndex.comparatorWithID);
+      if (pos < 0) {
+        return null;  // should not happen
+      }
+      
+      int begin = isBackwardsResult ? cow.a_firstUsedslot : pos;
+      int end = isBackwardsResult ? pos + 1 : cow.a_nextFreeslot;
+      Predicate<? super T> filter = null;
+      
+      if (boundsUse == BoundsUse.coveredBy) {
+        // it is the SelectFSIterator over the Subiterator, unless limited or backwards
+        Predicate<Annotation> coveredByFilter = it.coveredByFilter();
+        if (coveredByFilter == null) {
+          return null;
+        }
+        filter = fs -> coveredByFilter.test((Annotation) fs);
+        // the first position beginning after the bounds, annotations are sorted by begin 
+        final int boundEnd = boundingFs.getEnd();
+        int lo = begin;
+        int hi = end;
+        while (lo < hi) {
+          int mid = (lo + hi) >>> 1;
+          if (((Annotation)a[mid]).getBegin() > boundEnd) {
+            hi = mid;
+          } else {
+            lo = mid + 1;
+          }
+        }
+        end = lo;
+      } else if (isFollowing) {
+        if (limit != -1) {
+          return null;
+        }
+        FSMatchConstraint cons = followingConstraint();
+        filter = cons::match;
+      } else if (limit != -1) {
+        if (isBackwardsResult) {
+          begin = Math.max(begin, end - limit);
+        } else {
+          end = Math.min(end, begin + limit);
+        }
+      }
+      
+      final List<IntFunction<T>> segments = Collections.singletonList(i -> (T) a[i]);
+      return new FsSpliterator<>(segments, new int[] {begin}, new int[] {end}, isBackwardsResult,
+          true, filter, characteristics, comparator);
+    }
+    
+    // Concatenation of the single type indexes, the order of the unordered iterators 
+    if (boundsUse != BoundsUse.notBounded || startingFs != null || shift != 0 || limit != -1 ||
+        isBackwardsResult || isFollowing ||
+        (index.getIndexingStrategy() == FSIndex.SORTED_INDEX && !isUnordered)) {
+      return null;
+    }
+    
+    final int nbrSegments = leafIndexes.length;
+    final List<IntFunction<T>> segments = new ArrayList<>(nbrSegments);
+    final int[] begins = new int[nbrSegments];
+    final int[] ends = new int[nbrSegments];
+    boolean isDense = true;
+    for (int i = 0; i < nbrSegments; i++) {
+      CopyOnWriteIndexPart<TOP> cow = leafIndexes[i].getNonNullCow();
+      if (cow instanceof CopyOnWriteOrderedFsSet_array) {
+        CopyOnWriteOrderedFsSet_array<TOP> ofsa = (CopyOnWriteOrderedFsSet_array<TOP>) cow;
+        final TOP[] a = ofsa.a;
+        segments.add(p -> (T) a[p]);
+        begins[i] = ofsa.a_firstUsedslot;
+        ends[i] = ofsa.a_nextFreeslot;
+      } else if (cow instanceof CopyOnWriteObjHashSet) {
+        CopyOnWriteObjHashSet<TOP> bag = (CopyOnWriteObjHashSet<TOP>) cow;
+        segments.add(p -> (T) bag.get(p));   // null for empty slots
+        ends[i] = bag.getCapacity();
+        isDense = false;
+      } else {
+        return null;
+      }
+    }
+    return new FsSpliterator<>(segments, begins, ends, false, isDense, null, 
+        characteristics & ~Spliterator.SORTED, comparator);
+  }
+  
   /*
    * returns the item the select is pointing to, or null 
    * if nullOK(false) then throws on null
@@ -1694,6 +1965,11 @@ public class SelectFSs_impl <T extends FeatureStructure> implements SelectFSs<T>
       it = iteratorSupplier.get();
     }
     
+    @Override
+    public Predicate<Annotation> coveredByFilter() {
+      return it.coveredByFilter();
+    }
+    
     @Override
     public boolean isValid() {
       return it.isValid();
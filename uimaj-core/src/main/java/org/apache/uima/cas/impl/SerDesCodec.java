@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.cas.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Compresses and decompresses the individual slot kind streams of the compressed binary
+ * serialization forms 4 and 6.
+ *
+ * The id of the codec used is recorded in the serialized header, and deserialization looks up
+ * the codec by that id (see {@link SerDesCodecs}), so readers don't need to be told which codec was used.
+ *
+ * Implementations must be thread-safe; one instance may be used for several streams at the same time.
+ */
+public interface SerDesCodec {
+
+  /**
+   * @return the id recorded in the serialized form, 0 - 255.
+   *   Ids below 128 are reserved for the codecs built into UIMA.
+   */
+  int getId();
+
+  /**
+   * @return the name, used to select this codec with the JVM property {@link SerDesCodecs#SERDES_CODEC}
+   */
+  String getName();
+
+  /**
+   * Compresses one slot kind stream
+   * @param uncompressed the bytes to compress
+   * @param out where to write the compressed bytes
+   * @return the number of compressed bytes written
+   * @throws IOException passthru
+   */
+  int compress(ByteArrayOutputStream uncompressed, OutputStream out) throws IOException;
+
+  /**
+   * @param compressed the compressed bytes.  This array may be longer than compressedLength,
+   *                   and must not be modified by the caller afterwards
+   * @param compressedLength the number of compressed bytes
+   * @param uncompressedLength the number of bytes originally compressed
+   * @return a stream returning the uncompressed bytes; closing it releases any resources held
+   * @throws IOException passthru
+   */
+  InputStream decompress(byte[] compressed, int compressedLength, int uncompressedLength) throws IOException;
+
+  /**
+   * Decompresses one slot kind stream held in a ByteBuffer, for instance a slice of a memory mapped file.
+   * This default copies the compressed bytes into an array; codecs able to read the buffer directly override it.
+   * @param compressed the compressed bytes, from its position to its limit.  
+   *                   Must not be modified while the returned stream is in use
+   * @param uncompressedLength the number of bytes originally compressed
+   * @return a stream returning the uncompressed bytes; closing it releases any resources held
+   * @throws IOException passthru
+   */
+  default InputStream decompress(ByteBuffer compressed, int uncompressedLength) throws IOException {
+    final int compressedLength = compressed.remaining();
+    byte[] b = new byte[compressedLength + 1];  // extra 0 byte at the end, may be required by Inflater with nowrap 
+    compressed.get(b, 0, compressedLength);
+    return decompress(b, compressedLength, uncompressedLength);
+  }
+
+  /**
+   * Decompresses all of one slot kind stream.
+   * @param compressed the compressed bytes.  This array may be longer than compressedLength
+   * @param compressedLength the number of compressed bytes
+   * @param uncompressedLength the number of bytes originally compressed
+   * @return the uncompressed bytes
+   * @throws IOException passthru
+   */
+  default byte[] decompressFully(byte[] compressed, int compressedLength, int uncompressedLength) throws IOException {
+    byte[] r = new byte[uncompressedLength];
+    try (DataInputStream is = new DataInputStream(decompress(compressed, compressedLength, uncompressedLength))) {
+      is.readFully(r);
+    }
+    return r;
+  }
+}
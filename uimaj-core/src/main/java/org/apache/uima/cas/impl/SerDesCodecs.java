@@ -0,0 +1,485 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.cas.impl;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.util.impl.ByteBufferDataInputStream;
+
+/**
+ * The registry of codecs for the compressed binary serialization forms 4 and 6, and the built-in codecs:
+ * <ul>
+ *   <li>Deflate (id 0) - java.util.zip deflate, with the level and strategy given to the serializer.
+ *       This was the only choice before codecs were pluggable, so data written before then reads as this one.</li>
+ *   <li>Lz (id 1) - a fast, pure Java LZ77 byte-oriented codec (in the style of LZ4),
+ *       trading some size for much less CPU than Deflate</li>
+ *   <li>Stored (id 2) - no entropy coding at all; the data is kept as written by the serializer,
+ *       which already uses variable length and delta encoding</li>
+ * </ul>
+ *
+ * The codec used by default when serializing is Deflate; this can be changed by setting
+ * the JVM property {@link #SERDES_CODEC} to the name of a codec.
+ * Additional codecs can be made available with {@link #register(SerDesCodec)}.
+ */
+public final class SerDesCodecs {
+
+  /**
+   * Set this JVM property to the name of a codec to use it by default when serializing
+   * with compressed forms 4 and 6, e.g. -Duima.serdes_codec=Lz
+   */
+  public static final String SERDES_CODEC = "uima.serdes_codec";
+
+  public static final int DEFLATE_ID = 0;
+  public static final int LZ_ID = 1;
+  public static final int STORED_ID = 2;
+
+  public static final SerDesCodec DEFLATE = deflate(Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY);
+  public static final SerDesCodec LZ = new LzCodec();
+  public static final SerDesCodec STORED = new StoredCodec();
+
+  private static final SerDesCodec[] codecs = new SerDesCodec[256];
+  static {
+    codecs[DEFLATE_ID] = DEFLATE;
+    codecs[LZ_ID] = LZ;
+    codecs[STORED_ID] = STORED;
+  }
+
+  /** null means Deflate, with the level and strategy passed to the serializer */
+  private static final SerDesCodec DEFAULT_CODEC;
+  static {
+    String name = System.getProperty(SERDES_CODEC);
+    SerDesCodec c = (name == null) ? null : getCodec(name);
+    if (name != null && c == null) {
+      UIMAFramework.getLogger().warn("Unknown codec \"{}\" specified by {}, using Deflate", name, SERDES_CODEC);
+    }
+    DEFAULT_CODEC = (c == DEFLATE) ? null : c;
+  }
+
+  private SerDesCodecs() {}  // no instances
+
+  /**
+   * Makes a codec available for deserialization, and for selection by name
+   * @param codec the codec to register
+   */
+  public static synchronized void register(SerDesCodec codec) {
+    final int id = codec.getId();
+    if (id < 0 || id > 255) {
+      throw new IllegalArgumentException(String.format("Codec id %d is not in the range 0 - 255", id));
+    }
+    SerDesCodec existing = codecs[id];
+    if (existing != null && existing != codec) {
+      throw new IllegalArgumentException(String.format("Codec id %d is already used by codec %s", id, existing.getName()));
+    }
+    codecs[id] = codec;
+  }
+
+  /**
+   * @param id the id of the codec, as recorded in a serialized header
+   * @return the codec
+   * @throws IOException if no codec with that id is registered
+   */
+  public static synchronized SerDesCodec getCodec(int id) throws IOException {
+    SerDesCodec c = (id >= 0 && id < codecs.length) ? codecs[id] : null;
+    if (c == null) {
+      throw new IOException(String.format("Serialized CAS was compressed with codec id %d, which is not registered", id));
+    }
+    return c;
+  }
+
+  /**
+   * @param name the name of the codec, case is ignored
+   * @return the codec, or null if no codec by that name is registered
+   */
+  public static synchronized SerDesCodec getCodec(String name) {
+    for (SerDesCodec c : codecs) {
+      if (c != null && c.getName().equalsIgnoreCase(name)) {
+        return c;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param level the Deflater compression level
+   * @param strategy the Deflater strategy
+   * @return a Deflate codec using the level and strategy
+   */
+  public static SerDesCodec deflate(int level, int strategy) {
+    return new DeflateCodec(level, strategy);
+  }
+
+  /**
+   * @param codec null or the codec specified by the caller
+   * @param deflateLevel the level to use if the codec defaults to Deflate
+   * @param deflateStrategy the strategy to use if the codec defaults to Deflate
+   * @return the codec to use for serializing
+   */
+  static SerDesCodec getCodecForSerialization(SerDesCodec codec, int deflateLevel, int deflateStrategy) {
+    if (codec != null) {
+      return codec;
+    }
+    if (DEFAULT_CODEC != null) {
+      return DEFAULT_CODEC;
+    }
+    return (deflateLevel == Deflater.DEFAULT_COMPRESSION && deflateStrategy == Deflater.DEFAULT_STRATEGY)
+             ? DEFLATE
+             : deflate(deflateLevel, deflateStrategy);
+  }
+
+  /*****************************************************************
+   * Deflate
+   *****************************************************************/
+  private static final class DeflateCodec implements SerDesCodec {
+
+    // Deflaters hold native memory; reuse one per thread instead of one per stream
+    private static final ThreadLocal<Deflater> deflaters = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+
+    private final int level;
+    private final int strategy;
+
+    DeflateCodec(int level, int strategy) {
+      this.level = level;
+      this.strategy = strategy;
+    }
+
+    @Override
+    public int getId() {
+      return DEFLATE_ID;
+    }
+
+    @Override
+    public String getName() {
+      return "Deflate";
+    }
+
+    @Override
+    public int compress(ByteArrayOutputStream uncompressed, OutputStream out) throws IOException {
+      final Deflater deflater = deflaters.get();
+      deflater.reset();
+      deflater.setLevel(level);
+      deflater.setStrategy(strategy);
+      int zipBufSize = Math.max(1024, uncompressed.size() / 100);
+      DeflaterOutputStream cds = new DeflaterOutputStream(out, deflater, zipBufSize);
+      uncompressed.writeTo(cds);
+      cds.finish();  // not close: that would close out
+      return (int) deflater.getBytesWritten();
+    }
+
+    @Override
+    public InputStream decompress(byte[] compressed, int compressedLength, int uncompressedLength) {
+      final Inflater inflater = new Inflater(true);
+      // the Inflater with nowrap option may require 1 extra byte at the end - see Inflater javadoc
+      final byte[] b = (compressed.length > compressedLength) ? compressed : Arrays.copyOf(compressed, compressedLength + 1);
+      int zipBufSize = Math.max(1 << 10, compressedLength); // 32768 == 1<< 15.  Tuned by trials on 2015 intel i7
+       // caches: L1 = 128KB    L2 = 1M     L3 = 6M
+       // increasing the max causes cache dumping on this machine, and things slow down
+      InflaterInputStream iis = new InflaterInputStream(new ByteArrayInputStream(b, 0, compressedLength + 1), inflater, zipBufSize) {
+        @Override
+        public void close() throws IOException {
+          super.close();
+          inflater.end();  // release the space the inflater holds on to
+        }
+      };
+      // increasing the following buffer stream buffer size also seems to slow things down
+      return new BufferedInputStream(iis, zipBufSize);
+    }
+
+    @Override
+    public byte[] decompressFully(byte[] compressed, int compressedLength, int uncompressedLength) throws IOException {
+      final Inflater inflater = new Inflater(true);
+      try {
+        final byte[] b = (compressed.length > compressedLength) ? compressed : Arrays.copyOf(compressed, compressedLength + 1);
+        inflater.setInput(b, 0, compressedLength + 1);
+        final byte[] uncompressed = new byte[uncompressedLength];
+        int n = 0;
+        while (n < uncompressedLength) {
+          int nbrInflated = inflater.inflate(uncompressed, n, uncompressedLength - n);
+          if (nbrInflated == 0 &&
+              (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+            throw new IOException(String.format("Compressed stream ended after %,d of %,d bytes", n, uncompressedLength));
+          }
+          n += nbrInflated;
+        }
+        return uncompressed;
+      } catch (DataFormatException e) {
+        throw new IOException(e);
+      } finally {
+        inflater.end();
+      }
+    }
+  }
+
+  /*****************************************************************
+   * Stored
+   *****************************************************************/
+  private static final class StoredCodec implements SerDesCodec {
+
+    @Override
+    public int getId() {
+      return STORED_ID;
+    }
+
+    @Override
+    public String getName() {
+      return "Stored";
+    }
+
+    @Override
+    public int compress(ByteArrayOutputStream uncompressed, OutputStream out) throws IOException {
+      uncompressed.writeTo(out);
+      return uncompressed.size();
+    }
+
+    @Override
+    public InputStream decompress(byte[] compressed, int compressedLength, int uncompressedLength) throws IOException {
+      checkStoredLengths(compressedLength, uncompressedLength);
+      return new ByteArrayInputStream(compressed, 0, compressedLength);
+    }
+
+    @Override
+    public InputStream decompress(ByteBuffer compressed, int uncompressedLength) throws IOException {
+      checkStoredLengths(compressed.remaining(), uncompressedLength);
+      return new ByteBufferDataInputStream(compressed);  // no copy
+    }
+
+    @Override
+    public byte[] decompressFully(byte[] compressed, int compressedLength, int uncompressedLength) throws IOException {
+      checkStoredLengths(compressedLength, uncompressedLength);
+      return (compressed.length == compressedLength) ? compressed : Arrays.copyOf(compressed, compressedLength);
+    }
+
+    private static void checkStoredLengths(int compressedLength, int uncompressedLength) throws IOException {
+      if (compressedLength != uncompressedLength) {
+        throw new IOException(String.format("Stored stream has %,d bytes, but %,d were expected", compressedLength, uncompressedLength));
+      }
+    }
+  }
+
+  /*****************************************************************
+   * Lz
+   *
+   * A sequence of:
+   *   token byte: high 4 bits = literal length, low 4 bits = match length - 4;
+   *     a value of 15 means more length bytes follow, each added, until one &lt; 255
+   *   the literal bytes
+   *   the match offset, 2 bytes, little endian, 1 - 65535 (omitted in the last sequence)
+   *
+   * The last sequence has only literals; the last 5 bytes are always literals.
+   *****************************************************************/
+  private static final class LzCodec implements SerDesCodec {
+
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;  // at the end, always literals
+    private static final int MATCH_SEARCH_LIMIT = 12; // don't start a match in the last 12 bytes
+    private static final int MAX_OFFSET = 65535;
+    private static final int HASH_LOG = 14;
+    private static final int SKIP_TRIGGER = 6;  // skip faster through incompressible data
+
+    private static final ThreadLocal<int[]> hashTables = ThreadLocal.withInitial(() -> new int[1 << HASH_LOG]);
+
+    @Override
+    public int getId() {
+      return LZ_ID;
+    }
+
+    @Override
+    public String getName() {
+      return "Lz";
+    }
+
+    @Override
+    public int compress(ByteArrayOutputStream uncompressed, OutputStream out) throws IOException {
+      final byte[] src = uncompressed.toByteArray();
+      final byte[] dst = new byte[maxCompressedLength(src.length)];
+      final int len = compress(src, dst);
+      out.write(dst, 0, len);
+      return len;
+    }
+
+    private static int maxCompressedLength(int length) {
+      return length + length / 255 + 16;
+    }
+
+    private static int hash(int v) {
+      return (v * -1640531535) >>> (32 - HASH_LOG);  // golden ratio multiplicative hash
+    }
+
+    private static int readInt(byte[] b, int i) {
+      return (b[i] & 0xff) | ((b[i + 1] & 0xff) << 8) | ((b[i + 2] & 0xff) << 16) | (b[i + 3] << 24);
+    }
+
+    private static int compress(final byte[] src, final byte[] dst) {
+      final int srcLen = src.length;
+      final int matchLimit = srcLen - LAST_LITERALS;
+      final int searchLimit = srcLen - MATCH_SEARCH_LIMIT;
+      int anchor = 0;  // start of pending literals
+      int op = 0;
+
+      if (srcLen > MATCH_SEARCH_LIMIT) {
+        final int[] table = hashTables.get();
+        Arrays.fill(table, -1);
+        int ip = 0;
+        int searchCount = 1 << SKIP_TRIGGER;
+        while (ip < searchLimit) {
+          final int seq = readInt(src, ip);
+          final int h = hash(seq);
+          final int ref = table[h];
+          table[h] = ip;
+          if (ref < 0 || ip - ref > MAX_OFFSET || readInt(src, ref) != seq) {
+            ip += searchCount++ >>> SKIP_TRIGGER;
+            continue;
+          }
+          searchCount = 1 << SKIP_TRIGGER;
+
+          int matchLen = MIN_MATCH;
+          while (ip + matchLen < matchLimit && src[ref + matchLen] == src[ip + matchLen]) {
+            matchLen ++;
+          }
+
+          final int tokenPos = op;
+          op = writeLiterals(src, anchor, ip - anchor, dst, op);
+          dst[op++] = (byte) (ip - ref);
+          dst[op++] = (byte) ((ip - ref) >>> 8);
+          op = writeMatchLength(dst, tokenPos, op, matchLen - MIN_MATCH);
+
+          ip += matchLen;
+          anchor = ip;
+        }
+      }
+      // last literals
+      return writeLiterals(src, anchor, srcLen - anchor, dst, op);
+    }
+
+    /**
+     * writes the token (with the literal length part, match length part 0), extra literal length bytes, and the literals
+     */
+    private static int writeLiterals(byte[] src, int start, int litLen, byte[] dst, int op) {
+      int tokenPos = op++;
+      if (litLen >= 15) {
+        dst[tokenPos] = (byte) (15 << 4);
+        int r = litLen - 15;
+        while (r >= 255) {
+          dst[op++] = (byte) 255;
+          r -= 255;
+        }
+        dst[op++] = (byte) r;
+      } else {
+        dst[tokenPos] = (byte) (litLen << 4);
+      }
+      System.arraycopy(src, start, dst, op, litLen);
+      return op + litLen;
+    }
+
+    /**
+     * sets the match length part of the token, and writes any extra match length bytes
+     */
+    private static int writeMatchLength(byte[] dst, int tokenPos, int op, int ml) {
+      if (ml >= 15) {
+        dst[tokenPos] |= 15;
+        int r = ml - 15;
+        while (r >= 255) {
+          dst[op++] = (byte) 255;
+          r -= 255;
+        }
+        dst[op++] = (byte) r;
+      } else {
+        dst[tokenPos] |= ml;
+      }
+      return op;
+    }
+
+    @Override
+    public InputStream decompress(byte[] compressed, int compressedLength, int uncompressedLength) throws IOException {
+      return new ByteArrayInputStream(decompressFully(compressed, compressedLength, uncompressedLength));
+    }
+
+    @Override
+    public byte[] decompressFully(byte[] compressed, int compressedLength, int uncompressedLength) throws IOException {
+      final byte[] dst = new byte[uncompressedLength];
+      int ip = 0;
+      int op = 0;
+      try {
+        while (true) {
+          final int token = compressed[ip++] & 0xff;
+
+          int litLen = token >>> 4;
+          if (litLen == 15) {
+            int b;
+            do {
+              b = compressed[ip++] & 0xff;
+              litLen += b;
+            } while (b == 255);
+          }
+          System.arraycopy(compressed, ip, dst, op, litLen);
+          ip += litLen;
+          op += litLen;
+
+          if (ip >= compressedLength) {
+            break;  // last sequence
+          }
+
+          final int offset = (compressed[ip] & 0xff) | ((compressed[ip + 1] & 0xff) << 8);
+          ip += 2;
+          int matchLen = token & 0x0f;
+          if (matchLen == 15) {
+            int b;
+            do {
+              b = compressed[ip++] & 0xff;
+              matchLen += b;
+            } while (b == 255);
+          }
+          matchLen += MIN_MATCH;
+
+          int ref = op - offset;
+          if (offset == 0 || ref < 0) {
+            throw new IOException("Invalid match offset in Lz compressed stream");
+          }
+          if (offset >= matchLen) {
+            System.arraycopy(dst, ref, dst, op, matchLen);
+            op += matchLen;
+          } else {  // overlapping
+            for (int end = op + matchLen; op < end;) {
+              dst[op++] = dst[ref++];
+            }
+          }
+        }
+      } catch (ArrayIndexOutOfBoundsException e) {
+        throw new IOException("Lz compressed stream is corrupted", e);
+      }
+      if (ip != compressedLength || op != uncompressedLength) {
+        throw new IOException(String.format("Lz compressed stream decompressed to %,d bytes, but %,d were expected", op, uncompressedLength));
+      }
+      return dst;
+    }
+  }
+}
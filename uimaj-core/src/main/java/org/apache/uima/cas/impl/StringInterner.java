@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.cas.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded table of canonical String instances, shared by all the CASes using one type system
+ * (see {@link TypeSystemImpl#getStringInterner()}).
+ * 
+ * Deserializers use it for the values of features marked to be interned in the type system
+ * descriptor (see {@link FeatureImpl#isInternStrings()}), so that the many equal values of features
+ * like part of speech tags or lemmas share one String instance across all the CASes of a pool,
+ * instead of each CAS holding its own copies.
+ * 
+ * Unlike {@link String#intern()}, the table is bounded: when full, the least recently used values
+ * are dropped (they stay valid in the CASes referring to them, they are just no longer shared
+ * with values deserialized afterwards).
+ * 
+ * The table is split in stripes, each with its own lock, so that CASes deserialized in different
+ * threads don't all contend for one lock.
+ * 
+ * The maximum number of Strings kept can be set with the system property
+ * {@value #STRING_INTERNER_SIZE}; the default is {@value #DEFAULT_SIZE}.
+ */
+public class StringInterner {
+  
+  public static final String STRING_INTERNER_SIZE = "uima.string_interner_size";
+  
+  public static final int DEFAULT_SIZE = 64 * 1024;
+  
+  private static final int NBR_STRIPES = 16;  // power of 2
+  
+  private static class Stripe extends LinkedHashMap<String, String> {
+    private static final long serialVersionUID = 1L;
+
+    private final int maxSize;
+    
+    Stripe(int maxSize) {
+      super(16, 0.75f, true);  // access order, for LRU
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+      return size() > maxSize;
+    }
+  }
+  
+  private final Stripe[] stripes = new Stripe[NBR_STRIPES];
+  
+  /**
+   * A table with the size given by the {@value #STRING_INTERNER_SIZE} system property, or the default size
+   */
+  public StringInterner() {
+    this(getConfiguredSize());
+  }
+  
+  /**
+   * @param maxSize the maximum number of Strings kept
+   */
+  public StringInterner(int maxSize) {
+    final int maxPerStripe = Math.max(1, maxSize / NBR_STRIPES);
+    for (int i = 0; i < NBR_STRIPES; i++) {
+      stripes[i] = new Stripe(maxPerStripe);
+    }
+  }
+  
+  private static int getConfiguredSize() {
+    final String s = System.getProperty(STRING_INTERNER_SIZE);
+    if (s == null) {
+      return DEFAULT_SIZE;
+    }
+    try {
+      return Integer.parseInt(s.trim());
+    } catch (NumberFormatException e) {
+      return DEFAULT_SIZE;
+    }
+  }
+  
+  /**
+   * @param s a String, may be null
+   * @return the String kept in this table equal to s, or s itself (which is then kept) if there is none
+   */
+  public String intern(String s) {
+    if (s == null) {
+      return null;
+    }
+    int h = s.hashCode();
+    final Stripe stripe = stripes[(h ^ (h >>> 16)) & (NBR_STRIPES - 1)];
+    synchronized (stripe) {
+      final String prev = stripe.putIfAbsent(s, s);
+      return (prev == null) ? s : prev;
+    }
+  }
+  
+  /**
+   * @return the number of Strings currently kept
+   */
+  public int size() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size();
+      }
+    }
+    return size;
+  }
+  
+  /**
+   * Drops all the kept Strings
+   */
+  public void clear() {
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        stripe.clear();
+      }
+    }
+  }
+}
@@ -216,6 +216,12 @@ public class Subiterator<T extends AnnotationFS> implements LowLevelIterator<T>
    */
   private boolean isListForm = false;
   
+  /**
+   * true if the list form for covering was computed using the interval indexes; 
+   * it is recomputed the same way when the iterator is reinitialized
+   */
+  private boolean isCoveringListFromIntervalIndex = false;
+  
   /**
    * startId is recalculated at moveToFirst/last/fs, same as isEmpty
    */
@@ -361,6 +367,9 @@ public class Subiterator<T extends AnnotationFS> implements LowLevelIterator<T>
         begin = 0;
       }
       coveringStartPos = new Annotation(jcas, begin, Integer.MAX_VALUE);
+      if (maybeLoadCoveringListFromIntervalIndexes()) {
+        return;
+      }
     } else {
       coveringStartPos = null;  
     }
@@ -368,6 +377,73 @@ public class Subiterator<T extends AnnotationFS> implements LowLevelIterator<T>
     moveToStartSetEmptyAndId();
   }
   
+  /**
+   * For covering, when the underlying iterator is a plain ordered iterator over annotation indexes,
+   * computes the list form directly from the interval indexes of the type and its subtypes, 
+   * instead of scanning forward from the coveringStartPos.
+   * 
+   * The list is in the same order as the underlying iterator: begin ascending, end descending, 
+   * then by id (type priorities are not used with covering).
+   * 
+   * @return true if the list form was set up, false if the interval indexes can't be used
+   */
+  private boolean maybeLoadCoveringListFromIntervalIndexes() {
+    if (AnnotationIntervalIndex.IS_DISABLE_ANNOTATION_INTERVAL_INDEX ||
+        !(it instanceof FsIterator_set_sorted2 || it instanceof FsIterator_subtypes_ordered) ||
+        jcas.getCasImpl().inPearContext()) {
+      return false;
+    }
+    
+    final LowLevelIndex<Annotation> idx = it.ll_getIndex();
+    final FsIndex_singletype<?>[] leafIndexes;
+    if (idx instanceof FsIndex_iicp) {
+      FsIndex_iicp<?> iicp = (FsIndex_iicp<?>) idx;
+      iicp.createIndexIteratorCache();
+      leafIndexes = iicp.cachedSubFsLeafIndexes;
+    } else if (idx instanceof FsIndex_set_sorted) {
+      leafIndexes = new FsIndex_singletype<?>[] {(FsIndex_set_sorted<?>) idx};
+    } else {
+      return false;
+    }
+    
+    for (FsIndex_singletype<?> leafIndex : leafIndexes) {
+      if (!(leafIndex instanceof FsIndex_set_sorted) || !leafIndex.isAnnotIdx) {
+        return false;
+      }
+    }
+    
+    final ArrayList<Annotation> r = new ArrayList<>();
+    int nbrContributingIndexes = 0;
+    for (FsIndex_singletype<?> leafIndex : leafIndexes) {
+      if (leafIndex.size() == 0) {
+        continue;
+      }
+      int prevSize = r.size();
+      ((FsIndex_set_sorted<?>) leafIndex).getIntervalIndex().collectCovering(boundBegin, boundEnd, r);
+      if (r.size() > prevSize) {
+        nbrContributingIndexes ++;
+      }
+    }
+    
+    r.removeIf(this::equalToBounds);
+    
+    if (nbrContributingIndexes > 1) {
+      // merge the results from the several types, using the underlying iterator's order
+      r.sort((a1, a2) -> {
+        int c = comparatorMaybeNoTypeWithoutId.compare(a1, a2);
+        return (c != 0) ? c : Integer.compare(a1._id, a2._id);
+      });
+    }
+    
+    this.list = r;
+    this.pos = 0;
+    this.isListForm = true;
+    this.isCoveringListFromIntervalIndex = true;
+    this.isEmpty = r.isEmpty();
+    this.startId = isEmpty ? 0 : r.get(0)._id;
+    return true;
+  }
+  
   private void moveToStartSetEmptyAndId() {
     moveToStart();
     isEmpty = !isValid();
@@ -647,9 +723,8 @@ public class Subiterator<T extends AnnotationFS> implements LowLevelIterator<T>
   private void resetList() {
     if (isListForm) {
       isListForm = false;
-      if (list != null) {
-        list.clear();
-      };      
+      // don't clear, the list may be shared with copies of this iterator
+      list = null;
     }
   }
 
@@ -1265,6 +1340,33 @@ public class Subiterator<T extends AnnotationFS> implements LowLevelIterator<T>
             fs.getType() == boundType); 
   }
 
+  /**
+   * For splitting a coveredBy selection on the positions of the underlying index 
+   * (see {@link FsSpliterator}): the test for an annotation positioned between the 
+   * first one this iterator returns and the first one beginning beyond the bounds
+   * to be returned too.
+   * 
+   * This is the moveToNext logic for coveredBy, without moving.
+   * 
+   * @return the test, or null if which annotations are returned depends on the ones before
+   *         (unambiguous), or on zero-width settings not handled here
+   */
+  @Override
+  public Predicate<Annotation> coveredByFilter() {
+    if (boundsUse != coveredBy || isUnambiguous || isListForm || 
+        !isIncludeZeroWidthAtBegin || !isIncludeZeroWidthAtEnd) {
+      return null;
+    }
+    if (isStrict) {
+      return item -> item.getEnd() <= boundEnd && !equalToBounds(item);
+    }
+    if (isIncludesAnnotationsStartingAtEndPosition) {
+      return item -> !equalToBounds(item);
+    }
+    return item -> !(item.getBegin() == boundEnd && item.getBegin() < item.getEnd()) && 
+                   !equalToBounds(item);
+  }
+  
   private void maybeSetPrevBounds() {
     if (isUnambiguous && it.isValid()) {
       Annotation a = it.getNvc();
@@ -1436,6 +1538,7 @@ public class Subiterator<T extends AnnotationFS> implements LowLevelIterator<T>
     copy.list = this.list;  // non-final things
     copy.pos  = this.pos;
     copy.isListForm = this.isListForm;
+    copy.isCoveringListFromIntervalIndex = this.isCoveringListFromIntervalIndex;
     return copy;
   }
 
@@ -1480,7 +1583,9 @@ public class Subiterator<T extends AnnotationFS> implements LowLevelIterator<T>
   public boolean maybeReinitIterator() {
     if (it.maybeReinitIterator()) {
       resetList();
-      moveToStartSetEmptyAndId();
+      if (!isCoveringListFromIntervalIndex || !maybeLoadCoveringListFromIntervalIndexes()) {
+        moveToStartSetEmptyAndId();
+      }
       return true;
     }   
     return false;
@@ -81,6 +81,12 @@ public class TypeImpl implements Type, Comparable<TypeImpl> {
   protected boolean isFeatureFinal;
 
   protected boolean isInheritanceFinal;
+
+  /**
+   * true if the int data (primitive features other than strings) of instances of exactly this type
+   * are kept in CAS-level columns, see {@link FsColumns}
+   */
+  private boolean isColumnar;
   
   protected final boolean isLongOrDouble;  // for code generation
   
@@ -464,6 +470,27 @@ public class TypeImpl implements Type, Comparable<TypeImpl> {
     this.isInheritanceFinal = true;
   }
 
+  /**
+   * @return true if the int data of instances of exactly this type are kept in CAS-level columns
+   */
+  public boolean isColumnar() {
+    return isColumnar;
+  }
+
+  /**
+   * Keep the int, float, boolean, byte, short, long and double features of instances of exactly this
+   * type in CAS-level columns instead of in each Feature Structure.
+   * Must be called before the type system is committed.  Ignored for arrays.
+   */
+  public void setColumnar() {
+    if (tsi.isCommitted()) {
+      throw new CASAdminException(CASAdminException.TYPE_SYSTEM_LOCKED);
+    }
+    if (!isArray()) {
+      this.isColumnar = true;
+    }
+  }
+
   void setBuiltIn() {
     this.isBuiltIn = true;
   }
@@ -985,8 +1012,14 @@ public class TypeImpl implements Type, Comparable<TypeImpl> {
     result = prime * result + ((superType == null) ? 0 : superType.hashCodeLong());
     result = prime * result + (isFeatureFinal ? 1231 : 1237);
     result = prime * result + (isInheritanceFinal ? 1231 : 1237);
+    if (isColumnar) {  // only when set, to keep hash codes of other types unchanged 
+      result = prime * result + 1231;
+    }
     for (FeatureImpl fi : getFeatureImpls()) {
       result = prime * result + fi.hashCodeLong();
+      if (fi.isInternStrings()) {  // only when set, like isColumnar
+        result = prime * result + 1231;
+      }
     }
     return result;
   }
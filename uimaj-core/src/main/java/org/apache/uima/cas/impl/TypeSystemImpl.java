@@ -447,6 +447,12 @@ public class TypeSystemImpl implements TypeSystem, TypeSystemMgr, LowLevelTypeSy
    *   
    */
   private final Map<ClassLoader, FsGenerator3[]> generators4pearsByClassLoader = new IdentityHashMap<>();
+
+  /**
+   * Canonical values of the String features marked to be interned, 
+   * shared by all CASes using this type system; created on first use
+   */
+  private volatile StringInterner stringInterner;
   
   private int nextI;  // temp value used in computing adjusted offsets 
   private int nextR;  // temp value used in computing adjusted offsets
@@ -1742,6 +1748,23 @@ public class TypeSystemImpl implements TypeSystem, TypeSystemMgr, LowLevelTypeSy
   public boolean isCommitted() {
     return this.locked;
   }
+
+  /**
+   * @return the table used to intern the values of features for which {@link FeatureImpl#isInternStrings()} is true,
+   *   shared by all the CASes using this type system
+   */
+  public StringInterner getStringInterner() {
+    StringInterner si = stringInterner;
+    if (si == null) {
+      synchronized (this) {
+        si = stringInterner;
+        if (si == null) {
+          stringInterner = si = new StringInterner();
+        }
+      }
+    }
+    return si;
+  }
   
   /**
    * @param typecode for a type
@@ -2095,10 +2118,37 @@ public class TypeSystemImpl implements TypeSystem, TypeSystemMgr, LowLevelTypeSy
    *********************************************************/
   public final Map<TypeSystemImpl, CasTypeSystemMapper> typeSystemMappers =
       new WeakHashMap<>();
+  
+  /**
+   * The last target type system (identity) and its mapper, checked without locking 
+   * before the map; the common case is many CASes deserialized from the same remote type system.
+   * 
+   * This holds the target strongly: the mapper refers to the types and features of the target anyway.
+   * So the last target used stays reachable until another one is used, or this type system is collected.
+   */
+  private static class LastTypeSystemMapper {
+    final TypeSystemImpl tgtTs;
+    final CasTypeSystemMapper mapper;
+    
+    LastTypeSystemMapper(TypeSystemImpl tgtTs, CasTypeSystemMapper mapper) {
+      this.tgtTs = tgtTs;
+      this.mapper = mapper;
+    }
+  }
+  
+  private volatile LastTypeSystemMapper lastTypeSystemMapper;
    
-  synchronized CasTypeSystemMapper getTypeSystemMapper(TypeSystemImpl tgtTs) {
-    CasTypeSystemMapper ctsm = getTypeSystemMapperInner(tgtTs);
-    if (null == ctsm || ctsm.isEqual()) { // if the mapper is for this type system
+  CasTypeSystemMapper getTypeSystemMapper(TypeSystemImpl tgtTs) {
+    if ((null == tgtTs) || (this == tgtTs)) {
+      return null;
+    }
+    LastTypeSystemMapper last = lastTypeSystemMapper;
+    if (null == last || last.tgtTs != tgtTs) {
+      last = new LastTypeSystemMapper(tgtTs, getTypeSystemMapperInner(tgtTs));
+      lastTypeSystemMapper = last;
+    }
+    final CasTypeSystemMapper ctsm = last.mapper;
+    if (ctsm.isEqual()) { // if the mapper is for this type system
       return null;
     } 
     return ctsm;
@@ -2775,11 +2825,20 @@ public class TypeSystemImpl implements TypeSystem, TypeSystemMgr, LowLevelTypeSy
    */
   @Override
   public int hashCode() {
+    if (hashCode != 0) {
+      return hashCode;
+    }
     final int prime = 31;
     int result = 1;
     result = prime * result + ((types == null) ? 0 : types.hashCode());
+    if (locked) {
+      hashCode = result;  // committed type systems don't change; used as key in maps of type systems
+    }
     return result;
   }
+  
+  /** the hash code once committed, or 0 */
+  private int hashCode;
 
   // debug - compare two type systems, print first different type
   public static void compareTs(TypeSystem t1, TypeSystem t2) {
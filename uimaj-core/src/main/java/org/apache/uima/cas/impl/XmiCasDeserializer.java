@@ -1045,6 +1045,9 @@ public class XmiCasDeserializer {
         case LowLevelCAS.TYPE_CLASS_DOUBLE:
         case LowLevelCAS.TYPE_CLASS_STRING:
             {
+          if (fi.isInternStrings()) {
+            featVal = casBeingFilled.getTypeSystemImpl().getStringInterner().intern(featVal);
+          }
           CASImpl.setFeatureValueFromStringNoDocAnnotUpdate(fs, fi, featVal);  
           break;
         }
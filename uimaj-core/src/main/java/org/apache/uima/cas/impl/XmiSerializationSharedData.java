@@ -124,7 +124,13 @@ public class XmiSerializationSharedData {
   Map<TOP, TOP> nonsharedfeatureIdToFSId = new IdentityHashMap<>();
 //  Int2IntHashMap nonsharedfeatureIdToFSId = new Int2IntHashMap();
 
-  void addIdMapping(TOP fs, int xmiId) {
+  /**
+   * Records the id used for a FS in a serialized form.  Deserializers call this 
+   * for each FS they read which has an id, so that a later delta serialization can refer to it.
+   * @param fs the Feature Structure
+   * @param xmiId the id it has in the serialized form
+   */
+  public void addIdMapping(TOP fs, int xmiId) {
     fsToXmiId.put(fs, xmiId);
     xmiIdToFs.put(xmiId, fs);
     if (xmiId > maxXmiId)
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.collection;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.resource.ResourceProcessException;
+
+/**
+ * A {@link CasConsumer} which can process several CASes in one call, for example to write them to
+ * a database or an index in one bulk operation.
+ * <p>
+ * When the {@link org.apache.uima.UIMAFramework#CPM_CONSUMER_BATCH_SIZE} performance tuning
+ * setting is given, the Collection Processing Manager collects the CASes coming out of the
+ * analysis into batches, up to that number of CASes or until
+ * {@link org.apache.uima.UIMAFramework#CPM_CONSUMER_BATCH_TIMEOUT} has passed since the first CAS
+ * of the batch arrived. It calls {@link #processCasBatch(CAS[])} once per batch, and
+ * {@link #processCas(CAS)} on the other CAS Consumers for each CAS of the batch. The CASes are
+ * returned to the CAS pool only after all CAS Consumers are done with the batch, so they can be
+ * read until this method returns.
+ * <p>
+ * Without that setting, the Collection Processing Manager calls {@link #processCasBatch(CAS[])}
+ * with the CASes of one bundle, usually a single CAS. Other users of CAS Consumers call
+ * {@link #processCas(CAS)} one CAS at a time.
+ */
+public interface BatchCasConsumer extends CasConsumer {
+
+  /**
+   * Processes a batch of CASes. If this throws an exception, the whole batch failed: each of its
+   * CASes is reported as failed, and the error handling configured for this CAS Consumer applies
+   * to the batch as a whole, so a retry passes the whole batch again.
+   * 
+   * @param aCASes
+   *          the CASes, in the order they came out of the analysis. The array is not used after this
+   *          method returns.
+   * 
+   * @throws ResourceProcessException
+   *           if a failure occurs during processing
+   */
+  public void processCasBatch(CAS[] aCASes) throws ResourceProcessException;
+}
@@ -191,4 +191,43 @@ public interface CollectionProcessingEngine {
    */
   public void kill();
 
+  /**
+   * Gets the number of processing pipelines currently running.
+   * 
+   * @return the number of processing pipelines running, 0 if processing hasn't started
+   * @throws UnsupportedOperationException
+   *           if this CPE doesn't support changing the number of processing pipelines
+   */
+  default int getProcessingUnitCount() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Gets the max number of processing pipelines, which is the processingUnitThreadCount of the
+   * CPE descriptor, or less if some CAS Processor has less instances.
+   * 
+   * @return the max number of processing pipelines
+   * @throws UnsupportedOperationException
+   *           if this CPE doesn't support changing the number of processing pipelines
+   */
+  default int getMaxProcessingUnitCount() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Changes the number of processing pipelines, while processing, without restarting the CPE. The
+   * pipelines share the CAS Processor instances deployed for the max number of pipelines, so the
+   * number is limited to {@link #getMaxProcessingUnitCount()}, and to at least 1. A pipeline
+   * being removed stops after it's done with its current CAS. If called before
+   * {@link #process()}, this sets the number of pipelines to start with.
+   * 
+   * @param aCount
+   *          the number of processing pipelines
+   * @throws UnsupportedOperationException
+   *           if this CPE doesn't support changing the number of processing pipelines
+   */
+  default void setProcessingUnitCount(int aCount) {
+    throw new UnsupportedOperationException();
+  }
+
 }
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.collection;
+
+import java.io.IOException;
+
+import org.apache.uima.cas.CAS;
+
+/**
+ * A {@link CollectionReader} whose remaining elements can be read by several threads at the same
+ * time, with the reading of an element (for example from a file or an archive) separate from
+ * putting it into a CAS.
+ * <p>
+ * The Collection Processing Manager uses this when the
+ * {@link org.apache.uima.UIMAFramework#CPM_READER_THREADS} performance tuning setting is given. It
+ * calls {@link #getPartitions(int)} once, instead of {@link #hasNext()}, and then reads each
+ * partition on its own thread, keeping a bounded number of elements read ahead of the processing.
+ * A single thread takes these elements in turn, gets a CAS from the CAS pool and calls
+ * {@link #populate(Object, CAS)}. So reading the input overlaps with the analysis, and doesn't hold
+ * a CAS while waiting for I/O.
+ * <p>
+ * A reader which can read its elements on several threads without partitioning them, may return
+ * the same partition more than once.
+ */
+public interface PartitionableCollectionReader extends CollectionReader {
+
+  /**
+   * One part of the elements of the collection not read yet.
+   */
+  public interface Partition {
+    /**
+     * Reads the next element of this partition. Each partition is read by its own thread, unless
+     * {@link PartitionableCollectionReader#getPartitions(int)} returned it more than once.
+     * 
+     * @return the data of the next element, passed to
+     *         {@link PartitionableCollectionReader#populate(Object, CAS)}; or null if there are no
+     *         more elements in this partition
+     * 
+     * @throws IOException
+     *           if an I/O failure occurs
+     * @throws CollectionException
+     *           if there is some other problem with reading from the Collection
+     */
+    public Object readNext() throws IOException, CollectionException;
+  }
+
+  /**
+   * Splits the elements of the collection not read yet into partitions. Each element must be
+   * returned by exactly one of the partitions.
+   * 
+   * @param aNumberOfPartitions
+   *          the number of threads that will read the partitions
+   * @return at least one and at most <code>aNumberOfPartitions</code> partitions
+   * 
+   * @throws CollectionException
+   *           if the collection can't be partitioned
+   */
+  public Partition[] getPartitions(int aNumberOfPartitions) throws CollectionException;
+
+  /**
+   * Stores an element read by a partition into a CAS, as {@link #getNext(CAS)} would. This may be
+   * called while partitions are reading other elements.
+   * 
+   * @param aElement
+   *          an element returned by {@link Partition#readNext()}
+   * @param aCAS
+   *          the CAS to populate with the element
+   * 
+   * @throws IOException
+   *           if an I/O failure occurs
+   * @throws CollectionException
+   *           if there is some other problem with populating the CAS
+   */
+  public void populate(Object aElement, CAS aCAS) throws IOException, CollectionException;
+}
@@ -142,6 +142,14 @@ public interface CpeConfiguration extends MetaDataObject {
 
   public OutputQueue getOutputQueue();
 
+  /**
+   * Returns the configuration of the queue the collection reader fills with CASes for the
+   * processing pipelines.
+   * 
+   * @return - input queue configuration, or null if the CPE uses the default queue
+   */
+  public InputQueue getInputQueue();
+
   public int getMaxTimeToWait();
 
 }
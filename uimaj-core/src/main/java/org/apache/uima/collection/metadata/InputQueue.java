@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.collection.metadata;
+
+import org.apache.uima.resource.metadata.MetaDataObject;
+
+/**
+ * An object that holds configuration that is part of the CPE descriptor. It provides the means of
+ * configuring CPE input queue that is filled by the collection reader and shared between
+ * processing pipelines
+ * 
+ */
+public interface InputQueue extends MetaDataObject {
+  /**
+   * Class name of the queue object to be used as Input Queue
+   * 
+   * @return - name of the queue class
+   */
+  public String getQueueClass();
+
+  /**
+   * Define a class for a queue object
+   * 
+   * @param string -
+   *          name of the queue class
+   */
+  public void setQueueClass(String string);
+}
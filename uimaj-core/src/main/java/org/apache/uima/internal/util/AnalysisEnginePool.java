@@ -25,6 +25,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.uima.analysis_engine.AnalysisEngine;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
@@ -114,6 +116,30 @@ public class AnalysisEnginePool {
     mPool.releaseResource(aAE);
   }
 
+  /**
+   * Checks out an AnalysisEngine from the pool. If none is currently available, wait for the
+   * specified amount of time for one to be checked in, or until the thread is interrupted.
+   * 
+   * @param aTimeout
+   *          the time to wait in milliseconds. A value of &lt;=0 will wait forever.
+   * 
+   * @return an AnalysisEngine for use by the client. Returns <code>null</code> if the timeout elapsed.
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public AnalysisEngine getAnalysisEngineInterruptibly(long aTimeout) throws InterruptedException {
+    return (AnalysisEngine) mPool.getResourceInterruptibly(aTimeout);
+  }
+
+  /**
+   * Checks out an AnalysisEngine from the pool, without blocking the caller if none is available.
+   * 
+   * @return a future completing with an AnalysisEngine for use by the client, as soon as one is
+   *         available; see {@link ResourcePool#getResourceAsync()}
+   */
+  public CompletableFuture<AnalysisEngine> getAnalysisEngineAsync() {
+    return mPool.getResourceAsync().thenApply(r -> (AnalysisEngine) r);
+  }
+
   /**
    * Checks out an AnalysisEngine from the pool. If none is currently available, wait for the
    * specified amount of time for one to be checked in.
@@ -132,8 +158,13 @@ public class AnalysisEnginePool {
   /**
    * Destroys all AnalysisEngines in this pool.
    */
-  public synchronized void destroy() {
-    mPool.destroy();
+  public void destroy() {
+    mAdminLock.lock();
+    try {
+      mPool.destroy();
+    } finally {
+      mAdminLock.unlock();
+    }
   }
 
   /**
@@ -184,9 +215,10 @@ public class AnalysisEnginePool {
    * @see org.apache.uima.resource.ConfigurableResource#reconfigure()
    * @throws ResourceConfigurationException -
    */
-  public synchronized void reconfigure() throws ResourceConfigurationException {
+  public void reconfigure() throws ResourceConfigurationException {
     // reconfigure each AnalysisEngine in the pool
     List<AnalysisEngine> toRelease = new ArrayList<>();
+    mAdminLock.lock();
     try {
       for (int i = 0; i < mPool.getSize(); i++) {
         // get an Analysis Engine from the pool
@@ -204,6 +236,7 @@ public class AnalysisEnginePool {
       while (it.hasNext()) {
         mPool.releaseResource(it.next());
       }
+      mAdminLock.unlock();
     }
   }
 
@@ -211,8 +244,9 @@ public class AnalysisEnginePool {
    * Calls batchProcessComplete on all AEs in pool.
    * @throws AnalysisEngineProcessException -
    */
-  public synchronized void batchProcessComplete() throws AnalysisEngineProcessException {
+  public void batchProcessComplete() throws AnalysisEngineProcessException {
     List<AnalysisEngine> toRelease = new ArrayList<>();
+    mAdminLock.lock();
     try {
       for (int i = 0; i < mPool.getSize(); i++) {
         // get an Analysis Engine from the pool
@@ -229,6 +263,7 @@ public class AnalysisEnginePool {
       while (it.hasNext()) {
         mPool.releaseResource(it.next());
       }
+      mAdminLock.unlock();
     }
   }
 
@@ -236,8 +271,9 @@ public class AnalysisEnginePool {
    * Calls collectionProcessComplete on all AEs in pool.
    * @throws AnalysisEngineProcessException -
    */
-  public synchronized void collectionProcessComplete() throws AnalysisEngineProcessException {
+  public void collectionProcessComplete() throws AnalysisEngineProcessException {
     List<AnalysisEngine> toRelease = new ArrayList<>();
+    mAdminLock.lock();
     try {
       for (int i = 0; i < mPool.getSize(); i++) {
         // get an Analysis Engine from the pool
@@ -254,6 +290,7 @@ public class AnalysisEnginePool {
       while (it.hasNext()) {
         mPool.releaseResource(it.next());
       }
+      mAdminLock.unlock();
     }
   }
 
@@ -271,8 +308,9 @@ public class AnalysisEnginePool {
    * Sets logger for all AnalysisEngines in pool.
    * @param aLogger -
    */
-  public synchronized void setLogger(Logger aLogger) {
+  public void setLogger(Logger aLogger) {
     List<AnalysisEngine> toRelease = new ArrayList<>();
+    mAdminLock.lock();
     try {
       for (int i = 0; i < mPool.getSize(); i++) {
         // get an Analysis Engine from the pool
@@ -290,6 +328,7 @@ public class AnalysisEnginePool {
       while (it.hasNext()) {
         mPool.releaseResource(it.next());
       }
+      mAdminLock.unlock();
     }
   }
 
@@ -303,6 +342,19 @@ public class AnalysisEnginePool {
     return AnalysisEngine.class;
   }
 
+  /**
+   * Gets the pool of AnalysisEngine instances, for its statistics (see for instance 
+   * {@link ResourcePool#getUtilization()}).
+   * 
+   * @return the pool of AnalysisEngine instances
+   */
+  public ResourcePool getResourcePool() {
+    return mPool;
+  }
+
   /** Pool of AnalysisEngine instances. */
   private ResourcePool mPool;
+
+  /** Serializes the operations on all the instances, which check them all out */
+  private final ReentrantLock mAdminLock = new ReentrantLock();
 }
@@ -120,12 +120,22 @@ public abstract class Common_hash_support {
   }
   
   private void clearExisting() {
-    clearKeysAndValues();
+    if (size != 0 || removed != 0) {  // skip touching the table if nothing was added since the last clear
+      clearKeysAndValues();
+    }
     size = 0;
     removed = 0;
     resetHistogram();    
   }
   
+  /**
+   * @return true if the table has grown beyond its initial capacity, so that more
+   *   calls to clear() on an empty table would eventually shrink it
+   */
+  public boolean isOversized() {
+    return keys_length() > initialCapacity;
+  }
+  
   /** It gets a ref to the current value of table, and then searches that array.
    * Side effect: found_removed is set to the position of the first REMOVED_KEY (if any) encountered
    * during the search.
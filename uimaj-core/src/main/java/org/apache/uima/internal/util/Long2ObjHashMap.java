@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.internal.util;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.LongFunction;
+
+/**
+ * A map&lt;long, T&gt;
+ * 
+ * Like Int2ObjHashMap, but with long keys, all of which are valid:
+ * the empty and removed slots are marked in the value array instead of the key array.
+ * 
+ * This impl is for use in a single thread case only
+ * 
+ * Supports shrinking (reallocating the big table)
+ * 
+ * values may not be null; null is the value returned by get if not found
+ * 
+ * @param <T> the type of the values
+ */
+public class Long2ObjHashMap<T> extends Common_hash_support {
+
+  /** marks a removed slot in the values array */
+  private static final Object REMOVED_VALUE = new Object();
+  
+  private long [] keys;
+  private Object [] values;  // null for empty slots, REMOVED_VALUE for removed ones
+  
+  public Long2ObjHashMap() {
+    this(MIN_SIZE);
+  }
+  
+  public Long2ObjHashMap(int initialSizeBeforeExpanding) {
+    super(initialSizeBeforeExpanding);
+    newTable(this.initialCapacity);
+  }
+
+  /** 
+   * Searches the keys for a match
+   * @param key -
+   * @return the probeAddr in keys array - The value[probeAddr] is null if not found
+   */
+  private int findPosition(final long key) {
+    return findPosition(
+        
+        // key hash
+        Misc.hashInt((int)(key ^ (key >>> 32))),
+        
+        //is_eq_or_is_not_present
+        i -> values[i] == null || (keys[i] == key && values[i] != REMOVED_VALUE),
+        
+        // is_removed_key
+        i -> values[i] == REMOVED_VALUE
+        
+        );
+  }
+  
+  /**
+   * @param i a position which is not a removed slot
+   * @return the value there, or null for an empty slot
+   */
+  @SuppressWarnings("unchecked")
+  private T valueAt(int i) {
+    return (T) values[i];
+  }
+  
+  public T get(long key) {
+    return valueAt(findPosition(key));
+  }
+
+  public boolean containsKey(long key) {
+    return values[findPosition(key)] != null;
+  }
+
+  public T put(long key, T value) {
+    if (value == null) {
+      throw new IllegalArgumentException("null is an invalid value");
+    }
+    int i = findPosition(key);
+    final T prevValue = valueAt(i);
+    
+    if (prevValue != null) { // key found
+      values[i] = value;
+      return prevValue;
+    }
+
+    if (found_removed != -1) {
+      i = found_removed;  // use the removed slot for the new value
+    } 
+    keys[i] = key;
+    values[i] = value;
+    commonPutOrAddNotFound();
+    return null;
+  }
+  
+  public T computeIfAbsent(long key, LongFunction<T> mappingFunction) {
+    int i = findPosition(key);
+    if (values[i] == null) {
+      // key not found
+      if (found_removed != -1) {
+        i = found_removed; // use the removed slot for the new value
+      }
+      final T v = mappingFunction.apply(key);
+      keys[i] = key;
+      values[i] = v;
+      commonPutOrAddNotFound();
+      return v;
+    }
+    
+    // key found
+    return valueAt(i);
+  }
+  
+  public T remove(long key) {
+    final int pos = findPosition(key);
+    final T v = valueAt(pos);
+    if (v != null) {
+      values[pos] = REMOVED_VALUE;
+      commonRemove();
+    }
+    return v;  
+  }
+
+  private void putInner(long key, Object value) {
+    final int i = findPosition(key);
+    assert (values[i] == null);
+    keys[i] = key;
+    values[i] = value;
+  }
+  
+  @Override
+  protected void copy_to_new_table(
+      /* ignored */int newCapacity,
+      /* ignored */int oldCapacity,
+      CommonCopyOld2New commonCopy) {
+    long [] oldKeys = keys;
+    Object [] oldValues = values;
+    commonCopy.apply(
+        
+        // copyToNew 
+        i -> 
+          putInner(oldKeys[i], oldValues[i]),
+        
+        // is_valid_old_key 
+        i ->  
+          oldValues[i] != null && oldValues[i] != REMOVED_VALUE);
+  }
+
+  /**
+   * @return an iterator&lt;T&gt; over the values in random order
+   */
+  public Iterator<T> values() {
+    return new Iterator<T>() {
+      
+      /**
+       * Keep this always pointing to a non-empty entry, or
+       * if not valid, outside the range
+       */
+      private int curPosition = moveToNextFilled(0);
+      
+      @Override
+      public boolean hasNext() {
+        return curPosition < keys.length;
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        T r = valueAt(curPosition);
+        curPosition = moveToNextFilled(curPosition + 1);
+        return r;
+      }
+    };
+  }
+  
+  @Override
+  protected int keys_length() {
+    return keys.length;
+  }
+
+  @Override
+  protected boolean is_valid_key(int pos) {
+    return values[pos] != null && values[pos] != REMOVED_VALUE;
+  }
+
+  @Override
+  protected void newKeysAndValues(int size) {
+    keys = new long[size];
+    values = new Object[size];    
+  }
+
+  @Override
+  protected void clearKeysAndValues() {
+    Arrays.fill(values, null);
+  }
+
+}
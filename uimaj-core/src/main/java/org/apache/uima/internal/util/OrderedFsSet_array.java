@@ -56,6 +56,7 @@ public class OrderedFsSet_array<T extends FeatureStructure> implements Iterable<
   final private static boolean MEASURE = false;
    
   private static final int DEFAULT_SIZE = 8;
+  private static final int SHRINK_MIN_SIZE = 128;  // clear() doesn't shrink below this
 
   private static final int DEFAULT_MULTIPLICATION_LIMIT = 1024 * 1024 * 16;
 
@@ -181,6 +182,114 @@ public class OrderedFsSet_array<T extends FeatureStructure> implements Iterable<
     return true;
   }
        
+  /**
+   * Adds a batch of items, sorting the batch once and merging it in a single pass, instead
+   * of a binary search and an array shift per item.
+   * 
+   * Items comparing equal to an item already in the set, or to another item of the batch, are skipped,
+   * as for {@link #add(FeatureStructure, Comparator)}.
+   * 
+   * @param fss the items to add, in any order; not modified
+   * @param length the number of items in fss to add, starting at 0
+   * @param comparator either the comparator without type with ID for sorted indexes, or the comparator withoutType without ID for set indexes
+   * @return the number of items added
+   */
+  public int addAll(TOP[] fss, int length, Comparator<TOP> comparator) {
+    if (length == 0) {
+      return 0;
+    }
+    final TOP[] b = Arrays.copyOf(fss, length);
+    Arrays.sort(b, comparator);
+    int nb = 1;
+    for (int i = 1; i < length; i++) {
+      if (comparator.compare(b[i], b[nb - 1]) != 0) {
+        b[nb++] = b[i];
+      }
+    }
+    
+    ensureRoomAtEnd(nb);
+    
+    if (size() == 0 || comparator.compare(b[0], a[a_nextFreeslot - 1]) > 0) {
+      // common case: the whole batch goes after the current highest
+      System.arraycopy(b, 0, a, a_nextFreeslot, nb);
+      a_nextFreeslot += nb;
+      maxSize = Math.max(maxSize, size());
+      return nb;
+    }
+    
+    // merge from the top down, into the free space at the end
+    final int first = a_firstUsedslot;
+    int i = a_nextFreeslot - 1;  // highest not yet moved existing item
+    int j = nb - 1;              // highest not yet merged batch item
+    int w = a_nextFreeslot + nb - 1;  // where the next highest goes
+    while (j >= 0) {
+      if (i >= first) {
+        int c = comparator.compare(b[j], a[i]);
+        if (c < 0) {
+          a[w--] = a[i--];
+          continue;
+        }
+        if (c == 0) {  // already present, skip
+          j--;
+          continue;
+        }
+      }
+      a[w--] = b[j--];
+    }
+    
+    final int skipped = w - i;  
+    if (skipped > 0) {
+      // close the gap left by the skipped items, by moving the not-moved existing items up
+      System.arraycopy(a, first, a, first + skipped, i - first + 1);
+      Arrays.fill(a, first, first + skipped, null);
+    }
+    a_firstUsedslot = first + skipped;
+    a_nextFreeslot += nb;
+    maxSize = Math.max(maxSize, size());
+    return nb - skipped;
+  }
+  
+  /**
+   * Make room for n more items at the end, by moving the items to the front of the array, 
+   * and growing the array if needed
+   * @param n the number of free slots needed at the end 
+   */
+  private void ensureRoomAtEnd(int n) {
+    if (a.length - a_nextFreeslot >= n) {
+      return;
+    }
+    final int size = size();
+    int newSize = a.length;
+    while (newSize - size < n) {
+      newSize = (newSize > multiplication_limit)
+                  ? newSize + multiplication_limit
+                  : (newSize << 1);
+    }
+    if (newSize == a.length) {
+      System.arraycopy(a, a_firstUsedslot, a, 0, size);
+      Arrays.fill(a, size, a_nextFreeslot, null);
+    } else {
+      TOP[] na = new TOP[newSize];
+      System.arraycopy(a, a_firstUsedslot, na, 0, size);
+      a = na;
+    }
+    a_firstUsedslot = 0;
+    a_nextFreeslot = size;
+  }
+  
+  /**
+   * Reallocate the array to exactly hold the items, without free space before or after
+   */
+  public void trimToSize() {
+    final int size = size();
+    if (a_firstUsedslot == 0 && a.length == size) {
+      return;
+    }
+    a = Arrays.copyOfRange(a, a_firstUsedslot, a_nextFreeslot);
+    a_firstUsedslot = 0;
+    a_nextFreeslot = size;
+  }
+  
   private void ensureCapacity() {
     // if space at end or space at beginning
     if (a_nextFreeslot < a.length || a_firstUsedslot > 0) {
@@ -433,16 +542,17 @@ public class OrderedFsSet_array<T extends FeatureStructure> implements Iterable<
    * @see Set#clear()
    */
   public void clear() {
-    if (isEmpty()) {
+    if (isEmpty() && !isOversized()) {
       return;
     }
     
     int len = a.length;
-    if (maxSize < (len >> 3) && len > 128) {  
+    if (maxSize < (len >> 3) && len > SHRINK_MIN_SIZE) {  
       int newSize =  len >> 1;
       a = new TOP[newSize];
     } else {
-      Arrays.fill(a, null);
+      // slots outside of the used range are always null
+      Arrays.fill(a, a_firstUsedslot, a_nextFreeslot, null);
     }
     a_firstUsedslot = 0;
     a_nextFreeslot = 0;
@@ -451,6 +561,14 @@ public class OrderedFsSet_array<T extends FeatureStructure> implements Iterable<
     
   }
   
+  /**
+   * @return true if the array is large enough that calls to clear() while it stays empty
+   *   would shrink it
+   */
+  public boolean isOversized() {
+    return a.length > SHRINK_MIN_SIZE;
+  }
+  
   /**
    * Guaranteed by caller to have an equal (withoutID) item, but might be the "end" item
    * searching up to find it.  
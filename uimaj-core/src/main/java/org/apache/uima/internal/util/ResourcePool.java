@@ -16,13 +16,20 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-
 package org.apache.uima.internal.util;
 
-import java.util.Date;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.resource.Resource;
@@ -42,6 +49,16 @@ import org.apache.uima.util.Level;
  * pool. All resources are assumed to be equivalent and to share the same metadata. Therefore, the
  * resource metadata can be retrieved via the {@link #getMetaData()} method without checking out a
  * Resource instance from the pool.
+ * <p>
+ * Waiting clients are served in order by a fair semaphore, and the free instances are kept in a 
+ * lock-free queue; no monitor is held while waiting, so many (virtual) threads can wait for instances.
+ * The pool keeps statistics on the wait and checkout times of its instances.
+ * <p>
+ * Asynchronous requests, see {@link #getResourceAsync()}, wait in a queue of their own, served in order.
+ * While threads are waiting as well, the released instances go in turn to a thread and to an 
+ * asynchronous request; otherwise, the asynchronous requests get all of them.
+ * A thread waiting for a specific instance, see {@link #checkoutSpecificResource(Resource)}, gets it 
+ * before all the others when it is released.
  * 
  * 
  * 
@@ -98,6 +115,8 @@ public class ResourcePool {
     mNumInstances = aNumInstances;
 
     fillPool(aResourceSpecifier, aResourceClass, aResourceInitParams);
+    mPermits = new Semaphore(mFreeInstances.size(), true);
+    mCreationTime = System.nanoTime();
 
     // store metadata so it can be accessed without a check-out
     mMetaData = mAllInstances.get(0).getMetaData();
@@ -107,22 +126,15 @@ public class ResourcePool {
    * Checks out a Resource from the pool.
    * 
    * @return a Resource for use by the client. Returns <code>null</code> if none are available (in
-   *         which case the client may wait on this object in order to be notified when an instance
+   *         which case the client may call {@link #getResource(long)} to wait until an instance 
    *         becomes available).
    */
-  public synchronized Resource getResource() {
-    if (!mFreeInstances.isEmpty()) {
-      Resource r = mFreeInstances.remove(0);
-      /*
-       * UIMAFramework.getLogger().log( "Acquired resource " + r.getMetaData().getUUID() + " from
-       * pool.");
-       */
-      return r;
-    } else {
+  public Resource getResource() {
+    if (!mPermits.tryAcquire()) {
       // no instances available
-      // UIMAFramework.getLogger().log("No Resource instances currently available");
       return null;
     }
+    return checkOut(System.nanoTime());
   }
 
   /**
@@ -132,64 +144,248 @@ public class ResourcePool {
    * @param aResource
    *          the resource to release
    */
-  public synchronized void releaseResource(Resource aResource) {
-    // make sure this Resource was actually belongs to this pool and is checked out
-    if (!mAllInstances.contains(aResource) || mFreeInstances.contains(aResource)) {
+  public void releaseResource(Resource aResource) {
+    // make sure this Resource was actually belongs to this pool and is checked out; 
+    // the removal also prevents 2 threads from releasing the same Resource
+    Long checkOutTime = (aResource == null) ? null : mCheckedOut.remove(aResource);
+    if (checkOutTime == null) {
       UIMAFramework.getLogger(CLASS_NAME).logrb(Level.WARNING, CLASS_NAME.getName(),
               "releaseResource", LOG_RESOURCE_BUNDLE, "UIMA_return_resource_to_pool__WARNING");
-    } else {
-      /*
-       * UIMAFramework.getLogger().log( "Returned resource " + aResource.getMetaData().getUUID() + "
-       * to the pool.");
-       */
-      // Add the Resource to the end of the free instances List
-      mFreeInstances.add(aResource);
+      return;
+    }
+    mCheckoutNanos.add(System.nanoTime() - checkOutTime);
+    if ((!mSpecificWaiters.isEmpty() && handOverToSpecificWaiter(aResource)) || 
+        handOverToAsyncWaiter(aResource)) {
+      return;
     }
+    // Add the Resource to the end of the free instances queue, and notify a waiting thread
+    mFreeInstances.add(aResource);
+    releasePermit();  // must follow making the resource available
+    // an asynchronous request may have been queued since the check above
+    serveAsyncWaiters();
+  }
 
-    // Notify any threads waiting on this object
-    notifyAll();
+  /**
+   * Checks out a Resource from the pool, without blocking the caller if none is available: the 
+   * request is queued until one is released.
+   * 
+   * @return a future completing with a Resource for use by the client, as soon as one is available.
+   *         It is completed by the thread releasing the Resource, or by the calling thread if one is 
+   *         available already.
+   */
+  public CompletableFuture<Resource> getResourceAsync() {
+    final AsyncWaiter waiter = new AsyncWaiter(System.nanoTime());
+    mAsyncWaiters.add(waiter);
+    serveAsyncWaiters();
+    return waiter.future;
+  }
+  
+  /**
+   * Hands a released resource over to the oldest asynchronous request, if it has its turn:
+   * always if no thread is waiting on the semaphore, else every other time.
+   * @param r the released resource
+   * @return true if handed over
+   */
+  private boolean handOverToAsyncWaiter(Resource r) {
+    if (mAsyncWaiters.isEmpty() || 
+        (mPermits.hasQueuedThreads() && (mContendedReleases.getAndIncrement() & 1) == 0)) {
+      return false;
+    }
+    final AsyncWaiter waiter = mAsyncWaiters.poll();
+    if (waiter == null) {
+      return false;
+    }
+    recordCheckOut(r, waiter.start);
+    waiter.future.complete(r);
+    return true;
+  }
+  
+  /**
+   * Hands free resources over to the queued asynchronous requests, unless threads are waiting for 
+   * them on the semaphore. 
+   * Called after each event which may leave both a free resource and a waiting request.
+   */
+  private void serveAsyncWaiters() {
+    while (!mAsyncWaiters.isEmpty() && !mPermits.hasQueuedThreads() && mPermits.tryAcquire()) {
+      final AsyncWaiter waiter = mAsyncWaiters.poll();
+      if (waiter == null) {
+        // served by another thread; check again after releasing the permit, as a request
+        // queued meanwhile may have missed it
+        releasePermit();
+        continue;
+      }
+      final Resource r = checkOut(waiter.start);
+      if (r == null) {  // the pool was destroyed
+        mAsyncWaiters.add(waiter);
+        return;
+      }
+      waiter.future.complete(r);
+    }
   }
 
   /**
    * Checks out a Resource from the pool. If none is currently available, wait for the specified
-   * amount of time for one to be checked in.
+   * amount of time for one to be checked in.  Interrupts are ignored while waiting (the interrupt 
+   * status of the thread is kept); see {@link #getResourceInterruptibly(long)}.
    * 
    * @param aTimeout
    *          the time to wait in milliseconds. A value of &lt;=0 will wait forever.
    * 
-   * @return a Resource for use by the client. Returns <code>null</code> if none are available (in
-   *         which case the client may wait on this object in order to be notified when an instance
-   *         becomes available).
+   * @return a Resource for use by the client. Returns <code>null</code> if the timeout elapsed
+   *         before one was available.
    */
-  public synchronized Resource getResource(long aTimeout) {
-    long startTime = new Date().getTime();
-    Resource resource;
-    while ((resource = getResource()) == null) {
-      try {
-        wait(aTimeout);
-      } catch (InterruptedException e) {
+  public Resource getResource(long aTimeout) {
+    boolean interrupted = false;
+    try {
+      final long start = System.nanoTime();
+      while (true) {
+        try {
+          long remaining = (aTimeout <= 0) ? 0 
+              : TimeUnit.MILLISECONDS.toNanos(aTimeout) - (System.nanoTime() - start);
+          if (aTimeout > 0 && remaining <= 0) {
+            mTimeouts.increment();
+            return null;
+          }
+          return getResourceInterruptibly(start, remaining);
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
       }
-      if (aTimeout > 0 && (new Date().getTime() - startTime) >= aTimeout) {
-        // Timeout has expired
+    }
+  }
+
+  /**
+   * Checks out a Resource from the pool. If none is currently available, wait for the specified
+   * amount of time for one to be checked in, or until the thread is interrupted.
+   * 
+   * @param aTimeout
+   *          the time to wait in milliseconds. A value of &lt;=0 will wait forever.
+   * 
+   * @return a Resource for use by the client. Returns <code>null</code> if the timeout elapsed.
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public Resource getResourceInterruptibly(long aTimeout) throws InterruptedException {
+    return getResourceInterruptibly(System.nanoTime(), (aTimeout <= 0) ? 0 : TimeUnit.MILLISECONDS.toNanos(aTimeout));
+  }
+  
+  /**
+   * @param start when the caller started to wait, for the statistics
+   * @param aTimeoutNanos 0 to wait forever
+   */
+  private Resource getResourceInterruptibly(long start, long aTimeoutNanos) throws InterruptedException {
+    try {
+      if (aTimeoutNanos == 0) {
+        mPermits.acquire();
+      } else if (!mPermits.tryAcquire(aTimeoutNanos, TimeUnit.NANOSECONDS)) {
+        mTimeouts.increment();
         return null;
       }
+    } finally {
+      // no longer waiting; asynchronous requests may be held back by this thread
+      serveAsyncWaiters();
+    }
+    return checkOut(start);
+  }
+
+  /**
+   * Takes a free resource, after a permit has been acquired
+   * @param start when the caller started to wait, for the statistics
+   * @return the resource, or null if the pool was destroyed
+   */
+  private Resource checkOut(long start) {
+    // there is a free resource for each permit, as releasing adds the resource before the permit
+    final Resource r = mFreeInstances.poll();
+    if (r == null) {
+      releasePermit();
+      return null;
     }
-    return resource;
+    recordCheckOut(r, start);
+    return r;
+  }
+  
+  /**
+   * Updates the statistics and the checked out instances
+   * @param r the resource checked out
+   * @param start when the client started to wait
+   */
+  private void recordCheckOut(Resource r, long start) {
+    final long now = System.nanoTime();
+    final long wait = now - start;
+    mWaitNanos.add(wait);
+    mMaxWaitNanos.accumulateAndGet(wait, Math::max);
+    mCheckouts.increment();
+    mCheckedOut.put(r, now);
   }
 
   /*
-   * Checks out a specific resource from the pool, waiting as long as needed until it is free
+   * Checks out a specific resource from the pool, waiting as long as needed until it is free.
+   * The waiter is registered, and the resource is handed over to it when released, 
+   * before any other waiting client.
    * @param r
    */
 
-  public synchronized void checkoutSpecificResource(Resource r) {
-    while (!mFreeInstances.contains(r)) {
-      try {
-        wait();
-      } catch (InterruptedException e) {
+  public void checkoutSpecificResource(Resource r) {
+    final SpecificWaiter waiter = new SpecificWaiter(r, Thread.currentThread(), System.nanoTime());
+    mSpecificWaiters.add(waiter);
+    boolean interrupted = false;
+    try {
+      while (!waiter.isHandedOver) {
+        // the resource may be free: released before the waiter was added, or since; 
+        // this thread is woken whenever a permit is released
+        if (mFreeInstances.contains(r) && mPermits.tryAcquire()) {
+          if (mFreeInstances.remove(r)) {
+            mSpecificWaiters.remove(waiter);  // a free resource is not handed over
+            recordCheckOut(r, waiter.start);
+            return;
+          }
+          releasePermit();
+        }
+        LockSupport.park(this);
+        if (Thread.interrupted()) {
+          interrupted = true;
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+  
+  /**
+   * Hands a released resource over to a thread waiting for this specific resource
+   * @param r the released resource
+   * @return true if handed over
+   */
+  private boolean handOverToSpecificWaiter(Resource r) {
+    for (SpecificWaiter waiter : mSpecificWaiters) {
+      // removing the waiter claims it
+      if (waiter.resource == r && mSpecificWaiters.remove(waiter)) {
+        recordCheckOut(r, waiter.start);
+        waiter.isHandedOver = true;
+        LockSupport.unpark(waiter.thread);
+        return true;
+      }
+    }
+    return false;
+  }
+  
+  /**
+   * Releases a permit, for a resource made free or after taking a permit without a resource.
+   * A thread waiting for a specific resource may have missed the resource while the permit was
+   * not available, so these threads are woken to check again.
+   */
+  private void releasePermit() {
+    mPermits.release();
+    if (!mSpecificWaiters.isEmpty()) {
+      for (SpecificWaiter waiter : mSpecificWaiters) {
+        LockSupport.unpark(waiter.thread);
       }
     }
-    mFreeInstances.remove(r);
   }
   
   /**
@@ -203,6 +399,7 @@ public class ResourcePool {
     }
     mAllInstances.clear();
     mFreeInstances.clear();
+    mCheckedOut.clear();
   }
 
   /**
@@ -224,6 +421,69 @@ public class ResourcePool {
     return mMetaData;
   }
 
+  /**
+   * @return the number of Resources currently available in this pool
+   */
+  public int getNumAvailable() {
+    return mPermits.availablePermits();
+  }
+
+  /**
+   * @return an estimate of the number of threads and asynchronous requests waiting for a Resource
+   */
+  public int getNumWaiting() {
+    return mPermits.getQueueLength() + mAsyncWaiters.size() + mSpecificWaiters.size();
+  }
+
+  /**
+   * @return the number of times a Resource was checked out of this pool
+   */
+  public long getTotalCheckouts() {
+    return mCheckouts.sum();
+  }
+
+  /**
+   * @return the number of times a timeout elapsed before a Resource was available
+   */
+  public long getTotalTimeouts() {
+    return mTimeouts.sum();
+  }
+
+  /**
+   * @return the total time, in milliseconds, spent by the clients waiting for Resources to be checked out
+   */
+  public long getTotalWaitTime() {
+    return TimeUnit.NANOSECONDS.toMillis(mWaitNanos.sum());
+  }
+
+  /**
+   * @return the longest time, in milliseconds, a client waited for a Resource to be checked out
+   */
+  public long getMaxWaitTime() {
+    return TimeUnit.NANOSECONDS.toMillis(mMaxWaitNanos.get());
+  }
+
+  /**
+   * @return the total time, in milliseconds, the Resources checked in again were checked out
+   */
+  public long getTotalCheckoutTime() {
+    return TimeUnit.NANOSECONDS.toMillis(mCheckoutNanos.sum());
+  }
+
+  /**
+   * @return the fraction (between 0 and 1) of the time the Resources of this pool were checked out,
+   *         since the pool was created
+   */
+  public double getUtilization() {
+    final long now = System.nanoTime();
+    long busy = mCheckoutNanos.sum();
+    for (Long checkOutTime : mCheckedOut.values()) {
+      busy += now - checkOutTime;
+    }
+    final long total = (now - mCreationTime) * mNumInstances;
+    return (total <= 0) ? 0 : Math.min(1.0, (double) busy / total);
+  }
+
   /**
    * Utility method used in the constructor to fill the pool with Resource instances.
    * 
@@ -255,15 +515,71 @@ public class ResourcePool {
     return mAllInstances;
   }
 
+  /**
+   * @return a snapshot of the free instances
+   */
   protected Vector<Resource> getFreeInstances() {
-    return mFreeInstances;
+    return new Vector<>(mFreeInstances);
   }
 
   private final Vector<Resource> mAllInstances = new Vector<>();
 
-  private final Vector<Resource> mFreeInstances = new Vector<>();
+  private final ConcurrentLinkedQueue<Resource> mFreeInstances = new ConcurrentLinkedQueue<>();
+
+  /** checked out instances, with the System.nanoTime() of their checkout */
+  private final Map<Resource, Long> mCheckedOut = new ConcurrentHashMap<>();
+
+  /** one per free instance; fair, so waiting threads are served in order */
+  private final Semaphore mPermits;
+
+  /** a thread waiting for a specific Resource */
+  private static class SpecificWaiter {
+    final Resource resource;
+    final Thread thread;
+    /** System.nanoTime() of the request */
+    final long start;
+    /** set by the releasing thread */
+    volatile boolean isHandedOver;
+    
+    SpecificWaiter(Resource resource, Thread thread, long start) {
+      this.resource = resource;
+      this.thread = thread;
+      this.start = start;
+    }
+  }
+  
+  /** usually empty; only used while changing the result specification of all the instances */
+  private final ConcurrentLinkedQueue<SpecificWaiter> mSpecificWaiters = new ConcurrentLinkedQueue<>();
+  
+  /** an asynchronous request waiting for a Resource */
+  private static class AsyncWaiter {
+    final CompletableFuture<Resource> future = new CompletableFuture<>();
+    /** System.nanoTime() of the request */
+    final long start;
+    
+    AsyncWaiter(long start) {
+      this.start = start;
+    }
+  }
+  
+  private final ConcurrentLinkedQueue<AsyncWaiter> mAsyncWaiters = new ConcurrentLinkedQueue<>();
+
+  /** counts the releases while both threads and asynchronous requests were waiting, for taking turns */
+  private final AtomicInteger mContendedReleases = new AtomicInteger();
 
   private final int mNumInstances;
 
   private final ResourceMetaData mMetaData;
+
+  private final long mCreationTime;
+
+  private final LongAdder mCheckouts = new LongAdder();
+
+  private final LongAdder mTimeouts = new LongAdder();
+
+  private final LongAdder mWaitNanos = new LongAdder();
+
+  private final AtomicLong mMaxWaitNanos = new AtomicLong();
+
+  private final LongAdder mCheckoutNanos = new LongAdder();
 }
@@ -110,6 +110,7 @@ public final class BooleanArray extends TOP implements CommonPrimitiveArray<Bool
    * @see org.apache.uima.cas.BooleanArrayFS#set(int , boolean)
    */
   public void set(int i, boolean v) {
+    _casView.checkNotFrozen();
     theArray[i] = v;
     _casView.maybeLogArrayUpdate(this, null, i);
   }
@@ -118,6 +119,7 @@ public final class BooleanArray extends TOP implements CommonPrimitiveArray<Bool
    * @see org.apache.uima.cas.BooleanArrayFS#copyFromArray(boolean[], int, int, int)
    */
   public void copyFromArray(boolean[] src, int srcPos, int destPos, int length) {
+    _casView.checkNotFrozen();
     System.arraycopy(src, srcPos, theArray, destPos, length);
     _casView.maybeLogArrayUpdates(this, destPos, length);
   }
@@ -155,6 +157,7 @@ public final class BooleanArray extends TOP implements CommonPrimitiveArray<Bool
    * @see org.apache.uima.cas.BooleanArrayFS#copyFromArray(String[], int, int, int)
    */
   public void copyFromArray(String[] src, int srcPos, int destPos, int length) {
+    _casView.checkNotFrozen();
     _casView.checkArrayBounds(theArray.length, srcPos, length);
     for (int i = 0; i < length; i++) {
       theArray[i + destPos] = Boolean.parseBoolean(src[i + srcPos]);
@@ -172,6 +175,7 @@ public final class BooleanArray extends TOP implements CommonPrimitiveArray<Bool
    */
   @Override
   public void copyValuesFrom(CommonArrayFS<Boolean> v) {
+    _casView.checkNotFrozen();
     BooleanArray bv = (BooleanArray) v;
     System.arraycopy(bv.theArray,  0,  theArray, 0, theArray.length);
     _casView.maybeLogArrayUpdates(this, 0, size());
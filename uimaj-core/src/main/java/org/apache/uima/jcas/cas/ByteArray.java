@@ -107,6 +107,7 @@ public final class ByteArray extends TOP implements CommonPrimitiveArray<Byte>,
    * @see org.apache.uima.cas.ByteArrayFS#set(int , byte)
    */
   public void set(int i, byte v) {
+    _casView.checkNotFrozen();
     theArray[i] = v;
     _casView.maybeLogArrayUpdate(this, null, i); 
   }
@@ -115,6 +116,7 @@ public final class ByteArray extends TOP implements CommonPrimitiveArray<Byte>,
    * @see org.apache.uima.cas.ByteArrayFS#copyFromArray(byte[], int, int, int)
    */
   public void copyFromArray(byte[] src, int srcPos, int destPos, int length) {
+    _casView.checkNotFrozen();
     System.arraycopy(src, srcPos, theArray, destPos, length);
     _casView.maybeLogArrayUpdates(this, destPos, length);
   }
@@ -152,6 +154,7 @@ public final class ByteArray extends TOP implements CommonPrimitiveArray<Byte>,
    * @see org.apache.uima.cas.ByteArrayFS#copyFromArray(String[], int, int, int)
    */
   public void copyFromArray(String[] src, int srcPos, int destPos, int length) {
+    _casView.checkNotFrozen();
     _casView.checkArrayBounds(theArray.length, destPos, length);
     for (int i = 0; i < length; i++) {
       theArray[i + destPos] = Byte.parseByte(src[i + srcPos]);
@@ -169,6 +172,7 @@ public final class ByteArray extends TOP implements CommonPrimitiveArray<Byte>,
    */
   @Override
   public void copyValuesFrom(CommonArrayFS<Byte> v) {
+    _casView.checkNotFrozen();
     ByteArray bv = (ByteArray) v;
     System.arraycopy(bv.theArray,  0,  theArray, 0, theArray.length);
     _casView.maybeLogArrayUpdates(this, 0, size());
@@ -142,6 +142,7 @@ public final class FSArray<T extends FeatureStructure> extends TOP
   /** updates the Cas, setting the indexed value with the corresponding Cas FeatureStructure. */
   @Override
   public void set(int i, T av) {
+    _casView.checkNotFrozen();
     TOP v = (TOP) av;
     if (v != null && _casView.getBaseCAS() != v._casView.getBaseCAS()) {
       /** Feature Structure {0} belongs to CAS {1}, may not be set as the value of an array or list element in a different CAS {2}.*/
@@ -153,6 +154,7 @@ public final class FSArray<T extends FeatureStructure> extends TOP
   
   // internal use
   void set_without_PEAR_conversion(int i, TOP v) {
+    _casView.checkNotFrozen();
     theArray[i] = v;
     _casView.maybeLogArrayUpdate(this, null, i);
   }
@@ -262,6 +264,7 @@ public final class FSArray<T extends FeatureStructure> extends TOP
    */
   @Override
   public void copyValuesFrom(CommonArrayFS<T> v) {
+    _casView.checkNotFrozen();
     FSArray<T> bv = (FSArray<T>) v;
     System.arraycopy(bv.theArray,  0,  theArray, 0, theArray.length);
     _casView.maybeLogArrayUpdates(this, 0, size());
@@ -126,6 +126,7 @@ public final class FloatArray extends TOP
    *          value to set
    */
   public void set(int i, float v) {
+    _casView.checkNotFrozen();
     theArray[i] = v;
     _casView.maybeLogArrayUpdate(this, null, i);
   }
@@ -134,6 +135,7 @@ public final class FloatArray extends TOP
    * @see org.apache.uima.cas.FloatArrayFS#copyFromArray(float[], int, int, int)
    */
   public void copyFromArray(float[] src, int srcPos, int destPos, int length) {
+    _casView.checkNotFrozen();
     System.arraycopy(src, srcPos, theArray, destPos, length);
     _casView.maybeLogArrayUpdates(this, destPos, length);
   }
@@ -193,6 +195,7 @@ public final class FloatArray extends TOP
    */
   @Override
   public void copyValuesFrom(CommonArrayFS v) {
+    _casView.checkNotFrozen();
     FloatArray bv = (FloatArray) v;
     System.arraycopy(bv.theArray,  0,  theArray, 0, theArray.length);
     _casView.maybeLogArrayUpdates(this, 0, size());
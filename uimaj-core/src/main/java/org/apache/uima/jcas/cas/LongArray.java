@@ -114,6 +114,7 @@ public final class LongArray extends TOP implements CommonPrimitiveArray<Long>,
    */
   @Override
   public void set(int i, long v) {
+    _casView.checkNotFrozen();
     theArray[i] = v;
     _casView.maybeLogArrayUpdate(this, null, i);
   }
@@ -123,6 +124,7 @@ public final class LongArray extends TOP implements CommonPrimitiveArray<Long>,
    */
   @Override
   public void copyFromArray(long[] src, int srcPos, int destPos, int length) {
+    _casView.checkNotFrozen();
     System.arraycopy(src, srcPos, theArray, destPos, length);
     _casView.maybeLogArrayUpdates(this, destPos, length);
   }
@@ -165,6 +167,7 @@ public final class LongArray extends TOP implements CommonPrimitiveArray<Long>,
    */
   @Override
   public void copyFromArray(String[] src, int srcPos, int destPos, int length) {
+    _casView.checkNotFrozen();
     _casView.checkArrayBounds(theArray.length, destPos, length);
     for (int i = 0; i < length; i++) {
       theArray[i + destPos] = Long.parseLong(src[i + srcPos]);
@@ -182,6 +185,7 @@ public final class LongArray extends TOP implements CommonPrimitiveArray<Long>,
    */
   @Override
   public void copyValuesFrom(CommonArrayFS v) {
+    _casView.checkNotFrozen();
     LongArray bv = (LongArray) v;
     System.arraycopy(bv.theArray,  0,  theArray, 0, theArray.length);
     _casView.maybeLogArrayUpdates(this, 0, size());
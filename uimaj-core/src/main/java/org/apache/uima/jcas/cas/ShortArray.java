@@ -107,6 +107,7 @@ public final class ShortArray extends TOP implements CommonPrimitiveArray<Short>
    * @see org.apache.uima.cas.ShortArrayFS#set(int , short)
    */
   public void set(int i, short v) {
+    _casView.checkNotFrozen();
     theArray[i] = v;
     _casView.maybeLogArrayUpdate(this, null, i);
   }
@@ -115,6 +116,7 @@ public final class ShortArray extends TOP implements CommonPrimitiveArray<Short>
    * @see org.apache.uima.cas.ShortArrayFS#copyFromArray(short[], int, int, int)
    */
   public void copyFromArray(short[] src, int srcPos, int destPos, int length) {
+    _casView.checkNotFrozen();
     System.arraycopy(src, srcPos, theArray, destPos, length);
     _casView.maybeLogArrayUpdates(this, destPos, length);
   }
@@ -152,6 +154,7 @@ public final class ShortArray extends TOP implements CommonPrimitiveArray<Short>
    * @see org.apache.uima.cas.ShortArrayFS#copyFromArray(String[], int, int, int)
    */
   public void copyFromArray(String[] src, int srcPos, int destPos, int length) {
+    _casView.checkNotFrozen();
     _casView.checkArrayBounds(theArray.length, destPos, length);
     for (int i = 0; i < length; i++) {
       theArray[i + destPos] = Short.parseShort(src[i + srcPos]);
@@ -169,6 +172,7 @@ public final class ShortArray extends TOP implements CommonPrimitiveArray<Short>
    */
   @Override
   public void copyValuesFrom(CommonArrayFS v) {
+    _casView.checkNotFrozen();
     ShortArray bv = (ShortArray) v;
     System.arraycopy(bv.theArray,  0,  theArray, 0, theArray.length);
     _casView.maybeLogArrayUpdates(this, 0, size());
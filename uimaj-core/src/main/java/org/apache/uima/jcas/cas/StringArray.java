@@ -109,6 +109,7 @@ public final class StringArray extends TOP implements Iterable<String>, CommonPr
    * @see org.apache.uima.cas.StringArrayFS#set(int, String)
    */
   public void set(int i, String v) {
+    _casView.checkNotFrozen();
     theArray[i] = v;
     _casView.maybeLogArrayUpdate(this, null, i);
   }
@@ -117,6 +118,7 @@ public final class StringArray extends TOP implements Iterable<String>, CommonPr
    * @see org.apache.uima.cas.StringArrayFS#copyFromArray(String[], int, int, int)
    */
   public void copyFromArray(String[] src, int srcPos, int destPos, int length) {
+    _casView.checkNotFrozen();
     System.arraycopy(src, srcPos, theArray, destPos, length);
     _casView.maybeLogArrayUpdates(this, destPos, length);
   }
@@ -150,6 +152,7 @@ public final class StringArray extends TOP implements Iterable<String>, CommonPr
    */
   @Override
   public void copyValuesFrom(CommonArrayFS v) {
+    _casView.checkNotFrozen();
     StringArray bv = (StringArray) v;
     System.arraycopy(bv.theArray,  0,  theArray, 0, theArray.length);
     _casView.maybeLogArrayUpdates(this, 0, size());
@@ -375,6 +375,23 @@ public class JCasHashMap implements Iterable<TOP> {
     return r;    
   }
   
+  /**
+   * Pre-size the map for a number of entries about to be added, so they don't
+   * cause repeated resizing 
+   * @param nbrToAdd the number of entries about to be added
+   */
+  public void ensureCapacity(int nbrToAdd) {
+    if (null != oneSubmap) {
+      oneSubmap.ensureCapacity(nbrToAdd);
+      return;
+    }
+    // keys are spread evenly over the sub maps by the hash
+    final int perSubMap = nbrToAdd / concurrencyLevel + 1;
+    for (JCasHashMapSubMap subMap : subMaps) {
+      subMap.ensureCapacity(perSubMap);
+    }
+  }
+  
   /**
    * get the approximate size (subject to multithreading inaccuracies)
    * @return the size
@@ -121,7 +121,7 @@ class JCasHashMapSubMap implements Iterable<TOP> {
           final int newCapacity = Math.max(subMapInitialCapacity, table.length >>> 1);
           if (newCapacity < table.length) { 
             newTable(newCapacity);  // shrink table by 50%
-          } else { // don't shrink below minimum
+          } else if (size != 0) { // don't shrink below minimum
             Arrays.fill(table,  null);
           }
           size = 0;
@@ -132,8 +132,10 @@ class JCasHashMapSubMap implements Iterable<TOP> {
       } else {
         secondTimeShrinkable = false; // reset this to require 2 triggers in a row
       }
-      size = 0;
-      Arrays.fill(table, null);
+      if (size != 0) {  // size includes reserved entries, so if 0, the table is all null
+        size = 0;
+        Arrays.fill(table, null);
+      }
     } 
   }      
    
@@ -565,11 +567,34 @@ class JCasHashMapSubMap implements Iterable<TOP> {
   }
     
 
+  /**
+   * Grow the table, if needed, so that adding nbrToAdd more entries won't cause a resize,
+   * using one rehash instead of one per doubling
+   * @param nbrToAdd the number of entries about to be added
+   */
+  void ensureCapacity(int nbrToAdd) {
+    synchronized(synclock) {
+      final int needed = size + nbrToAdd;
+      if (needed < sizeWhichTriggersExpansion) {
+        return;
+      }
+      int newCapacity = table.length;
+      while ((int)(newCapacity * loadFactor) <= needed) {
+        newCapacity <<= 1;
+      }
+      increaseTableCapacity(newCapacity);
+    }
+  }
+
   // called under lock
   private void increaseTableCapacity() {
+    increaseTableCapacity(2 * table.length);
+  }
+
+  // called under lock
+  private void increaseTableCapacity(int newCapacity) {
     final TOP [] oldTable = table; 
     final int oldCapacity = oldTable.length;
-    int newCapacity = 2 * oldCapacity;
     
     if (TUNE) {
       System.out.println("Capacity increasing from " + oldCapacity + " to " + newCapacity);
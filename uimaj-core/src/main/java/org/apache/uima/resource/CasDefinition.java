@@ -19,11 +19,13 @@
 
 package org.apache.uima.resource;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.cas.impl.TypeSystemImpl;
@@ -33,6 +35,7 @@ import org.apache.uima.resource.metadata.ProcessingResourceMetaData;
 import org.apache.uima.resource.metadata.TypePriorities;
 import org.apache.uima.resource.metadata.TypeSystemDescription;
 import org.apache.uima.util.CasCreationUtils;
+import org.apache.uima.util.InvalidXMLException;
 
 /**
  * Encapsulates information that defines how to create a CAS.
@@ -74,6 +77,31 @@ public class CasDefinition {
         fsIndexes.add(md.getFsIndexCollection());
     }
 
+    // if enabled, use the result of the same merge done by a previous JVM
+    String cacheKey = null;
+    Set<String> importUrls = null;
+    if (CasDefinitionCache.getCacheDir() != null) {
+      try {
+        cacheKey = CasDefinitionCache.computeKey(typeSystems, typePrioritiesList, fsIndexes, aResourceManager);
+      } catch (IOException e) {
+        throw new ResourceInitializationException(e);
+      }
+      ProcessingResourceMetaData cached = CasDefinitionCache.load(cacheKey);
+      if (cached != null) {
+        this.typeSystemDescription = cached.getTypeSystem();
+        this.typePriorities = cached.getTypePriorities();
+        this.fsIndexDescriptions = cached.getFsIndexCollection().getFsIndexes();
+        this.resourceManager = aResourceManager;
+        return;
+      }
+      // resolved here to record the imported URLs; the merge then has nothing left to import
+      try {
+        importUrls = CasDefinitionCache.resolveImports(typeSystems, typePrioritiesList, fsIndexes, aResourceManager);
+      } catch (InvalidXMLException e) {
+        throw new ResourceInitializationException(e);
+      }
+    }
+
     // merge TypePriorities and FsIndexes
     TypePriorities aggTypePriorities = CasCreationUtils.mergeTypePriorities(typePrioritiesList,
             aResourceManager);
@@ -85,6 +113,10 @@ public class CasDefinition {
     this.typePriorities = aggTypePriorities;
     this.fsIndexDescriptions = aggIndexColl.getFsIndexes();
     this.resourceManager = aResourceManager;
+    
+    if (cacheKey != null) {
+      CasDefinitionCache.store(cacheKey, getProcessingResourceMetaData(), importUrls);
+    }
   }
 
   /**
@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.resource.metadata.FsIndexCollection;
+import org.apache.uima.resource.metadata.ProcessingResourceMetaData;
+import org.apache.uima.resource.metadata.TypePriorities;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.InvalidXMLException;
+import org.apache.uima.util.XMLInputSource;
+import org.apache.uima.util.XMLizable;
+import org.xml.sax.SAXException;
+
+/**
+ * An optional on-disk cache of merged CAS definitions (type system, type priorities and indexes),
+ * so that later JVMs started with the same components, for instance scaled out workers, 
+ * skip resolving imports and merging.
+ * <p>
+ * Enabled by setting the system property {@value #TYPE_SYSTEM_CACHE_DIR} to a directory.
+ * The key is a hash of the descriptions to merge, the UIMA version, the data path, 
+ * and the class path and extension class path (the names, sizes and modification times of their entries),
+ * since imports by name are resolved through these.  Each entry is one file, holding the merged
+ * descriptions as a processingResourceMetaData XML descriptor, plus a second file listing the URLs
+ * of all the descriptors imported, directly or indirectly, with a hash of their contents.
+ * An entry is only used if the contents of these URLs are unchanged, so editing an imported 
+ * descriptor, wherever it is found, is a cache miss.  Adding a descriptor which hides an imported one
+ * earlier in the data path or class path is not detected: clear the cache in this case.
+ * <p>
+ * Several JVMs may share the directory: entries are written to a temporary file and then renamed.
+ * A missing or unreadable entry is a cache miss.  Delete the directory to clear the cache.
+ * <p>
+ * The committed type system and its JCas classes are not stored: loading the JCas classes
+ * and linking them to the type system is done by each JVM.
+ */
+class CasDefinitionCache {
+
+  /**
+   * The system property naming the cache directory
+   */
+  static final String TYPE_SYSTEM_CACHE_DIR = "uima.type_system_cache_dir";
+  
+  private static final String SUFFIX = ".xml";
+  
+  private static final String IMPORTS_SUFFIX = ".imports";
+
+  private CasDefinitionCache() {}
+  
+  /**
+   * @return the cache directory, or null if caching is not enabled
+   */
+  static File getCacheDir() {
+    final String dir = System.getProperty(TYPE_SYSTEM_CACHE_DIR);
+    return (dir == null || dir.isEmpty()) ? null : new File(dir);
+  }
+  
+  /**
+   * @param typeSystems the type systems to merge
+   * @param typePriorities the type priorities to merge
+   * @param fsIndexes the index collections to merge
+   * @param resourceManager the resource manager used to resolve imports, may be null
+   * @return the key of the merged result
+   * @throws IOException if a description can't be written out
+   */
+  static String computeKey(List<TypeSystemDescription> typeSystems, List<TypePriorities> typePriorities, 
+      List<FsIndexCollection> fsIndexes, ResourceManager resourceManager) throws IOException {
+    final MessageDigest md = newDigest();
+    update(md, UIMAFramework.getVersionString());
+    try {
+      update(md, "typeSystems");
+      for (TypeSystemDescription ts : typeSystems) {
+        update(md, toXml(ts));
+      }
+      update(md, "typePriorities");
+      for (TypePriorities tp : typePriorities) {
+        update(md, toXml(tp));
+      }
+      update(md, "fsIndexes");
+      for (FsIndexCollection fi : fsIndexes) {
+        update(md, toXml(fi));
+      }
+    } catch (SAXException e) {
+      throw new IOException(e);
+    }
+    update(md, "dataPath");
+    if (resourceManager != null) {
+      update(md, String.valueOf(resourceManager.getDataPath()));
+      final ClassLoader cl = resourceManager.getExtensionClassLoader();
+      if (cl instanceof URLClassLoader) {
+        for (URL url : ((URLClassLoader) cl).getURLs()) {
+          updateWithPathEntry(md, url.getPath());
+        }
+      } else if (cl != null) {
+        update(md, cl.getClass().getName());
+      }
+    }
+    update(md, "classPath");
+    for (String p : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+      updateWithPathEntry(md, p);
+    }
+    return toHex(md.digest());
+  }
+  
+  /**
+   * Resolve the imports of the descriptions to merge, in place, as the merge would.
+   * 
+   * @param typeSystems the type systems to merge
+   * @param typePriorities the type priorities to merge
+   * @param fsIndexes the index collections to merge
+   * @param resourceManager the resource manager used to resolve imports, may be null
+   * @return the URLs of all the descriptors imported, directly or indirectly
+   * @throws InvalidXMLException if an import can't be resolved
+   */
+  static Set<String> resolveImports(List<TypeSystemDescription> typeSystems, List<TypePriorities> typePriorities, 
+      List<FsIndexCollection> fsIndexes, ResourceManager resourceManager) throws InvalidXMLException {
+    final Set<String> urls = new TreeSet<>();
+    // each description gets its own set of already imported URLs, as in the merge
+    for (TypeSystemDescription ts : typeSystems) {
+      final Collection<String> imported = new TreeSet<>();
+      ts.resolveImports(imported, resourceManager);
+      urls.addAll(imported);
+    }
+    for (TypePriorities tp : typePriorities) {
+      final Collection<String> imported = new TreeSet<>();
+      tp.resolveImports(imported, resourceManager);
+      urls.addAll(imported);
+    }
+    for (FsIndexCollection fi : fsIndexes) {
+      final Collection<String> imported = new TreeSet<>();
+      fi.resolveImports(imported, resourceManager);
+      urls.addAll(imported);
+    }
+    return urls;
+  }
+  
+  /**
+   * @param key the key from {@link #computeKey}
+   * @return the cached merged descriptions, or null if not in the cache or if an imported
+   *         descriptor has changed since the entry was stored
+   */
+  static ProcessingResourceMetaData load(String key) {
+    final File dir = getCacheDir();
+    final File f = (dir == null) ? null : new File(dir, key + SUFFIX);
+    final File importsFile = (dir == null) ? null : new File(dir, key + IMPORTS_SUFFIX);
+    if (f == null || !f.isFile() || !importsFile.isFile()) {
+      return null;
+    }
+    try {
+      final Properties imports = new Properties();
+      try (InputStream is = Files.newInputStream(importsFile.toPath())) {
+        imports.load(is);
+      }
+      for (String url : imports.stringPropertyNames()) {
+        if (!imports.getProperty(url).equals(contentHash(url))) {
+          return null;
+        }
+      }
+      XMLizable r = UIMAFramework.getXMLParser().parse(new XMLInputSource(f));
+      return (r instanceof ProcessingResourceMetaData) ? (ProcessingResourceMetaData) r : null;
+    } catch (Exception e) {
+      UIMAFramework.getLogger(CasDefinitionCache.class).warn("Ignoring unreadable type system cache entry {}: {}", f, e.toString());
+      return null;
+    }
+  }
+  
+  /**
+   * @param key the key from {@link #computeKey}
+   * @param merged the merged descriptions to cache
+   * @param importUrls the URLs of all the descriptors imported, from {@link #resolveImports}
+   */
+  static void store(String key, ProcessingResourceMetaData merged, Set<String> importUrls) {
+    final File dir = getCacheDir();
+    if (dir == null) {
+      return;
+    }
+    File tmp = null;
+    try {
+      Files.createDirectories(dir.toPath());
+      // the imports first: an entry without its imports file is a miss
+      final Properties imports = new Properties();
+      for (String url : importUrls) {
+        imports.setProperty(url, contentHash(url));
+      }
+      tmp = File.createTempFile(key, ".tmp", dir);
+      try (OutputStream os = Files.newOutputStream(tmp.toPath())) {
+        imports.store(os, null);
+      }
+      Files.move(tmp.toPath(), new File(dir, key + IMPORTS_SUFFIX).toPath(), 
+          StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      
+      tmp = File.createTempFile(key, ".tmp", dir);
+      try (OutputStream os = Files.newOutputStream(tmp.toPath());
+           Writer w = new OutputStreamWriter(os, StandardCharsets.UTF_8)) {
+        merged.toXML(w);
+      }
+      Files.move(tmp.toPath(), new File(dir, key + SUFFIX).toPath(), 
+          StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      tmp = null;
+    } catch (Exception e) {
+      UIMAFramework.getLogger(CasDefinitionCache.class).warn("Could not write type system cache entry in {}: {}", dir, e.toString());
+    } finally {
+      if (tmp != null) {
+        tmp.delete();
+      }
+    }
+  }
+  
+  /**
+   * @param url the URL of an imported descriptor
+   * @return a hash of its contents
+   * @throws IOException if it can't be read
+   */
+  private static String contentHash(String url) throws IOException {
+    final MessageDigest md = newDigest();
+    try (InputStream is = new URL(url).openStream()) {
+      final byte[] buf = new byte[8192];
+      for (int n; (n = is.read(buf)) > 0;) {
+        md.update(buf, 0, n);
+      }
+    }
+    return toHex(md.digest());
+  }
+  
+  private static MessageDigest newDigest() throws IOException {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IOException(e);
+    }
+  }
+  
+  private static String toHex(byte[] bytes) {
+    final StringBuilder sb = new StringBuilder();
+    for (byte b : bytes) {
+      sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+    }
+    return sb.toString();
+  }
+  
+  private static String toXml(XMLizable x) throws SAXException, IOException {
+    final StringWriter sw = new StringWriter();
+    x.toXML(sw);
+    return sw.toString();
+  }
+  
+  private static void update(MessageDigest md, String s) {
+    md.update(s.getBytes(StandardCharsets.UTF_8));
+    md.update((byte) 0);
+  }
+  
+  private static void updateWithPathEntry(MessageDigest md, String path) {
+    update(md, path);
+    final File f = new File(path);
+    if (f.isFile()) {
+      update(md, f.length() + ":" + f.lastModified());
+    }
+  }
+}
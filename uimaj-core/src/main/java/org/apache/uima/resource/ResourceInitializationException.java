@@ -133,6 +133,12 @@ public class ResourceInitializationException extends UIMAException {
    */
   public static final String INDEX_KEY_FEATURE_NOT_FOUND = "index_key_feature_not_found";
 
+  /**
+   * Message key for a standard UIMA exception message: "The hash Index "{0}" must have exactly one
+   * key, which must be a Feature with a primitive range."
+   */
+  public static final String HASH_INDEX_NEEDS_ONE_FEATURE_KEY = "hash_index_needs_one_feature_key";
+
   /**
    * Message key for a standard UIMA exception message: "The Analysis Engine Descriptor is invalid -
    * a Type System may not be explicitly set for an aggregate Analysis Engine."
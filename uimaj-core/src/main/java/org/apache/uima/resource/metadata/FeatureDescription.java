@@ -137,4 +137,31 @@ public interface FeatureDescription extends MetaDataObject {
    *          true if multiple references to an array or list are allowed, false if not.
    */
   public void setMultipleReferencesAllowed(Boolean aAllowed);
+
+  /**
+   * For a feature with a String range (or a subtype of String), gets whether values of this feature
+   * are interned when CASes are deserialized, so that equal values share one String instance across
+   * all the CASes using the same type system.  This saves memory for features having few distinct,
+   * often repeated values, such as part of speech tags or lemmas.
+   * <p>
+   * This returns a Boolean object so that we can distinguish whether the descriptor contained no
+   * setting (null) versus an explicit setting of false.
+   * <p>
+   * This property should always be null for features whose range type is not String.
+   * 
+   * @return true if the values of this feature are interned, null if not specified
+   */
+  public Boolean getInternStrings();
+
+  /**
+   * For a feature with a String range (or a subtype of String), sets whether values of this feature
+   * are interned when CASes are deserialized, so that equal values share one String instance across
+   * all the CASes using the same type system.
+   * <p>
+   * This property should never be set for features whose range type is not String.
+   * 
+   * @param aInternStrings
+   *          true to intern the values of this feature, false or null not to (the default)
+   */
+  public void setInternStrings(Boolean aInternStrings);
 }
@@ -64,8 +64,8 @@ public interface FsIndexDescription extends MetaDataObject {
   public void setTypeName(String aTypeName);
 
   /**
-   * Gets the "kind" of index. There are currently three kinds of indexes - "sorted", "set", and
-   * "bag" (see {@link org.apache.uima.cas.FSIndex} for definitions). If this is <code>null</code>,
+   * Gets the "kind" of index. There are currently four kinds of indexes - "sorted", "set", "bag"
+   * and "hash" (see {@link org.apache.uima.cas.FSIndex} for definitions). If this is <code>null</code>,
    * "sorted" is assumed as the default.
    * 
    * @return the kind of index
@@ -73,8 +73,8 @@ public interface FsIndexDescription extends MetaDataObject {
   public String getKind();
 
   /**
-   * Sets the "kind" of index. There are currently three kinds of indexes - sorted, set, and bag
-   * (see {@link org.apache.uima.cas.FSIndex} for definitions). If this is <code>null</code>,
+   * Sets the "kind" of index. There are currently four kinds of indexes - sorted, set, bag and
+   * hash (see {@link org.apache.uima.cas.FSIndex} for definitions). If this is <code>null</code>,
    * "sorted" is assumed as the default.
    * 
    * @param aKind
@@ -119,4 +119,12 @@ public interface FsIndexDescription extends MetaDataObject {
    * @see org.apache.uima.cas.FSIndex
    */
   public static final String KIND_BAG = "bag";
+
+  /**
+   * Identifies a Hash index. A hash index must have exactly one key, a feature with a primitive
+   * range whose values are the lookup keys.
+   * 
+   * @see org.apache.uima.cas.FSIndex
+   */
+  public static final String KIND_HASH = "hash";
 }
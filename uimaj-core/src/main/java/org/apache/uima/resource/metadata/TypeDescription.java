@@ -74,6 +74,28 @@ public interface TypeDescription extends MetaDataObject {
    */
   public void setSupertypeName(String aTypeName);
 
+  /**
+   * Gets whether the int, float, boolean, byte, short, long and double features of instances of
+   * exactly this Type (not its subtypes) are kept in CAS-level columns, one per feature, instead of
+   * in each Feature Structure.  This saves memory for types having very many instances, such as tokens.
+   * <p>
+   * This returns a Boolean object so that we can distinguish whether the descriptor contained no
+   * setting (null) versus an explicit setting of false.
+   * 
+   * @return true if the primitive features of this Type are stored in columns, null if not specified
+   */
+  public Boolean getColumnar();
+
+  /**
+   * Sets whether the int, float, boolean, byte, short, long and double features of instances of
+   * exactly this Type (not its subtypes) are kept in CAS-level columns.
+   * 
+   * @param aColumnar
+   *          true to store the primitive features of this Type in columns, false or null to store them
+   *          in each Feature Structure (the default)
+   */
+  public void setColumnar(Boolean aColumnar);
+
   /**
    * Gets the descriptions of the features for this Type.
    * 
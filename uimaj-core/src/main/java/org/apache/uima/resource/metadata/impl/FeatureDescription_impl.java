@@ -43,6 +43,9 @@ public class FeatureDescription_impl extends MetaDataObject_impl implements Feat
 
   private Boolean mMultipleReferencesAllowed;
 
+  /** Whether String values are interned, null if not specified */
+  private Boolean mInternStrings;
+
   /**
    * Creates a new FeatureDescription_impl with null field values.
    */
@@ -169,6 +172,20 @@ public class FeatureDescription_impl extends MetaDataObject_impl implements Feat
     mMultipleReferencesAllowed = aAllowed;
   }
 
+  /**
+   * @see FeatureDescription#getInternStrings()
+   */
+  public Boolean getInternStrings() {
+    return mInternStrings;
+  }
+
+  /**
+   * @see FeatureDescription#setInternStrings(Boolean)
+   */
+  public void setInternStrings(Boolean aInternStrings) {
+    mInternStrings = aInternStrings;
+  }
+
   protected XmlizationInfo getXmlizationInfo() {
     return XMLIZATION_INFO;
   }
@@ -177,5 +194,6 @@ public class FeatureDescription_impl extends MetaDataObject_impl implements Feat
           new PropertyXmlInfo[] { new PropertyXmlInfo("name"),
               new PropertyXmlInfo("description", false),
               new PropertyXmlInfo("rangeTypeName", true), new PropertyXmlInfo("elementType", true),
-              new PropertyXmlInfo("multipleReferencesAllowed") });
+              new PropertyXmlInfo("multipleReferencesAllowed"),
+              new PropertyXmlInfo("internStrings") });
 }
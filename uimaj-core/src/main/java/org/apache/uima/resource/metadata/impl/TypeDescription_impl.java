@@ -46,6 +46,9 @@ public class TypeDescription_impl extends MetaDataObject_impl implements TypeDes
   /** Name of the Type from which this Type inherits. */
   private String mSupertypeName;
 
+  /** Whether the primitive features are stored in columns, null if not specified */
+  private Boolean mColumnar;
+
   /** Descriptions of all Features defined on this Type. */
   private FeatureDescription[] mFeatures = EMPTY_FEAT_DESC_ARRAY;
 
@@ -115,6 +118,20 @@ public class TypeDescription_impl extends MetaDataObject_impl implements TypeDes
     mSupertypeName = aTypeName;
   }
 
+  /**
+   * @see TypeDescription#getColumnar()
+   */
+  public Boolean getColumnar() {
+    return mColumnar;
+  }
+
+  /**
+   * @see TypeDescription#setColumnar(Boolean)
+   */
+  public void setColumnar(Boolean aColumnar) {
+    mColumnar = aColumnar;
+  }
+
   /**
    * @see TypeDescription#getFeatures()
    */
@@ -185,5 +202,6 @@ public class TypeDescription_impl extends MetaDataObject_impl implements TypeDes
   static final private XmlizationInfo XMLIZATION_INFO = new XmlizationInfo("typeDescription",
           new PropertyXmlInfo[] { new PropertyXmlInfo("name"),
               new PropertyXmlInfo("description", false), new PropertyXmlInfo("supertypeName"),
+              new PropertyXmlInfo("columnar"),
               new PropertyXmlInfo("features"), new PropertyXmlInfo("allowedValues") });
 }
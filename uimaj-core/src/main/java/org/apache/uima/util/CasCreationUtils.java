@@ -53,6 +53,8 @@ import org.apache.uima.cas.admin.FSIndexRepositoryMgr;
 import org.apache.uima.cas.admin.LinearTypeOrderBuilder;
 import org.apache.uima.cas.admin.TypeSystemMgr;
 import org.apache.uima.cas.impl.CASImpl;
+import org.apache.uima.cas.impl.FeatureImpl;
+import org.apache.uima.cas.impl.TypeImpl;
 import org.apache.uima.cas.impl.TypeSystemImpl;
 import org.apache.uima.cas_data.CasData;
 import org.apache.uima.cas_data.FeatureStructure;
@@ -846,6 +848,9 @@ public class CasCreationUtils {
           TypeDescription typeDesc = typeIter.next();
           Type type = typeSystemMgr.getType(typeDesc.getName());
           // assert type != null;
+          if (Boolean.TRUE.equals(typeDesc.getColumnar()) && type instanceof TypeImpl) {
+            ((TypeImpl) type).setColumnar();
+          }
 
           FeatureDescription[] features = typeDesc.getFeatures();
           if (features != null) {
@@ -879,7 +884,10 @@ public class CasCreationUtils {
               if (multiRefAllowed == null) {
                 multiRefAllowed = Boolean.FALSE; // default to false if unspecified
               }
-              typeSystemMgr.addFeature(featName, type, rangeType, multiRefAllowed);
+              Feature feat = typeSystemMgr.addFeature(featName, type, rangeType, multiRefAllowed);
+              if (Boolean.TRUE.equals(features[j].getInternStrings()) && feat instanceof FeatureImpl) {
+                ((FeatureImpl) feat).setInternStrings();
+              }
             }
           }
         }
@@ -956,6 +964,8 @@ public class CasCreationUtils {
             kind = FSIndex.SET_INDEX;
           else if (kindStr.equals(FsIndexDescription.KIND_SORTED))
             kind = FSIndex.SORTED_INDEX;
+          else if (kindStr.equals(FsIndexDescription.KIND_HASH))
+            kind = FSIndex.HASH_INDEX;
         }
 
         Type type = tsm.getType(aIndexes[i].getTypeName());
@@ -969,6 +979,12 @@ public class CasCreationUtils {
         comparator.setType(type);
 
         FsIndexKeyDescription[] keys = aIndexes[i].getKeys();
+        if (kind == FSIndex.HASH_INDEX && 
+            (keys == null || keys.length != 1 || keys[0].isTypePriority())) {
+          throw new ResourceInitializationException(
+              ResourceInitializationException.HASH_INDEX_NEEDS_ONE_FEATURE_KEY, new Object[] {
+                  aIndexes[i].getLabel(), aIndexes[i].getSourceUrlString() });
+        }
         if (keys != null) {
           for (int j = 0; j < keys.length; j++) {
             if (keys[j].isTypePriority()) {
@@ -981,6 +997,11 @@ public class CasCreationUtils {
                         keys[j].getFeatureName(), aIndexes[i].getLabel(),
                         aIndexes[i].getSourceUrlString() });
               }
+              if (kind == FSIndex.HASH_INDEX && !feature.getRange().isPrimitive()) {
+                throw new ResourceInitializationException(
+                    ResourceInitializationException.HASH_INDEX_NEEDS_ONE_FEATURE_KEY, new Object[] {
+                        aIndexes[i].getLabel(), aIndexes[i].getSourceUrlString() });
+              }
               comparator.addKey(feature, keys[j].getComparator());
             }
           }
@@ -1177,12 +1198,17 @@ public class CasCreationUtils {
       existingType.setSupertypeName(supertypeName);
       existingType.setAllowedValues(type.getAllowedValues());
       existingType.setSourceUrl(type.getSourceUrl());
+      existingType.setColumnar(type.getColumnar());
       typeNameMap.put(type.getName(), existingType);
       FeatureDescription[] features = type.getFeatures();
       if (features != null) {
         mergeFeatures(existingType, type.getFeatures());
       }
     } else {
+      // columnar storage is an optimization; asking for it in any of the merged descriptions is enough
+      if (Boolean.TRUE.equals(type.getColumnar())) {
+        existingType.setColumnar(Boolean.TRUE);
+      }
       // type already existed - check that supertypes are compatible
       String existingSupertypeName = existingType.getSupertypeName();
       if (!existingSupertypeName.equals(supertypeName)) {
@@ -1731,7 +1757,12 @@ public class CasCreationUtils {
         FeatureDescription featDesc = aType.addFeature(featName, aFeatures[i].getDescription(),
             rangeTypeName, elementTypeName, multiRefsAllowed);
         featDesc.setSourceUrl(aFeatures[i].getSourceUrl());
+        featDesc.setInternStrings(aFeatures[i].getInternStrings());
       } else {// feature does exist
+        // interning is an optimization; asking for it in any of the merged descriptions is enough
+        if (Boolean.TRUE.equals(aFeatures[i].getInternStrings())) {
+          feat.setInternStrings(Boolean.TRUE);
+        }
         // check that the range types match
         if (!feat.getRangeTypeName().equals(rangeTypeName)) {
           throw new ResourceInitializationException(
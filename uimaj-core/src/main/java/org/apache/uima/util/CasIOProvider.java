@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.SerialFormat;
+
+/**
+ * Loads and saves CASes in a {@link SerialFormat} which is implemented outside of uimaj-core,
+ * for instance JSON, which is implemented in uimaj-json.
+ *
+ * <p>{@link CasIOUtils} finds the implementations of this interface using {@link java.util.ServiceLoader},
+ * so the format is supported by its load and save methods whenever the jar implementing it is on the classpath.</p>
+ */
+public interface CasIOProvider {
+
+  /**
+   * @return the format loaded and saved by this provider
+   */
+  SerialFormat getSerialFormat();
+
+  /**
+   * Called by the CasIOUtils load methods to find out if the data is in this provider's format
+   * @param firstPartOfFile the first bytes of the data
+   * @param length the number of bytes in firstPartOfFile, may be less than its length for short data
+   * @return true if the data is in this provider's format
+   */
+  boolean isLoadable(byte[] firstPartOfFile, int length);
+
+  /**
+   * @param casInputStream the data, with appropriate buffering
+   * @param aCAS the CAS to load into; it is reset first
+   * @param casLoadMode only LENIENT is meaningful; other modes load the default way
+   * @throws IOException if there is an IOException or the data is not in the expected format
+   */
+  void load(InputStream casInputStream, CAS aCAS, CasLoadMode casLoadMode) throws IOException;
+
+  /**
+   * @param aCas the CAS to save
+   * @param docOS where to write it, with appropriate buffering
+   * @throws IOException if there is an IOException
+   */
+  void save(CAS aCas, OutputStream docOS) throws IOException;
+}
@@ -30,7 +30,15 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
 
 import org.apache.uima.UIMARuntimeException;
 import org.apache.uima.cas.CAS;
@@ -51,6 +59,7 @@ import org.apache.uima.cas.impl.Serialization;
 import org.apache.uima.cas.impl.TypeSystemImpl;
 import org.apache.uima.cas.impl.XCASSerializer;
 import org.apache.uima.cas.impl.XmiCasSerializer;
+import org.apache.uima.util.impl.ByteBufferDataInputStream;
 import org.xml.sax.SAXException;
 
 /**
@@ -105,17 +114,17 @@ import org.xml.sax.SAXException;
  *   <li>the CAS's type system</li>
  * </ul>
  *
- * <p>The serialization formats supported here are specified in the SerialFormat enum.</p>
+ * <p>The serialization formats supported here are specified in the SerialFormat enum.
+ *    Formats implemented outside of uimaj-core, such as JSON, are supported when their implementation
+ *    (a {@link CasIOProvider}, e.g. from uimaj-json) is on the classpath.</p>
  *
  * <p>The <code>load </code>api's automatically use the appropriate deserializers, based on the input data format.</p>
  *
- * <p>Loading inputs may be supplied as URLs or as an appropriately buffered InputStream.</p>
+ * <p>Loading inputs may be supplied as Paths, URLs or as an appropriately buffered InputStream.</p>
  *
- * <p>Note: you can use Files or Paths by converting these to URLs:</p>
- * <ul>
- *   <li><code>URL url = a_path.toUri().toURL();</code></li>
- *   <li><code>URL url = a_file.toUri().toURL();</code></li>
- * </ul>
+ * <p>Loading from a Path memory maps the file and deserializes directly from the mapped bytes, 
+ *    without the intermediate copies and buffering layers of stream based loading.
+ *    Use this for local files; files can be converted with <code>a_file.toPath()</code>.</p>
  *
  * <p>When loading, an optional CasLoadMode enum value maybe specified to indicate</p>
  * <ul>
@@ -138,11 +147,13 @@ import org.xml.sax.SAXException;
  *
  * <p>Summary of APIs for loading:</p>
  * <pre style="padding-left: 30px;">
+ *   <code>load(aPath&nbsp;&nbsp;&nbsp;&nbsp;&nbsp; , aCas)</code>
  *   <code>load(aURL&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp; , aCas)</code>
  *   <code>load(inputStream, aCas)</code>
  *   <code>load(inputStream, aCas, typeSystem)</code> // typeSystem used for decoding Compressed Form 6
  *   <code>load(inputStream, tsiInputStream, aCas)</code></pre>
  * <pre style="padding-left: 30px;">
+ *   <code>load(aPath&nbsp;&nbsp;&nbsp;&nbsp;&nbsp; , tsiPath&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp; , aCAS, casLoadMode)&nbsp;&nbsp; - the second Path is for loading a separately-stored TSI</code>
  *   <code>load(aURL&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp; , tsiURL&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp; , aCAS, casLoadMode)&nbsp;&nbsp; - the second URL is for loading a separately-stored TSI</code>
  *   <code>load(inputStream, tsiInputStream, aCAS, aCasLoadMode)</code>
  *   <code>load(aURL&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp; , tsiURL&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp; , aCAS, lenient)&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp; - lenient is used to set the CasLoadMode to LENIENT or DEFAULT</code>
@@ -151,6 +162,89 @@ import org.xml.sax.SAXException;
 
 public class CasIOUtils {
 
+  /** 
+   * lazily found providers of formats implemented outside of the core
+   */
+  private static volatile List<CasIOProvider> providers;
+
+  /**
+   * Loads a Cas from a file, by memory mapping it.
+   * For SerialFormats ending with _TSI except for COMPRESSED_FILTERED_TSI, 
+   * the CAS's type system and indexes definition are replaced.
+   * CasLoadMode is DEFAULT.
+   * 
+   * @param casPath
+   *          The file containing the CAS
+   * @param aCAS
+   *          The CAS that should be filled
+   * @return the SerialFormat of the loaded CAS
+   * @throws IOException
+   *           - Problem loading from given Path
+   */
+  public static SerialFormat load(Path casPath, CAS aCAS) throws IOException {
+    return load(casPath, null, aCAS, CasLoadMode.DEFAULT);
+  }
+
+  /**
+   * Loads a CAS from a file, by memory mapping it. The format is determined from the content.
+   * 
+   * The file is read directly from the mapped bytes; the deserialized CAS does not refer to them afterwards.
+   * The file must not be modified while it is being loaded.
+   * 
+   * If the value of tsiPath is null it is ignored.
+   * 
+   * @param casPath
+   *          The file to deserialize the CAS from
+   * @param tsiPath
+   *          null or an optional file to deserialize the type system and index definitions from
+   * @param aCAS
+   *          The CAS that should be filled
+   * @param casLoadMode specifies how to handle reinitialization and lenient loading
+   *          see the Javadocs for CasLoadMode
+   * @return the SerialFormat of the loaded CAS
+   * @throws IOException Problem loading
+   */
+  public static SerialFormat load(Path casPath, Path tsiPath, CAS aCAS, CasLoadMode casLoadMode)
+          throws IOException {
+    InputStream tsIS = (tsiPath == null) ? null : new BufferedInputStream(Files.newInputStream(tsiPath));
+    try (FileChannel channel = FileChannel.open(casPath, StandardOpenOption.READ)) {
+      return load(mapOrStream(channel), tsIS, aCAS, casLoadMode);
+    } finally {
+      closeQuitely(tsIS);
+    }  
+  }
+
+  /**
+   * This load variant can be used for loading Form 6 compressed CASes where the 
+   * type system to use to deserialize is provided as an argument.  See 
+   * {@link #load(InputStream, CAS, TypeSystem)}; the file is memory mapped as for {@link #load(Path, CAS)}.
+   *     
+   * @param casPath
+   *          The file containing the CAS
+   * @param aCAS
+   *          The CAS that should be filled
+   * @param typeSystem the type system to use for decoding the serialized form, must be non-null         
+   * @return the SerialFormat of the loaded CAS
+   * @throws IOException Problem loading from given Path   
+   */
+  public static SerialFormat load(Path casPath, CAS aCAS, TypeSystem typeSystem) throws IOException {
+    try (FileChannel channel = FileChannel.open(casPath, StandardOpenOption.READ)) {
+      return load(mapOrStream(channel), null, aCAS, CasLoadMode.DEFAULT, (TypeSystemImpl) typeSystem);
+    }
+  }
+
+  /**
+   * The mapping stays valid after the channel is closed.
+   * Files too big to be mapped into one ByteBuffer are streamed instead.
+   */
+  private static InputStream mapOrStream(FileChannel channel) throws IOException {
+    final long size = channel.size();
+    if (size > Integer.MAX_VALUE) {
+      return new BufferedInputStream(Channels.newInputStream(channel));
+    }
+    return new ByteBufferDataInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+  }
+
   /**
    * Loads a Cas from a URL source. 
    * For SerialFormats ending with _TSI except for COMPRESSED_FILTERED_TSI, 
@@ -371,6 +465,15 @@ public class CasIOUtils {
       }
     }
     
+    // formats implemented outside of the core, e.g. JSON
+    for (CasIOProvider provider : getProviders()) {
+      if (provider.isLoadable(firstPartOfFile, Math.max(0, bytesReadCount))) {
+        bcsd.setupCasFromCasMgrSerializer(readCasManager(tsiInputStream));
+        provider.load(casInputStream, aCAS, casLoadMode);
+        return provider.getSerialFormat();
+      }
+    }
+    
     //  Not an XML file, decode as binary file
     DataInputStream deserIn = CommonSerDes.maybeWrapToDataInputStream(casInputStream);
     if (CommonSerDes.isBinaryHeader(deserIn)) {
@@ -490,6 +593,11 @@ public class CasIOUtils {
           typeSystemWritten = true; // Embedded type system
           break;
         default:
+          CasIOProvider provider = getProvider(format);
+          if (provider != null) {
+            provider.save(aCas, docOS);
+            break;
+          }
           StringBuilder sb = new StringBuilder();
           for (SerialFormat sf : SerialFormat.values()) {
             sb = sb.append(sf.toString()).append(", ");
@@ -510,6 +618,30 @@ public class CasIOUtils {
     }
   }
 
+  /**
+   * @return the providers of formats implemented outside of the core, found on the classpath
+   */
+  private static List<CasIOProvider> getProviders() {
+    List<CasIOProvider> r = providers;
+    if (r == null) {
+      r = new ArrayList<>();
+      for (CasIOProvider provider : ServiceLoader.load(CasIOProvider.class, CasIOUtils.class.getClassLoader())) {
+        r.add(provider);
+      }
+      providers = r;
+    }
+    return r;
+  }
+  
+  private static CasIOProvider getProvider(SerialFormat format) {
+    for (CasIOProvider provider : getProviders()) {
+      if (provider.getSerialFormat() == format) {
+        return provider;
+      }
+    }
+    return null;
+  }
+  
   private static CASMgrSerializer readCasManager(InputStream tsiInputStream) throws IOException {
     try {
       if (null == tsiInputStream) {
@@ -22,13 +22,17 @@ package org.apache.uima.util;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.Vector;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.analysis_engine.AnalysisEngine;
@@ -57,6 +61,11 @@ import org.apache.uima.resource.metadata.ProcessingResourceMetaData;
  *   If more threads request CASes from the pool than are available, the pool (optionally) puts requesting
  *   threads into a wait state.  When CASes become available, the longest-waiting thread gets the CAS; this
  *   approach prevents starvation behavior (where some threads get all the CASes and others get none).
+ *   
+ *   For large numbers of threads, a lock-free free list can be selected with the performance tuning setting
+ *   {@link UIMAFramework#CAS_POOL_LOCK_FREE}, optionally with thread affinity
+ *   ({@link UIMAFramework#CAS_POOL_THREAD_AFFINITY}).  In this mode, releasing a CAS does not notify
+ *   threads waiting on this object's monitor.
  * 
  */
 public class CasPool {
@@ -86,14 +95,28 @@ public class CasPool {
   // a fair lock to prevent starvation of a thread
   final private Semaphore permits;
   
-  private CasPool(int aNumInstances, Set<CAS> allInstances) {
+  // null unless the lock-free free list was selected; if not null, mFreeInstances is not used
+  final private LockFreeFreeList mLockFreeFreeList;
+  
+  private CasPool(int aNumInstances, Set<CAS> allInstances, Properties aPerformanceTuningSettings) {
     mNumInstances = aNumInstances;
     permits = new Semaphore(mNumInstances, true);
     mAllInstances = allInstances;
     Set<CAS> free = Collections.newSetFromMap(new ConcurrentHashMap<>());
-    free.addAll(mAllInstances);
+    if (isSet(aPerformanceTuningSettings, UIMAFramework.CAS_POOL_LOCK_FREE)) {
+      mLockFreeFreeList = new LockFreeFreeList(allInstances, 
+          isSet(aPerformanceTuningSettings, UIMAFramework.CAS_POOL_THREAD_AFFINITY));
+    } else {
+      mLockFreeFreeList = null;
+      free.addAll(mAllInstances);
+    }
     mFreeInstances = free;  // concurrent safe publishing idiom 
   }
+  
+  private static boolean isSet(Properties aPerformanceTuningSettings, String key) {
+    return aPerformanceTuningSettings != null &&
+           "true".equalsIgnoreCase(aPerformanceTuningSettings.getProperty(key));
+  }
 
   /**
    * Creates a new CasPool
@@ -115,7 +138,8 @@ public class CasPool {
   public CasPool(int aNumInstances, Collection<? extends ProcessingResourceMetaData> aCollectionOfProcessingResourceMetaData,
           Properties aPerformanceTuningSettings, ResourceManager aResourceManager)
           throws ResourceInitializationException {
-    this(aNumInstances, fillPool(aNumInstances, aCollectionOfProcessingResourceMetaData, aPerformanceTuningSettings, aResourceManager));
+    this(aNumInstances, fillPool(aNumInstances, aCollectionOfProcessingResourceMetaData, aPerformanceTuningSettings, aResourceManager),
+         aPerformanceTuningSettings);
   }
   
 
@@ -137,7 +161,8 @@ public class CasPool {
          fillPool(aNumInstances, 
                   Collections.singletonList((ProcessingResourceMetaData) aAnalysisEngine.getMetaData()),
                   aAnalysisEngine.getPerformanceTuningSettings(),
-                  aAnalysisEngine.getResourceManager()));
+                  aAnalysisEngine.getResourceManager()),
+         aAnalysisEngine.getPerformanceTuningSettings());
   }
 
   /**
@@ -153,7 +178,7 @@ public class CasPool {
    */
   public CasPool(int aNumInstances, ProcessingResourceMetaData aMetaData)
           throws ResourceInitializationException {
-    this(aNumInstances, fillPool(aNumInstances, Collections.singletonList(aMetaData), null, null));
+    this(aNumInstances, fillPool(aNumInstances, Collections.singletonList(aMetaData), null, null), null);
   }
 
   /**
@@ -169,7 +194,7 @@ public class CasPool {
    */
   public CasPool(int aNumInstances, ProcessingResourceMetaData aMetaData,
           ResourceManager aResourceManager) throws ResourceInitializationException {
-    this(aNumInstances, fillPool(aNumInstances, Collections.singletonList(aMetaData), null, aResourceManager));
+    this(aNumInstances, fillPool(aNumInstances, Collections.singletonList(aMetaData), null, aResourceManager), null);
   }
 
   /**
@@ -188,7 +213,7 @@ public class CasPool {
    */
   public CasPool(int aNumInstances, CasDefinition aCasDefinition,
           Properties aPerformanceTuningSettings) throws ResourceInitializationException {
-    this(aNumInstances, fillPool(aNumInstances, aCasDefinition, aPerformanceTuningSettings));
+    this(aNumInstances, fillPool(aNumInstances, aCasDefinition, aPerformanceTuningSettings), aPerformanceTuningSettings);
   }
 
   /**
@@ -207,7 +232,7 @@ public class CasPool {
    */
   public CasPool(int aNumInstances, CasManager aCasManager,
           Properties aPerformanceTuningSettings) throws ResourceInitializationException {
-    this(aNumInstances, fillPool(aNumInstances, aCasManager, aPerformanceTuningSettings));
+    this(aNumInstances, fillPool(aNumInstances, aCasManager, aPerformanceTuningSettings), aPerformanceTuningSettings);
   }
   
   /**
@@ -257,6 +282,9 @@ public class CasPool {
 
   
   private CAS getCasAfterPermitAcquired() {
+    if (mLockFreeFreeList != null) {
+      return mLockFreeFreeList.claim();
+    }
     // synchronize so only one iterator is running
     synchronized (mFreeInstances) {
       final Iterator<CAS> freeIterator = mFreeInstances.iterator();
@@ -291,6 +319,11 @@ public class CasPool {
     // note the pool stores references to the InitialView of each CAS
     aCas.setCurrentComponentInfo(null);  // https://issues.apache.org/jira/browse/UIMA-3655
     CAS cas = aCas.getView(CAS.NAME_DEFAULT_SOFA);
+    
+    if (mLockFreeFreeList != null) {
+      releaseCasLockFree(cas);
+      return;
+    }
 
     // make sure this CAS actually belongs to this pool and is checked out
     // synchronize to avoid the same CAS being released on 2 threads
@@ -320,6 +353,20 @@ public class CasPool {
   }
 
 
+  private void releaseCasLockFree(CAS cas) {
+    // the state change both checks membership and prevents 2 threads from releasing the same CAS
+    final int slot = mLockFreeFreeList.beginRelease(cas);
+    if (slot < 0) {
+      UIMAFramework.getLogger(CLASS_NAME).logrb(Level.WARNING, CLASS_NAME.getName(), "releaseCas",
+              LOG_RESOURCE_BUNDLE, "UIMA_return_cas_to_pool__WARNING");
+      return;
+    }
+    ((CASImpl)cas).restoreClassLoaderUnlockCas();
+    cas.reset();
+    mLockFreeFreeList.endRelease(slot);
+    permits.release();  // should follow making the cas available
+  }
+
   /**
    * Gets the size of this pool (the total number of CAS instances that it can hold).
    * 
@@ -334,7 +381,9 @@ public class CasPool {
    * @return the numberof available CASes 
    */
   public int getNumAvailable() {
-    return mFreeInstances.size();
+    return (mLockFreeFreeList != null) 
+             ? permits.availablePermits()
+             : mFreeInstances.size();
   }  
 
   /**
@@ -386,6 +435,109 @@ public class CasPool {
   // no callers as of March 2014
   // left as Vector
   protected Vector<CAS> getFreeInstances() {
-    return new Vector<>(mFreeInstances);
+    return (mLockFreeFreeList != null)
+             ? mLockFreeFreeList.getFreeInstances()
+             : new Vector<>(mFreeInstances);
+  }
+  
+  /**
+   * A lock-free free list, used instead of the mFreeInstances set when 
+   * {@link UIMAFramework#CAS_POOL_LOCK_FREE} is set.
+   * 
+   * Each CAS has a slot number, found using an identity map which is read-only after creation,
+   * and a slot state which is changed atomically.  Releasing a CAS moves the state from 
+   * checked-out to releasing (which rejects double releases and CASes from other pools without any locking),
+   * and after the reset, to free.
+   * 
+   * Free slots are kept on a lock-free stack, so recently used CASes are reused first.
+   * 
+   * With thread affinity, a thread first tries to claim the slot it last released.  That slot stays
+   * on the stack, and is skipped when it is popped if it is no longer free.  The "queued" flag 
+   * keeps each slot on the stack at most once, so the stack never holds more than one entry per CAS.
+   * 
+   * Callers must hold a permit when calling claim, which guarantees that a free slot exists, although 
+   * it may be briefly invisible while another thread is between popping it and claiming it.
+   */
+  private static class LockFreeFreeList {
+    private static final int FREE = 0;
+    private static final int CHECKED_OUT = 1;
+    private static final int RELEASING = 2;
+    
+    private final CAS[] cases;
+    private final Map<CAS, Integer> slots;
+    private final AtomicIntegerArray states;
+    private final AtomicIntegerArray queued;
+    private final ConcurrentLinkedDeque<Integer> freeStack = new ConcurrentLinkedDeque<>();
+    // null if no thread affinity
+    private final ThreadLocal<Integer> lastReleasedSlot;
+    
+    LockFreeFreeList(Set<CAS> allInstances, boolean isThreadAffinity) {
+      cases = allInstances.toArray(new CAS[allInstances.size()]);
+      Map<CAS, Integer> m = new IdentityHashMap<>(cases.length);
+      states = new AtomicIntegerArray(cases.length);  // all FREE
+      queued = new AtomicIntegerArray(cases.length);
+      for (int i = 0; i < cases.length; i++) {
+        m.put(cases[i], i);
+        queued.set(i, 1);
+        freeStack.addLast(i);
+      }
+      slots = m;
+      lastReleasedSlot = isThreadAffinity ? new ThreadLocal<>() : null;
+    }
+    
+    CAS claim() {
+      if (lastReleasedSlot != null) {
+        Integer slot = lastReleasedSlot.get();
+        if (slot != null && states.compareAndSet(slot, FREE, CHECKED_OUT)) {
+          return cases[slot];
+        }
+      }
+      
+      for (;;) {
+        Integer slot = freeStack.pollFirst();
+        if (slot == null) {
+          // another thread is between popping and claiming
+          Thread.yield();
+          continue;
+        }
+        queued.set(slot, 0);
+        if (states.compareAndSet(slot, FREE, CHECKED_OUT)) {
+          return cases[slot];
+        }
+        // slot was claimed via thread affinity, skip it
+      }
+    }
+    
+    /**
+     * @param cas the cas being released
+     * @return the slot, or -1 if the cas isn't a checked-out member of this pool
+     */
+    int beginRelease(CAS cas) {
+      Integer slot = slots.get(cas);
+      if (slot == null || !states.compareAndSet(slot, CHECKED_OUT, RELEASING)) {
+        return -1;
+      }
+      return slot;
+    }
+    
+    void endRelease(int slot) {
+      states.set(slot, FREE);
+      if (queued.compareAndSet(slot, 0, 1)) {
+        freeStack.addFirst(slot);
+      }
+      if (lastReleasedSlot != null) {
+        lastReleasedSlot.set(slot);
+      }
+    }
+    
+    Vector<CAS> getFreeInstances() {
+      Vector<CAS> r = new Vector<>();
+      for (int i = 0; i < cases.length; i++) {
+        if (states.get(i) == FREE) {
+          r.add(cases[i]);
+        }
+      }
+      return r;
+    }
   }
 }
@@ -29,7 +29,9 @@ import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.Feature;
 import org.apache.uima.cas.Type;
 import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.cas.impl.FeatureImpl;
 import org.apache.uima.cas.impl.LowLevelTypeSystem;
+import org.apache.uima.cas.impl.TypeImpl;
 import org.apache.uima.resource.metadata.AllowedValue;
 import org.apache.uima.resource.metadata.FeatureDescription;
 import org.apache.uima.resource.metadata.TypeDescription;
@@ -77,6 +79,9 @@ public class TypeSystemUtil {
     typeDesc.setName(aType.getName());
     Type superType = aTypeSystem.getParent(aType);
     typeDesc.setSupertypeName(superType.getName());
+    if (aType instanceof TypeImpl && ((TypeImpl) aType).isColumnar()) {
+      typeDesc.setColumnar(Boolean.TRUE);
+    }
     // special handling for string subtypes (which have "allowed values", rather than features)
     Type stringType = aTypeSystem.getType("uima.cas.String");
     if (aTypeSystem.subsumes(stringType, aType)) {
@@ -116,6 +121,9 @@ public class TypeSystemUtil {
     if (aFeature.isMultipleReferencesAllowed()) {
       featDesc.setMultipleReferencesAllowed(true);
     }
+    if (aFeature instanceof FeatureImpl && ((FeatureImpl) aFeature).isInternStrings()) {
+      featDesc.setInternStrings(Boolean.TRUE);
+    }
     Type rangeType = aFeature.getRange();
     //special check for array range types, which are represented in the CAS as
     //elementType[] but in the descriptor as an FSArray with an <elementType>
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.util.impl;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * A DataInputStream reading from a ByteBuffer, typically a memory mapped file.
+ *
+ * It has no buffering of its own, so the position of the ByteBuffer is always the
+ * position of the next byte to be read.  Deserializers which know about this class
+ * use that to read whole arrays, or to get slices of the data, without copying
+ * through intermediate byte arrays.
+ *
+ * Mark and reset are supported.
+ */
+public class ByteBufferDataInputStream extends DataInputStream {
+
+  private final ByteBuffer bb;
+
+  /**
+   * @param bb the data, from its position to its limit.  The position is advanced as the data is read.
+   */
+  public ByteBufferDataInputStream(ByteBuffer bb) {
+    super(new ByteBufferInputStream(bb));
+    this.bb = bb;
+  }
+
+  /**
+   * @return the ByteBuffer read by this stream, positioned at the next byte to be read.
+   *         Callers reading from it directly must advance its position by what they read.
+   */
+  public ByteBuffer getByteBuffer() {
+    return bb;
+  }
+
+  /**
+   * Reads the next n bytes without copying them
+   * @param n the number of bytes to read
+   * @return a buffer sharing the next n bytes, with position 0 and limit n
+   * @throws EOFException if fewer than n bytes remain
+   */
+  public ByteBuffer readSlice(int n) throws EOFException {
+    if (n < 0 || n > bb.remaining()) {
+      throw new EOFException();
+    }
+    ByteBuffer slice = bb.slice();
+    ((Buffer)slice).limit(n);
+    ((Buffer)bb).position(bb.position() + n);
+    return slice;
+  }
+
+  private static class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer bb;
+
+    ByteBufferInputStream(ByteBuffer bb) {
+      this.bb = bb;
+    }
+
+    @Override
+    public int read() {
+      return bb.hasRemaining() ? (bb.get() & 0xff) : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      if (!bb.hasRemaining()) {
+        return -1;
+      }
+      len = Math.min(len, bb.remaining());
+      bb.get(b, off, len);
+      return len;
+    }
+
+    @Override
+    public long skip(long n) {
+      if (n <= 0) {
+        return 0;
+      }
+      int skipped = (int) Math.min(n, bb.remaining());
+      ((Buffer)bb).position(bb.position() + skipped);
+      return skipped;
+    }
+
+    @Override
+    public int available() {
+      return bb.remaining();
+    }
+
+    @Override
+    public boolean markSupported() {
+      return true;
+    }
+
+    @Override
+    public void mark(int readlimit) {
+      ((Buffer)bb).mark();
+    }
+
+    @Override
+    public void reset() {
+      ((Buffer)bb).reset();
+    }
+  }
+}
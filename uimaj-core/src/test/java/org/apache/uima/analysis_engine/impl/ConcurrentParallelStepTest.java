@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.analysis_engine.impl;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.UimaContext;
+import org.apache.uima.UimaContextAdmin;
+import org.apache.uima.analysis_component.CasAnnotator_ImplBase;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.analysis_engine.metadata.FlowControllerDeclaration;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.flow.FlowControllerDescription;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.metadata.Capability;
+import org.apache.uima.resource.metadata.TypeDescription;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+
+import junit.framework.TestCase;
+
+/**
+ * ParallelSteps whose delegates run concurrently, each on a copy of the CAS
+ */
+public class ConcurrentParallelStepTest extends TestCase {
+
+  private static final int NBR_SENTENCES = 50;
+
+  static final AtomicInteger running = new AtomicInteger();
+  static final AtomicInteger maxRunning = new AtomicInteger();
+
+  /**
+   * Adds an annotation of type test.&lt;key&gt; for every sentence, referencing it, and 
+   * updates the preexisting sentences of its own view.  Fails if its key is "Fail".
+   */
+  public static class BranchAnnotator extends CasAnnotator_ImplBase {
+    private String key;
+
+    @Override
+    public void initialize(UimaContext aContext) throws ResourceInitializationException {
+      super.initialize(aContext);
+      String name = ((UimaContextAdmin) aContext).getQualifiedContextName();
+      key = name.substring(1, name.length() - 1);
+    }
+
+    @Override
+    public void process(CAS aCAS) throws AnalysisEngineProcessException {
+      int r = running.incrementAndGet();
+      maxRunning.accumulateAndGet(r, Math::max);
+      try {
+        Thread.sleep(200);
+      } catch (InterruptedException e) {
+        throw new AnalysisEngineProcessException(e);
+      } finally {
+        running.decrementAndGet();
+      }
+      if (key.equals("Fail")) {
+        throw new AnalysisEngineProcessException(new IllegalStateException(key));
+      }
+      Type sentenceType = aCAS.getTypeSystem().getType("test.Sentence");
+      Type outType = aCAS.getTypeSystem().getType("test." + key);
+      if (outType == null) {
+        return;
+      }
+      Feature sentenceFeat = outType.getFeatureByBaseName("sentence");
+      for (AnnotationFS sentence : aCAS.getAnnotationIndex(sentenceType)) {
+        AnnotationFS a = aCAS.createAnnotation(outType, sentence.getBegin(), sentence.getEnd());
+        a.setFeatureValue(sentenceFeat, sentence);
+        aCAS.addFsToIndexes(a);
+      }
+    }
+  }
+
+  protected void setUp() throws Exception {
+    running.set(0);
+    maxRunning.set(0);
+  }
+
+  private AnalysisEngine aggregate(int nbrThreads, String... keys) throws Exception {
+    AnalysisEngineDescription agg = UIMAFramework.getResourceSpecifierFactory().createAnalysisEngineDescription();
+    agg.setPrimitive(false);
+    agg.getMetaData().setName("aggregate");
+
+    TypeSystemDescription tsd = UIMAFramework.getResourceSpecifierFactory().createTypeSystemDescription();
+    tsd.addType("test.Sentence", "", CAS.TYPE_NAME_ANNOTATION);
+    TypeDescription out = tsd.addType("test.Out", "", CAS.TYPE_NAME_ANNOTATION);
+    out.addFeature("sentence", "", "test.Sentence");
+    for (String key : new String[] {"A", "B", "C", "Fail"}) {
+      tsd.addType("test." + key, "", "test.Out");
+    }
+
+    for (String key : keys) {
+      AnalysisEngineDescription desc = UIMAFramework.getResourceSpecifierFactory().createAnalysisEngineDescription();
+      desc.setPrimitive(true);
+      desc.setAnnotatorImplementationName(BranchAnnotator.class.getName());
+      desc.getMetaData().setName(key);
+      desc.getAnalysisEngineMetaData().setTypeSystem(tsd);
+      Capability capability = UIMAFramework.getResourceSpecifierFactory().createCapability();
+      if (key.equals("NoOutputs")) {
+        capability.addInputSofa("other");
+      } else {
+        capability.addOutputType("test." + key, true);
+      }
+      desc.getAnalysisEngineMetaData().setCapabilities(new Capability[] {capability});
+      agg.getDelegateAnalysisEngineSpecifiersWithImports().put(key, desc);
+    }
+
+    FlowControllerDescription fc = UIMAFramework.getResourceSpecifierFactory().createFlowControllerDescription();
+    fc.setImplementationName(ParallelFlowController.class.getName());
+    fc.getMetaData().setName("Parallel Flow Controller");
+    FlowControllerDeclaration fcd = UIMAFramework.getResourceSpecifierFactory().createFlowControllerDeclaration();
+    fcd.setKey("fc");
+    fcd.setSpecifier(fc);
+    agg.setFlowControllerDeclaration(fcd);
+
+    Map<String, Object> params = new HashMap<>();
+    params.put(AnalysisEngine.PARAM_NUM_PARALLEL_STEP_THREADS, nbrThreads);
+    return UIMAFramework.produceAnalysisEngine(agg, params);
+  }
+
+  private CAS newCas(AnalysisEngine ae) throws Exception {
+    CAS cas = ae.newCAS();
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < NBR_SENTENCES; i++) {
+      sb.append("A sentence. ");
+    }
+    cas.setDocumentText(sb.toString());
+    Type sentenceType = cas.getTypeSystem().getType("test.Sentence");
+    for (int i = 0; i < NBR_SENTENCES; i++) {
+      cas.addFsToIndexes(cas.createAnnotation(sentenceType, i * 12, i * 12 + 11));
+    }
+    return cas;
+  }
+
+  private void checkOutput(CAS cas, String key) {
+    Type sentenceType = cas.getTypeSystem().getType("test.Sentence");
+    Type outType = cas.getTypeSystem().getType("test." + key);
+    Feature sentenceFeat = outType.getFeatureByBaseName("sentence");
+    List<Annotation> sentences = cas.<Annotation>select(sentenceType).asList();
+    List<Annotation> outs = cas.<Annotation>select(outType).asList();
+    assertEquals(NBR_SENTENCES, sentences.size());
+    assertEquals(NBR_SENTENCES, outs.size());
+    for (int i = 0; i < NBR_SENTENCES; i++) {
+      // refers to the sentence in the CAS, not to a copy
+      assertSame(sentences.get(i), outs.get(i).getFeatureValue(sentenceFeat));
+      assertEquals(sentences.get(i).getBegin(), outs.get(i).getBegin());
+    }
+  }
+
+  public void testConcurrent() throws Exception {
+    AnalysisEngine ae = aggregate(3, "A", "B", "C");
+    for (int repeat = 0; repeat < 2; repeat++) {
+      CAS cas = newCas(ae);
+      ae.process(cas);
+      assertEquals(3, maxRunning.get());
+      for (String key : new String[] {"A", "B", "C"}) {
+        checkOutput(cas, key);
+      }
+      assertEquals(NBR_SENTENCES * 4 + 1, cas.getAnnotationIndex().size());
+      cas.release();
+    }
+    ae.destroy();
+  }
+
+  public void testOverlappingOutputsRunSequentially() throws Exception {
+    // test.Out is a supertype of test.A
+    AnalysisEngine ae = aggregate(3, "A", "Out");
+    CAS cas = newCas(ae);
+    ae.process(cas);
+    assertEquals(1, maxRunning.get());
+    checkOutput(cas, "A");
+    // the second one saw the output of the first
+    assertEquals(NBR_SENTENCES * 3 + 1, cas.getAnnotationIndex().size());
+    ae.destroy();
+  }
+
+  public void testNoOutputsRunSequentially() throws Exception {
+    // declares no outputs, in a different view than the others
+    AnalysisEngine ae = aggregate(3, "A", "NoOutputs", "B");
+    CAS cas = newCas(ae);
+    ae.process(cas);
+    assertEquals(1, maxRunning.get());
+    checkOutput(cas, "A");
+    checkOutput(cas, "B");
+    ae.destroy();
+  }
+
+  public void testNotEnabled() throws Exception {
+    AnalysisEngine ae = aggregate(1, "A", "B", "C");
+    CAS cas = newCas(ae);
+    ae.process(cas);
+    assertEquals(1, maxRunning.get());
+    checkOutput(cas, "C");
+    ae.destroy();
+  }
+
+  public void testFailure() throws Exception {
+    AnalysisEngine ae = aggregate(3, "A", "Fail", "B");
+    CAS cas = newCas(ae);
+    try {
+      ae.process(cas);
+      fail();
+    } catch (AnalysisEngineProcessException e) {
+      Throwable t = e;
+      while (t.getCause() != null && !(t instanceof IllegalStateException)) {
+        t = t.getCause();
+      }
+      assertEquals("Fail", t.getMessage());
+    }
+    assertEquals(3, maxRunning.get());
+    // the result of the delegate before the failing one was merged
+    checkOutput(cas, "A");
+    ae.destroy();
+  }
+}
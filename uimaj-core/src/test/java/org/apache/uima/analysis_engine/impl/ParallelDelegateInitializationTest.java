@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.analysis_engine.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.UimaContext;
+import org.apache.uima.UimaContextAdmin;
+import org.apache.uima.analysis_component.JCasAnnotator_ImplBase;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.analysis_engine.metadata.FixedFlow;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.ResourceInitializationException;
+
+import junit.framework.TestCase;
+
+/**
+ * Aggregates initializing their delegates in parallel
+ */
+public class ParallelDelegateInitializationTest extends TestCase {
+
+  private static final int NBR_DELEGATES = 8;
+
+  static final AtomicInteger running = new AtomicInteger();
+  static final AtomicInteger maxRunning = new AtomicInteger();
+  static final Set<String> threadNames = Collections.synchronizedSet(new HashSet<>());
+
+  /**
+   * Takes some time to initialize, and fails if its key starts with "fail"
+   */
+  public static class SlowInitAnnotator extends JCasAnnotator_ImplBase {
+    @Override
+    public void initialize(UimaContext aContext) throws ResourceInitializationException {
+      super.initialize(aContext);
+      int r = running.incrementAndGet();
+      maxRunning.accumulateAndGet(r, Math::max);
+      threadNames.add(Thread.currentThread().getName());
+      try {
+        Thread.sleep(200);
+      } catch (InterruptedException e) {
+        throw new ResourceInitializationException(e);
+      } finally {
+        running.decrementAndGet();
+      }
+      String name = ((UimaContextAdmin) aContext).getQualifiedContextName();
+      if (name.startsWith("/fail")) {
+        throw new ResourceInitializationException(new IllegalStateException(name));
+      }
+    }
+
+    @Override
+    public void process(JCas aJCas) {
+      aJCas.setDocumentLanguage(aJCas.getDocumentLanguage() + "x");
+    }
+  }
+
+  protected void setUp() throws Exception {
+    running.set(0);
+    maxRunning.set(0);
+    threadNames.clear();
+  }
+
+  private AnalysisEngineDescription aggregate(String... keys) {
+    AnalysisEngineDescription agg = UIMAFramework.getResourceSpecifierFactory().createAnalysisEngineDescription();
+    agg.setPrimitive(false);
+    agg.getMetaData().setName("aggregate");
+    for (String key : keys) {
+      AnalysisEngineDescription desc = UIMAFramework.getResourceSpecifierFactory().createAnalysisEngineDescription();
+      desc.setPrimitive(true);
+      desc.setAnnotatorImplementationName(SlowInitAnnotator.class.getName());
+      desc.getMetaData().setName(key);
+      agg.getDelegateAnalysisEngineSpecifiersWithImports().put(key, desc);
+    }
+    FixedFlow flow = UIMAFramework.getResourceSpecifierFactory().createFixedFlow();
+    flow.setFixedFlow(keys);
+    agg.getAnalysisEngineMetaData().setFlowConstraints(flow);
+    return agg;
+  }
+
+  private String[] keys(String prefix) {
+    String[] keys = new String[NBR_DELEGATES];
+    for (int i = 0; i < NBR_DELEGATES; i++) {
+      keys[i] = prefix + i;
+    }
+    return keys;
+  }
+
+  public void testSequential() throws Exception {
+    AnalysisEngine ae = UIMAFramework.produceAnalysisEngine(aggregate(keys("d")));
+    assertEquals(1, maxRunning.get());
+    assertEquals(Collections.singleton(Thread.currentThread().getName()), threadNames);
+    ae.destroy();
+  }
+
+  public void testParallel() throws Exception {
+    Map<String, Object> params = new HashMap<>();
+    params.put(AnalysisEngine.PARAM_NUM_PARALLEL_DELEGATE_INITIALIZATIONS, 4);
+    long start = System.nanoTime();
+    AnalysisEngine ae = UIMAFramework.produceAnalysisEngine(aggregate(keys("d")), params);
+    long millis = (System.nanoTime() - start) / 1000000;
+    assertTrue(maxRunning.get() > 1);
+    assertTrue(maxRunning.get() <= 4);
+    assertTrue(millis < NBR_DELEGATES * 200);
+    assertFalse(threadNames.contains(Thread.currentThread().getName()));
+
+    // delegates in descriptor order, and working
+    List<String> expected = new ArrayList<>();
+    for (String k : keys("d")) {
+      expected.add(k);
+    }
+    List<String> actual = new ArrayList<>(
+        ((AggregateAnalysisEngine_impl) ae)._getASB().getComponentAnalysisEngines().keySet());
+    assertEquals(expected, actual);
+    CAS cas = ae.newCAS();
+    cas.setDocumentLanguage("");
+    ae.process(cas);
+    assertEquals("xxxxxxxx", cas.getDocumentLanguage());
+    ae.destroy();
+  }
+
+  public void testParallelErrors() throws Exception {
+    Map<String, Object> params = new HashMap<>();
+    params.put(AnalysisEngine.PARAM_NUM_PARALLEL_DELEGATE_INITIALIZATIONS, "4");
+    String[] keys = keys("d");
+    keys[3] = "fail3";
+    keys[6] = "fail6";
+    try {
+      UIMAFramework.produceAnalysisEngine(aggregate(keys), params);
+      fail();
+    } catch (ResourceInitializationException e) {
+      // the first failing delegate in descriptor order is reported
+      Throwable t = e;
+      while (t.getCause() != null && !(t instanceof IllegalStateException)) {
+        t = t.getCause();
+      }
+      assertTrue(t instanceof IllegalStateException);
+      assertEquals("/fail3/", t.getMessage());
+    }
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.analysis_engine.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.analysis_component.JCasAnnotator_ImplBase;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.util.ProcessTrace;
+
+import junit.framework.TestCase;
+
+/**
+ * Non blocking processing with AnalysisEngine.processAsync
+ */
+public class ProcessAsyncTest extends TestCase {
+
+  static final AtomicInteger running = new AtomicInteger();
+  static final AtomicInteger maxRunning = new AtomicInteger();
+
+  /**
+   * Takes some time, and fails for the language "fail"
+   */
+  public static class SlowAnnotator extends JCasAnnotator_ImplBase {
+    @Override
+    public void process(JCas aJCas) throws AnalysisEngineProcessException {
+      int r = running.incrementAndGet();
+      maxRunning.accumulateAndGet(r, Math::max);
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        throw new AnalysisEngineProcessException(e);
+      } finally {
+        running.decrementAndGet();
+      }
+      if ("fail".equals(aJCas.getDocumentLanguage())) {
+        throw new AnalysisEngineProcessException(new IllegalStateException("fail"));
+      }
+      aJCas.setDocumentLanguage("done");
+    }
+  }
+
+  /**
+   * Runs each task on a new thread, and counts the tasks running at the same time
+   */
+  static class CountingExecutor implements Executor {
+    final AtomicInteger active = new AtomicInteger();
+    final AtomicInteger maxActive = new AtomicInteger();
+
+    @Override
+    public void execute(Runnable command) {
+      new Thread(() -> {
+        maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+        try {
+          command.run();
+        } finally {
+          active.decrementAndGet();
+        }
+      }).start();
+    }
+  }
+
+  protected void setUp() throws Exception {
+    running.set(0);
+    maxRunning.set(0);
+  }
+
+  private static AnalysisEngineDescription description() {
+    AnalysisEngineDescription desc = UIMAFramework.getResourceSpecifierFactory().createAnalysisEngineDescription();
+    desc.setPrimitive(true);
+    desc.setAnnotatorImplementationName(SlowAnnotator.class.getName());
+    desc.getMetaData().setName("slow");
+    return desc;
+  }
+
+  public void testPooled() throws Exception {
+    AnalysisEngine ae = UIMAFramework.produceAnalysisEngine(description(), 2, 0);
+    assertTrue(ae instanceof MultiprocessingAnalysisEngine_impl);
+    CountingExecutor executor = new CountingExecutor();
+    List<CAS> cases = new ArrayList<>();
+    List<CompletableFuture<ProcessTrace>> futures = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      CAS cas = ae.newCAS();
+      cases.add(cas);
+      futures.add(ae.processAsync(cas, executor));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()])).get();
+    for (int i = 0; i < 10; i++) {
+      assertNotNull(futures.get(i).get());
+      assertEquals("done", cases.get(i).getDocumentLanguage());
+    }
+    assertEquals(2, maxRunning.get());
+    // requests waiting for an instance did not take a thread: at most one per instance, 
+    // plus the ones ending while handing their instance over
+    assertTrue(executor.maxActive.get() <= 4);
+
+    // mixed with blocking calls
+    CAS cas = ae.newCAS();
+    CompletableFuture<ProcessTrace> f = ae.processAsync(cases.get(0), executor);
+    ae.process(cas);
+    f.get();
+    ae.destroy();
+  }
+
+  public void testFailure() throws Exception {
+    AnalysisEngine ae = UIMAFramework.produceAnalysisEngine(description(), 1, 0);
+    CAS cas = ae.newCAS();
+    cas.setDocumentLanguage("fail");
+    try {
+      ae.processAsync(cas).get();
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof AnalysisEngineProcessException);
+    }
+    // the instance was returned to the pool
+    cas.reset();
+    ae.processAsync(cas).get();
+    assertEquals("done", cas.getDocumentLanguage());
+    ae.destroy();
+  }
+
+  public void testNotPooled() throws Exception {
+    AnalysisEngine ae = UIMAFramework.produceAnalysisEngine(description());
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      CAS cas = ae.newCAS();
+      ae.processAsync(cas, executor).get();
+      assertEquals("done", cas.getDocumentLanguage());
+
+      cas.reset();
+      List<CAS> outputs = new ArrayList<>();
+      ae.processAndOutputNewCASesAsync(cas, outputs::add, executor).get();
+      assertEquals(0, outputs.size());
+      assertEquals("done", cas.getDocumentLanguage());
+    } finally {
+      executor.shutdown();
+    }
+    ae.destroy();
+  }
+
+  public void testOutputNewCASesPooled() throws Exception {
+    AnalysisEngine ae = UIMAFramework.produceAnalysisEngine(description(), 2, 0);
+    CountingExecutor executor = new CountingExecutor();
+    CAS cas = ae.newCAS();
+    cas.setDocumentLanguage("fail");
+    try {
+      ae.processAndOutputNewCASesAsync(cas, c -> fail(), executor).get();
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof AnalysisEngineProcessException);
+    }
+    cas.reset();
+    ae.processAndOutputNewCASesAsync(cas, c -> fail(), executor).get();
+    assertEquals("done", cas.getDocumentLanguage());
+    ae.destroy();
+  }
+}
@@ -106,6 +106,42 @@ public class CasPoolTest extends TestCase {
   public void testMultiThread() throws Exception {
     final Properties p = new Properties();
     p.put(UIMAFramework.CAS_INITIAL_HEAP_SIZE,  200);   
+    multiThread(p);
+  }
+  
+  public void testMultiThreadLockFree() throws Exception {
+    final Properties p = new Properties();
+    p.put(UIMAFramework.CAS_INITIAL_HEAP_SIZE,  200);
+    p.put(UIMAFramework.CAS_POOL_LOCK_FREE, "true");
+    multiThread(p);
+  }
+  
+  public void testMultiThreadLockFreeAffinity() throws Exception {
+    final Properties p = new Properties();
+    p.put(UIMAFramework.CAS_INITIAL_HEAP_SIZE,  200);
+    p.put(UIMAFramework.CAS_POOL_LOCK_FREE, "true");
+    p.put(UIMAFramework.CAS_POOL_THREAD_AFFINITY, "true");
+    multiThread(p);
+  }
+  
+  public void testLockFreeRelease() throws Exception {
+    final Properties p = new Properties();
+    p.put(UIMAFramework.CAS_POOL_LOCK_FREE, "true");
+    p.put(UIMAFramework.CAS_POOL_THREAD_AFFINITY, "true");
+    casManager.defineCasPool("lockFree", 2, p);
+    CAS c1 = casManager.getCas("lockFree");
+    CAS c2 = casManager.getCas("lockFree");
+    assertTrue(c1 != c2);
+    casManager.releaseCas(c1);
+    casManager.releaseCas(c1);  // double release is ignored
+    assertSame(c1, casManager.getCas("lockFree"));  // thread affinity
+    casManager.releaseCas(c2.createView("v2"));
+    casManager.releaseCas(c1);
+    assertSame(c1, casManager.getCas("lockFree"));
+    assertSame(c2, casManager.getCas("lockFree"));
+  }
+  
+  private void multiThread(final Properties p) throws Exception {
     int numberOfThreads = Math.min(50, Misc.numberOfCores * 10);    
     final int casPoolSize = numberOfThreads / 3 ;
     System.out.format("test CasPools with %d threads and %d CASes",
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.resource.metadata.TypeDescription;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+
+import junit.framework.TestCase;
+
+/**
+ * Type system mappers are cached, and their precompiled feature plans are used for
+ * filtered compressed (de)serialization
+ */
+public class CasTypeSystemMapperCacheTest extends TestCase {
+
+  private static final String TOKEN = "test.Token";
+
+  private CAS cas1;  // a, b, c
+  private CAS cas2;  // c, a, x
+  private TypeSystemImpl ts1;
+  private TypeSystemImpl ts2;
+
+  protected void setUp() throws Exception {
+    TypeSystemDescription tsd1 = UIMAFramework.getResourceSpecifierFactory().createTypeSystemDescription();
+    TypeDescription token1 = tsd1.addType(TOKEN, "", CAS.TYPE_NAME_ANNOTATION);
+    token1.addFeature("a", "", CAS.TYPE_NAME_INTEGER);
+    token1.addFeature("b", "", CAS.TYPE_NAME_INTEGER);
+    token1.addFeature("c", "", CAS.TYPE_NAME_STRING);
+    tsd1.addType("test.Only1", "", CAS.TYPE_NAME_ANNOTATION);
+    
+    TypeSystemDescription tsd2 = UIMAFramework.getResourceSpecifierFactory().createTypeSystemDescription();
+    TypeDescription token2 = tsd2.addType(TOKEN, "", CAS.TYPE_NAME_ANNOTATION);
+    token2.addFeature("c", "", CAS.TYPE_NAME_STRING);
+    token2.addFeature("a", "", CAS.TYPE_NAME_INTEGER);
+    token2.addFeature("x", "", CAS.TYPE_NAME_INTEGER);
+    
+    cas1 = CasCreationUtils.createCas(tsd1, null, null);
+    cas2 = CasCreationUtils.createCas(tsd2, null, null);
+    ts1 = (TypeSystemImpl) cas1.getTypeSystem();
+    ts2 = (TypeSystemImpl) cas2.getTypeSystem();
+  }
+
+  public void testCache() {
+    assertNull(ts1.getTypeSystemMapper(ts1));
+    assertNull(ts1.getTypeSystemMapper(null));
+    CasTypeSystemMapper m = ts1.getTypeSystemMapper(ts2);
+    assertNotNull(m);
+    assertSame(m, ts1.getTypeSystemMapper(ts2));
+    assertNotNull(ts2.getTypeSystemMapper(ts1));
+    assertSame(m, ts1.getTypeSystemMapper(ts2));
+    assertSame(m, ts1.getTypeSystemMapperInner(ts2));
+    assertEquals(ts1.hashCode(), ts1.hashCode());
+
+    TypeImpl tgtToken = ts2.getType(TOKEN);
+    FeatureImpl[] srcFeats = m.getSrcFeatures(tgtToken);
+    int[] srcOffsets = m.getSrcFeatureOffsets(tgtToken);
+    FeatureImpl[] tgtFeats = tgtToken.getFeatureImpls();
+    assertEquals(tgtFeats.length, srcFeats.length);
+    assertEquals(tgtFeats.length, srcOffsets.length);
+    for (int i = 0; i < tgtFeats.length; i++) {
+      FeatureImpl srcFeat = ts1.getType(TOKEN).getFeatureByBaseName(tgtFeats[i].getShortName());
+      assertSame(srcFeat, srcFeats[i]);
+      assertEquals((srcFeat == null) ? -1 : srcFeat.getOffset(), srcOffsets[i]);
+    }
+    assertEquals(-1, srcOffsets[tgtToken.getFeatureByBaseName("x").getOffset()]);
+  }
+
+  public void testDeserializeFromOtherTypeSystem() throws Exception {
+    Type token2 = cas2.getTypeSystem().getType(TOKEN);
+    cas2.setDocumentText("one two");
+    for (int i = 0; i < 2; i++) {
+      AnnotationFS a = cas2.createAnnotation(token2, i * 4, i * 4 + 3);
+      a.setStringValue(token2.getFeatureByBaseName("c"), "c" + i);
+      a.setIntValue(token2.getFeatureByBaseName("a"), 10 + i);
+      a.setIntValue(token2.getFeatureByBaseName("x"), 20 + i);
+      cas2.addFsToIndexes(a);
+    }
+    for (int repeat = 0; repeat < 3; repeat++) {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      Serialization.serializeWithCompression(cas2, baos, ts2);
+      cas1.reset();
+      Serialization.deserializeCAS(cas1, new ByteArrayInputStream(baos.toByteArray()), ts2, null);
+      
+      Type token1 = cas1.getTypeSystem().getType(TOKEN);
+      Feature a = token1.getFeatureByBaseName("a");
+      Feature b = token1.getFeatureByBaseName("b");
+      Feature c = token1.getFeatureByBaseName("c");
+      int i = 0;
+      for (AnnotationFS fs : cas1.getAnnotationIndex(token1)) {
+        assertEquals(i * 4, fs.getBegin());
+        assertEquals("c" + i, fs.getStringValue(c));
+        assertEquals(10 + i, fs.getIntValue(a));
+        assertEquals(0, fs.getIntValue(b));
+        i++;
+      }
+      assertEquals(2, i);
+      assertEquals("one two", cas1.getDocumentText());
+    }
+    
+    // and back, filtered to a type system with a subset of the features
+    TypeSystemDescription tsd3 = UIMAFramework.getResourceSpecifierFactory().createTypeSystemDescription();
+    TypeDescription token3 = tsd3.addType(TOKEN, "", CAS.TYPE_NAME_ANNOTATION);
+    token3.addFeature("c", "", CAS.TYPE_NAME_STRING);
+    token3.addFeature("a", "", CAS.TYPE_NAME_INTEGER);
+    CAS cas3 = CasCreationUtils.createCas(tsd3, null, null);
+    Type token3Type = cas3.getTypeSystem().getType(TOKEN);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    Serialization.serializeWithCompression(cas1, baos, cas3.getTypeSystem());
+    Serialization.deserializeCAS(cas3, new ByteArrayInputStream(baos.toByteArray()), null, null);
+    Annotation last = cas3.<Annotation>select(token3Type).get(1);
+    assertEquals("c1", last.getStringValue(token3Type.getFeatureByBaseName("c")));
+    assertEquals(11, last.getIntValue(token3Type.getFeatureByBaseName("a")));
+  }
+}
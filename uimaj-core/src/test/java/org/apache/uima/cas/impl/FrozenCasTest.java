@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.CASRuntimeException;
+import org.apache.uima.cas.FSIterator;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.IntArrayFS;
+import org.apache.uima.cas.StringArrayFS;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.internal.util.MultiThreadUtils;
+import org.apache.uima.jcas.cas.FSArray;
+import org.apache.uima.jcas.cas.IntegerArray;
+import org.apache.uima.jcas.cas.TOP;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.resource.metadata.TypeDescription;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+
+import junit.framework.TestCase;
+
+public class FrozenCasTest extends TestCase {
+
+  private static final String TOKEN = "test.Token";
+  private static final int NBR_TOKENS = 5000;
+
+  private CAS cas;
+  private Type tokenType;
+  private Feature lengthFeat;
+
+  protected void setUp() throws Exception {
+    TypeSystemDescription tsd = UIMAFramework.getResourceSpecifierFactory().createTypeSystemDescription();
+    TypeDescription token = tsd.addType(TOKEN, "", CAS.TYPE_NAME_ANNOTATION);
+    token.addFeature("length", "", CAS.TYPE_NAME_INTEGER);
+    cas = CasCreationUtils.createCas(tsd, null, null);
+    tokenType = cas.getTypeSystem().getType(TOKEN);
+    lengthFeat = tokenType.getFeatureByBaseName("length");
+    fill();
+  }
+
+  private void fill() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < NBR_TOKENS; i++) {
+      sb.append("word ");
+    }
+    cas.setDocumentText(sb.toString());
+    // added out of order, so the sorted index has free space to compact
+    for (int i = NBR_TOKENS - 1; i >= 0; i--) {
+      AnnotationFS a = cas.createAnnotation(tokenType, i * 5, i * 5 + 4);
+      a.setIntValue(lengthFeat, 4);
+      cas.addFsToIndexes(a);
+    }
+  }
+
+  public void testFreeze() throws Exception {
+    // an iterator from before the freeze keeps working
+    FSIterator<AnnotationFS> before = cas.getAnnotationIndex(tokenType).iterator();
+    assertFalse(cas.isFrozen());
+    cas.freeze();
+    assertTrue(cas.isFrozen());
+    assertTrue(((CASImpl) cas).containsCasState(CasState.READ_ONLY));
+    cas.freeze();  // no-op
+    assertEquals(0, before.get().getBegin());
+
+    final List<Annotation> expected = new ArrayList<>(cas.<Annotation>select(tokenType).asList());
+    assertEquals(NBR_TOKENS, expected.size());
+
+    MultiThreadUtils.Run2isb run2isb = (threadNumber, repeatNumber, sb) -> {
+      // iterator, select, backwards select, and a moveTo
+      int i = 0;
+      for (AnnotationFS a : cas.getAnnotationIndex(tokenType)) {
+        assertTrue(expected.get(i++) == a);
+      }
+      assertEquals(NBR_TOKENS, i);
+      i = 0;
+      for (Annotation a : cas.<Annotation>select(tokenType)) {
+        assertTrue(expected.get(i++) == a);
+        assertEquals(4, a.getIntValue(lengthFeat));
+      }
+      i = NBR_TOKENS;
+      for (Annotation a : cas.<Annotation>select(tokenType).backwards()) {
+        assertTrue(expected.get(--i) == a);
+      }
+      Annotation middle = expected.get(NBR_TOKENS / 2);
+      assertEquals(NBR_TOKENS / 2, cas.<Annotation>select(tokenType).following(middle).asList().size() + 1);
+      assertEquals(0, cas.select(Annotation.class).coveredBy(middle).asList().size());
+      // the tokens and the document annotation
+      assertEquals(NBR_TOKENS + 1, cas.getIndexRepository().getAllIndexedFS(cas.getTypeSystem().getTopType()).size());
+    };
+    MultiThreadUtils.tstMultiThread("FrozenCas", Math.max(4, Runtime.getRuntime().availableProcessors()), 10, run2isb, null);
+  }
+
+  public void testUpdatesFail() {
+    AnnotationFS first = cas.getAnnotationIndex(tokenType).iterator().get();
+    cas.freeze();
+
+    expectFrozen(() -> cas.createAnnotation(tokenType, 0, 1));
+    expectFrozen(() -> first.setIntValue(lengthFeat, 5));
+    expectFrozen(() -> cas.createFS(tokenType));
+    expectFrozen(() -> cas.addFsToIndexes(first));
+    expectFrozen(() -> cas.removeFsFromIndexes(first));
+    expectFrozen(() -> cas.getIndexRepository().removeAllIncludingSubtypes(tokenType));
+    assertEquals(4, first.getIntValue(lengthFeat));
+    assertEquals(NBR_TOKENS, cas.getAnnotationIndex(tokenType).size());
+  }
+
+  public void testArrayUpdatesFail() {
+    IntArrayFS ints = cas.createIntArrayFS(3);
+    ints.copyFromArray(new int[] {1, 2, 3}, 0, 0, 3);
+    IntArrayFS otherInts = cas.createIntArrayFS(3);
+    StringArrayFS strings = cas.createStringArrayFS(2);
+    strings.set(0, "a");
+    FSArray<AnnotationFS> fss = new FSArray<>(((CASImpl) cas).getJCasImpl(), 1);
+    AnnotationFS first = cas.getAnnotationIndex(tokenType).iterator().get();
+    fss.set(0, first);
+    cas.freeze();
+
+    // the frozen check comes before the write, so the values are unchanged
+    expectFrozen(() -> ints.set(0, 9));
+    expectFrozen(() -> ints.copyFromArray(new int[] {7, 8, 9}, 0, 0, 3));
+    expectFrozen(() -> ints.copyFromArray(new String[] {"7"}, 0, 0, 1));
+    expectFrozen(() -> ((IntegerArray) ints).copyValuesFrom((IntegerArray) otherInts));
+    assertTrue(Arrays.equals(new int[] {1, 2, 3}, ints.toArray()));
+
+    expectFrozen(() -> strings.set(0, "b"));
+    expectFrozen(() -> strings.copyFromArray(new String[] {"c", "d"}, 0, 0, 2));
+    assertEquals("a", strings.get(0));
+    assertNull(strings.get(1));
+
+    expectFrozen(() -> fss.set(0, null));
+    assertSame(first, fss.get(0));
+  }
+
+  public void testResetUnfreezes() {
+    cas.freeze();
+    cas.reset();
+    assertFalse(cas.isFrozen());
+    assertFalse(((CASImpl) cas).containsCasState(CasState.READ_ONLY));
+    assertEquals(0, cas.getAnnotationIndex(tokenType).size());
+
+    fill();
+    assertEquals(NBR_TOKENS, cas.<TOP>select(tokenType).count());
+    cas.freeze();
+    assertEquals(NBR_TOKENS, cas.<TOP>select(tokenType).count());
+  }
+
+  private static void expectFrozen(Runnable r) {
+    try {
+      r.run();
+      fail();
+    } catch (CASRuntimeException e) {
+      assertEquals(CASRuntimeException.CAS_FROZEN, e.getMessageKey());
+    }
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.jcas.cas.TOP;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.resource.metadata.TypeDescription;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCopier;
+import org.apache.uima.util.CasCreationUtils;
+import org.apache.uima.util.TypeSystemUtil;
+import org.apache.uima.util.XMLInputSource;
+
+import junit.framework.TestCase;
+
+/**
+ * Feature Structures of columnar types keep their primitive values in CAS level columns
+ */
+public class FsColumnsTest extends TestCase {
+
+  private static final String TOKEN = "test.Token";
+  private static final String SUB_TOKEN = "test.SubToken";
+
+  private CAS cas;
+  private Type tokenType;
+  private Feature fInt, fFloat, fBool, fByte, fShort, fLong, fDouble, fString;
+
+  protected void setUp() throws Exception {
+    TypeSystemDescription tsd = UIMAFramework.getResourceSpecifierFactory().createTypeSystemDescription();
+    TypeDescription token = tsd.addType(TOKEN, "", CAS.TYPE_NAME_ANNOTATION);
+    token.setColumnar(Boolean.TRUE);
+    token.addFeature("i", "", CAS.TYPE_NAME_INTEGER);
+    token.addFeature("f", "", CAS.TYPE_NAME_FLOAT);
+    token.addFeature("b", "", CAS.TYPE_NAME_BOOLEAN);
+    token.addFeature("by", "", CAS.TYPE_NAME_BYTE);
+    token.addFeature("sh", "", CAS.TYPE_NAME_SHORT);
+    token.addFeature("l", "", CAS.TYPE_NAME_LONG);
+    token.addFeature("d", "", CAS.TYPE_NAME_DOUBLE);
+    token.addFeature("s", "", CAS.TYPE_NAME_STRING);
+    tsd.addType(SUB_TOKEN, "", TOKEN);
+    cas = CasCreationUtils.createCas(tsd, null, null);
+    tokenType = cas.getTypeSystem().getType(TOKEN);
+    fInt = tokenType.getFeatureByBaseName("i");
+    fFloat = tokenType.getFeatureByBaseName("f");
+    fBool = tokenType.getFeatureByBaseName("b");
+    fByte = tokenType.getFeatureByBaseName("by");
+    fShort = tokenType.getFeatureByBaseName("sh");
+    fLong = tokenType.getFeatureByBaseName("l");
+    fDouble = tokenType.getFeatureByBaseName("d");
+    fString = tokenType.getFeatureByBaseName("s");
+  }
+
+  public void testColumnarFlag() {
+    assertTrue(((TypeImpl) tokenType).isColumnar());
+    assertFalse(((TypeImpl) cas.getTypeSystem().getType(SUB_TOKEN)).isColumnar());
+    assertFalse(((TypeImpl) cas.getAnnotationType()).isColumnar());
+  }
+
+  public void testValues() {
+    cas.setDocumentText("some text for the tokens of this test");
+    int n = 1000;  // more than the initial capacity of the columns
+    for (int i = 0; i < n; i++) {
+      AnnotationFS a = cas.createAnnotation(tokenType, i, i + 1);
+      set(a, i);
+      cas.addFsToIndexes(a);
+    }
+    int i = 0;
+    for (AnnotationFS a : cas.getAnnotationIndex(tokenType)) {
+      assertEquals(i, a.getBegin());
+      assertEquals(i + 1, ((Annotation) a).getEnd());
+      check(a, i);
+      i++;
+    }
+    assertEquals(n, i);
+
+    // update in place
+    Annotation a = (Annotation) cas.getAnnotationIndex(tokenType).iterator().next();
+    a.setBegin(-1);
+    a.setLongValue(fLong, Long.MIN_VALUE);
+    assertEquals(-1, a.getBegin());
+    assertEquals(1, a.getEnd());
+    assertEquals(Long.MIN_VALUE, a.getLongValue(fLong));
+    assertEquals(0, a.getIntValue(fInt));
+  }
+
+  public void testReset() {
+    for (int i = 0; i < 100; i++) {
+      set(cas.createAnnotation(tokenType, i, i), i + 1);
+    }
+    cas.reset();
+    for (int i = 0; i < 100; i++) {
+      AnnotationFS a = cas.createAnnotation(tokenType, 0, 0);
+      assertEquals(0, a.getIntValue(fInt));
+      assertEquals(0L, a.getLongValue(fLong));
+      assertEquals(0.0, a.getDoubleValue(fDouble));
+      assertFalse(a.getBooleanValue(fBool));
+    }
+  }
+
+  public void testCopy() throws Exception {
+    cas.setDocumentText("abc");
+    AnnotationFS a = cas.createAnnotation(tokenType, 1, 2);
+    set(a, 7);
+    cas.addFsToIndexes(a);
+
+    // clone, within the same CAS
+    FeatureStructure c = ((TOP) a).clone();
+    check(c, 7);
+    assertEquals(1, ((AnnotationFS) c).getBegin());
+
+    // to another CAS, with a non columnar type system
+    TypeSystemDescription tsd = TypeSystemUtil.typeSystem2TypeSystemDescription(cas.getTypeSystem());
+    tsd.getType(TOKEN).setColumnar(null);
+    CAS other = CasCreationUtils.createCas(tsd, null, null);
+    assertFalse(((TypeImpl) other.getTypeSystem().getType(TOKEN)).isColumnar());
+    CasCopier.copyCas(cas, other, true);
+    AnnotationFS copy = other.getAnnotationIndex(other.getTypeSystem().getType(TOKEN)).iterator().next();
+    assertEquals(2, copy.getEnd());
+    check(copy, 7);
+  }
+
+  public void testDescriptor() throws Exception {
+    TypeSystemDescription tsd = TypeSystemUtil.typeSystem2TypeSystemDescription(cas.getTypeSystem());
+    assertEquals(Boolean.TRUE, tsd.getType(TOKEN).getColumnar());
+    assertNull(tsd.getType(SUB_TOKEN).getColumnar());
+
+    StringWriter sw = new StringWriter();
+    tsd.toXML(sw);
+    assertTrue(sw.toString().contains("<columnar>true</columnar>"));
+    TypeSystemDescription parsed = UIMAFramework.getXMLParser().parseTypeSystemDescription(new XMLInputSource(
+        new ByteArrayInputStream(sw.toString().getBytes(StandardCharsets.UTF_8)), null));
+    assertEquals(Boolean.TRUE, parsed.getType(TOKEN).getColumnar());
+    assertNull(parsed.getType(SUB_TOKEN).getColumnar());
+  }
+
+  private void set(FeatureStructure fs, int i) {
+    fs.setIntValue(fInt, i);
+    fs.setFloatValue(fFloat, i + 0.5f);
+    fs.setBooleanValue(fBool, (i & 1) == 1);
+    fs.setByteValue(fByte, (byte) i);
+    fs.setShortValue(fShort, (short) i);
+    fs.setLongValue(fLong, ((long) i) << 40 | i);
+    fs.setDoubleValue(fDouble, i * 1.25);
+    fs.setStringValue(fString, Integer.toString(i));
+  }
+
+  private void check(FeatureStructure fs, int i) {
+    assertEquals(i, fs.getIntValue(fInt));
+    assertEquals(i + 0.5f, fs.getFloatValue(fFloat));
+    assertEquals((i & 1) == 1, fs.getBooleanValue(fBool));
+    assertEquals((byte) i, fs.getByteValue(fByte));
+    assertEquals((short) i, fs.getShortValue(fShort));
+    assertEquals(((long) i) << 40 | i, fs.getLongValue(fLong));
+    assertEquals(i * 1.25, fs.getDoubleValue(fDouble));
+    assertEquals(Integer.toString(i), fs.getStringValue(fString));
+  }
+}
@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.uima.ResourceSpecifierFactory;
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.CASRuntimeException;
+import org.apache.uima.cas.FSIndex;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.jcas.cas.TOP;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.metadata.FsIndexDescription;
+import org.apache.uima.resource.metadata.FsIndexKeyDescription;
+import org.apache.uima.resource.metadata.TypeDescription;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+
+import junit.framework.TestCase;
+
+/**
+ * Hash indexes and select().withFeatureValue
+ */
+public class HashIndexTest extends TestCase {
+
+  private static final int NBR_TOKENS = 1000;
+  
+  private static final ResourceSpecifierFactory factory = UIMAFramework.getResourceSpecifierFactory(); 
+
+  private CAS cas;
+  private Type tokenType;
+  private Type wordType;
+  private Feature lemmaFeat;
+  private Feature kbIdFeat;
+  private Feature scoreFeat;
+  private Feature headFeat;
+  private Feature lengthFeat;
+
+  protected void setUp() throws Exception {
+    TypeSystemDescription tsd = factory.createTypeSystemDescription();
+    TypeDescription token = tsd.addType("test.Token", "", CAS.TYPE_NAME_ANNOTATION);
+    token.addFeature("lemma", "", CAS.TYPE_NAME_STRING);
+    token.addFeature("kbId", "", CAS.TYPE_NAME_LONG);
+    token.addFeature("score", "", CAS.TYPE_NAME_FLOAT);
+    token.addFeature("head", "", CAS.TYPE_NAME_ANNOTATION);  // not hash indexed
+    token.addFeature("length", "", CAS.TYPE_NAME_INTEGER);  // not hash indexed
+    tsd.addType("test.Word", "", "test.Token");
+    tsd.addType("test.Entity", "", CAS.TYPE_NAME_TOP).addFeature("id", "", CAS.TYPE_NAME_INTEGER);
+    
+    cas = CasCreationUtils.createCas(tsd, null, new FsIndexDescription[] {
+        hashIndex("lemmaIndex", "lemma"),
+        hashIndex("kbIdIndex", "kbId"),
+        hashIndex("scoreIndex", "score"),
+        hashIndex("entityIndex", "id")});
+    tokenType = cas.getTypeSystem().getType("test.Token");
+    wordType = cas.getTypeSystem().getType("test.Word");
+    lemmaFeat = tokenType.getFeatureByBaseName("lemma");
+    kbIdFeat = tokenType.getFeatureByBaseName("kbId");
+    scoreFeat = tokenType.getFeatureByBaseName("score");
+    headFeat = tokenType.getFeatureByBaseName("head");
+    lengthFeat = tokenType.getFeatureByBaseName("length");
+    
+    Annotation head = null;
+    // added in reverse order, so the lookup results need sorting
+    for (int i = NBR_TOKENS - 1; i >= 0; i--) {
+      Annotation a = cas.createFS((i % 3 == 0) ? wordType : tokenType);
+      a.setBegin(i);
+      a.setEnd(i + 1 + (i % 2));
+      a.setStringValue(lemmaFeat, (i % 7 == 0) ? null : "lemma" + (i % 10));
+      a.setLongValue(kbIdFeat, (i % 5) * 0x1_0000_0000L);
+      a.setFloatValue(scoreFeat, (i % 4) / 2.0f);
+      a.setFeatureValue(headFeat, (i % 11 == 0) ? null : head);
+      a.setIntValue(lengthFeat, i % 10);
+      cas.addFsToIndexes(a);
+      if (i % 100 == 0) {
+        head = a;
+      }
+    }
+  }
+  
+  private static FsIndexDescription hashIndex(String label, String feature) {
+    FsIndexDescription index = factory.createFsIndexDescription();
+    index.setLabel(label);
+    index.setTypeName(label.equals("entityIndex") ? "test.Entity" : "test.Token");
+    index.setKind(FsIndexDescription.KIND_HASH);
+    FsIndexKeyDescription key = factory.createFsIndexKeyDescription();
+    key.setFeatureName(feature);
+    index.setKeys(new FsIndexKeyDescription[] {key});
+    return index;
+  }
+
+  public void testLookup() {
+    check(tokenType, lemmaFeat, "lemma3", true);
+    check(tokenType, lemmaFeat, null, true);
+    check(tokenType, lemmaFeat, "none", true);
+    check(tokenType, kbIdFeat, 0x3_0000_0000L, true);
+    check(tokenType, kbIdFeat, 0, true);  // an int for a long
+    check(tokenType, scoreFeat, 1.5f, true);
+    check(wordType, lemmaFeat, "lemma3", true);
+    // no hash index on the feature
+    check(tokenType, lengthFeat, 3, false);
+    Annotation head = cas.<Annotation>select(tokenType).get(100);
+    check(tokenType, headFeat, head, false);
+    check(tokenType, headFeat, null, false);
+    
+    // no hash index for the Annotation type
+    Type annotationType = cas.getAnnotationType();
+    assertNull(((CASImpl) cas).indexRepository.getHashIndexes((TypeImpl) annotationType, (FeatureImpl) lemmaFeat));
+    
+    assertEquals(NBR_TOKENS / 10, cas.select(tokenType).withFeatureValue(lengthFeat, 3).count());
+    assertEquals(cas.select(tokenType).withFeatureValue(lemmaFeat, "lemma5").asList(),
+                 cas.select(tokenType).filter(fs -> "lemma5".equals(((Annotation) fs).getStringValue(lemmaFeat)))
+                   .collect(Collectors.toList()));
+  }
+  
+  public void testSelections() {
+    List<TOP> all = cas.<TOP>select(tokenType).withFeatureValue(lemmaFeat, "lemma3").asList();
+    // unordered, backwards, limit, shifted
+    assertEquals(all.size(), cas.select(tokenType).orderNotNeeded().withFeatureValue(lemmaFeat, "lemma3").count());
+    List<TOP> backwards = cas.<TOP>select(tokenType).withFeatureValue(lemmaFeat, "lemma3").backwards().asList();
+    for (int i = 0; i < all.size(); i++) {
+      assertTrue(all.get(i) == backwards.get(all.size() - 1 - i));
+    }
+    assertEquals(all.subList(0, 5), cas.<TOP>select(tokenType).withFeatureValue(lemmaFeat, "lemma3").limit(5).asList());
+    assertEquals(all.subList(2, 7), cas.<TOP>select(tokenType).withFeatureValue(lemmaFeat, "lemma3").shifted(2).limit(5).asList());
+    assertTrue(all.get(0) == cas.select(tokenType).withFeatureValue(lemmaFeat, "lemma3").get());
+    
+    // bounded, using the filter
+    AnnotationFS bound = cas.createAnnotation(tokenType, 100, 200);
+    List<TOP> covered = cas.<TOP>select(tokenType).coveredBy(bound).withFeatureValue(lemmaFeat, "lemma3").asList();
+    assertEquals(all.stream().filter(fs -> ((Annotation) fs).getBegin() >= 100 && ((Annotation) fs).getEnd() <= 200)
+                    .collect(Collectors.toList()), 
+                 covered);
+    
+    // over a hash index, and over all indexed FSs (no index)
+    FSIndex<TOP> lemmaIndex = cas.getIndexRepository().getIndex("lemmaIndex");
+    assertEquals(all.size(), lemmaIndex.select().withFeatureValue(lemmaFeat, "lemma3").count());
+    
+    // not an annotation type, so over all the indexed FSs
+    Type entityType = cas.getTypeSystem().getType("test.Entity");
+    Feature entityIdFeat = entityType.getFeatureByBaseName("id");
+    for (int i = 0; i < 100; i++) {
+      FeatureStructure e = cas.createFS(entityType);
+      e.setIntValue(entityIdFeat, i % 10);
+      cas.addFsToIndexes(e);
+    }
+    check(entityType, entityIdFeat, 4, true);
+    assertEquals(10, cas.select(entityType).withFeatureValue(entityIdFeat, 4).count());
+  }
+  
+  public void testUpdates() {
+    Annotation a = cas.<Annotation>select(tokenType).withFeatureValue(lemmaFeat, "lemma3").get(0);
+    // changing the key feature updates the index
+    a.setStringValue(lemmaFeat, "new");
+    assertTrue(a == cas.select(tokenType).withFeatureValue(lemmaFeat, "new").single());
+    assertFalse(cas.select(tokenType).withFeatureValue(lemmaFeat, "lemma3").asList().contains(a));
+    a.setLongValue(kbIdFeat, 77);
+    assertTrue(a == cas.select(tokenType).withFeatureValue(kbIdFeat, 77L).single());
+    
+    // adding again is a no-op
+    cas.addFsToIndexes(a);
+    assertEquals(1, cas.select(tokenType).withFeatureValue(lemmaFeat, "new").count());
+    
+    cas.removeFsFromIndexes(a);
+    assertEquals(0, cas.select(tokenType).withFeatureValue(lemmaFeat, "new").count());
+    assertEquals(0, cas.select(tokenType).withFeatureValue(kbIdFeat, 77L).count());
+    
+    cas.getIndexRepository().removeAllIncludingSubtypes(tokenType);
+    assertEquals(0, cas.select(tokenType).withFeatureValue(lemmaFeat, "lemma1").count());
+    assertEquals(0, cas.select(wordType).withFeatureValue(lemmaFeat, null).count());
+    
+    cas.reset();
+    assertEquals(0, cas.select(tokenType).withFeatureValue(kbIdFeat, 0L).count());
+  }
+  
+  public void testErrors() throws Exception {
+    try {
+      cas.select(tokenType).withFeatureValue(lemmaFeat, 3);
+      fail();
+    } catch (CASRuntimeException e) {
+      assertEquals(CASRuntimeException.INAPPROP_RANGE, e.getMessageKey());
+    }
+    try {
+      cas.select(cas.getAnnotationType()).withFeatureValue(lemmaFeat, "a").count();
+      fail();
+    } catch (CASRuntimeException e) {
+      assertEquals(CASRuntimeException.INAPPROP_FEAT, e.getMessageKey());
+    }
+    
+    FsIndexDescription noKey = factory.createFsIndexDescription();
+    noKey.setLabel("noKey");
+    noKey.setTypeName(CAS.TYPE_NAME_ANNOTATION);
+    noKey.setKind(FsIndexDescription.KIND_HASH);
+    try {
+      CasCreationUtils.createCas(factory.createTypeSystemDescription(), null, new FsIndexDescription[] {noKey});
+      fail();
+    } catch (ResourceInitializationException e) {
+      assertEquals(ResourceInitializationException.HASH_INDEX_NEEDS_ONE_FEATURE_KEY, e.getMessageKey());
+    }
+    
+    // keys must have a primitive range
+    TypeSystemDescription tsd = factory.createTypeSystemDescription();
+    tsd.addType("test.Token", "", CAS.TYPE_NAME_ANNOTATION).addFeature("head", "", CAS.TYPE_NAME_ANNOTATION);
+    try {
+      CasCreationUtils.createCas(tsd, null, new FsIndexDescription[] {hashIndex("headIndex", "head")});
+      fail();
+    } catch (ResourceInitializationException e) {
+      assertEquals(ResourceInitializationException.HASH_INDEX_NEEDS_ONE_FEATURE_KEY, e.getMessageKey());
+    }
+  }
+  
+  private void check(Type type, Feature feat, Object value, boolean isHashIndexed) {
+    assertEquals(isHashIndexed, 
+        null != ((CASImpl) cas).indexRepository.getHashIndexes((TypeImpl) type, (FeatureImpl) feat));
+    List<TOP> expected = cas.<TOP>select(type).filter(fs -> matches(fs, feat, value)).collect(Collectors.toList());
+    List<TOP> actual = cas.<TOP>select(type).withFeatureValue(feat, value).asList();
+    if (cas.getAnnotationType().equals(type) || cas.getTypeSystem().subsumes(cas.getAnnotationType(), type)) {
+      assertEquals(expected, actual);
+    } else {
+      // unordered
+      assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+      assertEquals(expected.size(), actual.size());
+    }
+  }
+  
+  private static boolean matches(FeatureStructure fs, Feature feat, Object value) {
+    switch (feat.getRange().getName()) {
+    case CAS.TYPE_NAME_STRING: return java.util.Objects.equals(value, fs.getStringValue(feat));
+    case CAS.TYPE_NAME_LONG:   return ((Number) value).longValue() == fs.getLongValue(feat);
+    case CAS.TYPE_NAME_INTEGER:   return ((Number) value).intValue() == fs.getIntValue(feat);
+    case CAS.TYPE_NAME_FLOAT:  return ((Float) value).floatValue() == fs.getFloatValue(feat);
+    default:                   return value == fs.getFeatureValue(feat);
+    }
+  }
+}
@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 
@@ -84,6 +85,76 @@ public class OrderedFsSet_array_test extends TestCase {
     
   }
   
+  public void testResetShrinksIndexOfUnusedType() {
+    FsIndex_singletype<?> index = ((FsIndex_iicp<?>) cas.getAnnotationIndex()).fsIndex_singletype;
+    for (int i = 0; i < 10_000; i++) {
+      jcas.addFsToIndexes(new Annotation(jcas, i, i + 1));
+    }
+    assertTrue(index.isOversized());
+    cas.reset();
+    
+    // type not used since the last reset, but later resets continue to shrink its index
+    for (int i = 0; i < 20 && index.isOversized(); i++) {
+      cas.reset();
+    }
+    assertFalse(index.isOversized());
+    
+    jcas.addFsToIndexes(new Annotation(jcas, 1, 2));
+    assertEquals(1, cas.getAnnotationIndex().size());
+  }
+  
+  public void testAddAll() {
+    OrderedFsSet_array<TOP> one = new OrderedFsSet_array(comparatorWithID, comparatorWithoutID);
+    OrderedFsSet_array<TOP> bulk = new OrderedFsSet_array(comparatorWithID, comparatorWithoutID);
+    for (int batch = 0; batch < 200; batch++) {
+      int n = r.nextInt(50);
+      TOP[] fss = new TOP[n + 1];  // extra slot not to be added
+      for (int i = 0; i < n; i++) {
+        // mostly higher than what is there, sometimes anywhere; sometimes an FS already added
+        int begin = r.nextInt(4) == 0 ? r.nextInt(1000) : batch * 10 + r.nextInt(50); 
+        fss[i] = (i > 0 && r.nextInt(10) == 0) ? fss[r.nextInt(i)] : new Annotation(jcas, begin, begin + r.nextInt(5));
+        one.add(fss[i], comparatorWithID);
+      }
+      fss[n] = new Annotation(jcas, 0, 0);
+      bulk.addAll(fss, n, comparatorWithID);
+      assertEquals(one.size(), bulk.size());
+      Iterator<TOP> it = bulk.iterator();
+      for (TOP fs : one) {
+        assertTrue(fs == it.next());
+      }
+    }
+  }
+  
+  public void testCreateAnnotationsAddAll() {
+    int n = 1000;
+    int[] begins = new int[n];
+    int[] ends = new int[n];
+    for (int i = 0; i < n; i++) {
+      begins[i] = r.nextInt(500);
+      ends[i] = begins[i] + r.nextInt(20);
+    }
+    List<Annotation> annots = cas.createAnnotations(cas.getAnnotationType(), begins, ends);
+    assertEquals(n, annots.size());
+    assertEquals(begins[7], annots.get(7).getBegin());
+    assertEquals(ends[7], annots.get(7).getEnd());
+    
+    Annotation first = new Annotation(jcas, 250, 260);
+    cas.addFsToIndexes(first);  // not empty
+    ir.addAll(annots);
+    ir.addAll(annots.subList(0, 100));  // already there
+    
+    List<Annotation> expected = new ArrayList<>(annots);
+    expected.add(first);
+    expected.sort(comparatorWithID);
+    assertEquals(n + 1, cas.getAnnotationIndex().size());
+    int i = 0;
+    for (Annotation a : cas.getAnnotationIndex(Annotation.class)) {
+      assertTrue(expected.get(i++) == a);
+    }
+    // re-adding the first 100 did not add duplicates to any index
+    assertEquals(n + 1, ir.getAllIndexedFS(cas.getAnnotationType()).size());
+  }
+  
   /**
    * work with 16-32 elements
    * 
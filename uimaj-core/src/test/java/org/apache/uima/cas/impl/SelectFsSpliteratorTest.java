@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.SelectFSs;
+import org.apache.uima.cas.Type;
+import org.apache.uima.jcas.cas.TOP;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.resource.metadata.FsIndexDescription;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+
+import junit.framework.TestCase;
+
+/**
+ * Parallel select() streams return the same FSs in the same order as the sequential iteration
+ */
+public class SelectFsSpliteratorTest extends TestCase {
+
+  private static final int NBR_TOKENS = 20000;
+
+  private CAS cas;
+  private Type tokenType;
+  private Type sentenceType;
+  private Annotation sentence;
+
+  protected void setUp() throws Exception {
+    TypeSystemDescription tsd = UIMAFramework.getResourceSpecifierFactory().createTypeSystemDescription();
+    tsd.addType("test.Token", "", CAS.TYPE_NAME_ANNOTATION);
+    tsd.addType("test.Sentence", "", CAS.TYPE_NAME_ANNOTATION);
+    FsIndexDescription bag = UIMAFramework.getResourceSpecifierFactory().createFsIndexDescription();
+    bag.setLabel("annotationBag");
+    bag.setTypeName(CAS.TYPE_NAME_ANNOTATION);
+    bag.setKind(FsIndexDescription.KIND_BAG);
+    cas = CasCreationUtils.createCas(tsd, null, new FsIndexDescription[] {bag});
+    tokenType = cas.getTypeSystem().getType("test.Token");
+    sentenceType = cas.getTypeSystem().getType("test.Sentence");
+
+    Random r = new Random(1234);
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < NBR_TOKENS; i++) {
+      sb.append("word ");
+    }
+    cas.setDocumentText(sb.toString());
+    for (int i = 0; i < NBR_TOKENS; i++) {
+      // some overlapping and some zero-width tokens
+      int begin = i * 5 + r.nextInt(3);
+      int end = begin + r.nextInt(8);
+      cas.addFsToIndexes(cas.createAnnotation(tokenType, begin, end));
+      if (i % 20 == 0) {
+        cas.addFsToIndexes(cas.createAnnotation(sentenceType, begin, begin + 100));
+      }
+    }
+    sentence = cas.<Annotation>select(sentenceType).get(NBR_TOKENS / 40);
+  }
+
+  public void testPlain() {
+    check(() -> cas.select(tokenType), true);
+    check(() -> cas.<Annotation>select(tokenType).backwards(), true);
+    check(() -> cas.select(tokenType).limit(777), true);
+    check(() -> cas.<Annotation>select(tokenType).backwards().limit(777), true);
+    check(() -> cas.select(tokenType).startAt(sentence).shifted(3), false);
+    check(() -> cas.<Annotation>select(tokenType).startAt(sentence).backwards(), false);
+  }
+
+  public void testBounded() {
+    check(() -> cas.select(tokenType).coveredBy(sentence), false);
+    check(() -> cas.select(tokenType).coveredBy(sentence).includeAnnotationsWithEndBeyondBounds(), false);
+    check(() -> cas.select(tokenType).coveredBy(sentence).shifted(2), false);
+    check(() -> cas.select(tokenType).coveredBy(500, 50000), false);
+    check(() -> cas.select(tokenType).between(sentence, cas.<Annotation>select(sentenceType).get(NBR_TOKENS / 20 - 3)), false);
+    check(() -> cas.select(tokenType).following(sentence), false);
+    check(() -> cas.select(tokenType).following(sentence).limit(100), false);
+    check(() -> cas.select(tokenType).preceding(sentence), false);
+    check(() -> cas.select(tokenType).coveredBy(sentence).nonOverlapping(), false);
+  }
+
+  public void testSubtypes() {
+    // ordered over several types, split in batches
+    check(() -> cas.select(Annotation.class), true);
+    check(() -> cas.select(Annotation.class).coveredBy(sentence), false);
+    // unordered, split per type
+    check(() -> cas.select(Annotation.class).orderNotNeeded(), true);
+    // all indexed FSs, not from one index
+    check(() -> cas.select(TOP.class), false);
+  }
+
+  public void testBag() {
+    check(() -> cas.getIndexRepository().<TOP>getIndex("annotationBag", tokenType).select(), false);
+    check(() -> cas.getIndexRepository().<TOP>getIndex("annotationBag").select(), false);
+    Spliterator<TOP> s = cas.getIndexRepository().<TOP>getIndex("annotationBag").select().spliterator();
+    assertNotNull(s.trySplit());
+  }
+
+  public void testSplits() {
+    Spliterator<TOP> s = cas.<TOP>select(tokenType).spliterator();
+    assertTrue(s.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.SORTED));
+    assertEquals(NBR_TOKENS, s.getExactSizeIfKnown());
+    Spliterator<TOP> prefix = s.trySplit();
+    assertEquals(NBR_TOKENS / 2, prefix.getExactSizeIfKnown());
+    assertEquals(NBR_TOKENS / 2, s.getExactSizeIfKnown());
+    List<TOP> all = new ArrayList<>();
+    prefix.forEachRemaining(all::add);
+    s.forEachRemaining(all::add);
+    assertEquals(cas.<TOP>select(tokenType).asList(), all);
+
+    Spliterator<TOP> b = cas.<TOP>select(tokenType).backwards().spliterator();
+    assertFalse(b.hasCharacteristics(Spliterator.SORTED));
+    assertTrue(b.hasCharacteristics(Spliterator.SIZED));
+
+    Spliterator<TOP> c = cas.<TOP>select(tokenType).coveredBy(sentence).spliterator();
+    assertFalse(c.hasCharacteristics(Spliterator.SIZED));
+    assertNotNull(c.trySplit());
+
+    assertEquals(0, cas.select(tokenType).coveredBy(0, 0).spliterator().estimateSize());
+  }
+
+  private <T extends TOP> void check(Supplier<SelectFSs<T>> select, boolean isSized) {
+    List<T> expected = select.get().asList();
+    assertTrue(expected.size() > 0);
+    List<T> actual = select.get().parallel().collect(Collectors.toList());
+    assertEquals(expected, actual);
+    assertEquals(expected.size(), select.get().parallel().filter(fs -> fs != null).count());
+    if (isSized) {
+      assertEquals(expected.size(), select.get().spliterator().getExactSizeIfKnown());
+    }
+  }
+}
@@ -1775,8 +1775,48 @@ public class SelectFsTest {
     System.out.println("---- moveTo");
     it.moveTo(expected);
     assertThat(it.isValid()).isTrue();
-  }  
-  
+  }
+
+  @Test
+  public void thatSelectCoveringFindsLongAnnotationsAndFollowsIndexUpdates() throws Exception {
+    TypeSystemDescription tsd = getResourceSpecifierFactory().createTypeSystemDescription();
+    tsd.addType("test.Type1", "", CAS.TYPE_NAME_ANNOTATION);
+    tsd.addType("test.Type2", "", "test.Type1");
+
+    CAS cas = CasCreationUtils.createCas(tsd, null, null, null);
+
+    Type type1 = cas.getTypeSystem().getType("test.Type1");
+    Type type2 = cas.getTypeSystem().getType("test.Type2");
+
+    // the long annotation defeats the max-annotation-span optimization of the forward scan
+    AnnotationFS whole, middle, y;
+    addToIndexes(
+        whole = cas.createAnnotation(type1, 0, 1000),
+        middle = cas.createAnnotation(type2, 400, 600));
+    for (int i = 0; i < 1000; i += 10) {
+      cas.addFsToIndexes(cas.createAnnotation(type2, i, i + 5));
+    }
+    y = cas.createAnnotation(type1, 506, 508);
+
+    assertThat(cas.<Annotation>select(type1).covering(y).asList())
+        .containsExactly((Annotation) whole, (Annotation) middle);
+    assertThat(toListBackwards(cas.<Annotation>select(type1).covering(y)))
+        .containsExactly(whole, middle);
+
+    FSIterator<Annotation> it = cas.<Annotation>select(type1).covering(y).fsIterator();
+    it.moveTo(middle);
+    assertThat(it.get()).isSameAs(middle);
+
+    cas.removeFsFromIndexes(middle);
+    AnnotationFS added = cas.createAnnotation(type2, 499, 509);
+    cas.addFsToIndexes(added);
+
+    assertThat(cas.<Annotation>select(type1).covering(y).asList())
+        .containsExactly((Annotation) whole, (Annotation) added);
+    assertThat(cas.<Annotation>select(type2).covering(y).asList())
+        .containsExactly((Annotation) added);
+  }
+
   @SuppressWarnings("unchecked")
   private static <T extends AnnotationFS, R extends AnnotationFS> List<R> toListBackwards(
       SelectFSs<T> select) {
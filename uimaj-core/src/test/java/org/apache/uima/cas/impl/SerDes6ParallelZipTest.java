@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.impl.BinaryCasSerDes6.ReuseInfo;
+import org.apache.uima.resource.metadata.TypeDescription;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+
+import junit.framework.TestCase;
+
+/**
+ * Form 6 with the slot kind streams zipped and unzipped in parallel gives the same bytes and the
+ * same CAS as the sequential code
+ */
+public class SerDes6ParallelZipTest extends TestCase {
+
+  private static final int NBR_FSS = 3000;
+
+  private boolean savedIsParallelZip;
+  private int savedMinBytes;
+
+  private TypeSystemDescription tsd;
+  private CASImpl cas;
+
+  protected void setUp() throws Exception {
+    savedIsParallelZip = BinaryCasSerDes6.isParallelZip();
+    savedMinBytes = BinaryCasSerDes6.getParallelZipMinBytes();
+
+    tsd = UIMAFramework.getResourceSpecifierFactory().createTypeSystemDescription();
+    TypeDescription td = tsd.addType("test.Item", "", CAS.TYPE_NAME_TOP);
+    td.addFeature("name", "", CAS.TYPE_NAME_STRING);
+    td.addFeature("count", "", CAS.TYPE_NAME_INTEGER);
+    td.addFeature("score", "", CAS.TYPE_NAME_DOUBLE);
+    cas = newCas();
+    addItems(cas, 0, NBR_FSS);
+  }
+
+  protected void tearDown() throws Exception {
+    BinaryCasSerDes6.setParallelZip(savedIsParallelZip, savedMinBytes);
+  }
+
+  private CASImpl newCas() throws Exception {
+    return (CASImpl) CasCreationUtils.createCas(tsd, null, null, null);
+  }
+
+  private static void addItems(CAS c, int from, int to) {
+    Type type = c.getTypeSystem().getType("test.Item");
+    for (int i = from; i < to; i++) {
+      FeatureStructure fs = c.createFS(type);
+      fs.setStringValue(type.getFeatureByBaseName("name"), "n" + (i % 300));
+      fs.setIntValue(type.getFeatureByBaseName("count"), i * 7);
+      fs.setDoubleValue(type.getFeatureByBaseName("score"), i / 3.0);
+      c.addFsToIndexes(fs);
+    }
+  }
+
+  public void testRoundTrip() throws Exception {
+    BinaryCasSerDes6.setParallelZip(false, 1);
+    byte[] sequential = serialize(new BinaryCasSerDes6(cas));
+    BinaryCasSerDes6.setParallelZip(true, 1);
+    BinaryCasSerDes6 bcs = new BinaryCasSerDes6(cas);
+    byte[] parallel = serialize(bcs);
+    assertTrue(Arrays.equals(sequential, parallel));
+
+    CASImpl remote = newCas();
+    ReuseInfo remoteRi = Serialization.deserializeCAS(remote, new ByteArrayInputStream(parallel),
+            null, null).getReuseInfo();
+    assertTrue(new CasCompare(cas, remote).compareCASes());
+
+    // delta: new FSs, and updates below the mark
+    MarkerImpl marker = (MarkerImpl) remote.createMarker();
+    addItems(remote, NBR_FSS, NBR_FSS + 500);
+    Type type = remote.getTypeSystem().getType("test.Item");
+    Feature name = type.getFeatureByBaseName("name");
+    int i = 0;
+    for (FeatureStructure fs : remote.select(type).asList()) {
+      if (i++ % 10 == 0) {
+        fs.setStringValue(name, "changed" + i);
+      }
+    }
+    BinaryCasSerDes6.setParallelZip(false, 1);
+    byte[] deltaSequential = serialize(new BinaryCasSerDes6(remote, marker, null, remoteRi));
+    BinaryCasSerDes6.setParallelZip(true, 1);
+    byte[] deltaParallel = serialize(new BinaryCasSerDes6(remote, marker, null, remoteRi));
+    assertTrue(Arrays.equals(deltaSequential, deltaParallel));
+
+    Serialization.deserializeCAS(cas, new ByteArrayInputStream(deltaParallel), null,
+            bcs.getReuseInfo());
+    assertTrue(new CasCompare(cas, remote).compareCASes());
+    assertEquals(NBR_FSS + 500, cas.getIndexRepository().getAllIndexedFS(type).size());
+  }
+
+  public void testCorruptedStream() throws Exception {
+    BinaryCasSerDes6.setParallelZip(true, 1);
+    byte[] b = serialize(new BinaryCasSerDes6(cas));
+    // cut off the end of the compressed data
+    byte[] truncated = Arrays.copyOf(b, b.length - 100);
+    try {
+      Serialization.deserializeCAS(newCas(), new ByteArrayInputStream(truncated), null, null);
+      fail();
+    } catch (Exception e) {
+      // expected, from one of the unzip tasks or from reading the streams
+    }
+  }
+
+  private static byte[] serialize(BinaryCasSerDes6 bcs) throws Exception {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    bcs.serialize(baos);
+    return baos.toByteArray();
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.cas.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.impl.BinaryCasSerDes4.CompressLevel;
+import org.apache.uima.cas.impl.BinaryCasSerDes4.CompressStrat;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.resource.metadata.TypeDescription;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+import org.apache.uima.util.CasIOUtils;
+
+import junit.framework.TestCase;
+
+/**
+ * Compares the size and speed of the form 6 serialization using the different codecs.
+ * Increase the number of annotations and iterations for more meaningful numbers.
+ */
+public class SerDesCodecPerformance extends TestCase {
+
+  private static final int NBR_ANNOTATIONS = 20000;
+  private static final int ITERATIONS = 10;
+
+  public void testCodecPerformance() throws Exception {
+    TypeSystemDescription tsd = UIMAFramework.getResourceSpecifierFactory().createTypeSystemDescription();
+    TypeDescription td = tsd.addType("test.Token", "", CAS.TYPE_NAME_ANNOTATION);
+    td.addFeature("pos", "", CAS.TYPE_NAME_STRING);
+    td.addFeature("score", "", CAS.TYPE_NAME_FLOAT);
+    td.addFeature("count", "", CAS.TYPE_NAME_INTEGER);
+    CAS cas = CasCreationUtils.createCas(tsd, null, null, null);
+    Type type = cas.getTypeSystem().getType("test.Token");
+    Feature pos = type.getFeatureByBaseName("pos");
+    Feature score = type.getFeatureByBaseName("score");
+    Feature count = type.getFeatureByBaseName("count");
+    
+    Random r = new Random(1234);
+    StringBuilder sb = new StringBuilder();
+    int[] begins = new int[NBR_ANNOTATIONS];
+    for (int i = 0; i < NBR_ANNOTATIONS; i++) {
+      begins[i] = sb.length();
+      sb.append("tok").append(r.nextInt(2000)).append(' ');
+    }
+    cas.setDocumentText(sb.toString());
+    for (int i = 0; i < NBR_ANNOTATIONS; i++) {
+      AnnotationFS a = cas.createAnnotation(type, begins[i], begins[i] + 4);
+      a.setStringValue(pos, "P" + r.nextInt(40));
+      a.setFloatValue(score, r.nextFloat());
+      a.setIntValue(count, r.nextInt(100));
+      cas.addFsToIndexes(a);
+    }
+    CAS cas2 = CasCreationUtils.createCas(tsd, null, null, null);
+
+    String[] names = {"Deflate None", "Deflate Fast", "Deflate Default", "Deflate Best", "Lz", "Stored"};
+    SerDesCodec[] codecs = {
+        SerDesCodecs.deflate(CompressLevel.None.lvl, CompressStrat.Default.strat),
+        SerDesCodecs.deflate(CompressLevel.Fast.lvl, CompressStrat.Default.strat),
+        SerDesCodecs.DEFLATE,
+        SerDesCodecs.deflate(CompressLevel.Best.lvl, CompressStrat.Default.strat),
+        SerDesCodecs.LZ,
+        SerDesCodecs.STORED};
+    
+    for (int c = 0; c < codecs.length; c++) {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream(1024 * 512);
+      long accumSer = 0;
+      long accumDeser = 0;
+      for (int i = 0; i < ITERATIONS; i++) {
+        baos.reset();
+        long ist = System.nanoTime();
+        new BinaryCasSerDes6(cas, null, null, null, false, codecs[c]).serialize(baos);
+        accumSer += System.nanoTime() - ist;
+        
+        cas2.reset();
+        ist = System.nanoTime();
+        CasIOUtils.load(new ByteArrayInputStream(baos.toByteArray()), cas2);
+        accumDeser += System.nanoTime() - ist;
+      }
+      assertEquals(NBR_ANNOTATIONS, cas2.getAnnotationIndex(type).size());
+      System.out.format("%-16s size %,10d bytes, serialize %,6d ms, deserialize %,6d ms%n",
+          names[c], baos.size(), accumSer / 1000000, accumDeser / 1000000);
+    }
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.cas.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.resource.metadata.TypeDescription;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+import org.apache.uima.util.CasIOUtils;
+
+import junit.framework.TestCase;
+
+public class SerDesCodecTest extends TestCase {
+
+  private static final SerDesCodec[] CODECS = {SerDesCodecs.DEFLATE, SerDesCodecs.LZ, SerDesCodecs.STORED};
+
+  public void testLookup() throws IOException {
+    for (SerDesCodec c : CODECS) {
+      assertSame(c, SerDesCodecs.getCodec(c.getId()));
+      assertSame(c, SerDesCodecs.getCodec(c.getName().toUpperCase()));
+    }
+    assertNull(SerDesCodecs.getCodec("noSuchCodec"));
+    try {
+      SerDesCodecs.getCodec(200);
+      fail();
+    } catch (IOException e) {
+    }
+  }
+
+  public void testRoundTripBytes() throws IOException {
+    Random r = new Random(1234);
+    byte[] random = new byte[100000];
+    r.nextBytes(random);
+    byte[] repetitive = new byte[100000];
+    for (int i = 0; i < repetitive.length; i++) {
+      repetitive[i] = (byte) ((i % 37) + (i / 5000));
+    }
+    byte[] runs = new byte[70000];  // long matches, longer than the match offset window
+    Arrays.fill(runs, 30000, 70000, (byte) 7);
+    byte[][] inputs = {new byte[0], {1}, "abcdabcdabcdabcd".getBytes(), random, repetitive, runs};
+
+    for (SerDesCodec c : CODECS) {
+      for (byte[] input : inputs) {
+        roundTrip(c, input);
+        roundTrip(c, Arrays.copyOf(input, Math.min(input.length, 17)));
+      }
+    }
+  }
+
+  private void roundTrip(SerDesCodec c, byte[] input) throws IOException {
+    ByteArrayOutputStream uncompressed = new ByteArrayOutputStream();
+    uncompressed.write(input);
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    compressed.write(new byte[] {9, 9, 9});  // must be appended to, not overwritten
+    int len = c.compress(uncompressed, compressed);
+    assertEquals(compressed.size() - 3, len);
+    byte[] b = Arrays.copyOfRange(compressed.toByteArray(), 3, 3 + len + 1);
+
+    assertTrue(Arrays.equals(input, c.decompressFully(b, len, input.length)));
+    byte[] r = new byte[input.length];
+    try (DataInputStream is = new DataInputStream(c.decompress(b, len, input.length))) {
+      is.readFully(r);
+      assertEquals(-1, is.read());
+    }
+    assertTrue(Arrays.equals(input, r));
+  }
+
+  public void testLzBadInput() {
+    byte[] bad = {(byte) 0x0f, 1, 0};  // a match with no room for it
+    try {
+      SerDesCodecs.LZ.decompressFully(bad, bad.length, 100);
+      fail();
+    } catch (IOException e) {
+    }
+  }
+
+  public void testSerDesRoundTrip() throws Exception {
+    TypeSystemDescription tsd = UIMAFramework.getResourceSpecifierFactory().createTypeSystemDescription();
+    TypeDescription td = tsd.addType("test.Token", "", CAS.TYPE_NAME_ANNOTATION);
+    td.addFeature("lemma", "", CAS.TYPE_NAME_STRING);
+    td.addFeature("score", "", CAS.TYPE_NAME_DOUBLE);
+    CAS cas = CasCreationUtils.createCas(tsd, null, null, null);
+    Type type = cas.getTypeSystem().getType("test.Token");
+    Feature lemma = type.getFeatureByBaseName("lemma");
+    Feature score = type.getFeatureByBaseName("score");
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      sb.append("w").append(i % 97).append(' ');
+    }
+    cas.setDocumentText(sb.toString());
+    for (int i = 0; i < 2000; i++) {
+      AnnotationFS a = cas.createAnnotation(type, i * 2, i * 2 + 1);
+      a.setStringValue(lemma, "l" + (i % 300));
+      a.setDoubleValue(score, i / 3.0);
+      cas.addFsToIndexes(a);
+    }
+    CAS cas2 = CasCreationUtils.createCas(tsd, null, null, null);
+
+    for (SerDesCodec c : CODECS) {
+      ByteArrayOutputStream form4 = new ByteArrayOutputStream();
+      new BinaryCasSerDes4(((CASImpl) cas).getTypeSystemImpl(), false).serialize(cas, form4, null, c);
+      ByteArrayOutputStream form6 = new ByteArrayOutputStream();
+      new BinaryCasSerDes6(cas, null, null, null, false, c).serialize(form6);
+
+      for (ByteArrayOutputStream baos : new ByteArrayOutputStream[] {form4, form6}) {
+        CommonSerDes.Header h = CommonSerDes.readHeader(
+            new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+        assertEquals(c.getId(), h.getCodecId());
+        assertTrue(h.isCompressed);
+        
+        cas2.reset();
+        CasIOUtils.load(new ByteArrayInputStream(baos.toByteArray()), cas2);  // codec is auto-detected
+        checkLoaded(cas, cas2, type);
+        
+        // memory mapped, which decompresses from ByteBuffers
+        File file = File.createTempFile("serDesCodec", ".bin");
+        try {
+          Files.write(file.toPath(), baos.toByteArray());
+          cas2.reset();
+          CasIOUtils.load(file.toPath(), cas2);
+          checkLoaded(cas, cas2, type);
+        } finally {
+          file.delete();
+        }
+      }
+      
+      // header read by the caller, codec passed on
+      DataInputStream dis = new DataInputStream(new ByteArrayInputStream(form6.toByteArray()));
+      CommonSerDes.Header h = CommonSerDes.readHeader(dis);
+      cas2.reset();
+      new BinaryCasSerDes6(cas2).deserializeAfterVersion(dis, h.isDelta(), AllowPreexistingFS.allow,
+          SerDesCodecs.getCodec(h.getCodecId()));
+      checkLoaded(cas, cas2, type);
+    }
+  }
+  
+  private void checkLoaded(CAS cas, CAS cas2, Type type) {
+    Feature lemma = type.getFeatureByBaseName("lemma");
+    Feature score = type.getFeatureByBaseName("score");
+    assertEquals(cas.getDocumentText(), cas2.getDocumentText());
+    int i = 0;
+    for (AnnotationFS a : cas2.getAnnotationIndex(type)) {
+      assertEquals("l" + (i % 300), a.getStringValue(lemma));
+      assertEquals(i / 3.0, a.getDoubleValue(score));
+      i++;
+    }
+    assertEquals(2000, i);
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.cas.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Feature;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.resource.metadata.FeatureDescription;
+import org.apache.uima.resource.metadata.TypeDescription;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+import org.apache.uima.util.TypeSystemUtil;
+import org.apache.uima.util.XMLInputSource;
+
+import junit.framework.TestCase;
+
+public class StringInternerTest extends TestCase {
+
+  private static final String TOKEN = "test.Token";
+
+  private TypeSystemDescription tsd;
+
+  protected void setUp() throws Exception {
+    tsd = UIMAFramework.getResourceSpecifierFactory().createTypeSystemDescription();
+    TypeDescription token = tsd.addType(TOKEN, "", CAS.TYPE_NAME_ANNOTATION);
+    token.addFeature("pos", "", CAS.TYPE_NAME_STRING).setInternStrings(Boolean.TRUE);
+    token.addFeature("lemma", "", CAS.TYPE_NAME_STRING);
+    // ignored, not a String range
+    token.addFeature("length", "", CAS.TYPE_NAME_INTEGER).setInternStrings(Boolean.TRUE);
+  }
+
+  public void testInterner() {
+    StringInterner si = new StringInterner(32);
+    String a = new String("NN");
+    assertSame(a, si.intern(a));
+    assertSame(a, si.intern(new String("NN")));
+    assertNull(si.intern(null));
+    for (int i = 0; i < 1000; i++) {
+      si.intern(Integer.toString(i));
+    }
+    assertTrue(si.size() <= 32);
+    si.clear();
+    assertEquals(0, si.size());
+  }
+
+  public void testTypeSystem() throws Exception {
+    CAS cas = CasCreationUtils.createCas(tsd, null, null);
+    Type tokenType = cas.getTypeSystem().getType(TOKEN);
+    assertTrue(((FeatureImpl) tokenType.getFeatureByBaseName("pos")).isInternStrings());
+    assertFalse(((FeatureImpl) tokenType.getFeatureByBaseName("lemma")).isInternStrings());
+    assertFalse(((FeatureImpl) tokenType.getFeatureByBaseName("length")).isInternStrings());
+    
+    // the same type system without interning is a different type system
+    TypeSystemDescription plain = UIMAFramework.getResourceSpecifierFactory().createTypeSystemDescription();
+    TypeDescription token = plain.addType(TOKEN, "", CAS.TYPE_NAME_ANNOTATION);
+    token.addFeature("pos", "", CAS.TYPE_NAME_STRING);
+    token.addFeature("lemma", "", CAS.TYPE_NAME_STRING);
+    token.addFeature("length", "", CAS.TYPE_NAME_INTEGER);
+    CAS plainCas = CasCreationUtils.createCas(plain, null, null);
+    assertNotSame(cas.getTypeSystem(), plainCas.getTypeSystem());
+    assertFalse(((FeatureImpl) plainCas.getTypeSystem().getType(TOKEN).getFeatureByBaseName("pos")).isInternStrings());
+    assertSame(cas.getTypeSystem(), CasCreationUtils.createCas(tsd, null, null).getTypeSystem());
+    
+    // round trips through TypeSystemUtil and the descriptor XML
+    TypeSystemDescription tsd2 = TypeSystemUtil.typeSystem2TypeSystemDescription(cas.getTypeSystem());
+    FeatureDescription pos = tsd2.getType(TOKEN).getFeatures()[0];
+    assertEquals("pos", pos.getName());
+    assertEquals(Boolean.TRUE, pos.getInternStrings());
+    
+    StringWriter sw = new StringWriter();
+    tsd.toXML(sw);
+    assertTrue(sw.toString().contains("<internStrings>true</internStrings>"));
+    TypeSystemDescription tsd3 = UIMAFramework.getXMLParser().parseTypeSystemDescription(
+        new XMLInputSource(new ByteArrayInputStream(sw.toString().getBytes("UTF-8")), null));
+    assertEquals(Boolean.TRUE, tsd3.getType(TOKEN).getFeatures()[0].getInternStrings());
+    assertNull(tsd3.getType(TOKEN).getFeatures()[1].getInternStrings());
+  }
+
+  public void testXmi() throws Exception {
+    byte[] xmi = serialize(true);
+    CAS cas1 = CasCreationUtils.createCas(tsd, null, null);
+    CAS cas2 = CasCreationUtils.createCas(tsd, null, null);
+    XmiCasDeserializer.deserialize(new ByteArrayInputStream(xmi), cas1);
+    XmiCasDeserializer.deserialize(new ByteArrayInputStream(xmi), cas2);
+    checkShared(cas1, cas2);
+  }
+
+  public void testBinaryCompressed() throws Exception {
+    byte[] bin = serialize(false);
+    CAS cas1 = CasCreationUtils.createCas(tsd, null, null);
+    CAS cas2 = CasCreationUtils.createCas(tsd, null, null);
+    Serialization.deserializeCAS(cas1, new ByteArrayInputStream(bin));
+    Serialization.deserializeCAS(cas2, new ByteArrayInputStream(bin));
+    checkShared(cas1, cas2);
+  }
+
+  private byte[] serialize(boolean isXmi) throws Exception {
+    CAS cas = CasCreationUtils.createCas(tsd, null, null);
+    Type tokenType = cas.getTypeSystem().getType(TOKEN);
+    Feature pos = tokenType.getFeatureByBaseName("pos");
+    Feature lemma = tokenType.getFeatureByBaseName("lemma");
+    cas.setDocumentText("the dog and the cat");
+    String[] words = cas.getDocumentText().split(" ");
+    int begin = 0;
+    for (String w : words) {
+      AnnotationFS a = cas.createAnnotation(tokenType, begin, begin + w.length());
+      a.setStringValue(pos, new String(w.equals("and") ? "CC" : w.equals("the") ? "DT" : "NN"));
+      a.setStringValue(lemma, new String(w));
+      cas.addFsToIndexes(a);
+      begin += w.length() + 1;
+    }
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    if (isXmi) {
+      XmiCasSerializer.serialize(cas, baos);
+    } else {
+      Serialization.serializeWithCompression(cas, baos, cas.getTypeSystem());
+    }
+    return baos.toByteArray();
+  }
+
+  private void checkShared(CAS cas1, CAS cas2) {
+    Type tokenType = cas1.getTypeSystem().getType(TOKEN);
+    Feature pos = tokenType.getFeatureByBaseName("pos");
+    Feature lemma = tokenType.getFeatureByBaseName("lemma");
+    AnnotationFS[] t1 = cas1.getAnnotationIndex(tokenType).select().asArray(AnnotationFS.class);
+    AnnotationFS[] t2 = cas2.getAnnotationIndex(tokenType).select().asArray(AnnotationFS.class);
+    assertEquals(5, t1.length);
+    assertEquals(5, t2.length);
+    assertEquals("DT", t1[0].getStringValue(pos));
+    assertEquals("NN", t1[1].getStringValue(pos));
+    for (int i = 0; i < t1.length; i++) {
+      assertEquals(t1[i].getStringValue(pos), t2[i].getStringValue(pos));
+      assertSame(t1[i].getStringValue(pos), t2[i].getStringValue(pos));
+      assertEquals(t1[i].getStringValue(lemma), t2[i].getStringValue(lemma));
+      assertNotSame(t1[i].getStringValue(lemma), t2[i].getStringValue(lemma));
+    }
+    assertSame(t1[1].getStringValue(pos), t1[4].getStringValue(pos));
+    assertSame(t1[1].getStringValue(pos), 
+        ((TypeSystemImpl) cas1.getTypeSystem()).getStringInterner().intern(new String("NN")));
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.internal.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class Long2ObjHashMapTest extends TestCase {
+  
+  Long2ObjHashMap<String> lhm;
+  
+  public void setUp() {
+    lhm = new Long2ObjHashMap<>();
+  }
+
+  public void testBasic() {
+    // 0 and the extreme values are valid keys
+    lhm.put(0, "zero");
+    lhm.put(Long.MIN_VALUE, "min");
+    lhm.put(Long.MAX_VALUE, "max");
+    lhm.put(15, "15");
+    assertEquals(4, lhm.size());
+    assertEquals("zero", lhm.get(0));
+    assertEquals("min", lhm.get(Long.MIN_VALUE));
+    assertEquals("max", lhm.get(Long.MAX_VALUE));
+    assertTrue(lhm.containsKey(15));
+    assertNull(lhm.get(16));
+
+    assertEquals("15", lhm.put(15, "fifteen"));
+    assertEquals(4, lhm.size());
+    assertNull(lhm.remove(18));
+    assertEquals("zero", lhm.remove(0));
+    assertFalse(lhm.containsKey(0));
+    assertEquals(3, lhm.size());
+    assertEquals("x", lhm.computeIfAbsent(0, k -> "x"));
+    assertEquals("x", lhm.computeIfAbsent(0, k -> "y"));
+    
+    int n = 0;
+    for (Iterator<String> it = lhm.values(); it.hasNext(); it.next()) {
+      n++;
+    }
+    assertEquals(4, n);
+    
+    lhm.clear();
+    assertEquals(0, lhm.size());
+    assertNull(lhm.get(Long.MIN_VALUE));
+  }
+  
+  public void testRebalance() {
+    for (int i = 0; i < 100; i++) {
+      lhm.put(i, "v");
+    }
+    int capacity = lhm.getCapacity();
+    for (int i = 0; i < 100; i++) {
+      assertEquals("v", lhm.remove(i));
+    }
+    assertEquals(0, lhm.size());
+    assertTrue(lhm.getCapacity() < capacity);
+  }
+  
+  public void testRandom() {
+    long seed = new Random().nextLong();
+    System.out.println("Random seed for Long2ObjHashMapTest: " + seed);
+    Random r = new Random(seed);
+    Map<Long, String> expected = new HashMap<>();
+    
+    for (int i = 0; i < 1024 * 256; i++) {
+      // keys which differ only in the high or in the low bits
+      long k = (r.nextBoolean()) ? r.nextInt(1024) : ((long) r.nextInt(1024)) << 40;
+      if (r.nextInt(3) > 0) {
+        assertEquals(expected.put(k, "" + k), lhm.put(k, "" + k));
+      } else {
+        assertEquals(expected.remove(k), lhm.remove(k));
+      }
+      assertEquals(expected.size(), lhm.size());
+    }
+    for (Map.Entry<Long, String> e : expected.entrySet()) {
+      assertEquals(e.getValue(), lhm.get(e.getKey()));
+    }
+  }
+}
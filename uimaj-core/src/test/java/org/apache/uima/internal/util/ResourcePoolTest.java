@@ -19,6 +19,9 @@
 
 package org.apache.uima.internal.util;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.analysis_engine.AnalysisEngine;
 import org.apache.uima.analysis_engine.AnalysisEngineDescription;
@@ -218,6 +221,215 @@ public class ResourcePoolTest extends TestCase {
     }
   }
 
+  public void testGetResourceInterruptibly() throws Exception {
+    try {
+      Resource foo = pool1.getResource();
+      Resource bar = pool1.getResource();
+      Resource a = pool1.getResource();
+      Assert.assertNull(pool1.getResourceInterruptibly(100));
+
+      final Exception[] caught = new Exception[1];
+      Thread waiter = new Thread(() -> {
+        try {
+          pool1.getResourceInterruptibly(0);
+        } catch (InterruptedException e) {
+          caught[0] = e;
+        }
+      });
+      waiter.start();
+      while (pool1.getNumWaiting() == 0) {
+        Thread.sleep(10);
+      }
+      waiter.interrupt();
+      waiter.join();
+      Assert.assertTrue(caught[0] instanceof InterruptedException);
+
+      // getResource(long) keeps waiting when interrupted, and keeps the interrupt status
+      Thread.currentThread().interrupt();
+      Assert.assertNull(pool1.getResource(100));
+      Assert.assertTrue(Thread.interrupted());
+
+      pool1.releaseResource(foo);
+      pool1.releaseResource(bar);
+      pool1.releaseResource(a);
+      Assert.assertEquals(3, pool1.getNumAvailable());
+    } catch (Exception e) {
+      JUnitExtension.handleException(e);
+    }
+  }
+
+  public void testStatistics() throws Exception {
+    try {
+      Assert.assertEquals(0, pool1.getTotalCheckouts());
+      Resource foo = pool1.getResource();
+      Thread.sleep(100);
+      Assert.assertTrue(pool1.getUtilization() > 0.0);
+      pool1.releaseResource(foo);
+      Assert.assertTrue(pool1.getTotalCheckoutTime() >= 100);
+      Assert.assertEquals(1, pool1.getTotalCheckouts());
+
+      Resource bar = pool1.getResource();
+      Resource a = pool1.getResource();
+      Resource b = pool1.getResource();
+      Assert.assertNull(pool1.getResource(50));
+      Assert.assertEquals(1, pool1.getTotalTimeouts());
+      new ReleaserThread(b).start();
+      Assert.assertNotNull(pool1.getResource(5000));
+      Assert.assertTrue(pool1.getMaxWaitTime() >= 100);
+      Assert.assertTrue(pool1.getTotalWaitTime() >= pool1.getMaxWaitTime());
+      Assert.assertEquals(5, pool1.getTotalCheckouts());
+      Assert.assertEquals(0, pool1.getNumAvailable());
+      Assert.assertTrue(pool1.getUtilization() <= 1.0);
+    } catch (Exception e) {
+      JUnitExtension.handleException(e);
+    }
+  }
+
+  public void testManyThreads() throws Exception {
+    try {
+      final int nbrThreads = 200;
+      final AtomicInteger checkedOut = new AtomicInteger();
+      final AtomicInteger maxCheckedOut = new AtomicInteger();
+      final AtomicInteger errors = new AtomicInteger();
+      Thread[] threads = new Thread[nbrThreads];
+      for (int i = 0; i < nbrThreads; i++) {
+        threads[i] = new Thread(() -> {
+          for (int j = 0; j < 20; j++) {
+            Resource r = pool1.getResource(0);
+            if (r == null) {
+              errors.incrementAndGet();
+              continue;
+            }
+            maxCheckedOut.accumulateAndGet(checkedOut.incrementAndGet(), Math::max);
+            Thread.yield();
+            checkedOut.decrementAndGet();
+            pool1.releaseResource(r);
+          }
+        });
+        threads[i].start();
+      }
+      for (Thread t : threads) {
+        t.join();
+      }
+      Assert.assertEquals(0, errors.get());
+      Assert.assertTrue(maxCheckedOut.get() <= 3);
+      Assert.assertEquals(3, pool1.getFreeInstances().size());
+      Assert.assertEquals(nbrThreads * 20, pool1.getTotalCheckouts());
+    } catch (Exception e) {
+      JUnitExtension.handleException(e);
+    }
+  }
+
+  public void testGetResourceAsync() throws Exception {
+    try {
+      Resource foo = pool1.getResource();
+      Resource bar = pool1.getResource();
+      // served at once while an instance is free
+      CompletableFuture<Resource> f1 = pool1.getResourceAsync();
+      Assert.assertTrue(f1.isDone());
+      Resource a = f1.get();
+      Assert.assertEquals(0, pool1.getNumAvailable());
+
+      // queued, and served in order
+      CompletableFuture<Resource> f2 = pool1.getResourceAsync();
+      CompletableFuture<Resource> f3 = pool1.getResourceAsync();
+      Assert.assertFalse(f2.isDone());
+      Assert.assertEquals(2, pool1.getNumWaiting());
+      pool1.releaseResource(foo);
+      Assert.assertSame(foo, f2.getNow(null));
+      Assert.assertFalse(f3.isDone());
+
+      // a waiting thread and the asynchronous requests take turns
+      final Resource[] got = new Resource[1];
+      Thread waiter = new Thread(() -> got[0] = pool1.getResource(0));
+      waiter.start();
+      while (pool1.getNumWaiting() < 2) {
+        Thread.sleep(10);
+      }
+      pool1.releaseResource(bar);
+      waiter.join();
+      Assert.assertSame(bar, got[0]);
+      Assert.assertFalse(f3.isDone());
+      pool1.releaseResource(a);
+      Assert.assertSame(a, f3.getNow(null));
+
+      pool1.releaseResource(foo);
+      pool1.releaseResource(bar);
+      pool1.releaseResource(a);
+      Assert.assertEquals(3, pool1.getNumAvailable());
+      Assert.assertEquals(6, pool1.getTotalCheckouts());
+    } catch (Exception e) {
+      JUnitExtension.handleException(e);
+    }
+  }
+
+  public void testCheckoutSpecificResource() throws Exception {
+    try {
+      Resource foo = pool1.getResource();
+      // a free one
+      Resource bar = pool1.getFreeInstances().get(0);
+      pool1.checkoutSpecificResource(bar);
+      Resource a = pool1.getResource();
+      Assert.assertNotSame(bar, a);
+      Assert.assertEquals(0, pool1.getNumAvailable());
+
+      // a busy one is handed over when released, before the other waiting clients
+      CompletableFuture<Resource> f = pool1.getResourceAsync();
+      Thread waiter = new Thread(() -> pool1.checkoutSpecificResource(bar));
+      waiter.start();
+      while (pool1.getNumWaiting() < 2) {
+        Thread.sleep(10);
+      }
+      pool1.releaseResource(foo);
+      Assert.assertSame(foo, f.getNow(null));
+      Assert.assertTrue(waiter.isAlive());
+      pool1.releaseResource(bar);
+      waiter.join(10000);
+      Assert.assertFalse(waiter.isAlive());
+      Assert.assertEquals(0, pool1.getNumWaiting());
+      Assert.assertEquals(5, pool1.getTotalCheckouts());
+
+      pool1.releaseResource(foo);
+      pool1.releaseResource(bar);
+      pool1.releaseResource(a);
+      Assert.assertEquals(3, pool1.getNumAvailable());
+    } catch (Exception e) {
+      JUnitExtension.handleException(e);
+    }
+  }
+
+  public void testManyThreadsAndAsyncRequests() throws Exception {
+    try {
+      final int nbrThreads = 100;
+      final AtomicInteger checkedOut = new AtomicInteger();
+      final AtomicInteger maxCheckedOut = new AtomicInteger();
+      Thread[] threads = new Thread[nbrThreads];
+      for (int i = 0; i < nbrThreads; i++) {
+        final boolean isAsync = (i % 2) == 0;
+        threads[i] = new Thread(() -> {
+          for (int j = 0; j < 20; j++) {
+            Resource r = isAsync ? pool1.getResourceAsync().join() : pool1.getResource(0);
+            maxCheckedOut.accumulateAndGet(checkedOut.incrementAndGet(), Math::max);
+            Thread.yield();
+            checkedOut.decrementAndGet();
+            pool1.releaseResource(r);
+          }
+        });
+        threads[i].start();
+      }
+      for (Thread t : threads) {
+        t.join(60000);
+        Assert.assertFalse(t.isAlive());
+      }
+      Assert.assertTrue(maxCheckedOut.get() <= 3);
+      Assert.assertEquals(3, pool1.getFreeInstances().size());
+      Assert.assertEquals(3, pool1.getNumAvailable());
+      Assert.assertEquals(nbrThreads * 20, pool1.getTotalCheckouts());
+    } catch (Exception e) {
+      JUnitExtension.handleException(e);
+    }
+  }
+
   private AnalysisEngineDescription mDesc;
 
   private ResourcePool pool1;
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.resource;
+
+import java.io.File;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.resource.metadata.FsIndexCollection;
+import org.apache.uima.resource.metadata.FsIndexDescription;
+import org.apache.uima.resource.metadata.Import;
+import org.apache.uima.resource.metadata.ProcessingResourceMetaData;
+import org.apache.uima.resource.metadata.TypeDescription;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+
+import junit.framework.TestCase;
+
+public class CasDefinitionCacheTest extends TestCase {
+
+  private File cacheDir;
+
+  protected void setUp() throws Exception {
+    cacheDir = Files.createTempDirectory("uimaTsCache").toFile();
+    System.setProperty(CasDefinitionCache.TYPE_SYSTEM_CACHE_DIR, cacheDir.getPath());
+  }
+
+  protected void tearDown() throws Exception {
+    System.clearProperty(CasDefinitionCache.TYPE_SYSTEM_CACHE_DIR);
+    for (File f : cacheDir.listFiles()) {
+      f.delete();
+    }
+    cacheDir.delete();
+  }
+
+  private List<ProcessingResourceMetaData> components(String extraFeature) {
+    List<ProcessingResourceMetaData> mds = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      ProcessingResourceMetaData md = UIMAFramework.getResourceSpecifierFactory().createProcessingResourceMetaData();
+      TypeSystemDescription tsd = UIMAFramework.getResourceSpecifierFactory().createTypeSystemDescription();
+      // the same type in both, with different features, merged
+      TypeDescription token = tsd.addType("test.Token", "", CAS.TYPE_NAME_ANNOTATION);
+      token.addFeature((i == 0) ? "pos" : extraFeature, "", CAS.TYPE_NAME_STRING);
+      md.setTypeSystem(tsd);
+      if (i == 1) {
+        FsIndexDescription index = UIMAFramework.getResourceSpecifierFactory().createFsIndexDescription();
+        index.setLabel("tokenIndex");
+        index.setTypeName("test.Token");
+        index.setKind(FsIndexDescription.KIND_BAG);
+        FsIndexCollection indexes = UIMAFramework.getResourceSpecifierFactory().createFsIndexCollection();
+        indexes.setFsIndexes(new FsIndexDescription[] {index});
+        md.setFsIndexCollection(indexes);
+      }
+      mds.add(md);
+    }
+    return mds;
+  }
+
+  public void testCache() throws Exception {
+    ResourceManager rm = UIMAFramework.newDefaultResourceManager();
+    CasDefinition def1 = new CasDefinition(components("lemma"), rm);
+    File[] entries = entries();
+    assertEquals(1, entries.length);
+    assertEquals(2, def1.getTypeSystemDescription().getType("test.Token").getFeatures().length);
+
+    // same components: read from the cache
+    CasDefinition def2 = new CasDefinition(components("lemma"), rm);
+    assertEquals(1, entries().length);
+    assertEquals(2, def2.getTypeSystemDescription().getType("test.Token").getFeatures().length);
+    assertEquals("tokenIndex", def2.getFsIndexDescriptions()[0].getLabel());
+    CAS cas = CasCreationUtils.createCas(def2, null);
+    assertNotNull(cas.getTypeSystem().getType("test.Token").getFeatureByBaseName("lemma"));
+    assertNotNull(cas.getIndexRepository().getIndex("tokenIndex"));
+
+    // the entry is used, not recomputed
+    ProcessingResourceMetaData marked = def1.getProcessingResourceMetaData();
+    marked.getTypeSystem().getType("test.Token").setDescription("from the cache");
+    try (Writer w = new OutputStreamWriter(Files.newOutputStream(entries[0].toPath()), StandardCharsets.UTF_8)) {
+      marked.toXML(w);
+    }
+    CasDefinition def3 = new CasDefinition(components("lemma"), rm);
+    assertEquals("from the cache", def3.getTypeSystemDescription().getType("test.Token").getDescription());
+
+    // different components: a new entry
+    CasDefinition def4 = new CasDefinition(components("stem"), rm);
+    assertEquals(2, entries().length);
+    assertEquals("stem", def4.getTypeSystemDescription().getType("test.Token").getFeatures()[1].getName());
+
+    // an unreadable entry is a miss
+    try (Writer w = new OutputStreamWriter(Files.newOutputStream(entries[0].toPath()), StandardCharsets.UTF_8)) {
+      w.write("not xml");
+    }
+    CasDefinition def5 = new CasDefinition(components("lemma"), rm);
+    assertEquals(2, def5.getTypeSystemDescription().getType("test.Token").getFeatures().length);
+    assertEquals("", def5.getTypeSystemDescription().getType("test.Token").getDescription());
+  }
+
+  public void testChangedImport() throws Exception {
+    File imported = new File(cacheDir, "imported");
+    imported.mkdir();
+    File importedTs = new File(imported, "ImportedTs.xml");
+    writeImportedTs(importedTs, "lemma");
+    
+    CasDefinition def1 = new CasDefinition(importing(importedTs), UIMAFramework.newDefaultResourceManager());
+    assertNotNull(def1.getTypeSystemDescription().getType("test.Token"));
+    assertEquals("lemma", def1.getTypeSystemDescription().getType("test.Token").getFeatures()[0].getName());
+    assertEquals(1, entries().length);
+    
+    // same length and same modification time: only the contents differ
+    long lastModified = importedTs.lastModified();
+    writeImportedTs(importedTs, "stems");
+    importedTs.setLastModified(lastModified);
+    CasDefinition def2 = new CasDefinition(importing(importedTs), UIMAFramework.newDefaultResourceManager());
+    assertEquals("stems", def2.getTypeSystemDescription().getType("test.Token").getFeatures()[0].getName());
+    
+    // and now the new contents are cached
+    CasDefinition def3 = new CasDefinition(importing(importedTs), UIMAFramework.newDefaultResourceManager());
+    assertEquals("stems", def3.getTypeSystemDescription().getType("test.Token").getFeatures()[0].getName());
+    assertEquals(1, entries().length);
+    
+    importedTs.delete();
+    imported.delete();
+  }
+  
+  private static List<ProcessingResourceMetaData> importing(File importedTs) throws Exception {
+    ProcessingResourceMetaData md = UIMAFramework.getResourceSpecifierFactory().createProcessingResourceMetaData();
+    TypeSystemDescription tsd = UIMAFramework.getResourceSpecifierFactory().createTypeSystemDescription();
+    Import imp = UIMAFramework.getResourceSpecifierFactory().createImport();
+    imp.setLocation(importedTs.toURI().toURL().toString());
+    tsd.setImports(new Import[] {imp});
+    md.setTypeSystem(tsd);
+    List<ProcessingResourceMetaData> mds = new ArrayList<>();
+    mds.add(md);
+    return mds;
+  }
+  
+  private static void writeImportedTs(File f, String featureName) throws Exception {
+    TypeSystemDescription tsd = UIMAFramework.getResourceSpecifierFactory().createTypeSystemDescription();
+    tsd.addType("test.Token", "", CAS.TYPE_NAME_ANNOTATION).addFeature(featureName, "", CAS.TYPE_NAME_STRING);
+    try (Writer w = new OutputStreamWriter(Files.newOutputStream(f.toPath()), StandardCharsets.UTF_8)) {
+      tsd.toXML(w);
+    }
+  }
+  
+  /**
+   * @return the merged descriptions in the cache, without their imports files
+   */
+  private File[] entries() {
+    return cacheDir.listFiles((dir, name) -> name.endsWith(".xml"));
+  }
+
+  public void testDisabled() throws Exception {
+    System.clearProperty(CasDefinitionCache.TYPE_SYSTEM_CACHE_DIR);
+    new CasDefinition(components("lemma"), UIMAFramework.newDefaultResourceManager());
+    assertEquals(0, cacheDir.listFiles().length);
+  }
+}
@@ -202,6 +202,12 @@ public class CasIOUtilsTest extends TestCase{
     casInputStream.close();
     Assert.assertEquals(format, loadedFormat);
     assertCorrectlyLoaded(casToUse, leniently);
+    
+    // memory mapped
+    casToUse.reset();
+    loadedFormat = CasIOUtils.load(casFile.toPath(), null, casToUse, leniently ? CasLoadMode.LENIENT : CasLoadMode.DEFAULT);
+    Assert.assertEquals(format, loadedFormat);
+    assertCorrectlyLoaded(casToUse, leniently);
   }
   
   private static void assertCorrectlyLoaded(CAS cas, boolean leniently) throws Exception {
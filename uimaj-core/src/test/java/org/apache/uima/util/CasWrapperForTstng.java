@@ -271,6 +271,14 @@ public class CasWrapperForTstng implements CAS {
     originalCAS.reset();
   }
 
+  public void freeze() {
+    originalCAS.freeze();
+  }
+
+  public boolean isFrozen() {
+    return originalCAS.isFrozen();
+  }
+
   public void setCurrentComponentInfo(ComponentInfo info) {
     originalCAS.setCurrentComponentInfo(info);
   }
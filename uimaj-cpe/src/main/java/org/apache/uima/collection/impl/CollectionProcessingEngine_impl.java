@@ -23,6 +23,7 @@ import java.util.Map;
 import java.util.Properties;
 
 import org.apache.uima.UIMA_IllegalStateException;
+import org.apache.uima.analysis_engine.AnalysisEngine;
 import org.apache.uima.collection.CollectionProcessingEngine;
 import org.apache.uima.collection.StatusCallbackListener;
 import org.apache.uima.collection.base_cpm.BaseCollectionReader;
@@ -30,6 +31,7 @@ import org.apache.uima.collection.base_cpm.CasProcessor;
 import org.apache.uima.collection.impl.cpm.BaseCPMImpl;
 import org.apache.uima.collection.impl.cpm.container.deployer.socket.ProcessControllerAdapter;
 import org.apache.uima.collection.metadata.CpeDescription;
+import org.apache.uima.internal.util.JmxMBeanAgent;
 import org.apache.uima.resource.Resource;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.resource.ResourceManager;
@@ -43,6 +45,16 @@ public class CollectionProcessingEngine_impl implements CollectionProcessingEngi
    */
   private BaseCPMImpl mCPM = null;
 
+  /**
+   * MBean for changing the number of processing pipelines through JMX
+   */
+  private CpeManagementImpl mMBean = null;
+
+  /**
+   * The MBeanServer the MBean is registered with, null for the platform MBeanServer
+   */
+  private Object mMBeanServer = null;
+
   /*
    * (non-Javadoc)
    * 
@@ -80,6 +92,15 @@ public class CollectionProcessingEngine_impl implements CollectionProcessingEngi
     } catch (Exception e) {
       throw new ResourceInitializationException(e);
     }
+
+    // register MBean with MBeanServer. If no MBeanServer specified in the
+    // additionalParams map, this will use the platform MBean Server
+    if (aAdditionalParams != null) {
+      mMBeanServer = aAdditionalParams.get(AnalysisEngine.PARAM_MBEAN_SERVER);
+    }
+    mMBean = new CpeManagementImpl(this, aAdditionalParams == null ? null
+            : (String) aAdditionalParams.get(AnalysisEngine.PARAM_MBEAN_NAME_PREFIX));
+    JmxMBeanAgent.registerMBean(mMBean, mMBeanServer);
   }
 
   /*
@@ -198,6 +219,46 @@ public class CollectionProcessingEngine_impl implements CollectionProcessingEngi
     return mCPM.getCasProcessors();
   }
 
+  /*
+   * (non-Javadoc)
+   * 
+   * @see org.apache.uima.collection.CollectionProcessingEngine#getProcessingUnitCount()
+   */
+  public int getProcessingUnitCount() {
+    return mCPM.getProcessingUnitCount();
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see org.apache.uima.collection.CollectionProcessingEngine#getMaxProcessingUnitCount()
+   */
+  public int getMaxProcessingUnitCount() {
+    return mCPM.getMaxProcessingUnitCount();
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see org.apache.uima.collection.CollectionProcessingEngine#setProcessingUnitCount(int)
+   */
+  public void setProcessingUnitCount(int aCount) {
+    mCPM.setProcessingUnitCount(aCount);
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see java.lang.Object#finalize()
+   */
+  protected void finalize() throws Throwable {
+    // unregister MBean from MBeanServer when GC occurs.
+    if (mMBean != null) {
+      JmxMBeanAgent.unregisterMBean(mMBean, mMBeanServer);
+    }
+    super.finalize();
+  }
+
   /*
    * (non-Javadoc)
    * 
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.collection.impl;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.uima.collection.CollectionProcessingEngine;
+import org.apache.uima.resource.ManagementObject;
+
+/**
+ * Implements the Monitoring/Management interface to the processing pipelines of a CPE.
+ */
+public class CpeManagementImpl implements ManagementObject, CpeManagementImplMBean {
+
+  /** Used to make the MBean names unique. */
+  private static final AtomicInteger instanceCount = new AtomicInteger();
+
+  private WeakReference<CollectionProcessingEngine> mCpeRef;
+  private String mUniqueMBeanName;
+
+  /**
+   * @param aCpe the CPE
+   * @param aMBeanNamePrefix an optional prefix provided by the Application; if null,
+   *          "org.apache.uima:" is used.
+   */
+  public CpeManagementImpl(CollectionProcessingEngine aCpe, String aMBeanNamePrefix) {
+    mCpeRef = new WeakReference<>(aCpe);
+    String prefix = aMBeanNamePrefix;
+    if (prefix == null) {
+      prefix = "org.apache.uima:";
+    } else if (!prefix.endsWith(":") && !prefix.endsWith(",")) {
+      prefix += ",";
+    }
+    int instance = instanceCount.incrementAndGet();
+    mUniqueMBeanName = prefix + "name=CPE Processing Pipelines" + ((instance == 1) ? "" : instance);
+  }
+
+  /* (non-Javadoc)
+   * @see org.apache.uima.collection.impl.CpeManagementImplMBean#getProcessingUnitCount()
+   */
+  public int getProcessingUnitCount() {
+    CollectionProcessingEngine cpe = mCpeRef.get();
+    return (cpe == null) ? -1 : cpe.getProcessingUnitCount();
+  }
+
+  /* (non-Javadoc)
+   * @see org.apache.uima.collection.impl.CpeManagementImplMBean#setProcessingUnitCount(int)
+   */
+  public void setProcessingUnitCount(int aCount) {
+    CollectionProcessingEngine cpe = mCpeRef.get();
+    if (cpe != null) {
+      cpe.setProcessingUnitCount(aCount);
+    }
+  }
+
+  /* (non-Javadoc)
+   * @see org.apache.uima.collection.impl.CpeManagementImplMBean#getMaxProcessingUnitCount()
+   */
+  public int getMaxProcessingUnitCount() {
+    CollectionProcessingEngine cpe = mCpeRef.get();
+    return (cpe == null) ? -1 : cpe.getMaxProcessingUnitCount();
+  }
+
+  /* (non-Javadoc)
+   * @see org.apache.uima.resource.ManagementObject#getUniqueMBeanName()
+   */
+  public String getUniqueMBeanName() {
+    return mUniqueMBeanName;
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.collection.impl;
+
+/**
+ * JMX MBean interface for monitoring and changing the processing pipelines of a CPE.
+ */
+public interface CpeManagementImplMBean {
+  /**
+   * Get the number of processing pipelines running.
+   * @return the number of processing pipelines running
+   */
+  public int getProcessingUnitCount();
+
+  /**
+   * Change the number of processing pipelines, between 1 and the max number of pipelines.
+   * @param aCount the number of processing pipelines
+   */
+  public void setProcessingUnitCount(int aCount);
+
+  /**
+   * Get the max number of processing pipelines.
+   * @return the max number of processing pipelines
+   */
+  public int getMaxProcessingUnitCount();
+}
@@ -86,6 +86,9 @@ public class BaseCPMImpl implements BaseCPM, Runnable {
   /** The checkpoint. */
   private Checkpoint checkpoint = null;
 
+  /** True once the checkpoint write times were added to the performance report. */
+  private boolean checkpointReported = false;
+
   /** The checkpoint data. */
   private CheckpointData checkpointData = null;
 
@@ -535,7 +538,7 @@ public class BaseCPMImpl implements BaseCPM, Runnable {
       // and may need to be recovered. Checkpoint file contains the status of the CPM, including
       // last document processed, status of all CasProcessors along with all counts and totals.
       if (!killed && checkpoint != null) {
-        checkpoint.stop();
+        stopCheckpoint();
         checkpoint.delete();
         checkpoint = null;
       }
@@ -770,6 +773,37 @@ public class BaseCPMImpl implements BaseCPM, Runnable {
     return cpEngine.isPaused();
   }
 
+  /**
+   * Returns the number of processing pipelines running.
+   *
+   * @return the number of processing pipelines running
+   * @see CPMEngine#getProcessingUnitCount()
+   */
+  public int getProcessingUnitCount() {
+    return cpEngine.getProcessingUnitCount();
+  }
+
+  /**
+   * Returns the max number of processing pipelines.
+   *
+   * @return the max number of processing pipelines
+   * @see CPMEngine#getMaxProcessingUnitCount()
+   */
+  public int getMaxProcessingUnitCount() {
+    return cpEngine.getMaxProcessingUnitCount();
+  }
+
+  /**
+   * Changes the number of processing pipelines.
+   *
+   * @param aCount -
+   *          the number of processing pipelines
+   * @see CPMEngine#setProcessingUnitCount(int)
+   */
+  public void setProcessingUnitCount(int aCount) {
+    cpEngine.setProcessingUnitCount(aCount);
+  }
+
   /* (non-Javadoc)
    * @see org.apache.uima.collection.base_cpm.BaseCPM#resume(boolean)
    */
@@ -820,11 +854,28 @@ public class BaseCPMImpl implements BaseCPM, Runnable {
     // its run. See BaseCPM#run().
     if (checkpoint != null && !completed) {
       checkpoint.doCheckpoint();
-      checkpoint.stop();
+      stopCheckpoint();
     }
 
   }
 
+  /**
+   * Stops the checkpoint thread, and adds the time spent writing checkpoints to the performance
+   * report.
+   */
+  private void stopCheckpoint() {
+    checkpoint.stop();
+    if (checkpointReported || checkpoint.getWriteCount() == 0) {
+      return;
+    }
+    checkpointReported = true;
+    synchronized (procTr) {
+      procTr.addEvent("CPM", "Checkpoint Write", "Time spent writing checkpoints",
+              (int) checkpoint.getWriteTime(), "Count:" + checkpoint.getWriteCount() + " Max:"
+                      + checkpoint.getMaxWriteTime());
+    }
+  }
+
   /* (non-Javadoc)
    * @see org.apache.uima.collection.base_cpm.BaseCPM#stop()
    */
@@ -851,7 +902,7 @@ public class BaseCPMImpl implements BaseCPM, Runnable {
     // its run. See BaseCPM#run().
     if (checkpoint != null && !completed) {
       checkpoint.doCheckpoint();
-      checkpoint.stop();
+      stopCheckpoint();
     }
   }
 
@@ -881,7 +932,7 @@ public class BaseCPMImpl implements BaseCPM, Runnable {
     // its run. See BaseCPM#run().
     if (checkpoint != null && !completed) {
       checkpoint.doCheckpoint();
-      checkpoint.stop();
+      stopCheckpoint();
     }
   }
 
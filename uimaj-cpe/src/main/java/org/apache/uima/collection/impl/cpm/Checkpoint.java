@@ -25,8 +25,8 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.collection.base_cpm.SynchPoint;
@@ -69,6 +69,18 @@ public class Checkpoint implements Runnable {
   /** The synch point file name. */
   private String synchPointFileName = null;
 
+  /** The binary log the checkpoints are appended to. */
+  private final CheckpointLog checkpointLog;
+
+  /** The number of checkpoints written. */
+  private long writeCount = 0;
+
+  /** The total time spent writing checkpoints, in nanoseconds. */
+  private long writeNanos = 0;
+
+  /** The longest time spent writing a checkpoint, in nanoseconds. */
+  private long maxWriteNanos = 0;
+
   /**
    * Initialize the checkpoint with a reference to controlling cpe, the file where the checkpoint is
    * to be stored, and the frequency of checkpoints.
@@ -85,6 +97,7 @@ public class Checkpoint implements Runnable {
     }
     cpm = aCpm;
     checkpointFrequency = aCheckpointFrequency;
+    checkpointLog = new CheckpointLog(new File(fileName));
   }
 
   /**
@@ -187,64 +200,41 @@ public class Checkpoint implements Runnable {
    * Serializes checkpoint information to disk. It retrieves data to checkpoint from the CPEEngine.
    * 
    */
-  public void doCheckpoint() {
+  public synchronized void doCheckpoint() {
     try {
       if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
         UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST, this.getClass().getName(),
                 "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_checkpoint__FINEST",
                 new Object[] { Thread.currentThread().getName() });
       }
-      // 02/08/05 Checkpoint has been broken up into two files. One containing the
-      // ProcessTrace saved as binary object, and second containing the SynchPoint
-      // saved as xml.
-      rename(fileName);
-      rename(synchPointFileName);
-      // This stream is for the ProcessTrace part of the Checkppoint
-      // This stream is for the SynchPoint part of the Checkpoint
-      ObjectOutputStream s = null;
-
-      try (FileOutputStream out = new FileOutputStream(fileName);
-           FileOutputStream synchPointOut = new FileOutputStream(synchPointFileName)) {
-        s = new ObjectOutputStream(out);
-        SynchPoint synchPoint = cpm.getSynchPoint();
-
-        ProcessTrace pTrace = cpm.getPerformanceReport();
-        CheckpointData targetToSave = null;
-        if (pTrace != null) {
-          if (synchPoint != null) {
-            if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
-              UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST,
-                    this.getClass().getName(), "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
-                    "UIMA_CPM_checkpoint_with_synchpoint__FINEST",
-                    new Object[] {Thread.currentThread().getName()});
-            }
-            targetToSave = new CheckpointData(pTrace, synchPoint);
-          } else {
-            if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
-              UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST,
-                    this.getClass().getName(), "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
-                    "UIMA_CPM_checkpoint_with_pt__FINEST",
-                    new Object[] {Thread.currentThread().getName()});
-            }
-            targetToSave = new CheckpointData(pTrace);
-          }
-          synchronized (targetToSave) {
-            s.writeObject(targetToSave);
-            s.flush();
-            if (synchPoint != null) {
-              String xmlSynchPoint = synchPoint.serializeToXML();
-              synchPointOut.write(xmlSynchPoint.getBytes());
-              synchPointOut.flush();
-            }
-          }
-        }
-      } catch (Exception e) {
+      ProcessTrace pTrace = cpm.getPerformanceReport();
+      if (pTrace == null) {
+        return;
+      }
+      SynchPoint synchPoint = cpm.getSynchPoint();
+      if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
         UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST, this.getClass().getName(),
-              "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
-              "UIMA_CPM_exception_when_checkpointing__FINEST",
-              new Object[] {Thread.currentThread().getName(), e.getMessage()});
+                "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
+                (synchPoint != null) ? "UIMA_CPM_checkpoint_with_synchpoint__FINEST"
+                        : "UIMA_CPM_checkpoint_with_pt__FINEST",
+                new Object[] { Thread.currentThread().getName() });
       }
-
+      long start = System.nanoTime();
+      // The checkpoint is appended to a binary log (see CheckpointLog), which also holds the
+      // SynchPoint. The SynchPoint is still written as xml to its own file, so that it can be
+      // changed manually before a restart.
+      checkpointLog.write(pTrace, synchPoint);
+      if (synchPoint != null && synchPointFileName != null) {
+        try (FileOutputStream synchPointOut = new FileOutputStream(synchPointFileName)) {
+          synchPointOut.write(synchPoint.serializeToXML().getBytes());
+        }
+      }
+      long elapsed = System.nanoTime() - start;
+      writeCount++;
+      writeNanos += elapsed;
+      maxWriteNanos = Math.max(maxWriteNanos, elapsed);
+      UIMAFramework.getLogger(this.getClass()).debug(() -> "Checkpoint written in "
+              + TimeUnit.NANOSECONDS.toMicros(elapsed) + " us to " + fileName);
     } catch (Exception e) {
       UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST, this.getClass().getName(),
               "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
@@ -253,6 +243,33 @@ public class Checkpoint implements Runnable {
     }
   }
 
+  /**
+   * Returns the number of checkpoints written.
+   *
+   * @return - the number of checkpoints written
+   */
+  public synchronized long getWriteCount() {
+    return writeCount;
+  }
+
+  /**
+   * Returns the total time spent writing checkpoints.
+   *
+   * @return - the time in milliseconds
+   */
+  public synchronized long getWriteTime() {
+    return TimeUnit.NANOSECONDS.toMillis(writeNanos);
+  }
+
+  /**
+   * Returns the longest time spent writing one checkpoint.
+   *
+   * @return - the time in milliseconds
+   */
+  public synchronized long getMaxWriteTime() {
+    return TimeUnit.NANOSECONDS.toMillis(maxWriteNanos);
+  }
+
   /**
    * Renames previous checkpoint file.
    * 
@@ -367,15 +384,21 @@ public class Checkpoint implements Runnable {
                   "UIMA_CPM_restoring_from_checkpoint__FINEST",
                   new Object[] { Thread.currentThread().getName() });
         }
-        FileInputStream in = new FileInputStream(file);
-        stream = new ObjectInputStream(in);
-        if (stream != null) {
+        if (CheckpointLog.isCheckpointLog(file)) {
+          anObject = CheckpointLog.read(file);
+        } else {
+          // checkpoint written by a previous version, with Java serialization
+          FileInputStream in = new FileInputStream(file);
+          stream = new ObjectInputStream(in);
           anObject = stream.readObject();
-          if (anObject != null && anObject instanceof CheckpointData) {
-            ProcessTrace processTrace = ((CheckpointData) anObject).getProcessTrace();
-            printStats(processTrace);
-          }
         }
+        if (anObject != null && anObject instanceof CheckpointData) {
+          ProcessTrace processTrace = ((CheckpointData) anObject).getProcessTrace();
+          printStats(processTrace);
+        }
+      }
+      if (synchPointFileName == null) {
+        return anObject;
       }
       file = new File(synchPointFileName);
       // Read the synchpoint from the filesystem.
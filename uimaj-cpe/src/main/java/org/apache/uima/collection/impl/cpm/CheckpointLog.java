@@ -0,0 +1,328 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.collection.impl.cpm;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.collection.base_cpm.SynchPoint;
+import org.apache.uima.util.ProcessTrace;
+import org.apache.uima.util.ProcessTraceEvent;
+import org.apache.uima.util.impl.ProcessTraceEvent_impl;
+import org.apache.uima.util.impl.ProcessTrace_impl;
+
+/**
+ * The checkpoint file: a header followed by one binary record per checkpoint, appended to the
+ * file. Only the last complete record is used for recovery; a record cut off by a crash is
+ * detected by its length and CRC, and ignored.
+ * 
+ * <p>A record holds the time of the checkpoint, the events of the CPM ProcessTrace (the progress
+ * counters and times, which the CPM aggregates, so their number doesn't grow with the number of
+ * documents) and the class and XML form of the SynchPoint of the Collection Reader.
+ * 
+ * <p>The first checkpoint of a run, and every {@link #COMPACTION_RECORDS}th one after, is written
+ * to a new file holding only that record, which is then renamed to the checkpoint file, atomically
+ * if the file system supports it. So the file size is bounded, and a crash while compacting leaves
+ * the previous file. The next checkpoint after a failed append is written the same way, as the
+ * file may end with a part of a record, which would hide the records appended after it.
+ */
+class CheckpointLog {
+
+  /** First int of the file, telling it apart from checkpoints written by Java serialization. */
+  static final int MAGIC = 0x55434B4C;
+
+  /** Version of the record format. */
+  static final int VERSION = 1;
+
+  /** Number of records after which the file is compacted. */
+  static final int COMPACTION_RECORDS = 100;
+
+  /** Max size of a record accepted when reading, to detect garbage lengths. */
+  private static final int MAX_RECORD_SIZE = 64 << 20;
+
+  /** The checkpoint file. */
+  private final File file;
+
+  /** Number of records in the file, -1 until this instance wrote the first one. */
+  private int records = -1;
+
+  /**
+   * @param aFile -
+   *          the checkpoint file
+   */
+  CheckpointLog(File aFile) {
+    file = aFile;
+  }
+
+  /**
+   * Appends a checkpoint to the file, or compacts it if needed.
+   * 
+   * @param aProcessTrace -
+   *          the CPM ProcessTrace
+   * @param aSynchPoint -
+   *          the SynchPoint of the Collection Reader, may be null
+   * @throws IOException -
+   */
+  synchronized void write(ProcessTrace aProcessTrace, SynchPoint aSynchPoint) throws IOException {
+    byte[] record = encode(aProcessTrace, aSynchPoint);
+    if (records < 0 || records >= COMPACTION_RECORDS) {
+      rollover(record);
+      records = 1;
+    } else {
+      try (FileOutputStream out = new FileOutputStream(file, true)) {
+        out.write(record);
+        out.getChannel().force(false);
+      } catch (IOException e) {
+        records = -1; // roll over at the next checkpoint
+        throw e;
+      }
+      records++;
+    }
+  }
+
+  /**
+   * Writes a new file with the header and a record, and renames it to the checkpoint file.
+   *
+   * @param aRecord -
+   *          the encoded record
+   * @throws IOException -
+   */
+  private void rollover(byte[] aRecord) throws IOException {
+    File tmpFile = new File(file.getPath() + ".tmp");
+    try (FileOutputStream out = new FileOutputStream(tmpFile)) {
+      DataOutputStream header = new DataOutputStream(out);
+      header.writeInt(MAGIC);
+      header.writeInt(VERSION);
+      header.write(aRecord);
+      header.flush();
+      out.getChannel().force(false);
+    }
+    try {
+      Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+              StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Checks if a file was written by this class.
+   *
+   * @param aFile -
+   *          a checkpoint file
+   * @return - true if the file starts with the header of a checkpoint log
+   */
+  static boolean isCheckpointLog(File aFile) {
+    try (DataInputStream in = new DataInputStream(new FileInputStream(aFile))) {
+      return in.readInt() == MAGIC;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Reads the last complete checkpoint of a file.
+   *
+   * @param aFile -
+   *          a checkpoint file written by this class
+   * @return - the last checkpoint, null if there is none
+   * @throws IOException -
+   *           if the file can't be read or is not a checkpoint log
+   */
+  static CheckpointData read(File aFile) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(
+            aFile)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("Not a checkpoint log, or an unsupported version: " + aFile);
+      }
+      byte[] last = null;
+      CRC32 crc = new CRC32();
+      try {
+        while (true) {
+          int length = in.readInt();
+          if (length <= 0 || length > MAX_RECORD_SIZE) {
+            break;
+          }
+          byte[] payload = new byte[length];
+          in.readFully(payload);
+          crc.reset();
+          crc.update(payload, 0, length);
+          if (in.readInt() != (int) crc.getValue()) {
+            break;
+          }
+          last = payload;
+        }
+      } catch (EOFException e) {
+        // a record cut off by a crash, or the end of the file
+      }
+      return (last == null) ? null : decode(last);
+    }
+  }
+
+  /**
+   * Encodes a record: its length, the payload, and the CRC of the payload.
+   *
+   * @param aProcessTrace -
+   *          the CPM ProcessTrace
+   * @param aSynchPoint -
+   *          the SynchPoint of the Collection Reader, may be null
+   * @return - the record
+   * @throws IOException -
+   */
+  private static byte[] encode(ProcessTrace aProcessTrace, SynchPoint aSynchPoint)
+          throws IOException {
+    ByteArrayOutputStream payload = new ByteArrayOutputStream(1024);
+    DataOutputStream out = new DataOutputStream(payload);
+    out.writeLong(System.currentTimeMillis());
+    writeEvents(out, aProcessTrace.getEvents());
+    out.writeBoolean(aSynchPoint != null);
+    if (aSynchPoint != null) {
+      writeString(out, aSynchPoint.getClass().getName());
+      writeString(out, aSynchPoint.serializeToXML());
+    }
+    out.flush();
+
+    CRC32 crc = new CRC32();
+    crc.update(payload.toByteArray(), 0, payload.size());
+    ByteArrayOutputStream record = new ByteArrayOutputStream(payload.size() + 8);
+    DataOutputStream recordOut = new DataOutputStream(record);
+    recordOut.writeInt(payload.size());
+    payload.writeTo(recordOut);
+    recordOut.writeInt((int) crc.getValue());
+    recordOut.flush();
+    return record.toByteArray();
+  }
+
+  /**
+   * Decodes the payload of a record.
+   *
+   * @param aPayload -
+   *          the payload
+   * @return - the checkpoint
+   * @throws IOException -
+   */
+  private static CheckpointData decode(byte[] aPayload) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(aPayload));
+    in.readLong(); // time of the checkpoint
+    ProcessTrace processTrace = new ProcessTrace_impl();
+    int nbrEvents = in.readInt();
+    for (int i = 0; i < nbrEvents; i++) {
+      processTrace.addEvent(readEvent(in));
+    }
+    SynchPoint synchPoint = null;
+    if (in.readBoolean()) {
+      String className = readString(in);
+      String xml = readString(in);
+      synchPoint = createSynchPoint(className, xml);
+    }
+    return new CheckpointData(processTrace, synchPoint);
+  }
+
+  /**
+   * Recreates a SynchPoint from its XML form.
+   *
+   * @param aClassName -
+   *          the SynchPoint class
+   * @param aXml -
+   *          the XML written by serializeToXML()
+   * @return - the SynchPoint, or null if it can't be recreated
+   */
+  static SynchPoint createSynchPoint(String aClassName, String aXml) {
+    try {
+      ClassLoader cl = Thread.currentThread().getContextClassLoader();
+      Class<?> synchPointClass = (cl == null) ? Class.forName(aClassName) : Class.forName(
+              aClassName, true, cl);
+      SynchPoint synchPoint = (SynchPoint) synchPointClass.getDeclaredConstructor().newInstance();
+      try (InputStream xmlStream = new ByteArrayInputStream(aXml.getBytes(StandardCharsets.UTF_8))) {
+        synchPoint.deserialize(xmlStream);
+      }
+      return synchPoint;
+    } catch (Exception e) {
+      UIMAFramework.getLogger(CheckpointLog.class).warn(
+              () -> "Unable to restore the SynchPoint " + aClassName + " from the checkpoint", e);
+      return null;
+    }
+  }
+
+  private static void writeEvents(DataOutputStream out, List<ProcessTraceEvent> aEvents)
+          throws IOException {
+    if (aEvents == null) {
+      out.writeInt(0);
+      return;
+    }
+    out.writeInt(aEvents.size());
+    for (ProcessTraceEvent event : aEvents) {
+      writeString(out, event.getComponentName());
+      writeString(out, event.getType());
+      writeString(out, event.getDescription());
+      out.writeInt(event.getDuration());
+      writeString(out, event.getResultMessage());
+      writeEvents(out, event.getSubEvents());
+    }
+  }
+
+  private static ProcessTraceEvent readEvent(DataInputStream in) throws IOException {
+    ProcessTraceEvent_impl event = new ProcessTraceEvent_impl(readString(in), readString(in),
+            readString(in));
+    event.setDuration(in.readInt());
+    event.setResultMessage(readString(in));
+    int nbrSubEvents = in.readInt();
+    for (int i = 0; i < nbrSubEvents; i++) {
+      event.addSubEvent(readEvent(in));
+    }
+    return event;
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    if (s == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -32,6 +32,7 @@ import org.apache.uima.cas_data.CasData;
 import org.apache.uima.collection.CasInitializer;
 import org.apache.uima.collection.CollectionException;
 import org.apache.uima.collection.CollectionReader;
+import org.apache.uima.collection.PartitionableCollectionReader;
 import org.apache.uima.collection.StatusCallbackListener;
 import org.apache.uima.collection.base_cpm.BaseCollectionReader;
 import org.apache.uima.collection.base_cpm.CasDataCollectionReader;
@@ -120,6 +121,9 @@ public class ArtifactProducer extends Thread {
   /** The global shared process trace. */
   private ProcessTrace globalSharedProcessTrace = null;
 
+  /** Reads ahead from a PartitionableCollectionReader, null if not enabled. */
+  private CollectionReaderPrefetcher prefetcher = null;
+
   /**
    * Instantiates and initializes this instance.
    *
@@ -408,6 +412,16 @@ public class ArtifactProducer extends Thread {
     // The capacity of casList is equal to the CollectionReader fetchSize,
     // defined in CR descriptor.
     if (collectionReader instanceof CollectionReader) {
+      // elements read ahead, that only need to be put into CASes
+      Object[] elements = null;
+      if (prefetcher != null) {
+        threadState = 1002; // Waiting for read ahead elements
+        elements = prefetcher.next(fetchSize);
+        if (elements == null) {
+          return null;
+        }
+        fetchSize = elements.length;
+      }
       casList = new CAS[fetchSize];
       for (int i = 0; i < fetchSize; i++) {
 
@@ -521,7 +535,7 @@ public class ArtifactProducer extends Thread {
             localTrace.startEvent(collectionReader.getProcessingResourceMetaData().getName(),
                     "Process", "");
             eventStarted = true;
-            ((CollectionReader) collectionReader).getNext(view);
+            getNext(view, (elements == null) ? null : elements[i]);
             localTrace.endEvent(collectionReader.getProcessingResourceMetaData().getName(),
                     "Process", "success");
 
@@ -545,7 +559,7 @@ public class ArtifactProducer extends Thread {
             localTrace.startEvent(collectionReader.getProcessingResourceMetaData().getName(),
                     "Process", "");
             eventStarted = true;
-            ((CollectionReader) collectionReader).getNext(baseCas);
+            getNext(baseCas, (elements == null) ? null : elements[i]);
             localTrace.endEvent(collectionReader.getProcessingResourceMetaData().getName(),
                     "Process", "success");
 
@@ -654,6 +668,66 @@ public class ArtifactProducer extends Thread {
     return casObjects;
   }
 
+  /**
+   * Gets the next element of the collection into a CAS.
+   *
+   * @param aCas -
+   *          CAS or view given to the CollectionReader
+   * @param aElement -
+   *          element read ahead by a partition, or null to call getNext()
+   * @throws IOException -
+   *           error while reading corpus
+   * @throws CollectionException -
+   */
+  private void getNext(CAS aCas, Object aElement) throws IOException, CollectionException {
+    if (aElement == null) {
+      ((CollectionReader) collectionReader).getNext(aCas);
+    } else {
+      ((PartitionableCollectionReader) collectionReader).populate(aElement, aCas);
+    }
+  }
+
+  /**
+   * Checks if the CollectionReader, or the read ahead threads, have more entities.
+   *
+   * @return true if there are more entities
+   * @throws IOException -
+   *           error while reading corpus
+   * @throws CollectionException -
+   */
+  private boolean hasNext() throws IOException, CollectionException {
+    if (prefetcher != null) {
+      return prefetcher.hasNext();
+    }
+    return collectionReader.hasNext();
+  }
+
+  /**
+   * Starts reading ahead, if the CollectionReader is partitionable and the
+   * {@link UIMAFramework#CPM_READER_THREADS} performance tuning setting is given.
+   */
+  private void startPrefetching() {
+    int readerThreads = cpm.getIntSetting(UIMAFramework.CPM_READER_THREADS, 0);
+    if (readerThreads <= 0 || !(collectionReader instanceof PartitionableCollectionReader)) {
+      return;
+    }
+    int prefetchSize = cpm.getIntSetting(UIMAFramework.CPM_READER_PREFETCH_SIZE,
+            4 * readerThreads);
+    int maxConsecutiveFailures = cpm.getIntSetting(
+            UIMAFramework.CPM_READER_MAX_CONSECUTIVE_FAILURES, 100);
+    try {
+      prefetcher = new CollectionReaderPrefetcher(
+              (PartitionableCollectionReader) collectionReader, readerThreads, prefetchSize,
+              maxConsecutiveFailures, cpm);
+      prefetcher.start();
+    } catch (CollectionException e) {
+      // read the way other Collection Readers are read
+      UIMAFramework.getLogger(this.getClass()).warn(() -> "Failed to partition the collection, "
+              + "reading without read ahead threads: " + e.getMessage(), e);
+      prefetcher = null;
+    }
+  }
+
   /**
    * Runs this thread until the CPM halts or the CollectionReader has no more entities. It
    * continuously fills the work queue with entities returned by the CollectionReader.
@@ -687,6 +761,7 @@ public class ArtifactProducer extends Thread {
       return;
     }
     isRunning = true;
+    startPrefetching();
     ProcessTrace localTrace = new ProcessTrace_impl(cpm.getPerformanceTuningSettings());
     while (cpm.isRunning()) {
 
@@ -728,7 +803,7 @@ public class ArtifactProducer extends Thread {
         localTrace.startEvent(collectionReader.getProcessingResourceMetaData().getName(),
                 "Process", "");
         crEventCompleted = false;
-        if (collectionReader.hasNext()) {
+        if (hasNext()) {
           localTrace.endEvent(collectionReader.getProcessingResourceMetaData().getName(),
                   "Process", "success");
           crEventCompleted = true;
@@ -891,6 +966,9 @@ public class ArtifactProducer extends Thread {
               "UIMA_CPM_show_cpm_running_status__FINEST",
               new Object[] { Thread.currentThread().getName(), String.valueOf(cpm.isRunning()) });
     }
+    if (prefetcher != null) {
+      prefetcher.stop();
+    }
     // Done with processing. Create a "special" EOF token and place it in
     // the queue.
     // Consumers of the queue must interpret this token as End Of File
@@ -19,7 +19,10 @@
 
 package org.apache.uima.collection.impl.cpm.engine;
 
+import java.util.Collection;
 import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.cas.CAS;
@@ -36,6 +39,8 @@ import org.apache.uima.util.Level;
  * <p>There are 2 dequeue calls.  One returns null if the queue is empty, the other can be given a 
  * timeout - and it will wait up to that time waiting for something to get enqueued.
  * 
+ * <p>The queue keeps statistics of the time producers and consumers spent waiting on it and of its
+ * occupancy, which the CPM adds to its ProcessTrace when the processing ends.
  * 
  */
 public class BoundedWorkQueue {
@@ -58,6 +63,21 @@ public class BoundedWorkQueue {
   /** The Constant WAIT_TIMEOUT. */
   protected static final int WAIT_TIMEOUT = 50;
 
+  /** The number of objects enqueued. */
+  protected final LongAdder enqueueCount = new LongAdder();
+
+  /** The nanos spent by producers waiting for a free slot. */
+  protected final LongAdder enqueueWaitNanos = new LongAdder();
+
+  /** The nanos spent by consumers waiting for an object. */
+  protected final LongAdder dequeueWaitNanos = new LongAdder();
+
+  /** The sum of the queue sizes right after each enqueue. */
+  protected final LongAdder occupancySum = new LongAdder();
+
+  /** The largest queue size seen. */
+  protected final AtomicInteger maxOccupancy = new AtomicInteger();
+
   /**
    * Initialize the instance.
    *
@@ -134,7 +154,11 @@ public class BoundedWorkQueue {
       // terminating the CPE
       if (!(anObject instanceof Object[] && ((Object[]) anObject)[0] instanceof EOFToken)) {
         // Block if the queue is full AND the CPE is running
+        long waitStart = 0;
         while (numberElementsInQueue == queueMaxSize && (cpm == null || cpm.isRunning())) {
+          if (waitStart == 0) {
+            waitStart = System.nanoTime();
+          }
           if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
             UIMAFramework.getLogger(this.getClass()).logrb(
                     Level.FINEST,
@@ -147,6 +171,9 @@ public class BoundedWorkQueue {
           }
           wait(WAIT_TIMEOUT);
         }
+        if (waitStart != 0) {
+          enqueueWaitNanos.add(System.nanoTime() - waitStart);
+        }
       }
     } catch (InterruptedException e) {
     }
@@ -165,6 +192,7 @@ public class BoundedWorkQueue {
     queue.add(anObject);
     // increment number of items in the queue
     numberElementsInQueue++;
+    recordEnqueue(numberElementsInQueue);
     if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
       UIMAFramework.getLogger(this.getClass()).logrb(
               Level.FINEST,
@@ -258,8 +286,9 @@ public class BoundedWorkQueue {
       try {
         // add 1 millisecond to expire time to account for "rounding" issues
         long timeNow = System.currentTimeMillis();
+        long waitStart = System.nanoTime();
         long timeExpire =
-          (! cpm.isRunning()) ? 
+          (cpm != null && ! cpm.isRunning()) ? 
               timeNow + WAIT_TIMEOUT :  // a value to avoid 100% cpu 
               ((0 == aTimeout) ? 
                   Long.MAX_VALUE : 
@@ -274,10 +303,12 @@ public class BoundedWorkQueue {
           this.wait(timeLeft);  // timeLeft is always > 0
           resource = dequeue();
           if (null != resource) {
+            dequeueWaitNanos.add(System.nanoTime() - waitStart);
             return resource;
           }
           timeLeft = timeExpire - System.currentTimeMillis();
         }
+        dequeueWaitNanos.add(System.nanoTime() - waitStart);
       } catch (InterruptedException e) {
       }
       if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
@@ -302,4 +333,83 @@ public class BoundedWorkQueue {
    */
   public void invalidate(CAS[] aCasObjectList) {
   }
+
+  /**
+   * Removes up to a given number of objects from the front of the queue, without waiting.
+   * 
+   * @param aCollection -
+   *          collection the objects are added to, in queue order
+   * @param aMaxElements -
+   *          max number of objects to remove
+   * @return - number of objects removed
+   */
+  public synchronized int drainTo(Collection<Object> aCollection, int aMaxElements) {
+    int n = 0;
+    Object o;
+    while (n < aMaxElements && (o = dequeue()) != null) {
+      aCollection.add(o);
+      n++;
+    }
+    return n;
+  }
+
+  /**
+   * Updates the occupancy statistics after an enqueue.
+   *
+   * @param aSize -
+   *          number of objects in the queue, including the one just enqueued
+   */
+  protected void recordEnqueue(int aSize) {
+    enqueueCount.increment();
+    occupancySum.add(aSize);
+    if (aSize > maxOccupancy.get()) {
+      maxOccupancy.accumulateAndGet(aSize, Math::max);
+    }
+  }
+
+  /**
+   * Returns the number of objects enqueued so far.
+   *
+   * @return - number of enqueue calls
+   */
+  public long getEnqueueCount() {
+    return enqueueCount.sum();
+  }
+
+  /**
+   * Returns the total time producers were blocked because the queue was full.
+   *
+   * @return - millis spent waiting in enqueue
+   */
+  public long getEnqueueWaitTime() {
+    return enqueueWaitNanos.sum() / 1000000;
+  }
+
+  /**
+   * Returns the total time consumers waited for an object to show up in the queue.
+   *
+   * @return - millis spent waiting in dequeue
+   */
+  public long getDequeueWaitTime() {
+    return dequeueWaitNanos.sum() / 1000000;
+  }
+
+  /**
+   * Returns the average number of objects in the queue, sampled at each enqueue.
+   *
+   * @return - average occupancy, 0 if nothing was enqueued
+   */
+  public double getAverageOccupancy() {
+    long count = enqueueCount.sum();
+    return (count == 0) ? 0 : (double) occupancySum.sum() / count;
+  }
+
+  /**
+   * Returns the largest number of objects the queue held.
+   *
+   * @return - max occupancy
+   */
+  public int getMaxOccupancy() {
+    return maxOccupancy.get();
+  }
 }
@@ -258,6 +258,15 @@ public class CPMEngine extends Thread {
   /** The active processing units. */
   private int activeProcessingUnits = 1;
 
+  /** The number of processing units to start, 0 to start all of them. */
+  private int initialProcessingUnits = 0;
+
+  /** The number of processing units started, to detect those started while joining them. */
+  private int processingUnitsStarted = 0;
+
+  /** Changes the number of processing units based on the load, may be null. */
+  private ProcessingUnitScaler scaler = null;
+
   /** The hard kill. */
   private boolean hardKill = false;
 
@@ -482,6 +491,175 @@ public class CPMEngine extends Thread {
     concurrentThreadCount = aConcurrentThreadSize;
   }
 
+  /**
+   * Returns the max number of processing pipelines, for which the Cas Processors were deployed.
+   *
+   * @return the max number of processing pipelines
+   */
+  public int getMaxProcessingUnitCount() {
+    return concurrentThreadCount;
+  }
+
+  /**
+   * Returns the number of processing pipelines running, not counting those asked to stop by
+   * {@link #setProcessingUnitCount(int)} that are finishing their current CAS.
+   *
+   * @return the number of processing pipelines running
+   */
+  public synchronized int getProcessingUnitCount() {
+    if (processingUnits == null) {
+      return 0;
+    }
+    int count = 0;
+    for (ProcessingUnit pu : processingUnits) {
+      if (pu != null && pu.isAlive() && !pu.isRetiring()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Changes the number of processing pipelines. The pipelines share the Cas Processors deployed
+   * for the max number of pipelines (see {@link #getMaxProcessingUnitCount()}), so the count is
+   * limited to that number, and to at least 1. Pipelines asked to stop do so after their current
+   * CAS; a new pipeline can only take the place of one that has stopped. Before processing starts,
+   * this sets the number of pipelines to start with.
+   *
+   * @param aCount -
+   *          the number of processing pipelines
+   */
+  public synchronized void setProcessingUnitCount(int aCount) {
+    int count = Math.max(1, Math.min(aCount, concurrentThreadCount));
+    if (processingUnits == null) {
+      initialProcessingUnits = count;
+      return;
+    }
+    // no new pipeline once all of them got the EOFToken
+    if (!isRunning || killed || activeProcessingUnits <= 0) {
+      return;
+    }
+    int running = getProcessingUnitCount();
+    for (int i = processingUnits.length - 1; i >= 0 && running > count; i--) {
+      ProcessingUnit pu = processingUnits[i];
+      if (pu != null && pu.isAlive() && !pu.isRetiring()) {
+        pu.retire();
+        running--;
+      }
+    }
+    for (int i = 0; i < processingUnits.length && running < count; i++) {
+      if (processingUnits[i] == null || !processingUnits[i].isAlive()) {
+        try {
+          activeProcessingUnits++;
+          startProcessingUnit(i);
+          running++;
+        } catch (Exception e) {
+          activeProcessingUnits--;
+          UIMAFramework.getLogger(this.getClass()).log(Level.SEVERE, e.getMessage(), e);
+          return;
+        }
+      }
+    }
+    final int newCount = running;
+    UIMAFramework.getLogger(this.getClass()).debug(
+            () -> "Processing pipelines changed to " + newCount);
+  }
+
+  /**
+   * Creates a processing pipeline in a slot of the processingUnits array, and starts it. The new
+   * pipeline uses the same Cas Processor containers as the other pipelines.
+   *
+   * @param i -
+   *          the slot
+   * @throws Exception -
+   *           if the custom processing pipeline class can't be instantiated
+   */
+  private synchronized void startProcessingUnit(int i) throws Exception {
+    // casList = new CAS[readerFetchSize];
+    if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
+      UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST, this.getClass().getName(),
+              "initialize", CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
+              "UIMA_CPM_initialize_pipeline__FINEST",
+              new Object[] { Thread.currentThread().getName(), String.valueOf(i) });
+    }
+    ProcessingUnit pu;
+    // Plug in custom ProcessingUnit via -DPROCESSING_PIPELINE_IMPL=class
+    // Initialize Processing Pipeline with input and output queues
+    if (System.getProperty("PROCESSING_PIPELINE_IMPL") != null) {
+      String puClass = System.getProperty("PROCESSING_PIPELINE_IMPL");
+      pu = producePU(puClass);
+      pu.setInputQueue(workQueue);
+      pu.setOutputQueue(outputQueue);
+      pu.setCPMEngine(this);
+    } else {
+      pu = new ProcessingUnit(this, workQueue, outputQueue);
+    }
+    // If there are no consumers in the pipeline, instruct the pipeline to release a CAS at the
+    // end of processing
+    if (consumerList == null || consumerList.size() == 0) {
+      pu.setReleaseCASFlag(true);
+    }
+
+    if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
+      UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST, this.getClass().getName(),
+              "initialize", CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
+              "UIMA_CPM_pipeline_impl_class__FINEST",
+              new Object[] { Thread.currentThread().getName(), pu.getClass().getName() });
+    }
+    // Add tracing instance so that performance and stats are globally aggregated for all
+    // processing pipelines
+    pu.setProcessingUnitProcessTrace(procTr);
+    // Add all annotators to the processing pipeline
+    pu.setContainers(annotatorList);
+    // pass initialized list of cases to processing units in case cas conversion is required
+    // between
+    // CasData and CASObject based annotators.
+    pu.setCasPool(casPool);
+    try {
+      pu.setUimaTimer(getTimer());
+    } catch (Exception e) {
+      pu.setUimaTimer(new JavaTimer());
+    }
+    // Add Callback Listeners
+    for (int j = 0; j < statusCbL.size(); j++) {
+      BaseStatusCallbackListener statCL = (BaseStatusCallbackListener) statusCbL.get(j);
+      if (statCL != null) {
+        pu.addStatusCallbackListener(statCL);
+      }
+    }
+
+    // Start the Processing Unit thread
+    pu.setName("[Procesing Pipeline#" + (i + 1) + " Thread]::");
+    processingUnits[i] = pu;
+
+    // Start the Processing Pipeline
+    pu.start();
+    processingThreadsState[i] = 1; // Started
+    processingUnitsStarted++;
+  }
+
+  /**
+   * Returns an integer performance tuning setting of the CPM.
+   *
+   * @param aKey -
+   *          the name of the setting
+   * @param aDefault -
+   *          value used if the setting is not given, or is not a number
+   * @return the value
+   */
+  int getIntSetting(String aKey, int aDefault) {
+    String value = (mPerformanceTuningSettings == null) ? null : mPerformanceTuningSettings
+            .getProperty(aKey);
+    if (value == null) {
+      return aDefault;
+    }
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      return aDefault;
+    }
+  }
+
   /**
    * Adds the status callback listener.
    *
@@ -552,7 +730,8 @@ public class CPMEngine extends Thread {
                   CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
                   "UIMA_CPM_show_pu_state__INFO",
                   new Object[] { Thread.currentThread().getName(), String.valueOf(i),
-                      String.valueOf(processingUnits[i].threadState) });
+                      String.valueOf((processingUnits[i] == null) ? -1
+                              : processingUnits[i].threadState) });
         }
         if (casConsumerPU != null) {
           UIMAFramework.getLogger(this.getClass()).logrb(
@@ -584,7 +763,8 @@ public class CPMEngine extends Thread {
                   CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
                   "UIMA_CPM_show_pu_state__INFO",
                   new Object[] { Thread.currentThread().getName(), String.valueOf(i),
-                      String.valueOf(processingUnits[i].threadState) });
+                      String.valueOf((processingUnits[i] == null) ? -1
+                              : processingUnits[i].threadState) });
         }
         if (casConsumerPU != null) {
           UIMAFramework.getLogger(this.getClass()).logrb(
@@ -764,6 +944,9 @@ public class CPMEngine extends Thread {
                     new Object[] { Thread.currentThread().getName() });
           }
           for (int i = 0; processingUnits != null && i < processingUnits.length; i++) {
+            if (processingUnits[i] == null) {
+              continue; // never started
+            }
             if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
               UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST,
                       this.getClass().getName(), "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
@@ -885,8 +1068,10 @@ public class CPMEngine extends Thread {
         }
       }
 
-      for (int i = 0; processingUnits != null && i < processingUnits.length
-              && processingUnits[i] != null; i++) {
+      for (int i = 0; processingUnits != null && i < processingUnits.length; i++) {
+        if (processingUnits[i] == null) {
+          continue; // never started
+        }
         if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
           UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST, this.getClass().getName(),
                   "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_stop_processors__FINEST",
@@ -1749,21 +1934,76 @@ public class CPMEngine extends Thread {
    */
   private BoundedWorkQueue createOutputQueue(int aQueueSize) throws Exception {
     // Get the class that implements the queue
-    if (cpeFactory.getCPEConfig().getOutputQueue() != null
-            && cpeFactory.getCPEConfig().getOutputQueue().getClass() != null) {
-      String outputQueueClass = cpeFactory.getCPEConfig().getOutputQueue().getQueueClass();
-      if (outputQueueClass != null) {
-        Class[] args = new Class[] { int.class, String.class, CPMEngine.class };
-        Class cpClass = Class.forName(outputQueueClass);
-        Constructor constructor = cpClass.getConstructor(args);
-        Object[] oArgs = new Object[] {aQueueSize, "Sequenced Output Queue", this };
-        outputQueue = (BoundedWorkQueue) constructor.newInstance(oArgs);
-      }
-    } else {
+    String outputQueueClass = null;
+    if (cpeFactory.getCPEConfig().getOutputQueue() != null) {
+      outputQueueClass = cpeFactory.getCPEConfig().getOutputQueue().getQueueClass();
+    }
+    return createQueue(outputQueueClass, aQueueSize, "Output Queue");
+  }
+
+  /**
+   * Instantiate the Input Queue, the class of the queue may be given in the CPE descriptor.
+   *
+   * @param aQueueSize -
+   *          max size of the queue
+   * @return - new instance of the input queue
+   * @throws Exception -
+   */
+  private BoundedWorkQueue createInputQueue(int aQueueSize) throws Exception {
+    String inputQueueClass = null;
+    if (cpeFactory.getCPEConfig().getInputQueue() != null) {
+      inputQueueClass = cpeFactory.getCPEConfig().getInputQueue().getQueueClass();
+    }
+    return createQueue(inputQueueClass, aQueueSize, "Input Queue");
+  }
+
+  /**
+   * Instantiate a queue of a given class, or the default BoundedWorkQueue.
+   *
+   * @param aQueueClass -
+   *          name of a BoundedWorkQueue subclass, or null for the default queue
+   * @param aQueueSize -
+   *          max size of the queue
+   * @param aQueueName -
+   *          name of the queue
+   * @return - new instance of the queue
+   * @throws Exception -
+   */
+  private BoundedWorkQueue createQueue(String aQueueClass, int aQueueSize, String aQueueName)
+          throws Exception {
+    if (aQueueClass == null || aQueueClass.trim().length() == 0) {
       // default queue
-      outputQueue = new BoundedWorkQueue(aQueueSize, "Output Queue", this);
+      return new BoundedWorkQueue(aQueueSize, aQueueName, this);
+    }
+    Class[] args = new Class[] { int.class, String.class, CPMEngine.class };
+    Class cpClass = Class.forName(aQueueClass.trim());
+    Constructor constructor = cpClass.getConstructor(args);
+    String name = (SequencedQueue.class.isAssignableFrom(cpClass)) ? "Sequenced " + aQueueName
+            : aQueueName;
+    Object[] oArgs = new Object[] { aQueueSize, name, this };
+    return (BoundedWorkQueue) constructor.newInstance(oArgs);
+  }
+
+  /**
+   * Adds the wait and occupancy statistics of a queue to the CPM ProcessTrace.
+   *
+   * @param aQueue -
+   *          the input or output queue, may be null
+   */
+  private void addQueueStatistics(BoundedWorkQueue aQueue) {
+    if (aQueue == null || procTr == null) {
+      return;
+    }
+    String count = "Enqueued:" + aQueue.getEnqueueCount();
+    synchronized (procTr) {
+      procTr.addEvent(aQueue.getName(), "Queue Enqueue Wait",
+              "Time producers waited for a free slot", (int) aQueue.getEnqueueWaitTime(), count);
+      procTr.addEvent(aQueue.getName(), "Queue Dequeue Wait",
+              "Time consumers waited for an entry", (int) aQueue.getDequeueWaitTime(), count);
+      procTr.addEvent(aQueue.getName(), "Queue Occupancy", "Entries in the queue", 0,
+              String.format("Average:%.2f Max:%d Capacity:%d", aQueue.getAverageOccupancy(),
+                      aQueue.getMaxOccupancy(), aQueue.getCapacity()));
     }
-    return outputQueue;
   }
 
   /**
@@ -1992,7 +2232,7 @@ public class CPMEngine extends Thread {
       // Instantiate work queue. This queue is shared among all processing units.
       // The Producer thread fills this queue with CAS'es and processing units
       // retrieve these Cas'es for analysis.
-      workQueue = new BoundedWorkQueue(poolSize, "Input Queue", this);
+      workQueue = createInputQueue(poolSize);
 
       // Instantiate output queue. The Cas'es containing result of analysis are deposited to
       // this queue, and the CasConsumer Processing Unit retrieves them.
@@ -2130,10 +2370,13 @@ public class CPMEngine extends Thread {
         }
       }
 
-      // Setup Processing Pipelines
+      // Setup Processing Pipelines. Only the initial number of pipelines is started, the others
+      // may be started later, see setProcessingUnitCount()
       processingUnits = new ProcessingUnit[concurrentThreadCount];
+      int initialCount = (initialProcessingUnits > 0) ? Math.min(initialProcessingUnits,
+              concurrentThreadCount) : concurrentThreadCount;
       synchronized (this) {
-        activeProcessingUnits = concurrentThreadCount; // keeps track of how many threads are still
+        activeProcessingUnits = initialCount; // keeps track of how many threads are still
         // active. -Adam
       }
 
@@ -2144,77 +2387,21 @@ public class CPMEngine extends Thread {
       }
 
       // Configure Processing Pipelines, and start each running in a seperate thread
-      for (int i = 0; i < concurrentThreadCount; i++) {
-        // casList = new CAS[readerFetchSize];
-        if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
-          UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST, this.getClass().getName(),
-                  "initialize", CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
-                  "UIMA_CPM_initialize_pipeline__FINEST",
-                  new Object[] { Thread.currentThread().getName(), String.valueOf(i) });
-        }
-        // Plug in custom ProcessingUnit via -DPROCESSING_PIPELINE_IMPL=class
-        // Initialize Processing Pipeline with input and output queues
-        if (System.getProperty("PROCESSING_PIPELINE_IMPL") != null) {
-          String puClass = System.getProperty("PROCESSING_PIPELINE_IMPL");
-          try {
-            processingUnits[i] = producePU(puClass);
-            processingUnits[i].setInputQueue(workQueue);
-            processingUnits[i].setOutputQueue(outputQueue);
-            processingUnits[i].setCPMEngine(this);
-          } catch (Exception e) {
-            UIMAFramework.getLogger(this.getClass()).log(Level.SEVERE, e.getMessage(), e);
-            if (dbgCtrlThread != null) {
-              dbgCtrlThread.stop();
-            }
-            return; // / DONE HERE !!!
-          }
-        } else {
-          processingUnits[i] = new ProcessingUnit(this, workQueue, outputQueue);
-        }
-        // If there are no consumers in the pipeline, instruct the pipeline to release a CAS at the
-        // end of processing
-        if (consumerList == null || consumerList.size() == 0) {
-          processingUnits[i].setReleaseCASFlag(true);
-        }
-
-        if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
-          UIMAFramework.getLogger(this.getClass()).logrb(
-                  Level.FINEST,
-                  this.getClass().getName(),
-                  "initialize",
-                  CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
-                  "UIMA_CPM_pipeline_impl_class__FINEST",
-                  new Object[] { Thread.currentThread().getName(),
-                      processingUnits[i].getClass().getName() });
-        }
-        // Add tracing instance so that performance and stats are globally aggregated for all
-        // processing pipelines
-        processingUnits[i].setProcessingUnitProcessTrace(procTr);
-        // Add all annotators to the processing pipeline
-        processingUnits[i].setContainers(annotatorList);
-        // pass initialized list of cases to processing units in case cas conversion is required
-        // between
-        // CasData and CASObject based annotators.
-        processingUnits[i].setCasPool(casPool);
+      for (int i = 0; i < initialCount; i++) {
         try {
-          processingUnits[i].setUimaTimer(getTimer());
+          startProcessingUnit(i);
         } catch (Exception e) {
-          processingUnits[i].setUimaTimer(new JavaTimer());
-        }
-        // Add Callback Listeners
-        for (int j = 0; j < statusCbL.size(); j++) {
-          BaseStatusCallbackListener statCL = (BaseStatusCallbackListener) statusCbL.get(j);
-          if (statCL != null) {
-            processingUnits[i].addStatusCallbackListener(statCL);
+          UIMAFramework.getLogger(this.getClass()).log(Level.SEVERE, e.getMessage(), e);
+          if (dbgCtrlThread != null) {
+            dbgCtrlThread.stop();
           }
+          return; // / DONE HERE !!!
         }
-
-        // Start the Processing Unit thread
-        processingUnits[i].setName("[Procesing Pipeline#" + (i + 1) + " Thread]::");
-
-        // Start the Processing Pipeline
-        processingUnits[i].start();
-        processingThreadsState[i] = 1; // Started
+      }
+      int scalingInterval = getIntSetting(UIMAFramework.CPM_PIPELINE_SCALING_INTERVAL, 0);
+      if (scalingInterval > 0 && concurrentThreadCount > 1) {
+        scaler = new ProcessingUnitScaler(this, scalingInterval);
+        scaler.start();
       }
 
       producer.setProcessTrace(procTr);
@@ -2256,29 +2443,52 @@ public class CPMEngine extends Thread {
                 new Object[] { Thread.currentThread().getName() });
       }
 
-      // Join each of the Processing Threads and wait for them to finish
-      for (int i = 0; i < concurrentThreadCount; i++) {
-        if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
-          UIMAFramework.getLogger(this.getClass()).logrb(
-                  Level.FINEST,
-                  this.getClass().getName(),
-                  "process",
-                  CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
-                  "UIMA_CPM_join_pu__FINEST",
-                  new Object[] { Thread.currentThread().getName(), processingUnits[i].getName(),
-                      String.valueOf(i) });
+      // Join each of the Processing Threads and wait for them to finish. Repeat if pipelines were
+      // started in the meantime.
+      int startedCount;
+      do {
+        synchronized (this) {
+          startedCount = processingUnitsStarted;
         }
-        processingUnits[i].join();
-        if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
-          UIMAFramework.getLogger(this.getClass()).logrb(
-                  Level.FINEST,
-                  this.getClass().getName(),
-                  "process",
-                  CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
-                  "UIMA_CPM_join_pu_complete__FINEST",
-                  new Object[] { Thread.currentThread().getName(), processingUnits[i].getName(),
-                      String.valueOf(i) });
+        for (int i = 0; i < processingUnits.length; i++) {
+          ProcessingUnit pu;
+          synchronized (this) {
+            pu = processingUnits[i];
+          }
+          if (pu == null) {
+            continue;
+          }
+          if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
+            UIMAFramework.getLogger(this.getClass()).logrb(
+                    Level.FINEST,
+                    this.getClass().getName(),
+                    "process",
+                    CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
+                    "UIMA_CPM_join_pu__FINEST",
+                    new Object[] { Thread.currentThread().getName(), pu.getName(),
+                        String.valueOf(i) });
+          }
+          pu.join();
+          if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
+            UIMAFramework.getLogger(this.getClass()).logrb(
+                    Level.FINEST,
+                    this.getClass().getName(),
+                    "process",
+                    CPMUtils.CPM_LOG_RESOURCE_BUNDLE,
+                    "UIMA_CPM_join_pu_complete__FINEST",
+                    new Object[] { Thread.currentThread().getName(), pu.getName(),
+                        String.valueOf(i) });
+          }
+        }
+        synchronized (this) {
+          if (startedCount == processingUnitsStarted) {
+            // no more pipelines can be started
+            activeProcessingUnits = 0;
+          }
         }
+      } while (startedCount != processingUnitsStarted);
+      if (scaler != null) {
+        scaler.stop();
       }
 
       // Join the Consumer Thread and wait for it to finish
@@ -2398,8 +2608,14 @@ public class CPMEngine extends Thread {
 
       }
 
+      addQueueStatistics(workQueue);
+      addQueueStatistics(outputQueue);
+
       // Terminate Annotators and cleanup resources
       for (int i = 0; i < processingUnits.length; i++) {
+        if (processingUnits[i] == null) {
+          continue; // never started
+        }
         if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
           UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST, this.getClass().getName(),
                   "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_stop_processors__FINEST",
@@ -2484,11 +2700,17 @@ public class CPMEngine extends Thread {
         }
 
         try {
+          if (scaler != null) {
+            scaler.stop();
+          }
           // Place EOF Token onto work queue to force PUs shutdown
           forcePUShutdown();
 
           // Cleanup Processing Threads
-          for (int i = 0; processingUnits != null && i < concurrentThreadCount; i++) {
+          for (int i = 0; processingUnits != null && i < processingUnits.length; i++) {
+            if (processingUnits[i] == null) {
+              continue; // never started
+            }
             if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
               UIMAFramework.getLogger(this.getClass()).logrb(
                       Level.FINEST,
@@ -2709,7 +2931,9 @@ public class CPMEngine extends Thread {
     try {
       if (processingUnits != null) {
         for (int i = 0; i < this.processingUnits.length; i++) {
-          this.processingUnits[i].cleanup();
+          if (this.processingUnits[i] != null) {
+            this.processingUnits[i].cleanup();
+          }
         }
       }
 
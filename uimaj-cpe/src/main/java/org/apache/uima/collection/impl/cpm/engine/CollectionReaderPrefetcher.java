@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.collection.impl.cpm.engine;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.collection.CollectionException;
+import org.apache.uima.collection.PartitionableCollectionReader;
+import org.apache.uima.collection.PartitionableCollectionReader.Partition;
+
+/**
+ * Reads ahead the elements of a {@link PartitionableCollectionReader}, one thread per partition,
+ * into a bounded buffer. The ArtifactProducer takes the elements from the buffer and populates the
+ * CASes, so the reading doesn't wait for free CASes and overlaps with the analysis.
+ * 
+ * <p>An exception thrown by a partition is passed on in the buffer, in place of an element. The
+ * partition then goes on reading, like the ArtifactProducer goes on after a failing getNext(),
+ * unless it has failed too many times in a row, or has thrown an Error: the partition is then
+ * given up, so the CPM still gets to the end of the collection.
+ */
+class CollectionReaderPrefetcher {
+
+  /** The millis to wait on the buffer before checking if the CPM is still running. */
+  private static final int WAIT_TIMEOUT = 50;
+
+  /** Put in the buffer once all partitions are read. */
+  private static final Object END = new Object();
+
+  /**
+   * An exception thrown by a partition.
+   */
+  private static class Failure {
+    final Exception exception;
+
+    Failure(Exception aException) {
+      exception = aException;
+    }
+  }
+
+  /** The elements read ahead. */
+  private final BlockingQueue<Object> buffer;
+
+  /** The reader threads. */
+  private final Thread[] threads;
+
+  /** The number of partitions still being read. */
+  private final AtomicInteger running;
+
+  /** The CPM. */
+  private final CPMEngine cpm;
+
+  /** The number of consecutive failures after which a partition is given up. */
+  private final int maxConsecutiveFailures;
+
+  /** Set when the ArtifactProducer doesn't take elements anymore. */
+  private volatile boolean stopped = false;
+
+  /** The element taken from the buffer by hasNext(), not returned yet. */
+  private Object next = null;
+
+  /**
+   * Gets the partitions of the reader and creates their threads.
+   *
+   * @param aReader -
+   *          the collection reader
+   * @param aNumberOfThreads -
+   *          number of partitions to ask the reader for
+   * @param aPrefetchSize -
+   *          max number of elements in the buffer
+   * @param aMaxConsecutiveFailures -
+   *          number of consecutive failures after which a partition is given up
+   * @param aCpm -
+   *          the CPM
+   * @throws CollectionException -
+   *           if the reader fails to partition the collection
+   */
+  CollectionReaderPrefetcher(PartitionableCollectionReader aReader, int aNumberOfThreads,
+          int aPrefetchSize, int aMaxConsecutiveFailures, CPMEngine aCpm)
+          throws CollectionException {
+    cpm = aCpm;
+    maxConsecutiveFailures = Math.max(1, aMaxConsecutiveFailures);
+    buffer = new ArrayBlockingQueue<>(Math.max(1, aPrefetchSize));
+    Partition[] partitions = aReader.getPartitions(aNumberOfThreads);
+    if (partitions == null || partitions.length == 0) {
+      throw new CollectionException(new IllegalStateException(
+              "getPartitions returned no partition"));
+    }
+    running = new AtomicInteger(partitions.length);
+    threads = new Thread[partitions.length];
+    for (int i = 0; i < partitions.length; i++) {
+      final Partition partition = partitions[i];
+      threads[i] = new Thread(() -> read(partition), "[CollectionReader Prefetch Thread " + i
+              + "]");
+      threads[i].setDaemon(true);
+    }
+  }
+
+  /**
+   * Starts reading.
+   */
+  void start() {
+    UIMAFramework.getLogger(CollectionReaderPrefetcher.class).info(
+            "Reading ahead from the Collection Reader with {} threads, up to {} elements",
+            threads.length, buffer.remainingCapacity());
+    for (Thread t : threads) {
+      t.start();
+    }
+  }
+
+  /**
+   * Stops reading. The threads end once their current read returns.
+   */
+  void stop() {
+    stopped = true;
+    buffer.clear();
+  }
+
+  /**
+   * Waits until the next element, or the failure of a partition, is read.
+   *
+   * @return - false if all partitions are read, or if the CPM is not running anymore
+   */
+  boolean hasNext() {
+    while (next == null) {
+      if (!cpm.isRunning()) {
+        return false;
+      }
+      try {
+        next = buffer.poll(WAIT_TIMEOUT, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        // ignore, like the other CPM threads
+      }
+    }
+    return next != END;
+  }
+
+  /**
+   * Returns the next elements, waiting for each of them. A batch ends before a failure, unless the
+   * failure comes first.
+   *
+   * @param aMaxElements -
+   *          max number of elements to return
+   * @return - the elements, null if there are no more
+   * @throws IOException -
+   *           the I/O failure of a partition
+   * @throws CollectionException -
+   *           any other failure of a partition
+   */
+  Object[] next(int aMaxElements) throws IOException, CollectionException {
+    List<Object> elements = new ArrayList<>(aMaxElements);
+    while (elements.size() < aMaxElements && hasNext()) {
+      if (next instanceof Failure) {
+        if (elements.isEmpty()) {
+          Exception e = ((Failure) next).exception;
+          next = null;
+          if (e instanceof IOException) {
+            throw (IOException) e;
+          }
+          throw (e instanceof CollectionException) ? (CollectionException) e
+                  : new CollectionException(e);
+        }
+        break;
+      }
+      elements.add(next);
+      next = null;
+    }
+    return elements.isEmpty() ? null : elements.toArray();
+  }
+
+  /**
+   * Body of a reader thread.
+   *
+   * @param aPartition -
+   *          the partition it reads
+   */
+  private void read(Partition aPartition) {
+    int failures = 0;
+    try {
+      while (!stopped) {
+        Object element;
+        try {
+          element = aPartition.readNext();
+        } catch (Exception e) {
+          put(new Failure(e));
+          if (++failures < maxConsecutiveFailures) {
+            continue;
+          }
+          UIMAFramework.getLogger(CollectionReaderPrefetcher.class).error(
+                  "{} gives up reading its partition of the collection after {} consecutive failures",
+                  Thread.currentThread().getName(), failures);
+          break;
+        } catch (Error e) {
+          UIMAFramework.getLogger(CollectionReaderPrefetcher.class).error(
+                  "{} gives up reading its partition of the collection",
+                  Thread.currentThread().getName(), e);
+          put(new Failure(new CollectionException(e)));
+          break;
+        }
+        failures = 0;
+        if (element == null) {
+          break;
+        }
+        put(element);
+      }
+    } finally {
+      if (running.decrementAndGet() == 0) {
+        put(END);
+      }
+    }
+  }
+
+  /**
+   * Adds to the buffer, waiting while it is full.
+   *
+   * @param anObject -
+   *          an element, a failure or END
+   */
+  private void put(Object anObject) {
+    while (!stopped && cpm.isRunning()) {
+      try {
+        if (buffer.offer(anObject, WAIT_TIMEOUT, TimeUnit.MILLISECONDS)) {
+          return;
+        }
+      } catch (InterruptedException e) {
+        // ignore, like the other CPM threads
+      }
+    }
+  }
+}
@@ -20,13 +20,18 @@
 package org.apache.uima.collection.impl.cpm.engine;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.List;
 
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.impl.PrimitiveAnalysisEngine_impl;
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas_data.CasData;
+import org.apache.uima.collection.BatchCasConsumer;
 import org.apache.uima.collection.CollectionException;
 import org.apache.uima.collection.EntityProcessStatus;
 import org.apache.uima.collection.StatusCallbackListener;
@@ -140,6 +145,27 @@ public class ProcessingUnit extends Thread {
   /** The is running. */
   private boolean isRunning = false;
 
+  /** True if this pipeline was asked to stop after its current CAS, see retire(). */
+  private volatile boolean retiring = false;
+
+  /**
+   * Max time, in ms, to wait for a CAS before checking if this pipeline should stop, if the number
+   * of pipelines can change.
+   */
+  private static final int RETIRE_POLL_INTERVAL = 1000;
+
+  /**
+   * Max number of CASes collected into one bundle by the CAS Consumer pipeline, see
+   * {@link UIMAFramework#CPM_CONSUMER_BATCH_SIZE}. 1 means no batching.
+   */
+  private int consumerBatchSize = 1;
+
+  /** Max time, in ms, to wait for more CASes to fill a batch. */
+  private int consumerBatchTimeout = 100;
+
+  /** Entities dequeued while filling a batch that could not be added to it. */
+  private final ArrayDeque<Object> pendingEntities = new ArrayDeque<>();
+
   /** The timer 01. */
   public long timer01 = 0;
 
@@ -217,6 +243,23 @@ public class ProcessingUnit extends Thread {
     return isRunning;
   }
 
+  /**
+   * Asks this pipeline to stop once it is done with its current CAS, to reduce the number of
+   * pipelines. See {@link CPMEngine#setProcessingUnitCount(int)}.
+   */
+  void retire() {
+    retiring = true;
+  }
+
+  /**
+   * Returns true if this pipeline was asked to stop once it is done with its current CAS.
+   *
+   * @return - true if asked to stop
+   */
+  boolean isRetiring() {
+    return retiring;
+  }
+
   /**
    * Define a CasConsumer Pipeline identity for this instance.
    */
@@ -539,6 +582,17 @@ public class ProcessingUnit extends Thread {
     int maxWaitTimeForEntity = 0;
     if (cpeConfiguration != null && cpeConfiguration.getMaxTimeToWait() > 0) {
       maxWaitTimeForEntity = cpeConfiguration.getMaxTimeToWait();
+    } else if (!isCasConsumerPipeline() && cpm.getMaxProcessingUnitCount() > 1) {
+      // wake up now and then to check if this pipeline should stop
+      maxWaitTimeForEntity = RETIRE_POLL_INTERVAL;
+    }
+    if (isCasConsumerPipeline()) {
+      consumerBatchSize = cpm.getIntSetting(UIMAFramework.CPM_CONSUMER_BATCH_SIZE, 1);
+      if (cpm.getPoolSize() > 0) {
+        // a batch cannot hold more CASes than there are
+        consumerBatchSize = Math.min(consumerBatchSize, cpm.getPoolSize());
+      }
+      consumerBatchTimeout = cpm.getIntSetting(UIMAFramework.CPM_CONSUMER_BATCH_TIMEOUT, 100);
     }
 
     isRunning = true;
@@ -547,6 +601,11 @@ public class ProcessingUnit extends Thread {
       threadState = 2000; // Start the Loop
       // blocks if CPM is in pause state
       isCpmPaused();
+      if (retiring) {
+        threadState = 2017; // Retired
+        cpm.processingUnitShutdown(this);
+        break;
+      }
 
       maybeLogFinestWorkQueue("UIMA_CPM_dequeue_artifact__FINEST", workQueue);
       artifact = null;
@@ -557,7 +616,9 @@ public class ProcessingUnit extends Thread {
       threadState = 2001; // Entering dequeue()
 
       // D E Q U E U E *************************************
-      if (maxWaitTimeForEntity > 0) {
+      if (!pendingEntities.isEmpty()) {
+        entity = pendingEntities.poll();
+      } else if (maxWaitTimeForEntity > 0) {
         entity = workQueue.dequeue(maxWaitTimeForEntity);
       } else {
         entity = workQueue.dequeue(0);
@@ -569,6 +630,9 @@ public class ProcessingUnit extends Thread {
         continue;
       }
       try {
+        if (consumerBatchSize > 1 && isBatchable(entity)) {
+          entity = collectBatch(entity);
+        }
         if (entity instanceof WorkUnit) {
           artifact = (Object[]) ((WorkUnit) entity).get();
           if (((WorkUnit) entity).isTimedOut() && artifact instanceof CAS[]) {
@@ -657,6 +721,87 @@ public class ProcessingUnit extends Thread {
 
   }
 
+  /**
+   * Checks if a dequeued entity can be added to a batch for the CAS Consumers: a bundle holding only
+   * CAS instances, not timed out and without CASes cached for a conversion.
+   *
+   * @param anEntity -
+   *          entity dequeued from the work queue
+   * @return true, if the entity can be batched
+   */
+  private boolean isBatchable(Object anEntity) {
+    Object payload = anEntity;
+    if (anEntity instanceof WorkUnit) {
+      WorkUnit workUnit = (WorkUnit) anEntity;
+      if (workUnit.isTimedOut() || workUnit.getCas() != null) {
+        return false;
+      }
+      payload = workUnit.get();
+    }
+    if (!(payload instanceof Object[]) || ((Object[]) payload).length == 0) {
+      return false;
+    }
+    Object[] bundle = (Object[]) payload;
+    for (int i = 0; i < bundle.length && bundle[i] != null; i++) {
+      if (!(bundle[i] instanceof CAS)) {
+        return false;
+      }
+    }
+    return bundle[0] != null;
+  }
+
+  /**
+   * Collects the CASes of the given bundle and of the bundles following it on the work queue into
+   * one bundle, until it holds {@link #consumerBatchSize} CASes or no more bundle arrives within
+   * {@link #consumerBatchTimeout} ms. An entity that cannot be batched, like the EOFToken, ends the
+   * batch and is kept for the next dequeue, together with all entities after it.
+   *
+   * @param aFirst -
+   *          first bundle of the batch, already dequeued
+   * @return the bundle with all collected CASes
+   */
+  private Object[] collectBatch(Object aFirst) {
+    List<Object> batch = new ArrayList<>(consumerBatchSize);
+    addToBatch(aFirst, batch);
+    long deadline = System.currentTimeMillis() + consumerBatchTimeout;
+    List<Object> entities = new ArrayList<>();
+    while (batch.size() < consumerBatchSize && pendingEntities.isEmpty()) {
+      entities.clear();
+      if (workQueue.drainTo(entities, consumerBatchSize - batch.size()) == 0) {
+        long wait = deadline - System.currentTimeMillis();
+        Object entity = (wait > 0) ? workQueue.dequeue(wait) : null;
+        if (entity == null) {
+          break;
+        }
+        entities.add(entity);
+      }
+      for (Object entity : entities) {
+        if (pendingEntities.isEmpty() && isBatchable(entity)) {
+          addToBatch(entity, batch);
+        } else {
+          pendingEntities.add(entity);
+        }
+      }
+    }
+    return batch.toArray();
+  }
+
+  /**
+   * Adds the CASes of a batchable bundle to a batch.
+   *
+   * @param anEntity -
+   *          the bundle, as dequeued
+   * @param aBatch -
+   *          the batch
+   */
+  private void addToBatch(Object anEntity, List<Object> aBatch) {
+    Object[] bundle = (Object[]) ((anEntity instanceof WorkUnit) ? ((WorkUnit) anEntity).get()
+            : anEntity);
+    for (int i = 0; i < bundle.length && bundle[i] != null; i++) {
+      aBatch.add(bundle[i]);
+    }
+  }
+
   /**
    * Releases all CAS instances from the Cache back to the Cas Pool. Cas Cache is used as
    * optimization to store CAS in case it is needed for conversion. Specifically, in configurations
@@ -895,10 +1040,13 @@ public class ProcessingUnit extends Thread {
           } else if (processor instanceof CasObjectProcessor) {
             maybeLogFinest("UIMA_CPM_casobject_processor__FINEST", container, processor);
             maybeLogMemoryFinest();
-            casList = new CAS[aCasObjectList.length];
-            for (int casIndex = 0; casIndex < aCasObjectList.length; casIndex++) {
+            // aCasObjectList is replaced by casList in the loop, keep the bundle to convert
+            Object[] bundle = aCasObjectList;
+            boolean isBatch = isBatchCasConsumer(processor);
+            casList = new CAS[bundle.length];
+            for (int casIndex = 0; casIndex < bundle.length; casIndex++) {
               maybeLogFinest("UIMA_CPM_initialize_cas__FINEST", container);
-              if (aCasObjectList[casIndex] == null) {
+              if (bundle[casIndex] == null) {
                 if (UIMAFramework.getLogger().isLoggable(Level.SEVERE)) {
                   logSevere("UIMA_CPM_casobjectlist_is_null__SEVERE", 
                       container.getName(), String.valueOf(casIndex));
@@ -930,16 +1078,19 @@ public class ProcessingUnit extends Thread {
                 }
 
                 // Convert CasData to CAS
-                mConverter.casDataToCasContainer((CasData) aCasObjectList[casIndex],
+                mConverter.casDataToCasContainer((CasData) bundle[casIndex],
                         casList[casIndex], true);
               } else {
-                casList[casIndex] = (CAS) aCasObjectList[casIndex];
+                casList[casIndex] = (CAS) bundle[casIndex];
               }
               //	Set the type from CasData to CasObject. When an error occurs in the proces()
               //	we need to know what type of object we deal with. 
               isCasObject = true;
               aCasObjectList = casList;
 
+              if (isBatch) {
+                continue; // called once for the whole bundle, below
+              }
               if (processor instanceof AnalysisEngine) {
                 maybeLogFinest("UIMA_CPM_call_process__FINEST", container, processor);
                 threadState = 2005;
@@ -955,6 +1106,9 @@ public class ProcessingUnit extends Thread {
                 pTrTemp.endEvent(container.getName(), "Process", "success");
               }
             }
+            if (isBatch) {
+              processCasBatch(container, processor, casList, pTrTemp);
+            }
           }
 
           // Release the CAS and notify listeners if the end of the
@@ -2263,6 +2417,7 @@ public class ProcessingUnit extends Thread {
           Object[] aCasObjectList, ProcessTrace pTrTemp, boolean isCasObject) throws Exception {
     maybeLogMemoryFinest();
     maybeLogFinest("UIMA_CPM_invoke_cp_process__FINEST", container, processor);
+    boolean isBatch = isBatchCasConsumer(processor);
     casList = new CAS[aCasObjectList.length];
     for (int casIndex = 0; casIndex < aCasObjectList.length; casIndex++) {
       maybeLogFinest("UIMA_CPM_initialize_cas__FINEST", container);
@@ -2284,6 +2439,9 @@ public class ProcessingUnit extends Thread {
       } else {
         casList[casIndex] = (CAS) aCasObjectList[casIndex];
       }
+      if (isBatch) {
+        continue; // called once for the whole bundle, below
+      }
       if (processor instanceof AnalysisEngine) {
         maybeLogFinest("UIMA_CPM_call_process__FINEST", container, processor);
         threadState = 2005;
@@ -2299,10 +2457,58 @@ public class ProcessingUnit extends Thread {
       }
       pTrTemp.endEvent(container.getName(), "Process", "success");
     }
+    if (isBatch) {
+      processCasBatch(container, processor, casList, pTrTemp);
+    }
     aCasObjectList = casList;
 
   }
 
+  /**
+   * Checks if a Cas Processor is a {@link BatchCasConsumer}, either as is or wrapped in an
+   * AnalysisEngine.
+   *
+   * @param processor the processor
+   * @return true, if all CASes of a bundle can be passed to the processor in one call
+   */
+  private static boolean isBatchCasConsumer(CasProcessor processor) {
+    return processor instanceof BatchCasConsumer
+            || (processor instanceof PrimitiveAnalysisEngine_impl
+                    && ((PrimitiveAnalysisEngine_impl) processor).isBatchCasConsumer());
+  }
+
+  /**
+   * Passes all CASes of a bundle to a batch CAS Consumer in a single call. The CASes stay out of
+   * the CAS pool until the whole batch is processed.
+   *
+   * @param container the container
+   * @param processor the batch CAS Consumer, see {@link #isBatchCasConsumer(CasProcessor)}
+   * @param aCasList the CASes of the bundle, possibly followed by nulls
+   * @param pTrTemp the tr temp
+   * @throws ResourceProcessException -
+   */
+  private void processCasBatch(ProcessingContainer container, CasProcessor processor,
+          CAS[] aCasList, ProcessTrace pTrTemp) throws ResourceProcessException {
+    int size = 0;
+    while (size < aCasList.length && aCasList[size] != null) {
+      size++;
+    }
+    if (size == 0) {
+      return;
+    }
+    CAS[] batch = (size == aCasList.length) ? aCasList : Arrays.copyOf(aCasList, size);
+    pTrTemp.startEvent(container.getName(), "Process", "");
+    threadState = 2006;
+    maybeLogFinest("UIMA_CPM_call_process__FINEST", container, processor);
+    if (processor instanceof BatchCasConsumer) {
+      ((BatchCasConsumer) processor).processCasBatch(batch);
+    } else {
+      ((PrimitiveAnalysisEngine_impl) processor).processCasBatch(batch);
+    }
+    maybeLogFinest("UIMA_CPM_call_process_completed__FINEST", container, processor);
+    pTrTemp.endEvent(container.getName(), "Process", "success");
+  }
+
   /**
    * Convert cas data to cas object.
    *
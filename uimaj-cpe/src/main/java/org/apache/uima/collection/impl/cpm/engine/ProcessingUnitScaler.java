@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.collection.impl.cpm.engine;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+
+import org.apache.uima.UIMAFramework;
+
+/**
+ * Changes the number of processing pipelines of the CPM at a fixed interval, based on the length
+ * of the work queue and the CPU load (see {@link org.apache.uima.UIMAFramework#CPM_PIPELINE_SCALING_INTERVAL}).
+ * 
+ * <p>A pipeline is added when the work queue is at least half full, meaning that the pipelines
+ * don't keep up with the Collection Reader, unless the system load average shows the CPUs are all
+ * busy already. A pipeline is removed when the work queue was empty at two checks in a row,
+ * meaning that the pipelines wait for the Collection Reader, or when the CPUs are overloaded.
+ */
+class ProcessingUnitScaler implements Runnable {
+
+  /** The CPM. */
+  private final CPMEngine cpm;
+
+  /** The millis between checks. */
+  private final long interval;
+
+  /** Gives the system load average. */
+  private final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+
+  /** True if the work queue was empty at the previous check. */
+  private boolean wasIdle = false;
+
+  /** Set to stop the thread. */
+  private volatile boolean stopped = false;
+
+  /** The thread. */
+  private Thread thread;
+
+  /**
+   * @param aCpm -
+   *          the CPM
+   * @param aInterval -
+   *          the millis between checks
+   */
+  ProcessingUnitScaler(CPMEngine aCpm, long aInterval) {
+    cpm = aCpm;
+    interval = aInterval;
+  }
+
+  /**
+   * Starts the thread.
+   */
+  void start() {
+    thread = new Thread(this, "[CPM Pipeline Scaler Thread]::");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Stops the thread.
+   */
+  void stop() {
+    stopped = true;
+    if (thread != null) {
+      thread.interrupt();
+    }
+  }
+
+  @Override
+  public void run() {
+    while (!stopped) {
+      try {
+        Thread.sleep(interval);
+      } catch (InterruptedException e) {
+        return;
+      }
+      if (stopped || !cpm.isRunning() || cpm.isKilled()) {
+        return;
+      }
+      if (!cpm.isPaused()) {
+        check();
+      }
+    }
+  }
+
+  /**
+   * Adds or removes one pipeline, if needed.
+   */
+  private void check() {
+    BoundedWorkQueue workQueue = cpm.workQueue;
+    if (workQueue == null) {
+      return;
+    }
+    int queued = workQueue.getCurrentSize();
+    int running = cpm.getProcessingUnitCount();
+    int cpus = Runtime.getRuntime().availableProcessors();
+    double load = os.getSystemLoadAverage(); // negative if not available
+    boolean overloaded = load > 2 * cpus;
+    boolean idle = queued == 0;
+
+    int target = running;
+    if (queued * 2 >= workQueue.getCapacity() && (load < 0 || load < cpus)) {
+      target = running + 1;
+    } else if ((idle && wasIdle) || overloaded) {
+      target = running - 1;
+    }
+    wasIdle = idle;
+    if (target != running && target >= 1 && target <= cpm.getMaxProcessingUnitCount()) {
+      final int count = target;
+      UIMAFramework.getLogger(this.getClass()).debug(
+              () -> "Changing the processing pipelines from " + running + " to " + count
+                      + ", work queue: " + queued + ", load average: " + load);
+      cpm.setProcessingUnitCount(target);
+    }
+  }
+}
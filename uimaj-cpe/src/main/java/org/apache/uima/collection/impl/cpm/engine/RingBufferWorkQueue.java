@@ -0,0 +1,380 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.collection.impl.cpm.engine;
+
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.collection.impl.cpm.utils.CPMUtils;
+import org.apache.uima.util.Level;
+
+/**
+ * A Bounded Queue without locks, for CPEs where many Processing Units contend for the input and
+ * output queues. Select it with the queueClass attribute of the inputQueue or outputQueue element
+ * of the CPE descriptor.
+ * 
+ * <p>The objects are kept in a ring of a fixed number of slots. Each slot has a sequence number
+ * telling producers and consumers whose turn it is to use it, so enqueue and dequeue only need a
+ * compare-and-set on the tail or head position. Waiting threads are parked and unparked one at a
+ * time, instead of waking up all of them as notifyAll does.
+ * 
+ * <p>Objects are dequeued in the order they were enqueued. This queue does not reorder the chunks
+ * of a document; use {@link SequencedQueue} as output queue when that is needed.
+ * 
+ * <p>As in {@link BoundedWorkQueue}, an EOFToken is never blocked when the queue is full, and
+ * neither is anything enqueued when the CPM is not running anymore. These are kept in an overflow
+ * list, which is dequeued once the ring is empty.
+ */
+public class RingBufferWorkQueue extends BoundedWorkQueue {
+
+  /** The max time to park, so changes of the CPM state are noticed. */
+  private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(WAIT_TIMEOUT);
+
+  /** The max number of objects in the ring. */
+  private final int capacity;
+
+  /**
+   * The number of slots, at least 2: with a single slot the sequence of a filled slot would be the
+   * same as the sequence of the slot freed for the next enqueue.
+   */
+  private final int slots;
+
+  /** The slots. Made visible to other threads by the volatile writes to the sequences. */
+  private final Object[] buffer;
+
+  /**
+   * The sequence of each slot: equal to a position when the slot can be filled by the enqueue at
+   * that position, and to a position + 1 when it can be emptied by the dequeue at that position.
+   */
+  private final AtomicLongArray sequences;
+
+  /** The position of the next enqueue. */
+  private final AtomicLong tail = new AtomicLong();
+
+  /** The position of the next dequeue. */
+  private final AtomicLong head = new AtomicLong();
+
+  /** Objects enqueued beyond the capacity. */
+  private final Queue<Object> overflow = new ConcurrentLinkedQueue<>();
+
+  /** The threads waiting for an object. */
+  private final Queue<Thread> waitingConsumers = new ConcurrentLinkedQueue<>();
+
+  /** The threads waiting for a free slot. */
+  private final Queue<Thread> waitingProducers = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Initialize the instance.
+   *
+   * @param aQueueSize -
+   *          fixed size for this queue (capacity)
+   * @param aQueueName -
+   *          name for this queue
+   * @param aCpmEngine -
+   *          CPE Engine reference
+   */
+  public RingBufferWorkQueue(int aQueueSize, String aQueueName, CPMEngine aCpmEngine) {
+    super(aQueueSize, aQueueName, aCpmEngine);
+    capacity = Math.max(1, aQueueSize);
+    slots = Math.max(2, capacity);
+    buffer = new Object[slots];
+    sequences = new AtomicLongArray(slots);
+    for (int i = 0; i < slots; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /**
+   * Returns number of elements in the queue. Special case handles EOFToken. The value is a
+   * snapshot, producers and consumers may be changing it at the same time.
+   * 
+   * @return - number of elements in the queue
+   */
+  @Override
+  public int getCurrentSize() {
+    int size = ringSize() + (overflow.isEmpty() ? 0 : overflow.size());
+    if (size > 0 && isEOFToken(peek())) {
+      return 0;
+    }
+    return size;
+  }
+
+  /**
+   * Enqueues a given object onto the queue. It blocks if the queue is full.
+   * 
+   * @param anObject -
+   *          an object to enqueue
+   */
+  @Override
+  public void enqueue(Object anObject) {
+    if (!offer(anObject)) {
+      if (isEOFToken(anObject)) {
+        // terminating the CPE, dont wait
+        overflow.add(anObject);
+      } else {
+        waitToEnqueue(anObject);
+      }
+    }
+    recordEnqueue(ringSize() + (overflow.isEmpty() ? 0 : overflow.size()));
+    signal(waitingConsumers);
+  }
+
+  /**
+   * Removes an object from the front of the queue according to FIFO.
+   * 
+   * @return object dequeued from the head of the queue, or null if the queue is empty
+   */
+  @Override
+  public Object dequeue() {
+    Object returnedObject = poll();
+    if (returnedObject != null) {
+      signal(waitingProducers);
+    }
+    return returnedObject;
+  }
+
+  /**
+   * Returns an object from the queue. It will wait for the object to show up in the queue until a
+   * given timer expires.
+   * 
+   * @param aTimeout -
+   *          max millis to wait for an object, 0 to wait until an object shows up
+   * 
+   * @return - Object from the queue, or null if time out
+   */
+  @Override
+  public Object dequeue(long aTimeout) {
+    Object resource = dequeue();
+    if (resource != null) {
+      return resource;
+    }
+    final Thread current = Thread.currentThread();
+    final long waitStart = System.nanoTime();
+    // like BoundedWorkQueue, only wait a little if the CPM is not running anymore
+    final boolean forever = aTimeout == 0 && (cpm == null || cpm.isRunning());
+    final long deadline = waitStart + TimeUnit.MILLISECONDS.toNanos(
+            (cpm != null && !cpm.isRunning()) ? WAIT_TIMEOUT : aTimeout);
+    if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
+      UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST, this.getClass().getName(),
+              "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_queue_empty__FINEST",
+              new Object[] { current.getName(), queueName });
+    }
+    try {
+      while (true) {
+        // register before checking again, so an enqueue in between unparks this thread
+        waitingConsumers.add(current);
+        resource = dequeue();
+        if (resource != null) {
+          break;
+        }
+        long timeLeft = forever ? PARK_NANOS : deadline - System.nanoTime();
+        if (timeLeft <= 0) {
+          break;
+        }
+        LockSupport.parkNanos(this, Math.min(timeLeft, PARK_NANOS));
+        waitingConsumers.remove(current);
+        if (Thread.interrupted()) {
+          resource = dequeue();
+          break;
+        }
+      }
+    } finally {
+      waitingConsumers.remove(current);
+      dequeueWaitNanos.add(System.nanoTime() - waitStart);
+    }
+    // this thread may have taken the signal of an enqueue meant for another consumer
+    if (resource != null && ringSize() > 0) {
+      signal(waitingConsumers);
+    }
+    return resource;
+  }
+
+  /**
+   * Removes up to a given number of objects from the front of the queue, without waiting.
+   * 
+   * @param aCollection -
+   *          collection the objects are added to, in queue order
+   * @param aMaxElements -
+   *          max number of objects to remove
+   * @return - number of objects removed
+   */
+  @Override
+  public int drainTo(Collection<Object> aCollection, int aMaxElements) {
+    int n = 0;
+    Object o;
+    while (n < aMaxElements && (o = poll()) != null) {
+      aCollection.add(o);
+      n++;
+    }
+    for (int i = 0; i < n && !waitingProducers.isEmpty(); i++) {
+      signal(waitingProducers);
+    }
+    return n;
+  }
+
+  /**
+   * Blocks until there is a free slot for the object, or until the CPM stops running.
+   *
+   * @param anObject -
+   *          an object to enqueue
+   */
+  private void waitToEnqueue(Object anObject) {
+    final Thread current = Thread.currentThread();
+    final long waitStart = System.nanoTime();
+    if (UIMAFramework.getLogger().isLoggable(Level.FINEST)) {
+      UIMAFramework.getLogger(this.getClass()).logrb(Level.FINEST, this.getClass().getName(),
+              "process", CPMUtils.CPM_LOG_RESOURCE_BUNDLE, "UIMA_CPM_queue_full__FINEST",
+              new Object[] { current.getName(), queueName, String.valueOf(capacity) });
+    }
+    try {
+      while (true) {
+        if (cpm != null && !cpm.isRunning()) {
+          overflow.add(anObject);
+          return;
+        }
+        waitingProducers.add(current);
+        if (offer(anObject)) {
+          return;
+        }
+        LockSupport.parkNanos(this, PARK_NANOS);
+        waitingProducers.remove(current);
+        // BoundedWorkQueue swallows interrupts while waiting
+        Thread.interrupted();
+        if (offer(anObject)) {
+          return;
+        }
+      }
+    } finally {
+      waitingProducers.remove(current);
+      enqueueWaitNanos.add(System.nanoTime() - waitStart);
+    }
+  }
+
+  /**
+   * Adds an object to the ring, if there is a free slot.
+   *
+   * @param anObject -
+   *          an object to enqueue
+   * @return - false if the ring is full
+   */
+  private boolean offer(Object anObject) {
+    long pos = tail.get();
+    while (true) {
+      if (pos - head.get() >= capacity) {
+        return false;
+      }
+      int index = (int) (pos % slots);
+      long diff = sequences.get(index) - pos;
+      if (diff == 0) {
+        if (tail.compareAndSet(pos, pos + 1)) {
+          buffer[index] = anObject;
+          sequences.lazySet(index, pos + 1);
+          return true;
+        }
+        pos = tail.get();
+      } else if (diff < 0) {
+        // the slot still holds the object enqueued one round before
+        return false;
+      } else {
+        // another producer took this position
+        pos = tail.get();
+      }
+    }
+  }
+
+  /**
+   * Removes the object at the head of the ring, or if the ring is empty, of the overflow list.
+   * The overflow list is not used while the head position is taken by a producer that has not
+   * filled the slot yet: an EOFToken in the overflow list would overtake that object.
+   *
+   * @return - the object, or null if the queue is empty, or its head is not filled yet
+   */
+  private Object poll() {
+    long pos = head.get();
+    while (true) {
+      int index = (int) (pos % slots);
+      long diff = sequences.get(index) - (pos + 1);
+      if (diff == 0) {
+        if (head.compareAndSet(pos, pos + 1)) {
+          Object o = buffer[index];
+          buffer[index] = null;
+          sequences.lazySet(index, pos + slots);
+          return o;
+        }
+        pos = head.get();
+      } else if (diff < 0) {
+        // the slot is not filled yet; the producer filling it signals a waiting consumer
+        return (tail.get() > pos) ? null : overflow.poll();
+      } else {
+        // another consumer took this position
+        pos = head.get();
+      }
+    }
+  }
+
+  /**
+   * @return - the object at the head of the queue, without removing it; a snapshot
+   */
+  private Object peek() {
+    long pos = head.get();
+    int index = (int) (pos % slots);
+    if (sequences.get(index) == pos + 1) {
+      return buffer[index];
+    }
+    return (tail.get() > pos) ? null : overflow.peek();
+  }
+
+  /**
+   * @return - the number of objects in the ring; a snapshot
+   */
+  private int ringSize() {
+    long size = tail.get() - head.get();
+    return (int) Math.max(0, Math.min(size, capacity));
+  }
+
+  /**
+   * Unparks one of the waiting threads.
+   *
+   * @param aWaiting -
+   *          the waiting consumers or producers
+   */
+  private static void signal(Queue<Thread> aWaiting) {
+    Thread t = aWaiting.poll();
+    if (t != null) {
+      LockSupport.unpark(t);
+    }
+  }
+
+  /**
+   * @param anObject -
+   *          an object in the queue
+   * @return - true if the object is the EOFToken terminating the CPE
+   */
+  private static boolean isEOFToken(Object anObject) {
+    return anObject instanceof Object[] && ((Object[]) anObject).length > 0
+            && ((Object[]) anObject)[0] instanceof EOFToken;
+  }
+}
@@ -439,7 +439,9 @@ public class SequencedQueue extends BoundedWorkQueue {
         }
         long timeRemaining = expireTime - System.currentTimeMillis();
         if (timeRemaining > 0) {
+          long waitStart = System.nanoTime();
           wait(timeRemaining);
+          dequeueWaitNanos.add(System.nanoTime() - waitStart);
         }
       } catch (InterruptedException e) {
       }
@@ -23,6 +23,7 @@ import org.apache.uima.collection.metadata.CpeCheckpoint;
 import org.apache.uima.collection.metadata.CpeConfiguration;
 import org.apache.uima.collection.metadata.CpeDescriptorException;
 import org.apache.uima.collection.metadata.CpeTimer;
+import org.apache.uima.collection.metadata.InputQueue;
 import org.apache.uima.collection.metadata.OutputQueue;
 import org.apache.uima.resource.metadata.impl.MetaDataObject_impl;
 import org.apache.uima.resource.metadata.impl.PropertyXmlInfo;
@@ -55,6 +56,9 @@ public class CpeConfigurationImpl extends MetaDataObject_impl implements CpeConf
   /** The output queue. */
   private OutputQueue outputQueue;
 
+  /** The input queue. */
+  private InputQueue inputQueue;
+
   /**
    * Instantiates a new cpe configuration impl.
    */
@@ -279,6 +283,23 @@ public class CpeConfigurationImpl extends MetaDataObject_impl implements CpeConf
     outputQueue = queue;
   }
 
+  /* (non-Javadoc)
+   * @see org.apache.uima.collection.metadata.CpeConfiguration#getInputQueue()
+   */
+  @Override
+  public InputQueue getInputQueue() {
+    return inputQueue;
+  }
+
+  /**
+   * Sets the input queue.
+   *
+   * @param queue the new input queue
+   */
+  public void setInputQueue(InputQueue queue) {
+    inputQueue = queue;
+  }
+
   /* (non-Javadoc)
    * @see org.apache.uima.resource.metadata.impl.MetaDataObject_impl#getXmlizationInfo()
    */
@@ -292,6 +313,7 @@ public class CpeConfigurationImpl extends MetaDataObject_impl implements CpeConf
           new PropertyXmlInfo[] { new PropertyXmlInfo("numToProcess"),
               new PropertyXmlInfo("deployAs"), new PropertyXmlInfo("checkpoint", null),
               new PropertyXmlInfo("timerImpl"), new PropertyXmlInfo("outputQueue", null),
+              new PropertyXmlInfo("inputQueue", null),
               new PropertyXmlInfo("startAt"), });
 
 }
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.collection.impl.cpm;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Scanner;
+
+import junit.framework.TestCase;
+
+import org.apache.uima.collection.base_cpm.SynchPoint;
+import org.apache.uima.util.ProcessTrace;
+import org.apache.uima.util.ProcessTraceEvent;
+import org.apache.uima.util.impl.ProcessTrace_impl;
+
+/**
+ * Checks that the binary checkpoint log returns the last complete checkpoint, and that
+ * checkpoints written by Java serialization can still be restored.
+ */
+public class CheckpointLogTest extends TestCase {
+
+  private File file;
+
+  protected void setUp() throws Exception {
+    file = File.createTempFile("checkpoint", ".dat");
+    file.delete();
+  }
+
+  protected void tearDown() throws Exception {
+    file.delete();
+  }
+
+  public void testLastRecord() throws Exception {
+    CheckpointLog log = new CheckpointLog(file);
+    for (int i = 1; i <= 10; i++) {
+      log.write(createProcessTrace(i), new TestSynchPoint("doc" + i));
+    }
+    CheckpointData data = CheckpointLog.read(file);
+    checkProcessTrace(data.getProcessTrace(), 10);
+    assertEquals("doc10", data.getSynchPoint().get());
+  }
+
+  public void testTornRecord() throws Exception {
+    CheckpointLog log = new CheckpointLog(file);
+    log.write(createProcessTrace(1), null);
+    log.write(createProcessTrace(2), null);
+    // a crash in the middle of the last write
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.setLength(raf.length() - 3);
+    }
+    CheckpointData data = CheckpointLog.read(file);
+    checkProcessTrace(data.getProcessTrace(), 1);
+    assertNull(data.getSynchPoint());
+  }
+
+  public void testFailedAppend() throws Exception {
+    CheckpointLog log = new CheckpointLog(file);
+    log.write(createProcessTrace(1), null);
+    log.write(createProcessTrace(2), null);
+    byte[] content = Files.readAllBytes(file.toPath());
+    // an append which fails
+    assertTrue(file.delete() && file.mkdir());
+    try {
+      log.write(createProcessTrace(3), null);
+      fail();
+    } catch (IOException e) {
+      // expected
+    }
+    // after writing a part of the record
+    assertTrue(file.delete());
+    byte[] partialRecord = Arrays.copyOfRange(content, 8, 20);
+    byte[] torn = Arrays.copyOf(content, content.length + partialRecord.length);
+    System.arraycopy(partialRecord, 0, torn, content.length, partialRecord.length);
+    Files.write(file.toPath(), torn);
+
+    // the next checkpoint is not appended after the partial record
+    log.write(createProcessTrace(4), null);
+    checkProcessTrace(CheckpointLog.read(file).getProcessTrace(), 4);
+    log.write(createProcessTrace(5), null);
+    checkProcessTrace(CheckpointLog.read(file).getProcessTrace(), 5);
+  }
+
+  public void testCompaction() throws Exception {
+    CheckpointLog log = new CheckpointLog(file);
+    log.write(createProcessTrace(0), null);
+    long recordSize = file.length() - 8;
+    for (int i = 1; i < 3 * CheckpointLog.COMPACTION_RECORDS; i++) {
+      log.write(createProcessTrace(i), null);
+    }
+    // the counts written later have up to 2 more digits
+    assertTrue(file.length() <= 8 + (recordSize + 2) * CheckpointLog.COMPACTION_RECORDS);
+    checkProcessTrace(CheckpointLog.read(file).getProcessTrace(),
+            3 * CheckpointLog.COMPACTION_RECORDS - 1);
+    assertFalse(new File(file.getPath() + ".tmp").exists());
+  }
+
+  public void testRestore() throws Exception {
+    String fileName = file.getPath();
+    File synchPointFile = new File(fileName.substring(0, fileName.indexOf('.'))
+            + "_synchPoint.xml");
+    try {
+      new CheckpointLog(file).write(createProcessTrace(5), new TestSynchPoint("doc5"));
+      // the synch point file takes precedence, so that it can be changed manually
+      try (FileOutputStream out = new FileOutputStream(synchPointFile)) {
+        out.write(new TestSynchPoint("doc3").serializeToXML().getBytes());
+      }
+      Checkpoint checkpoint = new Checkpoint(null, fileName, 1000);
+      CheckpointData data = (CheckpointData) checkpoint.restoreFromCheckpoint();
+      checkProcessTrace(data.getProcessTrace(), 5);
+      assertEquals("doc3", data.getSynchPoint().get());
+
+      // a checkpoint of a previous version
+      synchPointFile.delete();
+      try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
+        out.writeObject(new CheckpointData(createProcessTrace(7)));
+      }
+      data = (CheckpointData) checkpoint.restoreFromCheckpoint();
+      checkProcessTrace(data.getProcessTrace(), 7);
+    } finally {
+      synchPointFile.delete();
+    }
+  }
+
+  private static ProcessTrace createProcessTrace(int aCount) {
+    ProcessTrace pt = new ProcessTrace_impl();
+    pt.startEvent("CPM", "CPM PROCESSING TIME", "");
+    pt.addEvent("Reader", "COLLECTION READER PROCESSING TIME", "docs", aCount, String
+            .valueOf(aCount));
+    pt.endEvent("CPM", "CPM PROCESSING TIME", "success");
+    return pt;
+  }
+
+  private static void checkProcessTrace(ProcessTrace aProcessTrace, int aCount) {
+    ProcessTraceEvent cpm = aProcessTrace.getEvents().get(0);
+    assertEquals("CPM", cpm.getComponentName());
+    assertEquals("success", cpm.getResultMessage());
+    ProcessTraceEvent reader = cpm.getSubEvents().get(0);
+    assertEquals("Reader", reader.getComponentName());
+    assertEquals("COLLECTION READER PROCESSING TIME", reader.getType());
+    assertEquals(aCount, reader.getDuration());
+    assertEquals(String.valueOf(aCount), reader.getResultMessage());
+  }
+
+  public static class TestSynchPoint implements SynchPoint {
+    private String docId;
+
+    public TestSynchPoint() {
+    }
+
+    TestSynchPoint(String aDocId) {
+      docId = aDocId;
+    }
+
+    @Override
+    public void set(Object aSynchPointData) {
+      docId = (String) aSynchPointData;
+    }
+
+    @Override
+    public Object get() {
+      return docId;
+    }
+
+    @Override
+    public String serializeToXML() {
+      return "<synchPoint><docId>" + docId + "</docId></synchPoint>";
+    }
+
+    @Override
+    public void deserialize(InputStream aInputStream) throws Exception {
+      try (Scanner scanner = new Scanner(aInputStream, "UTF-8")) {
+        String xml = scanner.useDelimiter("\\A").next();
+        docId = xml.substring(xml.indexOf("<docId>") + 7, xml.indexOf("</docId>"));
+      }
+    }
+  }
+}
@@ -19,18 +19,35 @@
 
 package org.apache.uima.collection.impl.cpm;
 
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
 import org.junit.Assert;
 import junit.framework.TestCase;
 
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.collection.CollectionProcessingEngine;
+import org.apache.uima.collection.CasConsumerDescription;
+import org.apache.uima.collection.CollectionReaderDescription;
+import org.apache.uima.collection.impl.cpm.utils.BatchTestCasConsumer;
 import org.apache.uima.collection.impl.cpm.utils.DescriptorMakeUtil;
 import org.apache.uima.collection.impl.cpm.utils.FunctionErrorStore;
+import org.apache.uima.collection.impl.cpm.utils.PartitionableTestCollectionReader;
 import org.apache.uima.collection.impl.cpm.utils.TestStatusCallbackListener;
+import org.apache.uima.collection.impl.cpm.engine.RingBufferWorkQueue;
+import org.apache.uima.collection.impl.metadata.cpe.CpeConfigurationImpl;
 import org.apache.uima.collection.impl.metadata.cpe.CpeDescriptorFactory;
+import org.apache.uima.collection.impl.metadata.cpe.InputQueue_impl;
+import org.apache.uima.collection.impl.metadata.cpe.OutputQueue_impl;
 import org.apache.uima.collection.metadata.CpeDescription;
 import org.apache.uima.collection.metadata.CpeIntegratedCasProcessor;
+import org.apache.uima.resource.Resource;
 import org.apache.uima.test.junit_extension.JUnitExtension;
+import org.apache.uima.util.ProcessTrace;
+import org.apache.uima.util.XMLInputSource;
 
 /**
  * This test aimes to check if the cpm implements the ProcessingUnitThreadCount in the correct
@@ -207,6 +224,202 @@ public class CpmProcessingTest extends TestCase {
     Assert.assertEquals("number of annoators", threadCount, FunctionErrorStore.getAnnotatorCount());
   }
 
+  /**
+   * Process multiple documents with multiple threads, using the lock-free queues
+   * 
+   * @throws Exception -
+   */
+  public void testRingBufferQueues() throws Exception {
+    int documentCount = 100;
+    int threadCount = 5;
+
+    CollectionProcessingEngine cpe = setupCpm(documentCount, threadCount,
+            RingBufferWorkQueue.class.getName());
+
+    TestStatusCallbackListener listener = new TestStatusCallbackListener();
+    cpe.addStatusCallbackListener(listener);
+
+    cpe.process();
+
+    while (!listener.isFinished()) {
+      Thread.sleep(5);
+    }
+
+    Assert.assertEquals("StatusCallbackListener", documentCount, listener
+            .getEntityProcessCompleteCount());
+    Assert.assertEquals("CasConsumer process Count", documentCount, FunctionErrorStore
+            .getCasConsumerProcessCount());
+    Assert.assertEquals("Annotator process count", documentCount, FunctionErrorStore
+            .getAnnotatorProcessCount());
+
+    // the statistics of both queues are in the performance report
+    ProcessTrace report = cpe.getPerformanceReport();
+    Assert.assertEquals(1, report.getEventsByComponentName("Input Queue", false).stream()
+            .filter(e -> e.getType().equals("Queue Occupancy")).count());
+    Assert.assertEquals(1, report.getEventsByComponentName("Output Queue", false).stream()
+            .filter(e -> e.getType().equals("Queue Occupancy")).count());
+  }
+
+  /**
+   * Process multiple documents with multiple threads, reading ahead from a partitionable collection
+   * reader with multiple threads
+   * 
+   * @throws Exception -
+   */
+  public void testReadAhead() throws Exception {
+    int documentCount = 100;
+    int threadCount = 3;
+    PartitionableTestCollectionReader.resetPartitionsRead();
+
+    Properties settings = UIMAFramework.getDefaultPerformanceTuningProperties();
+    settings.setProperty(UIMAFramework.CPM_READER_THREADS, "4");
+    settings.setProperty(UIMAFramework.CPM_READER_PREFETCH_SIZE, "5");
+    CollectionProcessingEngine cpe = setupCpm(documentCount, threadCount, null,
+            PartitionableTestCollectionReader.class.getName(), null, 0, settings);
+
+    TestStatusCallbackListener listener = new TestStatusCallbackListener();
+    cpe.addStatusCallbackListener(listener);
+
+    cpe.process();
+
+    while (!listener.isFinished()) {
+      Thread.sleep(5);
+    }
+
+    Assert.assertEquals("StatusCallbackListener", documentCount, listener
+            .getEntityProcessCompleteCount());
+    Assert.assertEquals("CasConsumer process Count", documentCount, FunctionErrorStore
+            .getCasConsumerProcessCount());
+    Assert.assertEquals("Annotator process count", documentCount, FunctionErrorStore
+            .getAnnotatorProcessCount());
+    Assert.assertEquals("Collection reader populate count", documentCount, FunctionErrorStore
+            .getCollectionReaderGetNextCount());
+    Assert.assertEquals("partitions read", 4, PartitionableTestCollectionReader.getPartitionsRead());
+  }
+
+  /**
+   * Read ahead from a collection reader one of whose partitions always fails: the partition is
+   * given up, and the other partitions are processed
+   * 
+   * @throws Exception -
+   */
+  public void testReadAheadFailingPartition() throws Exception {
+    int documentCount = 100;
+    int threadCount = 3;
+    PartitionableTestCollectionReader.resetPartitionsRead();
+    PartitionableTestCollectionReader.setFirstPartitionFails(true);
+
+    Properties settings = UIMAFramework.getDefaultPerformanceTuningProperties();
+    settings.setProperty(UIMAFramework.CPM_READER_THREADS, "4");
+    settings.setProperty(UIMAFramework.CPM_READER_MAX_CONSECUTIVE_FAILURES, "3");
+    CollectionProcessingEngine cpe = setupCpm(documentCount, threadCount, null,
+            PartitionableTestCollectionReader.class.getName(), null, 0, settings);
+
+    TestStatusCallbackListener listener = new TestStatusCallbackListener();
+    cpe.addStatusCallbackListener(listener);
+
+    try {
+      cpe.process();
+      while (!listener.isFinished()) {
+        Thread.sleep(5);
+      }
+    } finally {
+      PartitionableTestCollectionReader.setFirstPartitionFails(false);
+    }
+
+    // the failures are reported too
+    Assert.assertEquals("StatusCallbackListener", documentCount * 3 / 4 + 3, listener
+            .getEntityProcessCompleteCount());
+    Assert.assertEquals("CasConsumer process Count", documentCount * 3 / 4, FunctionErrorStore
+            .getCasConsumerProcessCount());
+    Assert.assertEquals("partitions read", 3, PartitionableTestCollectionReader.getPartitionsRead());
+  }
+
+  /**
+   * Change the number of processing pipelines while processing, by hand and with the automatic
+   * scaling, without losing or repeating documents
+   * 
+   * @throws Exception -
+   */
+  public void testProcessingUnitCount() throws Exception {
+    int documentCount = 1000;
+    int threadCount = 4;
+
+    Properties settings = UIMAFramework.getDefaultPerformanceTuningProperties();
+    settings.setProperty(UIMAFramework.CPM_PIPELINE_SCALING_INTERVAL, "20");
+    CollectionProcessingEngine cpe = setupCpm(documentCount, threadCount, null, null, null, 0,
+            settings);
+    Assert.assertEquals(threadCount, cpe.getMaxProcessingUnitCount());
+    Assert.assertEquals(0, cpe.getProcessingUnitCount());
+    cpe.setProcessingUnitCount(1);
+
+    TestStatusCallbackListener listener = new TestStatusCallbackListener();
+    cpe.addStatusCallbackListener(listener);
+
+    cpe.process();
+
+    // pipelines added and removed while processing, by hand and by the scaler
+    int count = 1;
+    while (!listener.isFinished()) {
+      count = (count % threadCount) + 1;
+      cpe.setProcessingUnitCount(count);
+      Assert.assertTrue(cpe.getProcessingUnitCount() <= threadCount);
+      Thread.sleep(5);
+    }
+
+    Assert.assertEquals("StatusCallbackListener", documentCount, listener
+            .getEntityProcessCompleteCount());
+    Assert.assertEquals("CasConsumer process Count", documentCount, FunctionErrorStore
+            .getCasConsumerProcessCount());
+    Assert.assertEquals("Annotator process count", documentCount, FunctionErrorStore
+            .getAnnotatorProcessCount());
+  }
+
+  /**
+   * Process multiple documents with multiple threads, passing the CASes to the CAS Consumer in
+   * batches
+   * 
+   * @throws Exception -
+   */
+  public void testConsumerBatches() throws Exception {
+    int documentCount = 100;
+    int threadCount = 4;
+    BatchTestCasConsumer.resetMaxBatchSize();
+
+    Properties settings = UIMAFramework.getDefaultPerformanceTuningProperties();
+    settings.setProperty(UIMAFramework.CPM_CONSUMER_BATCH_SIZE, "10");
+    settings.setProperty(UIMAFramework.CPM_CONSUMER_BATCH_TIMEOUT, "50");
+    CollectionProcessingEngine cpe = setupCpm(documentCount, threadCount, null, null,
+            BatchTestCasConsumer.class.getName(), 20, settings);
+
+    TestStatusCallbackListener listener = new TestStatusCallbackListener();
+    cpe.addStatusCallbackListener(listener);
+
+    cpe.process();
+
+    while (!listener.isFinished()) {
+      Thread.sleep(5);
+    }
+
+    Assert.assertEquals("StatusCallbackListener", documentCount, listener
+            .getEntityProcessCompleteCount());
+    Assert.assertEquals("CasConsumer process Count", documentCount, FunctionErrorStore
+            .getCasConsumerProcessCount());
+    Assert.assertEquals("Annotator process count", documentCount, FunctionErrorStore
+            .getAnnotatorProcessCount());
+    Assert.assertTrue(BatchTestCasConsumer.getMaxBatchSize() > 1);
+    Assert.assertTrue(BatchTestCasConsumer.getMaxBatchSize() <= 10);
+  }
+
+  private CollectionProcessingEngine setupCpm(int documentCount, int threadCount) throws Exception {
+    return setupCpm(documentCount, threadCount, null);
+  }
+
+  private CollectionProcessingEngine setupCpm(int documentCount, int threadCount,
+          String queueClass) throws Exception {
+    return setupCpm(documentCount, threadCount, queueClass, null, null, 0, null);
+  }
+
   /**
    * setup the CPM with base functionality.
    * 
@@ -214,10 +427,23 @@ public class CpmProcessingTest extends TestCase {
    *          how many documents should be processed
    * @param threadCount
    *          how many threads are used by the cpm
+   * @param queueClass
+   *          class of the input and output queues, null for the default
+   * @param readerClass
+   *          class of the collection reader, null for the ErrorTestCollectionReader
+   * @param consumerClass
+   *          class of the CAS consumer, null for the ErrorTestCasConsumer
+   * @param casPoolSize
+   *          number of CASes in the CAS pool, 0 for the default
+   * @param performanceTuningSettings
+   *          settings of the cpe, may be null
    * 
    * @return CollectionProcessingEngine - initialized cpe
    */
-  private CollectionProcessingEngine setupCpm(int documentCount, int threadCount) throws Exception {
+  private CollectionProcessingEngine setupCpm(int documentCount, int threadCount,
+          String queueClass, String readerClass, String consumerClass, int casPoolSize,
+          Properties performanceTuningSettings)
+          throws Exception {
     CpeDescription cpeDesc = null;
     CollectionProcessingEngine cpe = null;
 
@@ -230,14 +456,42 @@ public class CpmProcessingTest extends TestCase {
 
       // created needed descriptors
       String colReaderDesc = DescriptorMakeUtil.makeCollectionReader(colReaderBase, documentCount);
+      if (readerClass != null) {
+        CollectionReaderDescription crd = UIMAFramework.getXMLParser()
+                .parseCollectionReaderDescription(new XMLInputSource(colReaderDesc));
+        crd.setImplementationName(readerClass);
+        try (OutputStream out = new FileOutputStream(colReaderDesc)) {
+          crd.toXML(out);
+        }
+      }
       String taeDesc = DescriptorMakeUtil.makeAnalysisEngine(taeBase);
       String casConsumerDesc = DescriptorMakeUtil.makeCasConsumer(casConsumerBase);
+      if (consumerClass != null) {
+        CasConsumerDescription ccd = UIMAFramework.getXMLParser().parseCasConsumerDescription(
+                new XMLInputSource(casConsumerDesc));
+        ccd.setImplementationName(consumerClass);
+        try (OutputStream out = new FileOutputStream(casConsumerDesc)) {
+          ccd.toXML(out);
+        }
+      }
 
       // create cpm descriptor
       cpeDesc = CpeDescriptorFactory.produceDescriptor();
       cpeDesc.setInputQueueSize(2);
       cpeDesc.setOutputQueueSize(2);
       cpeDesc.setProcessingUnitThreadCount(threadCount);
+      if (casPoolSize > 0) {
+        cpeDesc.getCpeCasProcessors().setPoolSize(casPoolSize);
+      }
+      if (queueClass != null) {
+        CpeConfigurationImpl cpeConfig = (CpeConfigurationImpl) cpeDesc.getCpeConfiguration();
+        InputQueue_impl inputQueue = new InputQueue_impl();
+        inputQueue.setQueueClass(queueClass);
+        cpeConfig.setInputQueue(inputQueue);
+        OutputQueue_impl outputQueue = new OutputQueue_impl();
+        outputQueue.setQueueClass(queueClass);
+        cpeConfig.setOutputQueue(outputQueue);
+      }
 
       // add tae
       CpeIntegratedCasProcessor integratedProcessor = CpeDescriptorFactory
@@ -255,7 +509,11 @@ public class CpmProcessingTest extends TestCase {
       cpeDesc.addCollectionReader(colReaderDesc);
 
       // produce cpe
-      cpe = UIMAFramework.produceCollectionProcessingEngine(cpeDesc, null, null);
+      Map<String, Object> additionalParams = new HashMap<>();
+      if (performanceTuningSettings != null) {
+        additionalParams.put(Resource.PARAM_PERFORMANCE_TUNING_SETTINGS, performanceTuningSettings);
+      }
+      cpe = UIMAFramework.produceCollectionProcessingEngine(cpeDesc, null, additionalParams);
     } catch (Exception e) {
       e.printStackTrace();
     }
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.collection.impl.cpm.utils;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.collection.BatchCasConsumer;
+import org.apache.uima.resource.ResourceProcessException;
+
+/**
+ * ErrorTestCasConsumer receiving the CASes in batches. Records the size of the largest batch.
+ */
+public class BatchTestCasConsumer extends ErrorTestCasConsumer implements BatchCasConsumer {
+
+  private static volatile int maxBatchSize = 0;
+
+  public void processCasBatch(CAS[] aCASes) throws ResourceProcessException {
+    maxBatchSize = Math.max(maxBatchSize, aCASes.length);
+    for (CAS cas : aCASes) {
+      processCas(cas);
+    }
+  }
+
+  public static int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  public static void resetMaxBatchSize() {
+    maxBatchSize = 0;
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.collection.impl.cpm.utils;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.collection.CollectionException;
+import org.apache.uima.collection.PartitionableCollectionReader;
+
+/**
+ * An ErrorTestCollectionReader whose documents can be read ahead by several threads. Each
+ * partition returns the numbers of a range of documents.
+ */
+public class PartitionableTestCollectionReader extends ErrorTestCollectionReader implements
+        PartitionableCollectionReader {
+
+  private static final AtomicInteger partitionsRead = new AtomicInteger();
+
+  private static volatile boolean firstPartitionFails = false;
+
+  public Partition[] getPartitions(int aNumberOfPartitions) throws CollectionException {
+    int documentCount = (Integer) getConfigParameterValue("DocumentCount");
+    Partition[] partitions = new Partition[aNumberOfPartitions];
+    for (int i = 0; i < aNumberOfPartitions; i++) {
+      final int end = documentCount * (i + 1) / aNumberOfPartitions;
+      final int[] next = { documentCount * i / aNumberOfPartitions };
+      final boolean fails = firstPartitionFails && i == 0;
+      partitions[i] = () -> {
+        if (fails) {
+          throw new IOException("partition can't be read");
+        }
+        if (next[0] == end) {
+          partitionsRead.incrementAndGet();
+          return null;
+        }
+        try {
+          // some I/O
+          Thread.sleep(1);
+        } catch (InterruptedException e) {
+        }
+        return next[0]++;
+      };
+    }
+    return partitions;
+  }
+
+  public void populate(Object aElement, CAS aCAS) throws IOException, CollectionException {
+    aCAS.setDocumentText("document " + aElement);
+    FunctionErrorStore.increaseCollectionReaderGetNextCount();
+  }
+
+  public static int getPartitionsRead() {
+    return partitionsRead.get();
+  }
+
+  public static void resetPartitionsRead() {
+    partitionsRead.set(0);
+  }
+
+  public static void setFirstPartitionFails(boolean aFails) {
+    firstPartitionFails = aFails;
+  }
+}
@@ -0,0 +1,1407 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.json;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.apache.uima.UimaSerializable;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.CASRuntimeException;
+import org.apache.uima.cas.Type;
+import org.apache.uima.cas.impl.AllowPreexistingFS;
+import org.apache.uima.cas.impl.CASImpl;
+import org.apache.uima.cas.impl.CasSerializerSupport;
+import org.apache.uima.cas.impl.FeatureImpl;
+import org.apache.uima.cas.impl.LowLevelCAS;
+import org.apache.uima.cas.impl.TypeImpl;
+import org.apache.uima.cas.impl.TypeSystemConstants;
+import org.apache.uima.cas.impl.TypeSystemImpl;
+import org.apache.uima.cas.impl.XmiSerializationSharedData;
+import org.apache.uima.jcas.cas.BooleanArray;
+import org.apache.uima.jcas.cas.ByteArray;
+import org.apache.uima.jcas.cas.DoubleArray;
+import org.apache.uima.jcas.cas.FSArray;
+import org.apache.uima.jcas.cas.FSList;
+import org.apache.uima.jcas.cas.FloatArray;
+import org.apache.uima.jcas.cas.FloatList;
+import org.apache.uima.jcas.cas.IntegerArray;
+import org.apache.uima.jcas.cas.IntegerList;
+import org.apache.uima.jcas.cas.LongArray;
+import org.apache.uima.jcas.cas.NonEmptyList;
+import org.apache.uima.jcas.cas.ShortArray;
+import org.apache.uima.jcas.cas.Sofa;
+import org.apache.uima.jcas.cas.StringArray;
+import org.apache.uima.jcas.cas.StringList;
+import org.apache.uima.jcas.cas.TOP;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+
+/**
+ * <h2>CAS deserializer for JSON formats.</h2>
+ * <p>Reads a CAS from the JSON format written by {@link JsonCasSerializer}, with or without
+ * the _context (see {@link JsonCasSerializer.JsonContextFormat}), with dynamic or static embedding.</p>
+ *
+ * <p>The input is read with a streaming Jackson JsonParser; no tree model of the document is built.
+ * Feature Structures are created as they are read.  References to Feature Structures which come
+ * later in the input (typically, from the _views to the _referenced_fss) are fixed up at the end.</p>
+ *
+ * <p>To use,</p>
+ * <ul>
+ *   <li>create an instance of this class,</li>
+ *   <li>(optionally) configure the instance, and then</li>
+ *   <li>call deserialize on the instance, optionally passing in additional parameters.</li></ul>
+ *
+ * <p>After the 1st 2 steps, the deserializer instance may be used for multiple calls (on multiple threads) to
+ * the 3rd deserialize step, if all calls use the same configuration.</p>
+ *
+ * <p>There are "convenience" static jsonDeserialize methods that do these three steps for common configurations.</p>
+ *
+ * <p>Type names are resolved using the _context, if present, and otherwise by
+ * matching the (short) type names against the CAS's type system.</p>
+ *
+ * <p>Like the {@link org.apache.uima.cas.impl.XmiCasDeserializer}, this deserializer supports
+ * <ul>
+ *   <li>lenient loading - types and features not in the CAS's type system are skipped,
+ *       and references to unknown ids are set to null</li>
+ *   <li>merging / delta CAS loading - using an XmiSerializationSharedData and a merge point.
+ *       Ids at or below the merge point refer to Feature Structures already in the CAS;
+ *       these are handled as specified by an {@link AllowPreexistingFS} value.</li>
+ * </ul>
+ * A delta CAS or a CAS which will later be sent back as a delta should be serialized with an
+ * XmiSerializationSharedData, so that every Feature Structure is written with its id.
+ */
+public class JsonCasDeserializer {
+
+  private static final String CONTEXT_NAME = "_context";
+  private static final String TYPES_NAME = "_types";
+  private static final String ID_NAME = "_id";
+  private static final String REFERENCED_FSS_NAME = "_referenced_fss";
+  private static final String VIEWS_NAME = "_views";
+  private static final String TYPE_NAME = "_type";
+  private static final String COLLECTION_NAME = "_collection";
+  private static final String DELTA_CAS_NAME = "_delta_cas";
+  private static final String ADDED_MEMBERS_NAME = "added_members";
+  private static final String DELETED_MEMBERS_NAME = "deleted_members";
+
+  private static final TypeImpl AMBIGUOUS = null;  // value in the short name map for ambiguous short names
+
+  private JsonFactory jsonFactory = null;
+
+  private boolean isLenient = false;
+
+  /***********************************************
+   *         C O N S T R U C T O R S             *
+   ***********************************************/
+
+  /**
+   * Creates a new JsonCasDeserializer
+   */
+  public JsonCasDeserializer() {
+  }
+
+  /****************************************************
+   *  Static JSON Deserializer methods for convenience  *
+   ****************************************************/
+
+  /**
+   * Deserializes a CAS from JSON, replacing the contents of the CAS
+   *
+   * @param aCAS
+   *          CAS to deserialize into.
+   * @param input
+   *          a File, InputStream or Reader from which to read the JSON document
+   *
+   * @throws IOException if there was an IOException, or the input is not valid
+   */
+  public static void jsonDeserialize(CAS aCAS, Object input) throws IOException {
+    jsonDeserialize(aCAS, input, false, null, -1, AllowPreexistingFS.ignore);
+  }
+
+  /**
+   * Deserializes a CAS from JSON, replacing the contents of the CAS
+   *
+   * @param aCAS
+   *          CAS to deserialize into.
+   * @param input
+   *          a File, InputStream or Reader from which to read the JSON document
+   * @param aLenient
+   *          if true, types and features not in the CAS's type system are skipped
+   *
+   * @throws IOException if there was an IOException, or the input is not valid
+   */
+  public static void jsonDeserialize(CAS aCAS, Object input, boolean aLenient) throws IOException {
+    jsonDeserialize(aCAS, input, aLenient, null, -1, AllowPreexistingFS.ignore);
+  }
+
+  /**
+   * Deserializes a CAS from JSON, optionally merging it into the existing contents of the CAS.
+   * This version of this method allows many options to be configured.
+   *
+   * @param aCAS
+   *          CAS to deserialize into.
+   * @param input
+   *          a File, InputStream or Reader from which to read the JSON document
+   * @param aLenient
+   *          if true, types and features not in the CAS's type system are skipped
+   * @param aSharedData
+   *          an optional container for data that is shared between the JSON serialization and deserialization,
+   *          holding the id of each Feature Structure.  Required when merging.
+   * @param aMergePoint
+   *          used to support merging and delta CASes: the highest id of the Feature Structures already in the CAS,
+   *          as returned by aSharedData.getMaxXmiId() after they were last serialized or deserialized.
+   *          Feature Structures with ids above this are new.
+   *          If less than 0, the CAS is reset and replaced by the input.
+   * @param allowPreexistingFS
+   *          used when merging, specifies what to do with input for Feature Structures with ids at or below the merge point:
+   *          ignore it, allow it to update the existing Feature Structures, or disallow it (throwing an exception)
+   * @throws IOException if there was an IOException, or the input is not valid
+   */
+  public static void jsonDeserialize(CAS aCAS, Object input, boolean aLenient,
+      XmiSerializationSharedData aSharedData, int aMergePoint, AllowPreexistingFS allowPreexistingFS) throws IOException {
+    JsonCasDeserializer deser = new JsonCasDeserializer();
+    deser.setLenient(aLenient);
+    deser.deserialize(aCAS, input, aSharedData, aMergePoint, allowPreexistingFS);
+  }
+
+  /********************************************************
+   *   Routines to set configuration                      *
+   ********************************************************/
+
+  /**
+   * set which JsonFactory instance to use; if null, a new instance is used
+   *   this can be used to preconfigure the JsonFactory instance
+   * @param jsonFactory -
+   * @return the original instance, possibly updated
+   */
+  public JsonCasDeserializer setJsonFactory(JsonFactory jsonFactory) {
+    this.jsonFactory = jsonFactory;
+    return this;
+  }
+
+  /**
+   * set or reset lenient mode (default is false)
+   * @param lenient true to skip types and features not in the CAS's type system,
+   *                and to set references to unknown ids to null,
+   *                false to throw an exception for these
+   * @return the original instance, possibly updated
+   */
+  public JsonCasDeserializer setLenient(boolean lenient) {
+    this.isLenient = lenient;
+    return this;
+  }
+
+  /********************************************************
+   *   Deserialize                                        *
+   ********************************************************/
+
+  /**
+   * Deserialize a JSON input into a CAS, replacing its contents
+   * @param cas - the CAS to deserialize into
+   * @param input - a File, InputStream or Reader
+   * @throws IOException if there was an IOException, or the input is not valid
+   */
+  public void deserialize(CAS cas, Object input) throws IOException {
+    deserialize(cas, input, null, -1, AllowPreexistingFS.ignore);
+  }
+
+  /**
+   * Deserialize a JSON input into a CAS, optionally merging
+   * @param cas - the CAS to deserialize into
+   * @param input - a File, InputStream or Reader
+   * @param sharedData - optional id information, required when merging
+   * @param mergePoint - the highest id of the Feature Structures already in the CAS, or -1 to reset the CAS
+   * @param allowPreexistingFS - what to do with the input for Feature Structures at or below the merge point
+   * @throws IOException if there was an IOException, or the input is not valid
+   */
+  public void deserialize(CAS cas, Object input, XmiSerializationSharedData sharedData, int mergePoint,
+      AllowPreexistingFS allowPreexistingFS) throws IOException {
+    JsonFactory jf = readFactory();
+    final JsonParser parser;
+    if (input instanceof InputStream) {
+      parser = jf.createParser((InputStream) input);
+    } else if (input instanceof Reader) {
+      parser = jf.createParser((Reader) input);
+    } else if (input instanceof File) {
+      parser = jf.createParser((File) input);
+    } else {
+      throw new IllegalArgumentException("input must be a File, InputStream or Reader, but was "
+                                         + ((input == null) ? "null" : input.getClass().getName()));
+    }
+    try {
+      deserialize(cas, parser, sharedData, mergePoint, allowPreexistingFS);
+    } finally {
+      parser.close();
+    }
+  }
+
+  /**
+   * Deserialize from a configured JsonParser into a CAS, optionally merging
+   * @param cas - the CAS to deserialize into
+   * @param parser - positioned before the start of the JSON object holding the CAS
+   * @param sharedData - optional id information, required when merging
+   * @param mergePoint - the highest id of the Feature Structures already in the CAS, or -1 to reset the CAS
+   * @param allowPreexistingFS - what to do with the input for Feature Structures at or below the merge point
+   * @throws IOException if there was an IOException, or the input is not valid
+   */
+  public void deserialize(CAS cas, JsonParser parser, XmiSerializationSharedData sharedData, int mergePoint,
+      AllowPreexistingFS allowPreexistingFS) throws IOException {
+    // the parser comes from the caller's factory
+    parser.enable(JsonReadFeature.ALLOW_NON_NUMERIC_NUMBERS.mappedFeature());
+    JsonDocDeserializer d = new JsonDocDeserializer(((CASImpl) cas).getBaseCAS(), parser,
+        readFactory(), sharedData, mergePoint, allowPreexistingFS);
+    d.deserialize();
+  }
+  
+  /**
+   * @return the configured JsonFactory, or a new one, allowing NaN and Infinity for floats and doubles
+   */
+  private JsonFactory readFactory() {
+    return ((jsonFactory == null) ? JsonFactory.builder() : jsonFactory.rebuild())
+        .enable(JsonReadFeature.ALLOW_NON_NUMERIC_NUMBERS)
+        .build();
+  }
+
+  @FunctionalInterface
+  private interface FsReceiver {
+    /**
+     * @param fs the FS which was read
+     * @param id its id, or 0 if it has none
+     */
+    void accept(TOP fs, int id);
+  }
+
+  @FunctionalInterface
+  private interface Fixup {
+    void run() throws IOException;
+  }
+
+  /**
+   * An FS which is a subtype of AnnotationBase, whose sofa reference is to a sofa not yet read.
+   * Its remaining features are buffered, and it is created once all the sofas are known.
+   */
+  private static class DeferredFs {
+    final String json;
+    final TypeImpl type;
+    final CASImpl defaultView;
+    final int id;
+    final FsReceiver receiver;
+
+    DeferredFs(String json, TypeImpl type, CASImpl defaultView, int id, FsReceiver receiver) {
+      this.json = json;
+      this.type = type;
+      this.defaultView = defaultView;
+      this.id = id;
+      this.receiver = receiver;
+    }
+  }
+
+  /**
+   * An index update, for an FS or an id which is resolved at the end
+   */
+  private static class IndexUpdate {
+    final CASImpl view;
+    final boolean isNewView;
+    final TOP fs;
+    final int id;
+
+    IndexUpdate(CASImpl view, boolean isNewView, TOP fs, int id) {
+      this.view = view;
+      this.isNewView = isNewView;
+      this.fs = fs;
+      this.id = id;
+    }
+  }
+
+  /**
+   * Collects the elements of an FSArray or FSList, some of which may only be known later
+   */
+  private static class FsElements {
+    TOP[] fss = new TOP[8];
+    int size = 0;
+    boolean hasPending = false;
+    FSArray<TOP> array;  // once created, elements resolved later are set directly into it
+
+    int add() {
+      if (size == fss.length) {
+        fss = Arrays.copyOf(fss, size * 2);
+      }
+      return size++;
+    }
+
+    void set(int i, TOP fs) {
+      if (array != null) {
+        array.set(i, fs);
+      } else {
+        fss[i] = fs;
+      }
+    }
+  }
+
+  /**
+   * The state of one deserialization
+   */
+  private class JsonDocDeserializer {
+
+    private final CASImpl cas;
+
+    private final TypeSystemImpl tsi;
+
+    private JsonParser p;
+
+    private final JsonFactory jf;
+
+    private final XmiSerializationSharedData sharedData;
+
+    private final int mergePoint;
+
+    private final AllowPreexistingFS allowPreexistingFS;
+
+    private final boolean lenient = JsonCasDeserializer.this.isLenient;
+
+    /** qualified type name used in the serialization to full type name, from the _context */
+    private final Map<String, String> contextTypeNames = new HashMap<>();
+
+    private final Map<String, TypeImpl> typeCache = new HashMap<>();
+
+    /** short type name to type, lazily set up, with AMBIGUOUS for short names of several types */
+    private Map<String, TypeImpl> shortNameToType = null;
+
+    private final Map<String, CASImpl> views = new HashMap<>();
+
+    private final List<CASImpl> newViews = new ArrayList<>();
+
+    /** the id of a sofa to its view, known from the sofa itself or from an indexed FS referencing it */
+    private final Map<Integer, CASImpl> sofaIdToView = new HashMap<>();
+
+    private final List<Fixup> fixups = new ArrayList<>();
+
+    private final List<DeferredFs> deferredFss = new ArrayList<>();
+
+    private boolean isProcessingDeferredFss = false;
+
+    private final List<IndexUpdate> viewMembers = new ArrayList<>();
+
+    /** null unless this is a delta CAS */
+    private List<IndexUpdate> deltaAdds = null;
+
+    private final List<IndexUpdate> deltaRemoves = new ArrayList<>();
+
+    private boolean disallowedViewMemberEncountered = false;
+
+    private final List<UimaSerializable> uimaSerializables = new ArrayList<>();
+
+    private JsonDocDeserializer(CASImpl cas, JsonParser p, JsonFactory jf, XmiSerializationSharedData sharedData,
+        int mergePoint, AllowPreexistingFS allowPreexistingFS) {
+      this.cas = cas;
+      this.tsi = cas.getTypeSystemImpl();
+      this.p = p;
+      this.jf = jf;
+      this.sharedData = (sharedData != null) ? sharedData : new XmiSerializationSharedData();
+      this.mergePoint = mergePoint;
+      this.allowPreexistingFS = allowPreexistingFS;
+      if (mergePoint < 0) {
+        // If not merging, reset the CAS, and clear the id mappings from previous (de)serializations
+        cas.resetNoQuestions();
+        this.sharedData.clearIdMap();
+      }
+    }
+
+    private void deserialize() throws IOException {
+      if (p.nextToken() != JsonToken.START_OBJECT) {
+        throw error("expected a JSON object holding the CAS");
+      }
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        final String name = p.getCurrentName();
+        p.nextToken();
+        switch (name) {
+        case CONTEXT_NAME:        readContext(); break;
+        case VIEWS_NAME:          readViews(); break;
+        case REFERENCED_FSS_NAME: readReferencedFss(); break;
+        case DELTA_CAS_NAME:      readDeltaCas(); break;
+        default: p.skipChildren();  // ignore things not written by the serializer
+        }
+      }
+
+      processDeferredFss();
+
+      // Resolve id references
+      for (Fixup fixup : fixups) {
+        fixup.run();
+      }
+
+      updateIndexes();
+
+      for (CASImpl view : views.values()) {
+        view.updateDocumentAnnotation();
+      }
+
+      if (disallowedViewMemberEncountered) {
+        throw new CASRuntimeException(
+            CASRuntimeException.DELTA_CAS_PREEXISTING_FS_DISALLOWED, "Preexisting FS view member encountered.");
+      }
+
+      for (UimaSerializable ufs : uimaSerializables) {
+        ufs._init_from_cas_data();
+      }
+    }
+
+    /*********************************************
+     *  Top level sections                        *
+     *********************************************/
+
+    /**
+     * Reads the type names from the _context; the rest of the context info comes from the CAS's type system
+     */
+    private void readContext() throws IOException {
+      expect(JsonToken.START_OBJECT);
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        final String name = p.getCurrentName();
+        p.nextToken();
+        if (!TYPES_NAME.equals(name)) {
+          p.skipChildren();  // _type_system
+          continue;
+        }
+        expect(JsonToken.START_OBJECT);
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+          final String qname = p.getCurrentName();
+          p.nextToken();
+          expect(JsonToken.START_OBJECT);
+          while (p.nextToken() == JsonToken.FIELD_NAME) {
+            final String typeField = p.getCurrentName();
+            p.nextToken();
+            if (ID_NAME.equals(typeField)) {
+              contextTypeNames.put(qname, p.getText());
+            } else {
+              p.skipChildren(); // _feature_types, _subtypes
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * "_views" : { viewName : { typeName : [ fs-or-id, ... ], ... }, ... }
+     */
+    private void readViews() throws IOException {
+      expect(JsonToken.START_OBJECT);
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        final CASImpl view = getOrCreateView(p.getCurrentName());
+        final boolean isNewView = newViews.contains(view);
+        p.nextToken();
+        expect(JsonToken.START_OBJECT);
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+          final TypeImpl type = getType(p.getCurrentName());
+          p.nextToken();
+          if (type == null) {
+            p.skipChildren();
+            continue;
+          }
+          expect(JsonToken.START_ARRAY);
+          JsonToken t;
+          while ((t = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (t == JsonToken.VALUE_NUMBER_INT) {
+              viewMembers.add(new IndexUpdate(view, isNewView, null, p.getIntValue()));
+            } else {
+              expect(JsonToken.START_OBJECT);
+              readFs(type, view, view, 0, (fs, id) -> viewMembers.add(new IndexUpdate(view, isNewView, fs, id)));
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * "_referenced_fss" : { "id" : { "_type" : typeName, features ... }, ... }
+     */
+    private void readReferencedFss() throws IOException {
+      expect(JsonToken.START_OBJECT);
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        final int id = parseId(p.getCurrentName());
+        p.nextToken();
+        expect(JsonToken.START_OBJECT);
+        readFs(null, null, null, id, (fs, fsId) -> {});  // is referenced via its id
+      }
+    }
+
+    /**
+     * "_delta_cas" : { sofaId : [ ids ], ... }  for new views, or
+     *                { sofaId : { "added_members" : [ids], "deleted_members" : [ids], "reindexed_members" : [ids] } }
+     * The sofaId is 0 for the initial view without a sofa
+     * The view members are resolved at the end.
+     */
+    private void readDeltaCas() throws IOException {
+      expect(JsonToken.START_OBJECT);
+      deltaAdds = new ArrayList<>();
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        final int sofaId = parseId(p.getCurrentName());
+        if (p.nextToken() == JsonToken.START_ARRAY) {
+          readDeltaIds(sofaId, true, deltaAdds);
+          continue;
+        }
+        expect(JsonToken.START_OBJECT);
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+          final String kind = p.getCurrentName();
+          p.nextToken();
+          switch (kind) {
+          case ADDED_MEMBERS_NAME:   readDeltaIds(sofaId, false, deltaAdds); break;
+          case DELETED_MEMBERS_NAME: readDeltaIds(sofaId, false, deltaRemoves); break;
+          default: p.skipChildren();  // reindexed members: updating features already reindexed these
+          }
+        }
+      }
+    }
+
+    private void readDeltaIds(int sofaId, boolean isNewView, List<IndexUpdate> updates) throws IOException {
+      expect(JsonToken.START_ARRAY);
+      // the view is resolved at the end, when the sofa is known
+      while (p.nextToken() != JsonToken.END_ARRAY) {
+        updates.add(new DeltaIndexUpdate(sofaId, isNewView, p.getIntValue()));
+      }
+    }
+
+    /*********************************************
+     *  Feature Structures                        *
+     *********************************************/
+
+    /**
+     * Reads one FS, from its START_OBJECT to its END_OBJECT
+     *
+     * @param type the type, or null if it is given by a _type field
+     * @param view for FSs in the _views, the view; AnnotationBase FSs are created in this view
+     * @param defaultView the view for AnnotationBase FSs which have no sofa reference,
+     *        or null for the initial view
+     * @param id the id if it is known from the context, or 0; may be given by an _id field
+     * @param receiver gets the FS once it has been created, which may be later for deferred FSs,
+     *        or never, if the FS is skipped
+     */
+    private void readFs(TypeImpl type, CASImpl view, CASImpl defaultView, int id, FsReceiver receiver) throws IOException {
+      JsonToken t = p.nextToken();
+
+      // _type and _id precede the features
+      while (t == JsonToken.FIELD_NAME) {
+        final String name = p.getCurrentName();
+        if (TYPE_NAME.equals(name)) {
+          p.nextToken();
+          type = getType(p.getText());
+          if (type == null) {
+            skipRestOfObject();
+            return;
+          }
+        } else if (ID_NAME.equals(name)) {
+          p.nextToken();
+          id = p.getIntValue();
+        } else {
+          break;
+        }
+        t = p.nextToken();
+      }
+
+      if (type == null) {
+        throw error("missing " + TYPE_NAME);
+      }
+
+      if (!isNewFs(id)) {
+        if (allowPreexistingFS == AllowPreexistingFS.disallow) {
+          throw new CASRuntimeException(CASRuntimeException.DELTA_CAS_PREEXISTING_FS_DISALLOWED,
+              ID_NAME + "=" + id, "", type.getName(), type.getName());
+        }
+        final TOP fs = sharedData.getFsForXmiId(id);
+        if (fs != null) {
+          receiver.accept(fs, id);
+          if (allowPreexistingFS == AllowPreexistingFS.ignore || fs instanceof Sofa) {
+            skipRestOfObject();   // the features of sofas are final
+          } else {
+            readFeatures(fs, fs._casView, t);
+          }
+          return;
+        }
+        // not known, create as new
+      }
+
+      if (type.getCode() == TypeSystemConstants.sofaTypeCode) {
+        readSofa(id, receiver, t);
+        return;
+      }
+
+      final TOP fs;
+      if (type.isArray()) {
+        if (t != JsonToken.FIELD_NAME || !COLLECTION_NAME.equals(p.getCurrentName())) {
+          throw error("missing " + COLLECTION_NAME + " for array of type " + type.getName());
+        }
+        p.nextToken();
+        fs = (CasSerializerSupport.classifyType(type) == LowLevelCAS.TYPE_CLASS_FSARRAY)
+               ? readFsArray(type, defaultView)
+               : readPrimitiveArray(type);
+        skipRestOfObject();
+        created(fs, id, receiver);
+        return;
+      }
+
+      if (isEmptyList(type)) {
+        skipRestOfObject();
+        created((TOP) cas.emptyListFromTypeCode(type.getCode()), id, receiver);
+        return;
+      }
+
+      if (type.isAnnotationBaseType()) {
+        if (view == null) {
+          if (t == JsonToken.FIELD_NAME && CAS.FEATURE_BASE_NAME_SOFA.equals(p.getCurrentName())) {
+            p.nextToken();
+            final int sofaId = p.getIntValue();
+            view = getViewForSofaId(sofaId);
+            if (view == null) {
+              if (!isProcessingDeferredFss) {
+                deferFs(type, defaultView, id, receiver);
+                return;
+              }
+              if (!lenient) {
+                throw error("reference to unknown sofa: " + sofaId);
+              }
+              skipRestOfObject();
+              return;
+            }
+            t = p.nextToken();
+          } else {
+            view = (defaultView != null) ? defaultView : (CASImpl) cas.getView(CAS.NAME_DEFAULT_SOFA);
+          }
+        }
+        if (type.getCode() == TypeSystemConstants.docTypeCode) {
+          fs = view.getDocumentAnnotation();  // gets existing one or creates a new one
+          view.removeFsFromIndexes(fs);       // added back, if it's a view member
+        } else {
+          fs = view.createFS(type);
+        }
+      } else {
+        fs = cas.createFS(type);
+      }
+
+      if (fs instanceof UimaSerializable) {
+        uimaSerializables.add((UimaSerializable) fs);
+      }
+      created(fs, id, receiver);
+      readFeatures(fs, (view != null) ? view : defaultView, t);
+    }
+
+    private void created(TOP fs, int id, FsReceiver receiver) {
+      if (id > 0) {
+        sharedData.addIdMapping(fs, id);
+      }
+      receiver.accept(fs, id);
+    }
+
+    /**
+     * Buffers the rest of an FS object, from its sofa feature
+     */
+    private void deferFs(TypeImpl type, CASImpl defaultView, int id, FsReceiver receiver) throws IOException {
+      StringWriter sw = new StringWriter();
+      try (JsonGenerator g = jf.createGenerator(sw)) {
+        g.writeStartObject();
+        g.writeFieldName(CAS.FEATURE_BASE_NAME_SOFA);
+        g.copyCurrentStructure(p);  // the sofa id
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+          g.copyCurrentStructure(p);  // the field name and its value
+        }
+        g.writeEndObject();
+      }
+      deferredFss.add(new DeferredFs(sw.toString(), type, defaultView, id, receiver));
+    }
+
+    private void processDeferredFss() throws IOException {
+      if (deferredFss.isEmpty()) {
+        return;
+      }
+      isProcessingDeferredFss = true;
+      final JsonParser savedParser = p;
+      try {
+        // more may be added while processing deferred FSs, from embedded FSs
+        for (int i = 0; i < deferredFss.size(); i++) {
+          DeferredFs d = deferredFss.get(i);
+          try (JsonParser dp = jf.createParser(d.json)) {
+            p = dp;
+            p.nextToken();  // the START_OBJECT
+            readFs(d.type, null, d.defaultView, d.id, d.receiver);
+          }
+        }
+      } finally {
+        p = savedParser;
+        isProcessingDeferredFss = false;
+      }
+    }
+
+    /**
+     * A sofa's features are collected, and then the sofa of the view named by the sofaID
+     * is found or created, and set up
+     */
+    private void readSofa(final int id, FsReceiver receiver, JsonToken t) throws IOException {
+      String sofaID = null;
+      String mimeType = null;
+      String sofaString = null;
+      String sofaURI = null;
+      final TOP[] sofaArray = new TOP[1];
+      final Sofa[] sofaHolder = new Sofa[1];
+
+      for (; t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+        final String name = p.getCurrentName();
+        p.nextToken();
+        switch (name) {
+        case CAS.FEATURE_BASE_NAME_SOFAID:     sofaID = p.getText(); break;
+        case CAS.FEATURE_BASE_NAME_SOFAMIME:   mimeType = p.getValueAsString(); break;
+        case CAS.FEATURE_BASE_NAME_SOFASTRING: sofaString = p.getValueAsString(); break;
+        case CAS.FEATURE_BASE_NAME_SOFAURI:    sofaURI = p.getValueAsString(); break;
+        case CAS.FEATURE_BASE_NAME_SOFAARRAY:
+          readFsRef(null, fs -> {
+            if (sofaHolder[0] != null) {
+              sofaHolder[0].setLocalSofaData(fs);
+            } else {
+              sofaArray[0] = fs;
+            }
+          });
+          break;
+        default: p.skipChildren(); // sofaNum is assigned when the view is created
+        }
+      }
+      if (sofaID == null) {
+        throw error("missing sofaID");
+      }
+      if (sofaID.equals("_DefaultTextSofaName")) {  // change old default Sofa name to current one
+        sofaID = CAS.NAME_DEFAULT_SOFA;
+      }
+      final CASImpl view = getOrCreateView(sofaID);
+      final Sofa sofa = view.getSofaRef();
+      sofaHolder[0] = sofa;
+      if (mimeType != null) {
+        sofa.setMimeType(mimeType);
+      }
+      if (sofaString != null) {
+        sofa.setLocalSofaDataNoDocAnnotUpdate(sofaString);
+      } else if (sofaURI != null) {
+        sofa.setRemoteSofaURI(sofaURI);
+      } else if (sofaArray[0] != null) {
+        sofa.setLocalSofaData(sofaArray[0]);
+      }
+      if (id > 0) {
+        sofaIdToView.put(id, view);
+      }
+      created(sofa, id, receiver);
+    }
+
+    /**
+     * Reads the features of an FS
+     * @param fs the FS
+     * @param view the view of the FS, for embedded AnnotationBase FSs without a sofa reference
+     * @param t the current token, the FIELD_NAME of the first feature, or END_OBJECT
+     */
+    private void readFeatures(TOP fs, CASImpl view, JsonToken t) throws IOException {
+      final TypeImpl type = fs._getTypeImpl();
+      for (; t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+        final String name = p.getCurrentName();
+        final FeatureImpl feat = type.getFeatureByBaseName(name);
+        p.nextToken();
+        if (feat == null) {
+          if (!lenient && name.charAt(0) != '_') {
+            throw error("unknown feature " + name + " for type " + type.getName());
+          }
+          p.skipChildren();
+          continue;
+        }
+        if (feat.getCode() == TypeSystemConstants.annotBaseSofaFeatCode) {
+          // the sofa was set when the FS was created, in its view; remember which view the sofa id is for
+          if (p.getCurrentToken() == JsonToken.VALUE_NUMBER_INT) {
+            sofaIdToView.putIfAbsent(p.getIntValue(), fs._casView);
+          }
+          p.skipChildren();
+          continue;
+        }
+        readFeatureValue(fs, feat, view);
+      }
+    }
+
+    private void readFeatureValue(TOP fs, FeatureImpl feat, CASImpl view) throws IOException {
+      final JsonToken t = p.getCurrentToken();
+      final TypeImpl range = feat.getRangeImpl();
+      final int featureClass = CasSerializerSupport.classifyType(range);
+
+      if (t == JsonToken.VALUE_NULL) {
+        switch (featureClass) {
+        case LowLevelCAS.TYPE_CLASS_STRING: fs.setStringValue(feat, null); break;
+        case LowLevelCAS.TYPE_CLASS_BOOLEAN:
+        case LowLevelCAS.TYPE_CLASS_BYTE:
+        case LowLevelCAS.TYPE_CLASS_SHORT:
+        case LowLevelCAS.TYPE_CLASS_INT:
+        case LowLevelCAS.TYPE_CLASS_LONG:
+        case LowLevelCAS.TYPE_CLASS_FLOAT:
+        case LowLevelCAS.TYPE_CLASS_DOUBLE: break;  // leave as is
+        default: fs.setFeatureValue(feat, null);
+        }
+        return;
+      }
+
+      switch (featureClass) {
+      case LowLevelCAS.TYPE_CLASS_BOOLEAN: fs.setBooleanValue(feat, p.getValueAsBoolean()); break;
+      case LowLevelCAS.TYPE_CLASS_BYTE:    fs.setByteValue(feat, (byte) p.getIntValue()); break;
+      case LowLevelCAS.TYPE_CLASS_SHORT:   fs.setShortValue(feat, p.getShortValue()); break;
+      case LowLevelCAS.TYPE_CLASS_INT:     fs.setIntValue(feat, p.getIntValue()); break;
+      case LowLevelCAS.TYPE_CLASS_LONG:    fs.setLongValue(feat, p.getLongValue()); break;
+      case LowLevelCAS.TYPE_CLASS_FLOAT:   fs.setFloatValue(feat, readFloat()); break;
+      case LowLevelCAS.TYPE_CLASS_DOUBLE:  fs.setDoubleValue(feat, readDouble()); break;
+      case LowLevelCAS.TYPE_CLASS_STRING:  fs.setStringValue(feat, p.getText()); break;
+
+      case LowLevelCAS.TYPE_CLASS_FS:
+        readFsRef(view, v -> fs.setFeatureValue(feat, v));
+        break;
+
+      case LowLevelCAS.TYPE_CLASS_INTARRAY:
+      case LowLevelCAS.TYPE_CLASS_FLOATARRAY:
+      case LowLevelCAS.TYPE_CLASS_BOOLEANARRAY:
+      case LowLevelCAS.TYPE_CLASS_BYTEARRAY:
+      case LowLevelCAS.TYPE_CLASS_SHORTARRAY:
+      case LowLevelCAS.TYPE_CLASS_LONGARRAY:
+      case LowLevelCAS.TYPE_CLASS_DOUBLEARRAY:
+      case LowLevelCAS.TYPE_CLASS_STRINGARRAY:
+      case LowLevelCAS.TYPE_CLASS_FSARRAY: {
+        if (t != JsonToken.START_ARRAY && t != JsonToken.VALUE_STRING) {
+          readFsRef(view, v -> fs.setFeatureValue(feat, v));  // a reference or an embedded array FS
+          break;
+        }
+        // an embedded array has no _type; use the plain FSArray type, as the range may be a typed array
+        final TOP array = (featureClass == LowLevelCAS.TYPE_CLASS_FSARRAY)
+                            ? readFsArray(cas.getTypeSystemImpl().getType(CAS.TYPE_NAME_FS_ARRAY), view)
+                            : readPrimitiveArray(range);
+        fs.setFeatureValue(feat, array);
+        sharedData.addNonsharedRefToFSMapping(array, fs);
+        break;
+      }
+
+      case CasSerializerSupport.TYPE_CLASS_INTLIST:
+      case CasSerializerSupport.TYPE_CLASS_FLOATLIST:
+      case CasSerializerSupport.TYPE_CLASS_STRINGLIST:
+      case CasSerializerSupport.TYPE_CLASS_FSLIST:
+        if (t != JsonToken.START_ARRAY) {
+          readFsRef(view, v -> fs.setFeatureValue(feat, v));  // a reference or an embedded list node
+          break;
+        }
+        readList(featureClass, view, v -> {
+          fs.setFeatureValue(feat, v);
+          if (v instanceof NonEmptyList) {
+            sharedData.addNonsharedRefToFSMapping(v, fs);
+          }
+        });
+        break;
+      default: throw error("unexpected range " + range.getName() + " for feature " + feat.getName());
+      }
+    }
+
+    /**
+     * Reads a reference to an FS: its id, or the FS itself, embedded
+     * @param view the view for embedded AnnotationBase FSs without a sofa reference
+     * @param setter receives the FS, perhaps later
+     */
+    private void readFsRef(CASImpl view, Consumer<TOP> setter) throws IOException {
+      switch (p.getCurrentToken()) {
+      case VALUE_NUMBER_INT: resolveRef(p.getIntValue(), setter); break;
+      case VALUE_NULL: setter.accept(null); break;
+      case START_OBJECT: readFs(null, null, view, 0, (fs, id) -> setter.accept(fs)); break;
+      default: throw error("expected an FS reference or an embedded FS");
+      }
+    }
+
+    private void resolveRef(final int id, Consumer<TOP> setter) {
+      if (id == 0) {
+        setter.accept(null);
+        return;
+      }
+      TOP fs = sharedData.getFsForXmiId(id);
+      if (fs != null) {
+        setter.accept(fs);
+        return;
+      }
+      fixups.add(() -> setter.accept(getFsForId(id)));
+    }
+
+    /**
+     * Called at the end, when all ids are known
+     */
+    private TOP getFsForId(int id) throws IOException {
+      TOP fs = sharedData.getFsForXmiId(id);
+      if (fs == null && id != 0 && !lenient) {
+        throw error("reference to unknown id: " + id);
+      }
+      return fs;
+    }
+
+    /*********************************************
+     *  Arrays and lists                          *
+     *********************************************/
+
+    /**
+     * @param type the array type
+     * @return a new array, from the JSON array or (for byte arrays) base64 string at the current token
+     */
+    private TOP readPrimitiveArray(TypeImpl type) throws IOException {
+      int n = 0;
+      switch (CasSerializerSupport.classifyType(type)) {
+      case LowLevelCAS.TYPE_CLASS_BYTEARRAY: {
+        byte[] a;
+        if (p.getCurrentToken() == JsonToken.VALUE_STRING) {
+          a = p.getBinaryValue();
+          n = a.length;
+        } else {
+          expect(JsonToken.START_ARRAY);
+          a = new byte[16];
+          for (; p.nextToken() != JsonToken.END_ARRAY; n++) {
+            a = (n == a.length) ? Arrays.copyOf(a, n * 2) : a;
+            a[n] = (byte) p.getIntValue();
+          }
+        }
+        ByteArray r = (ByteArray) cas.createArray(type, n);
+        r.copyFromArray(a, 0, 0, n);
+        return r;
+      }
+      case LowLevelCAS.TYPE_CLASS_BOOLEANARRAY: {
+        expect(JsonToken.START_ARRAY);
+        boolean[] a = new boolean[16];
+        for (; p.nextToken() != JsonToken.END_ARRAY; n++) {
+          a = (n == a.length) ? Arrays.copyOf(a, n * 2) : a;
+          a[n] = p.getValueAsBoolean();
+        }
+        BooleanArray r = (BooleanArray) cas.createArray(type, n);
+        r.copyFromArray(a, 0, 0, n);
+        return r;
+      }
+      case LowLevelCAS.TYPE_CLASS_SHORTARRAY: {
+        expect(JsonToken.START_ARRAY);
+        short[] a = new short[16];
+        for (; p.nextToken() != JsonToken.END_ARRAY; n++) {
+          a = (n == a.length) ? Arrays.copyOf(a, n * 2) : a;
+          a[n] = p.getShortValue();
+        }
+        ShortArray r = (ShortArray) cas.createArray(type, n);
+        r.copyFromArray(a, 0, 0, n);
+        return r;
+      }
+      case LowLevelCAS.TYPE_CLASS_INTARRAY: {
+        expect(JsonToken.START_ARRAY);
+        int[] a = new int[16];
+        for (; p.nextToken() != JsonToken.END_ARRAY; n++) {
+          a = (n == a.length) ? Arrays.copyOf(a, n * 2) : a;
+          a[n] = p.getIntValue();
+        }
+        IntegerArray r = (IntegerArray) cas.createArray(type, n);
+        r.copyFromArray(a, 0, 0, n);
+        return r;
+      }
+      case LowLevelCAS.TYPE_CLASS_LONGARRAY: {
+        expect(JsonToken.START_ARRAY);
+        long[] a = new long[16];
+        for (; p.nextToken() != JsonToken.END_ARRAY; n++) {
+          a = (n == a.length) ? Arrays.copyOf(a, n * 2) : a;
+          a[n] = p.getLongValue();
+        }
+        LongArray r = (LongArray) cas.createArray(type, n);
+        r.copyFromArray(a, 0, 0, n);
+        return r;
+      }
+      case LowLevelCAS.TYPE_CLASS_FLOATARRAY: {
+        expect(JsonToken.START_ARRAY);
+        float[] a = new float[16];
+        for (; p.nextToken() != JsonToken.END_ARRAY; n++) {
+          a = (n == a.length) ? Arrays.copyOf(a, n * 2) : a;
+          a[n] = readFloat();
+        }
+        FloatArray r = (FloatArray) cas.createArray(type, n);
+        r.copyFromArray(a, 0, 0, n);
+        return r;
+      }
+      case LowLevelCAS.TYPE_CLASS_DOUBLEARRAY: {
+        expect(JsonToken.START_ARRAY);
+        double[] a = new double[16];
+        for (; p.nextToken() != JsonToken.END_ARRAY; n++) {
+          a = (n == a.length) ? Arrays.copyOf(a, n * 2) : a;
+          a[n] = readDouble();
+        }
+        DoubleArray r = (DoubleArray) cas.createArray(type, n);
+        r.copyFromArray(a, 0, 0, n);
+        return r;
+      }
+      case LowLevelCAS.TYPE_CLASS_STRINGARRAY: {
+        expect(JsonToken.START_ARRAY);
+        String[] a = new String[16];
+        for (; p.nextToken() != JsonToken.END_ARRAY; n++) {
+          a = (n == a.length) ? Arrays.copyOf(a, n * 2) : a;
+          a[n] = (p.getCurrentToken() == JsonToken.VALUE_NULL) ? null : p.getText();
+        }
+        StringArray r = (StringArray) cas.createArray(type, n);
+        r.copyFromArray(a, 0, 0, n);
+        return r;
+      }
+      default: throw error("unexpected array type " + type.getName());
+      }
+    }
+
+    /**
+     * @param type the FSArray type
+     * @param view the view for embedded AnnotationBase elements without a sofa reference
+     * @return a new FSArray, from the JSON array at the current token
+     */
+    @SuppressWarnings("unchecked")
+    private FSArray<TOP> readFsArray(TypeImpl type, CASImpl view) throws IOException {
+      FsElements e = readFsElements(view);
+      FSArray<TOP> array = (FSArray<TOP>) cas.createArray(type, e.size);
+      for (int i = 0; i < e.size; i++) {
+        array.set(i, e.fss[i]);
+      }
+      e.array = array;  // elements resolved later go directly into the array
+      return array;
+    }
+
+    private FsElements readFsElements(CASImpl view) throws IOException {
+      expect(JsonToken.START_ARRAY);
+      final FsElements e = new FsElements();
+      while (p.nextToken() != JsonToken.END_ARRAY) {
+        final int i = e.add();
+        final boolean[] isSet = new boolean[1];
+        readFsRef(view, fs -> {
+          e.set(i, fs);
+          isSet[0] = true;
+        });
+        if (!isSet[0]) {
+          e.hasPending = true;
+        }
+      }
+      return e;
+    }
+
+    /**
+     * Builds a list from the values in the JSON array at the current token.
+     * An empty JSON array is the empty list.
+     *
+     * For FSLists, the serializer may write the list nodes themselves as the elements;
+     * if the first element is a list node, it is the list.
+     *
+     * @param featureClass the kind of list
+     * @param view the view for embedded AnnotationBase elements without a sofa reference
+     * @param setter receives the list, perhaps later
+     */
+    private void readList(int featureClass, CASImpl view, Consumer<TOP> setter) throws IOException {
+      int n = 0;
+      switch (featureClass) {
+      case CasSerializerSupport.TYPE_CLASS_INTLIST: {
+        int[] a = new int[16];
+        for (; p.nextToken() != JsonToken.END_ARRAY; n++) {
+          a = (n == a.length) ? Arrays.copyOf(a, n * 2) : a;
+          a[n] = p.getIntValue();
+        }
+        IntegerList l = cas.emptyIntegerList();
+        while (n > 0) {
+          l = l.push(a[--n]);
+        }
+        setter.accept(l);
+        break;
+      }
+      case CasSerializerSupport.TYPE_CLASS_FLOATLIST: {
+        float[] a = new float[16];
+        for (; p.nextToken() != JsonToken.END_ARRAY; n++) {
+          a = (n == a.length) ? Arrays.copyOf(a, n * 2) : a;
+          a[n] = readFloat();
+        }
+        FloatList l = cas.emptyFloatList();
+        while (n > 0) {
+          l = l.push(a[--n]);
+        }
+        setter.accept(l);
+        break;
+      }
+      case CasSerializerSupport.TYPE_CLASS_STRINGLIST: {
+        String[] a = new String[16];
+        for (; p.nextToken() != JsonToken.END_ARRAY; n++) {
+          a = (n == a.length) ? Arrays.copyOf(a, n * 2) : a;
+          a[n] = (p.getCurrentToken() == JsonToken.VALUE_NULL) ? null : p.getText();
+        }
+        StringList l = cas.emptyStringList();
+        while (n > 0) {
+          l = l.push(a[--n]);
+        }
+        setter.accept(l);
+        break;
+      }
+      default: {  // FSList
+        final FsElements e = readFsElements(view);
+        if (!e.hasPending) {
+          setter.accept(makeFsList(e));
+        } else {
+          // decide when all the elements are known; this fixup runs after those setting the elements
+          fixups.add(() -> setter.accept(makeFsList(e)));
+        }
+      }
+      }
+    }
+
+    private FSList<TOP> makeFsList(FsElements e) {
+      if (e.size > 0 && e.fss[0] instanceof FSList) {
+        @SuppressWarnings("unchecked")
+        FSList<TOP> l = (FSList<TOP>) e.fss[0];
+        return l;   // elements are the list nodes
+      }
+      FSList<TOP> l = cas.emptyFSList();
+      for (int i = e.size - 1; i >= 0; i--) {
+        l = l.push(e.fss[i]);
+      }
+      return l;
+    }
+
+    /*********************************************
+     *  Index updates                             *
+     *********************************************/
+
+    private void updateIndexes() throws IOException {
+      if (deltaAdds == null) {
+        // not a delta CAS: the _views have all the view members
+        for (IndexUpdate u : viewMembers) {
+          TOP fs = (u.fs != null) ? u.fs : getFsForId(u.id);
+          if (fs == null || !isAllowedViewMember(u.isNewView, u.id)) {
+            continue;
+          }
+          u.view.addFsToIndexes(fs);
+        }
+        return;
+      }
+
+      for (IndexUpdate u : deltaAdds) {
+        DeltaIndexUpdate du = (DeltaIndexUpdate) u;
+        if (!isAllowedViewMember(du.isNewView || du.isNewSofa(), du.id)) {
+          continue;
+        }
+        TOP fs = getFsForId(du.id);
+        if (fs != null) {
+          du.getView().addFsToIndexes(fs);
+        }
+      }
+      for (IndexUpdate u : deltaRemoves) {
+        DeltaIndexUpdate du = (DeltaIndexUpdate) u;
+        if (!isAllowedViewMember(false, du.id)) {
+          continue;
+        }
+        TOP fs = getFsForId(du.id);
+        if (fs != null) {
+          du.getView().removeFsFromIndexes(fs);
+        }
+      }
+    }
+
+    /**
+     * Preexisting FSs in preexisting views are handled as specified by allowPreexistingFS
+     */
+    private boolean isAllowedViewMember(boolean isNewView, int id) {
+      if (isNewView || isNewFs(id)) {
+        return true;
+      }
+      if (allowPreexistingFS == AllowPreexistingFS.disallow) {
+        disallowedViewMemberEncountered = true;
+        return false;
+      }
+      return allowPreexistingFS == AllowPreexistingFS.allow;
+    }
+
+    /**
+     * A delta view member; the view is known from the sofa id once all sofas have been read
+     */
+    private class DeltaIndexUpdate extends IndexUpdate {
+      final int sofaId;
+
+      DeltaIndexUpdate(int sofaId, boolean isNewView, int id) {
+        super(null, isNewView, null, id);
+        this.sofaId = sofaId;
+      }
+
+      boolean isNewSofa() {
+        return sofaId != 0 && isNewFs(sofaId);
+      }
+
+      CASImpl getView() throws IOException {
+        if (sofaId == 0) {
+          return (CASImpl) cas.getView(CAS.NAME_DEFAULT_SOFA);
+        }
+        CASImpl view = getViewForSofaId(sofaId);
+        if (view == null) {
+          throw error("reference to unknown sofa: " + sofaId);
+        }
+        return view;
+      }
+    }
+
+    /*********************************************
+     *  Utilities                                 *
+     *********************************************/
+
+    private boolean isNewFs(int id) {
+      return id <= 0 || id > mergePoint;
+    }
+
+    private boolean isEmptyList(TypeImpl type) {
+      switch (type.getCode()) {
+      case TypeSystemConstants.fsEListTypeCode:
+      case TypeSystemConstants.floatEListTypeCode:
+      case TypeSystemConstants.intEListTypeCode:
+      case TypeSystemConstants.stringEListTypeCode: return true;
+      default: return false;
+      }
+    }
+
+    private CASImpl getOrCreateView(String viewName) {
+      CASImpl view = views.get(viewName);
+      if (view == null) {
+        if (CAS.NAME_DEFAULT_SOFA.equals(viewName)) {
+          view = (CASImpl) cas.getView(CAS.NAME_DEFAULT_SOFA);
+        } else {
+          try {
+            view = (CASImpl) cas.getView(viewName);
+          } catch (CASRuntimeException e) {
+            view = (CASImpl) cas.createView(viewName);
+            newViews.add(view);
+          }
+        }
+        views.put(viewName, view);
+      }
+      return view;
+    }
+
+    /**
+     * @param sofaId the id of a Sofa
+     * @return the view, or null if not (yet) known
+     */
+    private CASImpl getViewForSofaId(int sofaId) {
+      CASImpl view = sofaIdToView.get(sofaId);
+      if (view == null) {
+        TOP fs = sharedData.getFsForXmiId(sofaId);
+        if (fs instanceof Sofa) {
+          view = cas.getView((Sofa) fs);
+          sofaIdToView.put(sofaId, view);
+        }
+      }
+      return view;
+    }
+
+    /**
+     * @param name a type name, as used in the serialized form:
+     *   a name from the _context, a full name, or a short name, maybe with a namespace prefix
+     * @return the type, or null if lenient and the type isn't in the type system
+     */
+    private TypeImpl getType(String name) throws IOException {
+      TypeImpl type = typeCache.get(name);
+      if (type != null) {
+        return type;
+      }
+      final String fullName = contextTypeNames.get(name);
+      if (fullName != null) {
+        type = tsi.getType(fullName);
+      } else {
+        type = tsi.getType(name);
+        if (type == null) {
+          final int colon = name.lastIndexOf(':');  // a namespace prefix, only resolvable from the _context
+          type = getShortNameToType().get((colon < 0) ? name : name.substring(colon + 1));
+        }
+      }
+      if (type == null) {
+        if (!lenient) {
+          throw error("unknown or ambiguous type: " + name);
+        }
+        return null;
+      }
+      typeCache.put(name, type);
+      return type;
+    }
+
+    private Map<String, TypeImpl> getShortNameToType() {
+      if (shortNameToType == null) {
+        shortNameToType = new HashMap<>();
+        for (Iterator<Type> it = tsi.getTypeIterator(); it.hasNext();) {
+          TypeImpl ti = (TypeImpl) it.next();
+          String shortName = ti.getShortName();
+          shortNameToType.put(shortName, shortNameToType.containsKey(shortName) ? AMBIGUOUS : ti);
+        }
+      }
+      return shortNameToType;
+    }
+
+    private float readFloat() throws IOException {
+      return (p.getCurrentToken() == JsonToken.VALUE_STRING)
+               ? Float.parseFloat(p.getText())  // NaN, Infinity, -Infinity
+               : p.getFloatValue();
+    }
+
+    private double readDouble() throws IOException {
+      return (p.getCurrentToken() == JsonToken.VALUE_STRING)
+               ? Double.parseDouble(p.getText())
+               : p.getDoubleValue();
+    }
+
+    private int parseId(String s) throws IOException {
+      try {
+        return Integer.parseInt(s);
+      } catch (NumberFormatException e) {
+        throw error("not an id: " + s);
+      }
+    }
+
+    /**
+     * skips to the END_OBJECT of the current object, from the last token read in it
+     */
+    private void skipRestOfObject() throws IOException {
+      JsonToken t = p.getCurrentToken();
+      if (t == JsonToken.END_OBJECT) {
+        return;
+      }
+      if (t == JsonToken.FIELD_NAME) {
+        p.nextToken();
+      }
+      p.skipChildren();
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        p.nextToken();
+        p.skipChildren();
+      }
+    }
+
+    private void expect(JsonToken t) throws IOException {
+      if (p.getCurrentToken() != t) {
+        throw error("expected " + t + " but found " + p.getCurrentToken());
+      }
+    }
+
+    private JsonParseException error(String msg) {
+      return new JsonParseException(p, msg);
+    }
+  }
+}
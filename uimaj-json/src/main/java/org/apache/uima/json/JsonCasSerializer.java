@@ -265,7 +265,7 @@ public class JsonCasSerializer {
    *          the mark was set. Used to serialize a Delta CAS consisting of only new FSs and views and
    *          preexisting FSs and Views that have been modified.  If null, full serialization is done.        
    *          See the JavaDocs for {@link Marker} for details.
-   * @param sharedData optional, used for delta serialization (not yet supported)
+   * @param sharedData optional, used for delta serialization; when supplied, every FS is written with its id
    * @throws IOException if there was an IOException
    */
   public static void jsonSerialize(CAS aCAS, TypeSystem aTargetTypeSystem, Object output, boolean aPrettyPrint, 
@@ -500,9 +500,12 @@ public class JsonCasSerializer {
 
     private boolean startedFeatureTypes;
     
+    private final boolean isWithIds;  // true to write the _id of FSs which are not keyed by their id
     
     private JsonDocSerializer(ContentHandler ch, CASImpl cas, XmiSerializationSharedData sharedData, MarkerImpl marker) {
-      cds = css.new CasDocSerializer(ch, cas, sharedData, marker, this, JsonCasSerializer.this.isDynamicEmbedding);
+      // delta requires static embedding mode: a reference to a preexisting FS has to be written as its id
+      cds = css.new CasDocSerializer(ch, cas, sharedData, marker, this, JsonCasSerializer.this.isDynamicEmbedding && marker == null);
+      isWithIds = sharedData != null || marker != null;
       this.isOmitDefaultValues = JsonCasSerializer.this.isOmit0Values;  
       isWithSubtypes = JsonCasSerializer.this.isWithSubtypes; 
       jch = (JsonContentHandlerJacksonWrapper) ch;
@@ -514,7 +517,7 @@ public class JsonCasSerializer {
     @Override
     protected void initializeNamespaces() {
       if (cds.sharedData != null &&
-          (null != cds.sharedData.getOutOfTypeSystemElements() ||
+          (!cds.sharedData.getOutOfTypeSystemElements().isEmpty() ||
            cds.sharedData.hasOutOfTypeSystemArrayElements())) {
         throw new UnsupportedOperationException("Can't do JSON serialization "
             + "if there are out-of-type-system elements,"
@@ -949,12 +952,18 @@ public class JsonCasSerializer {
        jg.writeNumber(cds.getXmiIdAsInt(fs));      
     }    
 
-//    private void maybeWriteIdFeat(int addr) throws IOException {
-//      if (!omitId) {
-//        jg.writeFieldName(ID_NAME);
-//        jg.writeNumber(cds.getXmiIdAsInt(addr));
-//      }
-//    }
+    /**
+     * When ids are being tracked for delta CAS use, FSs in the _views and embedded FSs
+     * get an _id, because they aren't otherwise identified
+     * @param fs the FS being written
+     * @throws IOException
+     */
+    private void maybeWriteIdFeat(TOP fs) throws IOException {
+      if (isWithIds && (!indexId || isEmbedded)) {
+        jg.writeFieldName(ID_NAME);
+        jg.writeNumber(cds.getXmiIdAsInt(fs));
+      }
+    }
     
     private void maybeWriteTypeFeat(TypeImpl ti) throws IOException {
       if (indexId || isEmbedded) {
@@ -976,8 +985,8 @@ public class JsonCasSerializer {
     private void writeFsOrLists(TOP fs, TypeImpl ti, boolean isListAsFSs) throws IOException {
       final FeatureImpl[] feats = ti.getFeatureImpls();
       
-//      maybeWriteIdFeat(addr);
       maybeWriteTypeFeat(ti);
+      maybeWriteIdFeat(fs);
       
       for (final FeatureImpl feat : feats) {
 
@@ -1072,6 +1081,10 @@ public class JsonCasSerializer {
       jg.writeFieldName(getShortFeatureName(fi));
       if (isDynamicOrStaticMultiRef(fi, array)) {
         jg.writeNumber(cds.getXmiIdAsInt(array));
+      } else if (isWithIds && cds.isStaticMultiRef(fi)) {
+        // other FSs may refer to this array later on, so keep its id by embedding it as an FS
+        isEmbeddedFromFsFeature = false;
+        writeEmbeddedFs(array);
       } else {
         writeJsonArrayValues(array, featureClass);
       }
@@ -1146,8 +1159,8 @@ public class JsonCasSerializer {
      */
     @Override
     protected void writeArrays(TOP fs, int typeCode, int typeClass) throws IOException {
-//      maybeWriteIdFeat(addr);
       maybeWriteTypeFeat(fs._getTypeImpl());
+      maybeWriteIdFeat(fs);
 
       jg.writeFieldName(COLLECTION_NAME);            
       writeJsonArrayValues(fs, typeClass);
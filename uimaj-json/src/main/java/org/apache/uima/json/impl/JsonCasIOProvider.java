@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.uima.json.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.SerialFormat;
+import org.apache.uima.json.JsonCasDeserializer;
+import org.apache.uima.json.JsonCasSerializer;
+import org.apache.uima.util.CasIOProvider;
+import org.apache.uima.util.CasLoadMode;
+
+/**
+ * Makes the JSON format available to the CasIOUtils load and save methods,
+ * as SerialFormat.JSON.  Registered in META-INF/services.
+ */
+public class JsonCasIOProvider implements CasIOProvider {
+
+  @Override
+  public SerialFormat getSerialFormat() {
+    return SerialFormat.JSON;
+  }
+
+  /**
+   * JSON CASes are JSON objects; the other formats never start with a '{'
+   */
+  @Override
+  public boolean isLoadable(byte[] firstPartOfFile, int length) {
+    for (int i = 0; i < length; i++) {
+      switch (firstPartOfFile[i]) {
+      case ' ': case '\t': case '\r': case '\n': continue;
+      case '{': return true;
+      default: return false;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void load(InputStream casInputStream, CAS aCAS, CasLoadMode casLoadMode) throws IOException {
+    JsonCasDeserializer.jsonDeserialize(aCAS, casInputStream, casLoadMode == CasLoadMode.LENIENT);
+  }
+
+  @Override
+  public void save(CAS aCas, OutputStream docOS) throws IOException {
+    JsonCasSerializer.jsonSerialize(aCas, docOS);
+  }
+}
@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.uima.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import junit.framework.TestCase;
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.ArrayFS;
+import org.apache.uima.cas.ByteArrayFS;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.FeatureStructure;
+import org.apache.uima.cas.Marker;
+import org.apache.uima.cas.SerialFormat;
+import org.apache.uima.cas.impl.AllowPreexistingFS;
+import org.apache.uima.cas.impl.CASImpl;
+import org.apache.uima.cas.impl.CasCompare;
+import org.apache.uima.cas.impl.TypeImpl;
+import org.apache.uima.cas.impl.TypeSystemImpl;
+import org.apache.uima.cas.impl.XmiSerializationSharedData;
+import org.apache.uima.cas.text.AnnotationFS;
+import org.apache.uima.json.JsonCasSerializer.JsonContextFormat;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.test.junit_extension.JUnitExtension;
+import org.apache.uima.util.CasCreationUtils;
+import org.apache.uima.util.CasIOUtils;
+import org.apache.uima.util.XMLInputSource;
+
+/**
+ * Round trips CASes through the JSON serializer and deserializer, and compares the result with the original.
+ */
+public class JsonCasDeserializerTest extends TestCase {
+
+  private CASImpl cas;
+  private CASImpl cas2;
+  private TypeSystemImpl tsi;
+  private TypeImpl allTypesType;
+  private JsonCasSerializer jcs;
+
+  protected void setUp() throws Exception {
+    File tsdFile = JUnitExtension.getFile("CasSerialization/desc/allTypes.xml");
+    TypeSystemDescription tsd = UIMAFramework.getXMLParser().parseTypeSystemDescription(new XMLInputSource(tsdFile));
+    cas = (CASImpl) CasCreationUtils.createCas(tsd, null, null);
+    cas2 = (CASImpl) CasCreationUtils.createCas(tsd, null, null);
+    tsi = cas.getTypeSystemImpl();
+    allTypesType = (TypeImpl) tsi.getType("org.apache.uima.test.AllTypes");
+    jcs = new JsonCasSerializer().setPrettyPrint(true);
+  }
+
+  public void testAllValues() throws Exception {
+    makeAllValues(cas, 0);
+    roundTrip();
+
+    jcs.setOmit0Values(true);
+    roundTrip();
+  }
+
+  public void testContextFormats() throws Exception {
+    makeAllValues(cas, 1);
+    jcs.setJsonContext(JsonContextFormat.omitContext);
+    roundTrip();
+
+    jcs.setJsonContext(JsonContextFormat.omitExpandedTypeNames);
+    roundTrip();
+  }
+
+  public void testMultipleViews() throws Exception {
+    cas.setDocumentText("the text of the initial view");
+    makeAllValues(cas, 0);
+    CAS view2 = cas.createView("View2");
+    view2.setDocumentText("and of View2");
+    AnnotationFS a = view2.createAnnotation(view2.getAnnotationType(), 4, 6);
+    view2.addFsToIndexes(a);
+    makeAllValues((CASImpl) view2, 1);
+    roundTrip();
+
+    CAS v2 = cas2.getView("View2");
+    assertEquals("and of View2", v2.getDocumentText());
+    assertEquals("the text of the initial view", cas2.getDocumentText());
+    assertEquals(3, v2.getAnnotationIndex().size());  // the document annotation, a, and the AllTypes
+  }
+
+  public void testLists() throws Exception {
+    TypeImpl emptyIntList = tsi.getType(CAS.TYPE_NAME_EMPTY_INTEGER_LIST);
+    TypeImpl intList = tsi.getType(CAS.TYPE_NAME_NON_EMPTY_INTEGER_LIST);
+    FeatureStructure l0 = cas.createFS(emptyIntList);
+    FeatureStructure l1 = intListNode(intList, 33, l0);
+    FeatureStructure l2 = intListNode(intList, 22, l1);
+    FeatureStructure l3 = intListNode(intList, 11, l2);
+    FeatureStructure l4 = intListNode(intList, 110, l2);  // joins at l2
+    cas.addFsToIndexes(l3);
+    cas.addFsToIndexes(l4);
+    roundTrip();
+
+    jcs.setStaticEmbedding();
+    roundTrip();
+  }
+
+  public void testLenient() throws Exception {
+    String json = "{\"_context\" : {\"_types\" : {\"Unknown\" : {\"_id\" : \"org.apache.uima.test.Unknown\"}}},\n"
+        + " \"_views\" : {\"_InitialView\" : {\"Unknown\" : [{\"x\" : 1}],\n"
+        + "                                 \"Annotation\" : [{\"begin\" : 0, \"end\" : 3, \"unknownFeature\" : [1, 2]}]}},\n"
+        + " \"_referenced_fss\" : {\"1\" : {\"_type\" : \"Sofa\", \"sofaNum\" : 1, \"sofaID\" : \"_InitialView\", \"sofaString\" : \"abc\"}}}";
+    try {
+      JsonCasDeserializer.jsonDeserialize(cas2, new StringReader(json));
+      fail("expected an exception for the unknown type");
+    } catch (IOException e) {
+      // expected
+    }
+    JsonCasDeserializer.jsonDeserialize(cas2, new StringReader(json), true);
+    assertEquals("abc", cas2.getDocumentText());
+    assertEquals(2, cas2.getAnnotationIndex().size());  // the Annotation and the document annotation
+  }
+
+  public void testDelta() throws Exception {
+    makeAllValues(cas, 0);
+
+    // send the whole CAS to a "service", each side keeping the ids
+    XmiSerializationSharedData clientSharedData = new XmiSerializationSharedData();
+    StringWriter sw = new StringWriter();
+    jcs.serialize(cas, sw, clientSharedData, null);
+    XmiSerializationSharedData serviceSharedData = new XmiSerializationSharedData();
+    new JsonCasDeserializer().deserialize(cas2, new StringReader(sw.toString()), serviceSharedData, -1, AllowPreexistingFS.allow);
+
+    // the service adds some FSs referring to preexisting ones, and updates a preexisting one
+    Marker marker = cas2.createMarker();
+    FeatureStructure preexisting = cas2.getIndexRepository().getAllIndexedFS(allTypesType).get();
+    FeatureStructure fs = cas2.createFS(allTypesType);
+    fs.setStringValue(allTypesType.getFeatureByBaseName("aString"), "added by the service");
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aFS"), preexisting.getFeatureValue(allTypesType.getFeatureByBaseName("aFS")));
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aArrayMrString"), cas2.createStringArrayFS(2));
+    cas2.addFsToIndexes(fs);
+    cas2.removeFsFromIndexes(preexisting);
+    preexisting.setIntValue(allTypesType.getFeatureByBaseName("aInteger"), 42);
+    cas2.addFsToIndexes(preexisting);
+    sw = new StringWriter();
+    jcs.serialize(cas2, sw, serviceSharedData, marker);
+
+    // which the client merges into its CAS
+    int mergePoint = clientSharedData.getMaxXmiId();
+    new JsonCasDeserializer().deserialize(cas, new StringReader(sw.toString()), clientSharedData, mergePoint, AllowPreexistingFS.allow);
+    assertTrue(CasCompare.compareCASes(cas2, cas));
+  }
+
+  public void testCasIOUtils() throws Exception {
+    makeAllValues(cas, 0);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    CasIOUtils.save(cas, baos, SerialFormat.JSON);
+    SerialFormat format = CasIOUtils.load(new ByteArrayInputStream(baos.toByteArray()), cas2);
+    assertEquals(SerialFormat.JSON, format);
+    assertTrue(CasCompare.compareCASes(cas, cas2));
+  }
+
+  private void roundTrip() throws Exception {
+    String r = serialize(cas);
+    JsonCasDeserializer.jsonDeserialize(cas2, new StringReader(r));
+    assertTrue(CasCompare.compareCASes(cas, cas2));
+  }
+
+  private String serialize(CAS c) throws IOException {
+    StringWriter sw = new StringWriter();
+    jcs.serialize(c, sw);
+    return sw.toString();
+  }
+
+  private FeatureStructure intListNode(TypeImpl intList, int v, FeatureStructure next) {
+    FeatureStructure fs = cas.createFS(intList);
+    fs.setIntValue(intList.getFeatureByBaseName("head"), v);
+    fs.setFeatureValue(intList.getFeatureByBaseName("tail"), next);
+    return fs;
+  }
+
+  private void makeAllValues(CASImpl c, int v) {
+    boolean s1 = v == 0;
+    FeatureStructure fs = c.createFS(allTypesType);
+    FeatureStructure fs2 = c.createFS(allTypesType);
+
+    fs.setBooleanValue(allTypesType.getFeatureByBaseName("aBoolean"), s1);
+    fs.setByteValue   (allTypesType.getFeatureByBaseName("aByte"), s1 ? (byte) -117 : (byte) 0);
+    fs.setShortValue  (allTypesType.getFeatureByBaseName("aShort"), s1 ? (short) -112 : (short) 0);
+    fs.setIntValue    (allTypesType.getFeatureByBaseName("aInteger"), s1 ? 0 : 1);
+    fs.setLongValue   (allTypesType.getFeatureByBaseName("aLong"), s1 ? 1234 : 4321);
+    fs.setFloatValue  (allTypesType.getFeatureByBaseName("aFloat"), s1 ? 1.3F : Float.NaN);
+    fs.setDoubleValue (allTypesType.getFeatureByBaseName("aDouble"), s1 ? 2.6 : Double.NEGATIVE_INFINITY);
+    fs.setStringValue (allTypesType.getFeatureByBaseName("aString"), "some \"String\"");
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aFS"), fs2);
+
+    FeatureStructure aByte = c.createByteArrayFS(s1 ? 2 : 0);
+    if (s1) {
+      ((ByteArrayFS) aByte).set(0, (byte) 15);
+      ((ByteArrayFS) aByte).set(1, (byte) 0xee);
+    }
+    FeatureStructure aFs = c.createArrayFS(3);
+    ((ArrayFS) aFs).set(0, fs2);
+    ((ArrayFS) aFs).set(2, c.createFS(allTypesType));
+
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aArrayBoolean"), c.createBooleanArrayFS(s1 ? 1 : 0));
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aArrayByte"), aByte);
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aArrayShort"), c.createShortArrayFS(s1 ? 0 : 2));
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aArrayString"), c.createStringArrayFS(s1 ? 1 : 0));
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aArrayMrByte"), c.createByteArrayFS(1));
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aArrayFS"), aFs);
+
+    FeatureStructure lString0 = c.createFS(tsi.getType(CAS.TYPE_NAME_NON_EMPTY_STRING_LIST));
+    lString0.setStringValue(tsi.getFeatureByFullName(CAS.TYPE_NAME_NON_EMPTY_STRING_LIST + ":head"), "testStr");
+    lString0.setFeatureValue(tsi.getFeatureByFullName(CAS.TYPE_NAME_NON_EMPTY_STRING_LIST + ":tail"),
+        c.createFS(tsi.getType(CAS.TYPE_NAME_EMPTY_STRING_LIST)));
+    FeatureStructure lFs0 = c.createFS(tsi.getType(CAS.TYPE_NAME_NON_EMPTY_FS_LIST));
+    lFs0.setFeatureValue(tsi.getFeatureByFullName(CAS.TYPE_NAME_NON_EMPTY_FS_LIST + ":head"), fs2);
+    lFs0.setFeatureValue(tsi.getFeatureByFullName(CAS.TYPE_NAME_NON_EMPTY_FS_LIST + ":tail"),
+        c.createFS(tsi.getType(CAS.TYPE_NAME_EMPTY_FS_LIST)));
+
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aListInteger"), c.createFS(tsi.getType(CAS.TYPE_NAME_EMPTY_INTEGER_LIST)));
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aListString"), lString0);
+    fs.setFeatureValue(allTypesType.getFeatureByBaseName("aListFs"), lFs0);
+
+    c.addFsToIndexes(fs);
+  }
+}